@@ -0,0 +1,67 @@
+//src/main/java/battle/AliveMask.java
+
+package battle;
+
+import java.util.List;
+
+import battle.Node.Unit;
+
+/**
+ * Helpers for alive masks: bit i of word i >>> 6 is set when unit i has
+ * health left. Armies of up to 64 units fit in a single long (an array of
+ * length one, which the hot loops special-case); larger armies use one word
+ * per 64 units. Callers enumerate living units with
+ * Long.numberOfTrailingZeros and clear the lowest bit, so the cost is
+ * proportional to the units still alive rather than to the army size.
+ */
+final class AliveMask {
+    private AliveMask() {
+    }
+
+    static long[] of(int[] health) {
+        long[] words = new long[words(health.length)];
+        for (int i = 0; i < health.length; i++) {
+            if (health[i] > 0) set(words, i);
+        }
+        return words;
+    }
+
+    static long[] of(List<Unit> army) {
+        long[] words = new long[words(army.size())];
+        for (int i = 0; i < army.size(); i++) {
+            if (army.get(i).isAlive()) set(words, i);
+        }
+        return words;
+    }
+
+    /**
+     * Words needed for {@code units} units (at least one, so an empty army
+     * still has a mask).
+     */
+    static int words(int units) {
+        return Math.max(1, (units + 63) >>> 6);
+    }
+
+    static void set(long[] words, int unit) {
+        words[unit >>> 6] |= 1L << unit;
+    }
+
+    static void clear(long[] words, int unit) {
+        words[unit >>> 6] &= ~(1L << unit);
+    }
+
+    static boolean isEmpty(long[] words) {
+        for (long word : words) {
+            if (word != 0) return false;
+        }
+        return true;
+    }
+
+    static int count(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
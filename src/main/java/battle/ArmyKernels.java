@@ -0,0 +1,145 @@
+//src/main/java/battle/ArmyKernels.java
+
+package battle;
+
+/**
+ * Bulk operations over one army's health array, the inner loops of large
+ * battles: summing health, finding which units a blow of a given damage
+ * kills, and scoring every target for an attacker at once.
+ *
+ * Two implementations exist: a scalar one and one on the incubating Vector
+ * API (jdk.incubator.vector), which processes a full SIMD register of units
+ * per instruction. get() selects at class-initialization time: the vector
+ * kernels when the module is present (run with --add-modules
+ * jdk.incubator.vector) and not disabled with -Dbattle.kernels=scalar,
+ * otherwise the scalar ones. Below a crossover length (default 32 units,
+ * -Dbattle.kernels.minUnits=n) the vector kernels delegate to the scalar
+ * loops, where SIMD setup costs more than it saves; VectorKernelBenchmark in
+ * the tests measures where the crossover lies on a given machine.
+ *
+ * Both implementations return identical results for every input.
+ */
+public abstract class ArmyKernels {
+    /** Score bonus of a killing blow in bestTarget; damage must stay below it. */
+    static final int KILL_BONUS = 1 << 30;
+
+    private static final ArmyKernels SCALAR = new Scalar();
+    private static final ArmyKernels VECTOR = loadVector();
+    private static final ArmyKernels SELECTED =
+            VECTOR != null && !"scalar".equals(System.getProperty("battle.kernels")) ? VECTOR : SCALAR;
+
+    /**
+     * The kernels the engines use.
+     */
+    public static ArmyKernels get() {
+        return SELECTED;
+    }
+
+    public static ArmyKernels scalar() {
+        return SCALAR;
+    }
+
+    /**
+     * The vector kernels, or null when jdk.incubator.vector is not available.
+     */
+    public static ArmyKernels vector() {
+        return VECTOR;
+    }
+
+    /**
+     * Short name for reports, "scalar" or "vector(<lanes> lanes)".
+     */
+    public abstract String name();
+
+    /**
+     * Sum of all health values.
+     */
+    public abstract int sumHealth(int[] health);
+
+    /**
+     * Set bit i of {@code mask} (cleared first, one word per 64 units, see
+     * AliveMask) for every living unit that a blow of {@code damage} would
+     * kill, i.e. 0 < health[i] <= damage.
+     *
+     * @return number of such units
+     */
+    public abstract int killMask(int[] health, int damage, long[] mask);
+
+    /**
+     * Best target for an attacker dealing {@code damage}: killing blows
+     * first, then the most damage dealt, ties to the lowest index. Dead
+     * units are never chosen.
+     *
+     * @return target index, or -1 if every unit is dead
+     */
+    public abstract int bestTarget(int[] health, int damage);
+
+    /**
+     * Score bestTarget maximizes for one target (negative for a dead one).
+     */
+    static int targetScore(int health, int damage) {
+        if (health <= 0) return -1;
+        return health <= damage ? KILL_BONUS + health : damage;
+    }
+
+    private static ArmyKernels loadVector() {
+        try {
+            int minUnits = Integer.getInteger("battle.kernels.minUnits", 32);
+            return (ArmyKernels) Class.forName("battle.VectorArmyKernels")
+                    .getDeclaredConstructor(int.class).newInstance(minUnits);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null; // module not resolved: scalar only
+        }
+    }
+
+    // Plain loops; also the tails and short arrays of the vector kernels
+    static final class Scalar extends ArmyKernels {
+        @Override
+        public String name() {
+            return "scalar";
+        }
+
+        @Override
+        public int sumHealth(int[] health) {
+            return sumHealth(health, 0, 0);
+        }
+
+        int sumHealth(int[] health, int from, int sum) {
+            for (int i = from; i < health.length; i++) {
+                sum += health[i];
+            }
+            return sum;
+        }
+
+        @Override
+        public int killMask(int[] health, int damage, long[] mask) {
+            java.util.Arrays.fill(mask, 0L);
+            return killMask(health, damage, mask, 0);
+        }
+
+        int killMask(int[] health, int damage, long[] mask, int from) {
+            int count = 0;
+            for (int i = from; i < health.length; i++) {
+                if (health[i] > 0 && health[i] <= damage) {
+                    AliveMask.set(mask, i);
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public int bestTarget(int[] health, int damage) {
+            int best = -1;
+            int bestScore = -1;
+            for (int j = 0; j < health.length; j++) {
+                int score = targetScore(health[j], damage);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = j;
+                }
+            }
+            return best;
+        }
+    }
+}
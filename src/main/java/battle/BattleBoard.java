@@ -0,0 +1,366 @@
+//src/main/java/battle/BattleBoard.java
+
+package battle;
+
+import java.util.List;
+
+import battle.Node.GameState;
+import battle.Node.Unit;
+
+/**
+ * BattleBoard is a compact, mutable twin of {@link GameState} used by the
+ * engines that cannot afford one GameState/Node allocation per visited state.
+ * Health and damage live in primitive arrays indexed by side (0 = A, 1 = B),
+ * attacks are applied in place and undone on the way back up, and a 64-bit
+ * hash of the position is maintained incrementally so states can be stored in
+ * fixed-size tables.
+ *
+ * Moves are encoded as a single int: (attackerIndex << 16) | targetIndex,
+ * always relative to the side to move. Legal moves are generated in the same
+ * order as BattleSolver.generateChildren (attacker ascending, then target
+ * ascending), so plans produced from a board match the Node-based engines.
+ *
+ * Living units are tracked in per-side alive masks ({@link AliveMask}), so
+ * move generation only visits units that can still act or be hit.
+ */
+final class BattleBoard {
+    static final int SIDE_A = 0;
+    static final int SIDE_B = 1;
+
+    private static final long SIDE_TO_MOVE_KEY = mix(0x9E3779B97F4A7C15L);
+
+    final int[][] health;      // health[side][unit]
+    final int[][] damage;      // damage[side][unit]
+    final int[] totalHealth;   // cached sum of health per side
+    final long[][] alive;      // alive[side]: bit i set while unit i has health left
+    final int starting;        // side whose utility we maximize
+    int current;               // side to move
+    long hash;                 // incremental position hash
+
+    private BattleBoard(int[][] health, int[][] damage, int current, int starting) {
+        this.health = health;
+        this.damage = damage;
+        this.current = current;
+        this.starting = starting;
+        this.totalHealth = new int[2];
+        this.alive = new long[][] { AliveMask.of(health[0]), AliveMask.of(health[1]) };
+        for (int side = 0; side < 2; side++) {
+            totalHealth[side] = ArmyKernels.get().sumHealth(health[side]);
+        }
+        this.hash = computeHash();
+    }
+
+    /**
+     * Build a board from the solver's compact input format ("h,d,...;h,d,...;P").
+     */
+    static BattleBoard parse(String stateString) {
+        return of(BattleSolver.parseInitialState(stateString));
+    }
+
+    /**
+     * Build a board holding a copy of the given GameState.
+     */
+    static BattleBoard of(GameState state) {
+        int[][] health = { healthOf(state.getArmyA()), healthOf(state.getArmyB()) };
+        int[][] damage = { damageOf(state.getArmyA()), damageOf(state.getArmyB()) };
+        return new BattleBoard(health, damage, sideOf(state.getCurrentPlayer()), sideOf(state.getStartingPlayer()));
+    }
+
+    /**
+     * Deep copy; the copy can be mutated independently (e.g. by another thread).
+     */
+    BattleBoard copy() {
+        int[][] h = { health[0].clone(), health[1].clone() };
+        int[][] d = { damage[0].clone(), damage[1].clone() };
+        return new BattleBoard(h, d, current, starting);
+    }
+
+    /**
+     * Overwrite this board with the contents of another board of the same shape.
+     * Used to reset per-thread scratch boards without allocating.
+     */
+    void copyFrom(BattleBoard other) {
+        for (int side = 0; side < 2; side++) {
+            System.arraycopy(other.health[side], 0, health[side], 0, health[side].length);
+            System.arraycopy(other.alive[side], 0, alive[side], 0, alive[side].length);
+            totalHealth[side] = other.totalHealth[side];
+        }
+        current = other.current;
+        hash = other.hash;
+    }
+
+    /**
+     * Convert back to a GameState (used when handing a board to Node-based code).
+     */
+    GameState toGameState() {
+        List<Unit> armyA = new java.util.ArrayList<>();
+        List<Unit> armyB = new java.util.ArrayList<>();
+        for (int i = 0; i < health[SIDE_A].length; i++) {
+            armyA.add(new Unit(health[SIDE_A][i], damage[SIDE_A][i]));
+        }
+        for (int i = 0; i < health[SIDE_B].length; i++) {
+            armyB.add(new Unit(health[SIDE_B][i], damage[SIDE_B][i]));
+        }
+        return new GameState(armyA, armyB, playerOf(current), playerOf(starting));
+    }
+
+    boolean isTerminal() {
+        return totalHealth[SIDE_A] == 0 || totalHealth[SIDE_B] == 0;
+    }
+
+    /**
+     * Same contract as GameState.getUtility(): positive when the starting side
+     * has won (its remaining health), negative when it has lost, 0 otherwise.
+     */
+    int utility() {
+        int own = totalHealth[starting];
+        int other = totalHealth[1 - starting];
+        if (other == 0) return own;
+        if (own == 0) return -other;
+        return 0;
+    }
+
+    /**
+     * Maximum number of legal moves any position of this board can have.
+     */
+    int maxBranching() {
+        return Math.max(1, health[SIDE_A].length * health[SIDE_B].length);
+    }
+
+    /**
+     * Fill {@code moves} with every legal move for the side to move and return
+     * how many were written. The buffer must hold at least maxBranching() ints.
+     */
+    int generateMoves(int[] moves) {
+        return generateMoves(moves, 0);
+    }
+
+    /**
+     * Same as generateMoves(int[]) but writes starting at {@code offset}, so
+     * several move lists can share one array.
+     */
+    int generateMoves(int[] moves, int offset) {
+        long[] own = alive[current];
+        long[] opp = alive[1 - current];
+        int count = 0;
+        if (own.length == 1 && opp.length == 1) {
+            // Up to 64 units per side: one word each, only living units are visited
+            long targets = opp[0];
+            for (long attackers = own[0]; attackers != 0; attackers &= attackers - 1) {
+                int i = Long.numberOfTrailingZeros(attackers);
+                for (long t = targets; t != 0; t &= t - 1) {
+                    moves[offset + count++] = (i << 16) | Long.numberOfTrailingZeros(t);
+                }
+            }
+            return count;
+        }
+        for (int w = 0; w < own.length; w++) {
+            for (long attackers = own[w]; attackers != 0; attackers &= attackers - 1) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(attackers);
+                for (int v = 0; v < opp.length; v++) {
+                    for (long t = opp[v]; t != 0; t &= t - 1) {
+                        moves[offset + count++] = (i << 16) | ((v << 6) + Long.numberOfTrailingZeros(t));
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Health actually removed by the given move (attacker damage capped by the
+     * target's remaining health).
+     */
+    int damageDealt(int move) {
+        return Math.min(health[1 - current][target(move)], damage[current][attacker(move)]);
+    }
+
+    /**
+     * Move-ordering score of a move for the side to move.
+     */
+    int orderingScore(int move, OrderingWeights weights) {
+        int target = target(move);
+        return weights.score(damage[current][attacker(move)], health[1 - current][target], damage[1 - current][target]);
+    }
+
+    /**
+     * Apply a move in place and switch the side to move.
+     *
+     * @return the health removed from the target, needed by undo(...)
+     */
+    int apply(int move) {
+        int opp = 1 - current;
+        int j = target(move);
+        int before = health[opp][j];
+        int dealt = Math.min(before, damage[current][attacker(move)]);
+        health[opp][j] = before - dealt;
+        totalHealth[opp] -= dealt;
+        if (before == dealt && dealt > 0) {
+            AliveMask.clear(alive[opp], j); // killed
+        }
+        hash ^= unitKey(opp, j, before) ^ unitKey(opp, j, before - dealt) ^ SIDE_TO_MOVE_KEY;
+        current = opp;
+        return dealt;
+    }
+
+    /**
+     * Revert a move previously applied with apply(...).
+     */
+    void undo(int move, int dealt) {
+        int opp = current;        // the side that was attacked
+        current = 1 - current;    // back to the attacker
+        int j = target(move);
+        int after = health[opp][j];
+        health[opp][j] = after + dealt;
+        totalHealth[opp] += dealt;
+        if (after == 0 && dealt > 0) {
+            AliveMask.set(alive[opp], j); // revived by the undo
+        }
+        hash ^= unitKey(opp, j, after) ^ unitKey(opp, j, after + dealt) ^ SIDE_TO_MOVE_KEY;
+    }
+
+    /**
+     * Hash of the position reached by playing {@code move}, without applying it.
+     */
+    long childHash(int move) {
+        int opp = 1 - current;
+        int j = target(move);
+        int before = health[opp][j];
+        int after = before - Math.min(before, damage[current][attacker(move)]);
+        return hash ^ unitKey(opp, j, before) ^ unitKey(opp, j, after) ^ SIDE_TO_MOVE_KEY;
+    }
+
+    /**
+     * Whether playing {@code move} ends the game (the opponent's army is wiped out).
+     */
+    boolean isWinningMove(int move) {
+        return totalHealth[1 - current] == damageDealt(move);
+    }
+
+    /**
+     * Action string for a move in the solver's plan format, e.g. "A(0,1)".
+     */
+    String actionString(int move) {
+        return playerOf(current) + "(" + attacker(move) + "," + target(move) + ")";
+    }
+
+    /**
+     * Append the action string for a move to a builder (no intermediate String).
+     */
+    void appendAction(StringBuilder sb, int move) {
+        sb.append(playerOf(current)).append('(').append(attacker(move)).append(',').append(target(move)).append(')');
+    }
+
+    /**
+     * Dense index of a move among all attacker/target pairs of the side to
+     * move (attacker * opponentCount + target), independent of which units
+     * are alive. Compact enough to store in a table entry.
+     */
+    int moveIndex(int move) {
+        return attacker(move) * health[1 - current].length + target(move);
+    }
+
+    /**
+     * Inverse of moveIndex(...) for the side to move.
+     */
+    int moveAt(int index) {
+        int opponents = health[1 - current].length;
+        return move(index / opponents, index % opponents);
+    }
+
+    /**
+     * The position in the solver's input format ("h,d,...;h,d,...;P;"), with
+     * the side to move as the starting player.
+     */
+    String stateString() {
+        StringBuilder sb = new StringBuilder();
+        for (int side = 0; side < 2; side++) {
+            for (int i = 0; i < health[side].length; i++) {
+                if (i > 0) sb.append(',');
+                sb.append(health[side][i]).append(',').append(damage[side][i]);
+            }
+            sb.append(';');
+        }
+        return sb.append(playerOf(current)).append(';').toString();
+    }
+
+    static int attacker(int move) {
+        return move >>> 16;
+    }
+
+    static int target(int move) {
+        return move & 0xFFFF;
+    }
+
+    static int move(int attacker, int target) {
+        return (attacker << 16) | target;
+    }
+
+    static int sideOf(char player) {
+        return player == 'A' ? SIDE_A : SIDE_B;
+    }
+
+    static char playerOf(int side) {
+        return side == SIDE_A ? 'A' : 'B';
+    }
+
+    private long computeHash() {
+        long h = current == SIDE_B ? SIDE_TO_MOVE_KEY : 0L;
+        for (int side = 0; side < 2; side++) {
+            for (int i = 0; i < health[side].length; i++) {
+                h ^= unitKey(side, i, health[side][i]);
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Fingerprint of everything the position hash leaves out: the starting
+     * side, both army sizes and every unit's damage. Tables shared between
+     * solves mix it into their keys so positions of different scenarios with
+     * the same health layout never share an entry.
+     */
+    long scenarioKey() {
+        long h = mix(((long) starting << 32) ^ 0x2545F4914F6CDD1DL);
+        for (int side = 0; side < 2; side++) {
+            h = mix(h ^ ((long) side << 32) ^ damage[side].length);
+            for (int i = 0; i < damage[side].length; i++) {
+                h = mix(h ^ (damage[side][i] & 0xFFFFFFFFL));
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Pseudo-random key for "unit i of side has health h". Computed on the fly
+     * instead of a Zobrist table so arbitrarily large health values work.
+     */
+    private static long unitKey(int side, int unit, int h) {
+        return mix(((long) unit << 33) ^ ((long) side << 32) ^ (h & 0xFFFFFFFFL) ^ 0xD1B54A32D192ED03L);
+    }
+
+    /**
+     * SplitMix64 finalizer, a cheap and well-distributed 64-bit mixer.
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int[] healthOf(List<Unit> army) {
+        int[] values = new int[army.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = army.get(i).health;
+        }
+        return values;
+    }
+
+    private static int[] damageOf(List<Unit> army) {
+        int[] values = new int[army.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = army.get(i).damage;
+        }
+        return values;
+    }
+}
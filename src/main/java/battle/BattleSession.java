@@ -0,0 +1,256 @@
+//src/main/java/battle/BattleSession.java
+
+package battle;
+
+/**
+ * BattleSession plays one battle move by move and keeps the search state
+ * between moves instead of solving every new position from scratch.
+ *
+ * The session owns an {@link OffHeapTranspositionTable} that survives
+ * play(...) calls: the subtree below the move actually played was searched
+ * already, so its entries (exact values, bounds and best moves, which also
+ * serve as the move ordering) make the next search cost a fraction of a
+ * cold solve. Each search starts a new table generation, so entries of
+ * branches that can no longer occur are the first to be replaced. The
+ * principal variation is kept as well and re-rooted on every move.
+ *
+ * With pondering enabled, after a search the session keeps searching in a
+ * background thread the position it expects after the opponent's predicted
+ * reply, filling the same table while the other side is thinking. It keeps
+ * running while the moves played follow the prediction and is stopped
+ * (through a {@link SearchControl}) when a move deviates from it or the
+ * next search() starts.
+ *
+ * Scores are always from the perspective of the battle's starting player,
+ * like GameState.getUtility(). A session is meant to be driven by one
+ * thread; only the ponder search runs concurrently with it.
+ */
+public final class BattleSession implements AutoCloseable {
+    private final BattleBoard board;
+    private final OffHeapTranspositionTable table;
+    private final StringBuilder history = new StringBuilder();
+
+    private IterativeSearch.Line principalVariation; // best line from the current position, null if unknown
+    private int value;
+    private boolean pondering;
+    private Thread ponderThread;
+    private SearchControl ponderControl;
+    private IterativeSearch.Line ponderPath; // moves still to be played before the pondered position
+    private int ponderPlies;                 // length of ponderPath that leads there
+    private long lastNodesExpanded;
+
+    /**
+     * Start a session on an input ("h,d,...;h,d,...;P") with a 32 MB table.
+     */
+    public BattleSession(String initialStateString) {
+        this(initialStateString, new SolveOptions());
+    }
+
+    /**
+     * @param options only the table size (setTableBytes) is used
+     */
+    public BattleSession(String initialStateString, SolveOptions options) {
+        this.board = BattleBoard.parse(initialStateString);
+        this.table = new OffHeapTranspositionTable(options.getTableBytes());
+    }
+
+    /**
+     * Enable or disable background search of the expected position while
+     * the opponent is thinking.
+     */
+    public void setPondering(boolean pondering) {
+        this.pondering = pondering;
+        if (!pondering) {
+            stopPondering();
+        }
+    }
+
+    public boolean isPondering() {
+        return pondering;
+    }
+
+    /**
+     * Search the current position to the end, reusing everything earlier
+     * searches (and the ponder search) stored.
+     *
+     * @return the best line from the current position, its exact value and
+     *         the nodes this search expanded
+     */
+    public SolveResult search() {
+        stopPondering();
+        if (board.isTerminal()) {
+            return new SolveResult("", board.utility(), 0, Engine.ALPHA_BETA_TT, true);
+        }
+        table.newSearch();
+        TranspositionSearch search = new TranspositionSearch(table, null);
+        principalVariation = search.search(board);
+        value = search.rootValue();
+        lastNodesExpanded = search.getNodesExpanded();
+
+        SolveResult result = new SolveResult(lineString(principalVariation), value, lastNodesExpanded,
+                Engine.ALPHA_BETA_TT, true);
+        if (pondering) {
+            startPondering();
+        }
+        return result;
+    }
+
+    /**
+     * Best action for the side to move ("A(0,1)"), searching if needed.
+     */
+    public String bestAction() {
+        if (principalVariation == null && !board.isTerminal()) {
+            search();
+        }
+        return principalVariation == null ? null : board.actionString(principalVariation.move);
+    }
+
+    /**
+     * Play one action for the side to move and re-root the session on the
+     * resulting position. A ponder search keeps running only if the action
+     * is the one it predicted.
+     *
+     * @throws IllegalArgumentException if the action is malformed or illegal
+     */
+    public void play(String action) {
+        int[] moves = SolutionTraceWriter.parsePlan(board, action);
+        if (moves.length != 1) {
+            throw new IllegalArgumentException("Expected exactly one action, got " + action);
+        }
+        int move = moves[0];
+
+        if (ponderThread != null) {
+            if (ponderPlies > 0 && ponderPath.move == move) {
+                ponderPath = ponderPath.next;
+                ponderPlies--;
+            } else {
+                stopPondering(); // prediction missed, the pondered position will not occur
+            }
+        }
+
+        // Keep the rest of the principal variation if the expected move was played
+        if (principalVariation != null && principalVariation.move == move) {
+            principalVariation = principalVariation.next;
+        } else {
+            principalVariation = null;
+        }
+
+        if (history.length() > 0) history.append(',');
+        board.appendAction(history, move);
+        board.apply(move);
+    }
+
+    public boolean isTerminal() {
+        return board.isTerminal();
+    }
+
+    /**
+     * The current position in input format, with the side to move as P.
+     */
+    public String getState() {
+        return board.stateString();
+    }
+
+    /**
+     * Actions played so far, comma separated.
+     */
+    public String getHistory() {
+        return history.toString();
+    }
+
+    /**
+     * Best line known from the current position (empty if none is known).
+     */
+    public String getPrincipalVariation() {
+        return lineString(principalVariation);
+    }
+
+    /**
+     * Nodes expanded by the last search() call.
+     */
+    public long getLastNodesExpanded() {
+        return lastNodesExpanded;
+    }
+
+    /**
+     * The session's table, e.g. to read hit statistics.
+     */
+    public OffHeapTranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Stop pondering. The table's off-heap memory is released when the
+     * session is garbage collected.
+     */
+    @Override
+    public void close() {
+        pondering = false;
+        stopPondering();
+    }
+
+    /**
+     * Search, in the background, the position reached after the opponent's
+     * expected reply (the next move of the principal variation). If our own
+     * move is still to be played, that one comes first.
+     */
+    private void startPondering() {
+        if (principalVariation == null) {
+            return;
+        }
+        BattleBoard expected = board.copy();
+        IterativeSearch.Line line = principalVariation;
+        int plies = 0;
+        // Ponder the position where it is our turn again: after our move and the expected reply
+        for (; plies < 2 && line != null && !expected.isTerminal(); plies++) {
+            expected.apply(line.move);
+            line = line.next;
+        }
+        if (expected.isTerminal()) {
+            return;
+        }
+
+        SearchControl control = new SearchControl();
+        control.start(0);
+        TranspositionSearch search = new TranspositionSearch(table, control);
+        Thread thread = new Thread(() -> {
+            try {
+                search.search(expected);
+            } catch (SearchAbortedException e) {
+                // stopped by the next play(...) or search()
+            }
+        }, "battle-ponder");
+        thread.setDaemon(true);
+        ponderControl = control;
+        ponderThread = thread;
+        ponderPath = principalVariation;
+        ponderPlies = plies;
+        thread.start();
+    }
+
+    private void stopPondering() {
+        if (ponderThread == null) {
+            return;
+        }
+        ponderControl.cancel();
+        try {
+            ponderThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ponderThread = null;
+        ponderControl = null;
+        ponderPath = null;
+    }
+
+    private String lineString(IterativeSearch.Line line) {
+        StringBuilder plan = new StringBuilder();
+        BattleBoard replay = board.copy();
+        for (IterativeSearch.Line step = line; step != null; step = step.next) {
+            if (plan.length() > 0) plan.append(',');
+            replay.appendAction(plan, step.move);
+            replay.apply(step.move);
+        }
+        return plan.toString();
+    }
+}
@@ -4,6 +4,12 @@ package battle;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import battle.Node.GameState;
 import battle.Node.Unit;
@@ -20,14 +26,37 @@ import battle.Node.Unit;
  * - plan: comma-separated actions such as "A(0,1),B(2,0),..." (empty if no actions)
  * - score: integer utility of the terminal state
  * - nodesExpanded: how many nodes were visited during search
+ *
+ * One instance may be shared by any number of threads: every solve runs in
+ * its own SearchContext taken from a pool, and contexts (with their
+ * transposition tables and buffers) are reused by later solves. The pool
+ * keeps at most MAX_IDLE_CONTEXTS idle contexts, and their tables together
+ * stay under MAX_IDLE_TABLE_BYTES except for one table of any size, so a
+ * burst of concurrent solves does not pin its memory; close() drops them
+ * all.
  */
-public class BattleSolver {
-    private int nodesExpanded; // how many tree nodes we expanded
-    private boolean visualize; // whether to print a textual visualization of the resulting path
-    public Node initialNode;
+public class BattleSolver implements AutoCloseable {
+    private static final long DEFAULT_AUTO_BUDGET_MILLIS = 1000; // AUTO budget when no time limit is set
+    private static final int MAX_IDLE_CONTEXTS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final long MAX_IDLE_TABLE_BYTES = 64L << 20; // off-heap tables kept by idle contexts
+
+    private final EngineCostModel costModel; // learns engine costs across AUTO solves
+    private final ConcurrentLinkedDeque<SearchContext> contexts = new ConcurrentLinkedDeque<>(); // idle, newest first
+    private final AtomicInteger idleContexts = new AtomicInteger();
+    private final AtomicLong idleTableBytes = new AtomicLong();
+    /**
+     * Root node of the most recent solve on any thread. Every solve writes
+     * it and the last writer wins, so with concurrent callers it may hold
+     * another caller's root; it is only meaningful when one thread uses the
+     * solver.
+     *
+     * @deprecated a shared solver has no single current root; kept for old callers
+     */
+    @Deprecated
+    public volatile Node initialNode;
 
     public BattleSolver() {
-        this.nodesExpanded = 0;
+        this.costModel = new EngineCostModel();
     }
 
     /**
@@ -41,32 +70,360 @@ public class BattleSolver {
      * @return a string containing the plan, score and nodesExpanded separated by semicolons
      */
     public String solve(String initialStateString, boolean ab, boolean visualize) {
-        this.visualize = visualize;
-        this.nodesExpanded = 0;
+        SolveOptions options = new SolveOptions()
+                .setEngine(ab ? Engine.ALPHA_BETA : Engine.MINIMAX)
+                .setVisualize(visualize);
+        return solve(initialStateString, options).toString();
+    }
+
+    /**
+     * Solve a battle instance with an explicit engine and its settings.
+     *
+     * @param initialStateString same format as solve(String, boolean, boolean)
+     * @param options engine selection and engine-specific limits
+     * @return the plan, its score and the search effort; toString() gives the
+     *         classic "plan;score;nodesExpanded;" string
+     */
+    public SolveResult solve(String initialStateString, SolveOptions options) {
+        SolveResultCache cache = options.getResultCache();
+        if (cache != null && SolveResultCache.accepts(options)) {
+            return cache.solve(initialStateString, options,
+                    (canonical, cacheOptions) -> solve(canonical, cacheOptions.copy().setResultCache(null)));
+        }
+        SearchContext context = acquireContext();
+        try {
+            return solve(context, initialStateString, options);
+        } finally {
+            releaseContext(context);
+        }
+    }
+
+    private SolveResult solve(SearchContext context, String initialStateString, SolveOptions options) {
+        long solveStart = System.nanoTime();
+        context.visualize = options.isVisualize();
+        context.ordering = options.getOrderingWeights();
+        context.nodesExpanded = 0;
+        context.partial = null;
+
+        // A deadline or listener without an explicit control still needs something to poll
+        context.control = options.getControl();
+        if (context.control == null && (options.getDeadlineMillis() > 0 || options.getListener() != null)) {
+            context.control = new SearchControl();
+        }
+        if (context.control != null) {
+            context.control.start(options.getDeadlineMillis());
+        }
+        context.checkMask = context.control != null ? context.control.checkMask() : -1;
+        context.governor = options.getMemoryBudgetBytes() > 0
+                ? new MemoryGovernor(options.getMemoryBudgetBytes()) : null;
 
         // Parse the compact initial state into a GameState object
         GameState initialState = parseInitialState(initialStateString);
         Node rootNode = new Node(initialState, null, null, 0);
         this.initialNode = rootNode;
 
-        // Run minimax (optionally with alpha-beta pruning)
-        MinimaxResult result;
-        if (ab) {
-            result = minimaxAlphaBeta(rootNode, Integer.MIN_VALUE, Integer.MAX_VALUE, true);
-        } else {
-            result = minimax(rootNode, true);
+        // AUTO: estimate the tree, then pick the engine that fits the budget
+        Engine engine = options.getEngine();
+        SolveOptions runOptions = options;
+        EngineSelection selection = null;
+        TreeSizeEstimator.Estimate estimate = null;
+        if (engine == Engine.AUTO) {
+            long budget = options.getTimeLimitMillis() > 0 ? options.getTimeLimitMillis() : DEFAULT_AUTO_BUDGET_MILLIS;
+            estimate = new TreeSizeEstimator(options.getEstimatorProbes(), options.getSeed())
+                    .estimate(BattleBoard.of(initialState));
+            selection = costModel.select(estimate, options, budget,
+                    LayeredSolver.supports(BattleBoard.of(initialState)));
+            engine = selection.getChosen();
+            if (engine == Engine.MCTS) {
+                runOptions = options.copy().setMaxIterations(0).setTimeLimitMillis(budget);
+            }
+        }
+
+        if (engine == Engine.LAYERED && !LayeredSolver.supports(BattleBoard.of(initialState))) {
+            engine = Engine.ALPHA_BETA_TT; // positions do not fit the packed layer keys
+        }
+        if (options.getListener() != null) {
+            context.progress = new ProgressReporter(options.getListener(), BattleBoard.of(initialState), engine);
+            context.control.setReporter(context.progress);
+            context.progress.start(options.getProgressIntervalMillis());
+        }
+
+        long start = System.nanoTime();
+        MinimaxResult result = null;
+        long abandonedNodes = 0;
+        boolean degraded = false;
+        try {
+            while (result == null) {
+                try {
+                    result = runEngine(context, engine, rootNode, runOptions);
+                } catch (MemoryBudgetExceededException e) {
+                    // Over budget: drop what the engine retained and go on with the next stage's engine
+                    SearchArena.current().release();
+                    context.partial = null;
+                    abandonedNodes += context.nodesExpanded;
+                    context.nodesExpanded = 0;
+                    degraded = true;
+                    engine = context.governor.degrade(engine);
+                    if (context.progress != null) {
+                        context.progress.reset();
+                        context.progress.setEngine(engine);
+                    }
+                }
+            }
+        } catch (SearchAbortedException e) {
+            // Stopped early: fall back to the best line recorded so far
+            result = context.partial != null ? context.partial : new MinimaxResult(0, rootNode);
+        }
+        long elapsed = System.nanoTime() - start;
+        context.nodesExpanded = (int) Math.min(Integer.MAX_VALUE, context.nodesExpanded + abandonedNodes);
+        SolveResult.Status stopReason = context.control != null ? context.control.stopReason() : null;
+
+        // After a degrade the counts and time mix the dropped engine's work in, which says nothing about either
+        if (selection != null && stopReason == null && !degraded) {
+            selection.recordActual(context.nodesExpanded, elapsed / 1_000_000.0);
+            costModel.observe(engine, costModel.modelNodes(engine, estimate, runOptions), context.nodesExpanded,
+                    elapsed, EngineCostModel.parallelism(engine, runOptions));
         }
 
         // Build solution path (action sequence) from the terminal node returned
         String plan = buildPlan(result.terminalNode);
         int score = result.value;
 
-        if (visualize) {
-            visualizeSolution(result.terminalNode);
+        if (context.visualize) {
+            visualizeSolution(rootNode, plan);
+        }
+
+        SolveResult.Status status = stopReason != null ? stopReason
+                : engine.isExact() ? SolveResult.Status.EXACT : SolveResult.Status.APPROXIMATE;
+        SolveResult solveResult = new SolveResult(plan, score, context.nodesExpanded, engine, status, selection,
+                context.governor != null ? context.governor.stage() : SolveResult.MemoryStage.WITHIN_BUDGET);
+        context.governor = null;
+        if (options.getMetrics() != null) {
+            options.getMetrics().record(engine, initialState.getArmyA().size() + initialState.getArmyB().size(),
+                    status, System.nanoTime() - solveStart, context.nodesExpanded);
+        }
+        if (context.progress != null) {
+            context.progress.finish(solveResult);
+            context.control.setReporter(null);
+            context.progress = null;
         }
+        if (context.control != null) {
+            context.control.finish(solveResult);
+        }
+        return solveResult;
+    }
+
+    /**
+     * Solve on the common fork-join pool; see solveAsync(String, SolveOptions, Executor).
+     */
+    public CompletableFuture<SolveResult> solveAsync(String initialStateString, SolveOptions options) {
+        return solveAsync(initialStateString, options, ForkJoinPool.commonPool());
+    }
 
-        // Return plan;score;nodesExpanded; (trailing semicolon kept for compatibility)
-        return plan + ";" + score + ";" + nodesExpanded + ";";
+    /**
+     * Solve on the given executor without blocking the caller. Each search
+     * runs in its own SearchContext of this solver, so several async solves
+     * may run at once.
+     *
+     * Cancelling the returned future stops the search at its next poll. The
+     * future itself then completes with a CancellationException; to read the
+     * partial result (status CANCELLED, nodes searched so far, best line
+     * found) pass a SearchControl in the options and call getResult() on it,
+     * or call SearchControl.cancel() instead of cancelling the future, in
+     * which case the future completes normally with that partial result.
+     * A deadline set with SolveOptions.setDeadlineMillis(...) ends the same
+     * way with status TIMEOUT.
+     */
+    public CompletableFuture<SolveResult> solveAsync(String initialStateString, SolveOptions options, Executor executor) {
+        SearchControl searchControl = options.getControl() != null ? options.getControl() : new SearchControl();
+        SolveOptions runOptions = options.copy().setControl(searchControl);
+
+        CompletableFuture<SolveResult> future =
+                CompletableFuture.supplyAsync(() -> solve(initialStateString, runOptions), executor);
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                searchControl.cancel(); // let the worker thread stop instead of running to completion
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Run one concrete engine (not AUTO) from the root node.
+     */
+    private MinimaxResult runEngine(SearchContext context, Engine engine, Node rootNode, SolveOptions options) {
+        if (engine == Engine.MINIMAX && options.getThreads() > 1) {
+            ParallelMinimax search = new ParallelMinimax(BattleBoard.of(rootNode.getState()), options.getThreads(),
+                    options.getStackMemoryBytes(), context.control);
+            try {
+                IterativeSearch.Line line = search.search();
+                return new MinimaxResult(search.rootValue(), replayLine(rootNode, line));
+            } catch (SearchAbortedException e) {
+                if (search.partialLine() != null) {
+                    context.partial = new MinimaxResult(search.partialValue(),
+                            replayLine(rootNode, search.partialLine()));
+                }
+                throw e;
+            } finally {
+                context.nodesExpanded = (int) Math.min(Integer.MAX_VALUE, search.getNodesExpanded());
+            }
+        }
+        if (options.isExplicitStack() && (engine == Engine.MINIMAX || engine == Engine.ALPHA_BETA)) {
+            IterativeSearch search = new IterativeSearch(BattleBoard.of(rootNode.getState()),
+                    options.getStackMemoryBytes(), context.control, options.getOrderingWeights());
+            search.setProgress(context.progress);
+            try {
+                IterativeSearch.Line line = engine == Engine.MINIMAX ? search.minimax() : search.alphaBeta();
+                return new MinimaxResult(search.rootValue(), replayLine(rootNode, line));
+            } catch (SearchAbortedException e) {
+                if (search.partialLine() != null) {
+                    context.partial = new MinimaxResult(search.partialValue(),
+                            replayLine(rootNode, search.partialLine()));
+                }
+                throw e;
+            } finally {
+                context.nodesExpanded = (int) Math.min(Integer.MAX_VALUE, search.getNodesExpanded());
+            }
+        }
+        if (engine == Engine.ALPHA_BETA_TT) {
+            BattleBoard root = BattleBoard.of(rootNode.getState());
+            TranspositionSearch search = new TranspositionSearch(tableFor(context, options, root), context.control,
+                    context.governor);
+            search.setProgress(context.progress);
+            try {
+                IterativeSearch.Line line = search.search(root);
+                return new MinimaxResult(search.rootValue(), replayLine(rootNode, line));
+            } catch (SearchAbortedException e) {
+                IterativeSearch.Line partial = search.partialLine();
+                if (partial != null) {
+                    Node end = replayLine(rootNode, partial);
+                    context.partial = new MinimaxResult(end.getState().getUtility(), end);
+                }
+                throw e;
+            } finally {
+                context.nodesExpanded = (int) Math.min(Integer.MAX_VALUE, search.getNodesExpanded());
+            }
+        }
+        if (engine == Engine.SELECTIVE) {
+            BattleBoard root = BattleBoard.of(rootNode.getState());
+            OffHeapTranspositionTable selectiveTable = tableFor(context, options, root);
+            SelectiveSearch search = new SelectiveSearch(selectiveTable, context.control, context.governor,
+                    options.getSelectiveDepth(), options.getSelectiveConfidence(), options.getOrderingWeights(),
+                    options.getSeed());
+            search.setProgress(context.progress);
+            try {
+                IterativeSearch.Line line = search.search(root);
+                return new MinimaxResult(search.rootValue(), replayLine(rootNode, line));
+            } catch (SearchAbortedException e) {
+                IterativeSearch.Line partial = search.partialLine();
+                if (partial != null) {
+                    Node end = replayLine(rootNode, partial);
+                    context.partial = new MinimaxResult(end.getState().getUtility(), end);
+                }
+                throw e;
+            } finally {
+                context.nodesExpanded = (int) Math.min(Integer.MAX_VALUE, search.getNodesExpanded());
+                selectiveTable.clear(); // pruned values must never reach an exact search
+            }
+        }
+        if (engine == Engine.LAYERED) {
+            LayeredSolver solver = new LayeredSolver(BattleBoard.of(rootNode.getState()), options.getThreads(),
+                    context.control, context.governor, options.getTableBytes());
+            try {
+                IterativeSearch.Line line = solver.solve();
+                return new MinimaxResult(solver.rootValue(), replayLine(rootNode, line));
+            } catch (SearchAbortedException e) {
+                IterativeSearch.Line partial = solver.partialLine();
+                if (partial != null) {
+                    Node end = replayLine(rootNode, partial);
+                    context.partial = new MinimaxResult(end.getState().getUtility(), end);
+                }
+                throw e;
+            } finally {
+                context.nodesExpanded = (int) Math.min(Integer.MAX_VALUE, solver.getNodesExpanded());
+            }
+        }
+        context.searchRoot = rootNode;
+        switch (engine) {
+            case MINIMAX:
+                return searchPooled(context, rootNode, false);
+            case MCTS: {
+                // MCTS reads its control from the options; give it the one this solve may have created
+                SolveOptions mctsOptions = options.getControl() == context.control
+                        ? options : options.copy().setControl(context.control);
+                MonteCarloTreeSearch mcts = new MonteCarloTreeSearch(mctsOptions, context.governor);
+                Node terminal = mcts.search(rootNode);
+                context.nodesExpanded = (int) Math.min(Integer.MAX_VALUE, mcts.getNodesCreated());
+                return new MinimaxResult(terminal.getState().getUtility(), terminal);
+            }
+            case DEPTH_LIMITED:
+                context.searchRoot = null;
+                return playDepthLimited(context, rootNode, options.getMaxDepth(), options.getEvaluator());
+            case ALPHA_BETA:
+            default:
+                return searchPooled(context, rootNode, true);
+        }
+    }
+
+    /**
+     * The context's transposition table, (re)allocated when the requested size
+     * changes and otherwise cleared in place or aged, per the options. A kept
+     * table is still cleared when its last scenario differs from the root's,
+     * since pooled contexts pass tables between callers. Under a memory
+     * budget the table is capped at the governor's cache share.
+     */
+    private OffHeapTranspositionTable tableFor(SearchContext context, SolveOptions options, BattleBoard root) {
+        long bytes = context.governor != null
+                ? context.governor.cacheBytes(options.getTableBytes()) : options.getTableBytes();
+        long entries = Long.highestOneBit(Math.max(4, bytes / 16));
+        if (context.table == null || context.table.capacity() != entries) {
+            context.table = new OffHeapTranspositionTable(bytes);
+        } else if (options.isKeepTable() && context.tableScenario == root.scenarioKey()) {
+            context.table.newSearch();
+        } else {
+            context.table.clear();
+        }
+        context.tableScenario = root.scenarioKey();
+        if (context.governor != null) {
+            context.governor.chargeCache(context.table.sizeInBytes());
+        }
+        return context.table;
+    }
+
+    /**
+     * Analysis mode: the exact value and an optimal line of every legal root
+     * action, in generateChildren order, e.g. to show how much each
+     * alternative gives away. Uses a search context's transposition table (sized
+     * by setTableBytes, kept or cleared per setKeepTable) and aspiration
+     * windows around the best value; setThreads(n) analyzes root actions on
+     * n threads sharing the table.
+     *
+     * @return one MoveAnalysis per legal root action (empty if the input is terminal)
+     */
+    public List<MoveAnalysis> analyze(String initialStateString, SolveOptions options) {
+        BattleBoard root = BattleBoard.parse(initialStateString);
+        SearchContext context = acquireContext();
+        try {
+            return new MultiPvAnalysis(tableFor(context, options, root), options.getThreads()).analyze(root);
+        } finally {
+            releaseContext(context);
+        }
+    }
+
+    /**
+     * Decide only which army wins, using proof-number search instead of
+     * full-value minimax. Much cheaper on lopsided battles; intended as a
+     * pre-filter before running solve(...) on contested scenarios.
+     *
+     * @param initialStateString same format as solve(...)
+     * @param tableEntries size of the proof-number table (bounds memory use)
+     * @param maxNodes node budget; UNKNOWN is returned when it runs out
+     * @return plan;outcome;nodesExpanded; where outcome is WIN or LOSS for the
+     *         starting player (or UNKNOWN) and plan is a line demonstrating it
+     */
+    public String proveWin(String initialStateString, int tableEntries, long maxNodes) {
+        ProofNumberSearch search = new ProofNumberSearch(tableEntries, maxNodes);
+        return search.search(initialStateString).toString();
     }
 
     /**
@@ -74,7 +431,7 @@ public class BattleSolver {
      * Expected format: "h,d,h,d,...;h,d,h,d,...;P" where P is 'A' or 'B'.
      * This method is fairly strict and assumes valid well-formed input.
      */
-    private GameState parseInitialState(String stateString) {
+    static GameState parseInitialState(String stateString) {
         String[] parts = stateString.split(";");
 
         // Parse army A (pairs of health,damage)
@@ -103,41 +460,60 @@ public class BattleSolver {
     }
 
     /**
-     * Plain recursive minimax. Returns a MinimaxResult containing the value and
-     * a reference to the terminal node that yielded that value. The method
-     * increments nodesExpanded for basic instrumentation.
+     * Run MINIMAX or ALPHA_BETA with the calling thread's SearchArena, then
+     * rebuild the best line as Nodes below the root. The arena is reset when
+     * the search ends, however it ends.
+     */
+    private MinimaxResult searchPooled(SearchContext context, Node rootNode, boolean alphaBeta) {
+        context.arena = SearchArena.current();
+        context.arena.begin(rootNode.getState(), context.governor);
+        try {
+            int value = alphaBeta
+                    ? minimaxAlphaBeta(context, rootNode, 0, Integer.MIN_VALUE, Integer.MAX_VALUE, true)
+                    : minimax(context, rootNode, 0, true);
+            return new MinimaxResult(value, context.arena.line(rootNode, 0));
+        } finally {
+            context.arena.reset();
+            context.arena = null;
+        }
+    }
+
+    /**
+     * Plain recursive minimax. Returns the value of the subtree and leaves
+     * its best line (the moves down to the terminal node that yielded that
+     * value) in the arena at the node's depth, from which the final plan is
+     * rebuilt. The method increments nodesExpanded for basic instrumentation.
      *
-     * Note: this implementation returns the terminal node for the best value
-     * found in each subtree (useful to reconstruct the final plan), not the
-     * immediate child.
+     * Children live in the arena frame for depth + 1 and are overwritten by
+     * the next expansion at that depth, so nothing below a node is kept
+     * once it returns.
      */
-    private MinimaxResult minimax(Node node, boolean maximizingPlayer) {
-        nodesExpanded++;
+    private int minimax(SearchContext context, Node node, int depth, boolean maximizingPlayer) {
+        countNode(context);
         GameState state = node.getState();
 
-        // Terminal test: if game over, return utility and this node as terminal
-        if (state.isTerminal()) {
-            MinimaxResult result = new MinimaxResult(state.getUtility(), node);
-            return result;
+        // Terminal test: if game over, return utility with an empty line
+        if (state.isOver()) {
+            context.arena.clearLine(depth);
+            return state.getUtility();
         }
 
-        List<Node> children = generateChildren(node);
+        SearchArena.Frame children = generateChildren(context, node, depth + 1);
         int bestValue = maximizingPlayer ? Integer.MIN_VALUE : Integer.MAX_VALUE;
-        Node bestTerminalNode = null;
 
         // Recurse over children and select best according to maximizing/minimizing
-        for (Node child : children) {
-            MinimaxResult result = minimax(child, !maximizingPlayer);
-            if (maximizingPlayer && result.value > bestValue ||
-                !maximizingPlayer && result.value < bestValue) {
-                bestValue = result.value;
-                // store the terminal node that produced this value
-                bestTerminalNode = result.terminalNode;
+        for (int k = 0; k < children.size; k++) {
+            int value = minimax(context, children.nodes[k], depth + 1, !maximizingPlayer);
+            if (maximizingPlayer && value > bestValue ||
+                !maximizingPlayer && value < bestValue) {
+                bestValue = value;
+                // store the line that produced this value
+                context.arena.updateLine(depth, children.moves[k]);
+                recordPartial(context, node, depth, bestValue);
             }
         }
 
-        MinimaxResult finalResult = new MinimaxResult(bestValue, bestTerminalNode);
-        return finalResult;
+        return bestValue;
     }
 
     /**
@@ -145,29 +521,120 @@ public class BattleSolver {
      * alpha and beta bounds to prune branches. We also sort children using a
      * heuristic to improve pruning effectiveness (simple move ordering).
      */
-    private MinimaxResult minimaxAlphaBeta(Node node, int alpha, int beta, boolean maximizingPlayer) {
-        nodesExpanded++;
+    private int minimaxAlphaBeta(SearchContext context, Node node, int depth, int alpha, int beta,
+                                 boolean maximizingPlayer) {
+        countNode(context);
         GameState state = node.getState();
 
-        if (state.isTerminal()) {
-            MinimaxResult result = new MinimaxResult(state.getUtility(), node);
-            return result;
+        if (state.isOver()) {
+            context.arena.clearLine(depth);
+            return state.getUtility();
+        }
+
+        SearchArena.Frame children = generateChildren(context, node, depth + 1);
+        int bestValue = maximizingPlayer ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+
+        // Order moves using a cheap heuristic: move ordering helps optimize alpha-beta
+        // Best score for the side to move first (see OrderingWeights); ties keep generation order
+        List<Unit> own = state.getCurrentPlayer() == 'A' ? state.getArmyA() : state.getArmyB();
+        List<Unit> opponent = state.getCurrentPlayer() == 'A' ? state.getArmyB() : state.getArmyA();
+        for (int k = 0; k < children.size; k++) {
+            int move = children.moves[k];
+            Unit target = opponent.get(move & 0xFFFF);
+            children.keys[k] = context.ordering.score(own.get(move >>> 16).damage, target.health, target.damage);
+        }
+        SearchArena.sortDescending(children);
+
+        for (int k = 0; k < children.size; k++) {
+            int value = minimaxAlphaBeta(context, children.nodes[k], depth + 1, alpha, beta, !maximizingPlayer);
+            if (maximizingPlayer) {
+                if (value > bestValue) {
+                    bestValue = value;
+                    context.arena.updateLine(depth, children.moves[k]);
+                    recordPartial(context, node, depth, bestValue);
+                }
+                alpha = Math.max(alpha, bestValue);
+            } else {
+                if (value < bestValue) {
+                    bestValue = value;
+                    context.arena.updateLine(depth, children.moves[k]);
+                }
+                beta = Math.min(beta, bestValue);
+            }
+            // pruning condition
+            if (beta <= alpha) break;
+        }
+
+        return bestValue;
+    }
+
+    /**
+     * Build a complete plan with bounded work per move: from the current node
+     * run a depth-limited alpha-beta, play the first move of its best line and
+     * repeat until the game ends. The cost of each step is bounded by the
+     * branching factor to the power maxDepth, no matter how long the game is.
+     * The returned value is the true utility of the terminal state reached.
+     */
+    private MinimaxResult playDepthLimited(SearchContext context, Node root, int maxDepth, Evaluator evaluator) {
+        Node current = root;
+        long played = 0;
+        while (!current.getState().isOver()) {
+            context.partial = new MinimaxResult(0, current); // if stopped, the line played so far
+            if (context.progress != null) {
+                context.progress.setIteration(played++);
+                context.progress.rootImproved(0, current, false);
+            }
+            GameState state = current.getState();
+            boolean maximizingPlayer = state.getCurrentPlayer() == state.getStartingPlayer();
+            MinimaxResult step = minimaxAlphaBetaLimited(context, current, maxDepth,
+                    Integer.MIN_VALUE, Integer.MAX_VALUE, maximizingPlayer, evaluator);
+
+            // Walk back from the horizon node to the child of the current node
+            Node next = step.terminalNode;
+            while (next.getParent() != current) {
+                next = next.getParent();
+            }
+            current = next;
+        }
+        return new MinimaxResult(current.getState().getUtility(), current);
+    }
+
+    /**
+     * Alpha-beta limited to {@code depth} plies. Terminal states score their
+     * utility shifted beyond Evaluator.MAX_SCORE so any real win beats any
+     * estimate; at the horizon the evaluator is called instead of recursing.
+     * The returned node is the terminal or horizon node of the best line.
+     */
+    private MinimaxResult minimaxAlphaBetaLimited(SearchContext context, Node node, int depth, int alpha, int beta,
+                                                  boolean maximizingPlayer, Evaluator evaluator) {
+        countNode(context);
+        GameState state = node.getState();
+
+        if (state.isOver()) {
+            int utility = state.getUtility();
+            int shift = utility > 0 ? Evaluator.MAX_SCORE : -Evaluator.MAX_SCORE;
+            return new MinimaxResult(shift + utility, node);
+        }
+        if (depth == 0) {
+            int estimate = evaluator.evaluate(state);
+            estimate = Math.max(-Evaluator.MAX_SCORE, Math.min(Evaluator.MAX_SCORE, estimate));
+            return new MinimaxResult(estimate, node);
         }
 
         List<Node> children = generateChildren(node);
         int bestValue = maximizingPlayer ? Integer.MIN_VALUE : Integer.MAX_VALUE;
         Node bestTerminalNode = null;
 
-        // Order moves using a cheap heuristic: move ordering helps optimize alpha-beta
+        // Same move ordering as minimaxAlphaBeta
         children.sort((a, b) -> {
             int aValue = heuristicEstimate(a.getState());
             int bValue = heuristicEstimate(b.getState());
-            // Descending if maximizing, ascending if minimizing
             return maximizingPlayer ? bValue - aValue : aValue - bValue;
         });
 
         for (Node child : children) {
-            MinimaxResult result = minimaxAlphaBeta(child, alpha, beta, !maximizingPlayer);
+            MinimaxResult result = minimaxAlphaBetaLimited(context, child, depth - 1, alpha, beta, !maximizingPlayer,
+                    evaluator);
             if (maximizingPlayer) {
                 if (result.value > bestValue) {
                     bestValue = result.value;
@@ -181,12 +648,34 @@ public class BattleSolver {
                 }
                 beta = Math.min(beta, bestValue);
             }
-            // pruning condition
             if (beta <= alpha) break;
         }
 
-        MinimaxResult finalResult = new MinimaxResult(bestValue, bestTerminalNode);
-        return finalResult;
+        return new MinimaxResult(bestValue, bestTerminalNode);
+    }
+
+    /**
+     * Count an expanded node and, every checkMask + 1 nodes, poll the search
+     * control. Without a control this is just the increment and a mask test.
+     */
+    private void countNode(SearchContext context) {
+        if ((++context.nodesExpanded & context.checkMask) == 0 && context.control != null
+                && context.control.shouldStop()) {
+            throw new SearchAbortedException();
+        }
+    }
+
+    /**
+     * Remember the root's best line so far; it is what a stopped search
+     * returns and what progress reports show.
+     */
+    private void recordPartial(SearchContext context, Node node, int depth, int bestValue) {
+        if (node == context.searchRoot) {
+            context.partial = new MinimaxResult(bestValue, context.arena.line(node, depth));
+            if (context.progress != null) {
+                context.progress.rootImproved(bestValue, context.partial.terminalNode, true);
+            }
+        }
     }
 
     /**
@@ -201,6 +690,31 @@ public class BattleSolver {
         return s.getStartingPlayer() == 'A' ? (totalA - totalB) : (totalB - totalA);
     }
 
+    /**
+     * generateChildren(Node) for the pooled engines: the same children in
+     * the same order, written into the arena frame for {@code depth}
+     * (reusing its Nodes, states and action strings) instead of new objects.
+     */
+    private SearchArena.Frame generateChildren(SearchContext context, Node parent, int depth) {
+        SearchArena.Frame frame = context.arena.frame(depth);
+        GameState state = parent.getState();
+        char player = state.getCurrentPlayer();
+        long[] attackers = state.getAliveMask(player);
+        long[] targets = state.getAliveMask(player == 'A' ? 'B' : 'A');
+
+        for (int w = 0; w < attackers.length; w++) {
+            for (long bits = attackers[w]; bits != 0; bits &= bits - 1) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(bits);
+                for (int v = 0; v < targets.length; v++) {
+                    for (long targetBits = targets[v]; targetBits != 0; targetBits &= targetBits - 1) {
+                        context.arena.addChild(frame, parent, i, (v << 6) + Long.numberOfTrailingZeros(targetBits));
+                    }
+                }
+            }
+        }
+        return frame;
+    }
+
     /**
      * Generate all legal children (successor states) from a parent node.
      * The action representation used by this solver is CurrentPlayer(i,j)
@@ -208,7 +722,8 @@ public class BattleSolver {
      * army and j is the index of the target unit in the opponent's army.
      *
      * Important notes:
-     * - We skip units that are already dead (health <= 0).
+     * - Dead units (health <= 0) are never visited: attackers and targets
+     *   are enumerated from the GameState's alive masks.
      * - When applying an attack we clone the GameState first to avoid
      *   mutating shared structures.
      * - After the attack, the turn switches to the other player.
@@ -216,45 +731,62 @@ public class BattleSolver {
     private List<Node> generateChildren(Node parent) {
         List<Node> children = new ArrayList<>();
         GameState state = parent.getState(); // state before applying any action
+        char player = state.getCurrentPlayer();
+        char opponent = player == 'A' ? 'B' : 'A';
 
-        // Determine which lists correspond to current player and opponent
-        List<Unit> currentArmy = state.getCurrentPlayer() == 'A' ? state.getArmyA() : state.getArmyB();
-        List<Unit> opponentArmy = state.getCurrentPlayer() == 'A' ? state.getArmyB() : state.getArmyA();
+        // Only alive units are enumerated: set bits of the alive masks, lowest first
+        long[] attackers = state.getAliveMask(player);
+        long[] targets = state.getAliveMask(opponent);
 
         // For each alive attacker in current army
-        for (int i = 0; i < currentArmy.size(); i++) {
-            if (!currentArmy.get(i).isAlive()) continue; // dead units can't act
-
-            // For each alive target in opponent army
-            for (int j = 0; j < opponentArmy.size(); j++) {
-                if (!opponentArmy.get(j).isAlive()) continue; // skip dead targets
+        for (int w = 0; w < attackers.length; w++) {
+            for (long bits = attackers[w]; bits != 0; bits &= bits - 1) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(bits);
 
-                // Clone the state so changes don't affect other branches
-                GameState newState = state.clone();
+                // For each alive target in opponent army
+                for (int v = 0; v < targets.length; v++) {
+                    for (long targetBits = targets[v]; targetBits != 0; targetBits &= targetBits - 1) {
+                        int j = (v << 6) + Long.numberOfTrailingZeros(targetBits);
 
-                // After cloning, grab the appropriate armies from the cloned state
-                List<Unit> newCurrentArmy = state.getCurrentPlayer() == 'A' ? newState.getArmyA() : newState.getArmyB();
-                List<Unit> newOpponentArmy = state.getCurrentPlayer() == 'A' ? newState.getArmyB() : newState.getArmyA();
+                        // Clone the state so changes don't affect other branches
+                        GameState newState = state.clone();
 
-                // Apply attack: reduce target health by attacker's damage (floor at 0)
-                int damage = newCurrentArmy.get(i).damage;
-                newOpponentArmy.get(j).health = Math.max(0, newOpponentArmy.get(j).health - damage);
+                        // Apply attack: reduce target health by attacker's damage (floor at 0)
+                        newState.applyAttack(i, j);
 
-                // Build action string e.g. "A(0,1)"
-                String action = state.getCurrentPlayer() + "(" + i + "," + j + ")";
+                        // Build action string e.g. "A(0,1)"
+                        String action = player + "(" + i + "," + j + ")";
 
-                // Switch current player for the new state
-                newState.setCurrentPlayer(state.getCurrentPlayer() == 'A' ? 'B' : 'A');
+                        // Switch current player for the new state
+                        newState.setCurrentPlayer(opponent);
 
-                // Create child node with increased depth
-                Node child = new Node(newState, parent, action, parent.getDepth() + 1);
-                children.add(child);
+                        // Create child node with increased depth
+                        Node child = new Node(newState, parent, action, parent.getDepth() + 1);
+                        children.add(child);
+                    }
+                }
             }
         }
 
         return children;
     }
 
+    /**
+     * Turn a move line found on a BattleBoard into a chain of Nodes below
+     * root, so buildPlan and visualizeSolution work unchanged. Returns the
+     * last node of the line (root itself for an empty line).
+     */
+    private static Node replayLine(Node root, IterativeSearch.Line line) {
+        BattleBoard board = BattleBoard.of(root.getState());
+        Node current = root;
+        for (IterativeSearch.Line step = line; step != null; step = step.next) {
+            String action = board.actionString(step.move);
+            board.apply(step.move);
+            current = new Node(board.toGameState(), current, action, current.getDepth() + 1);
+        }
+        return current;
+    }
+
     /**
      * Reconstruct action plan from a terminal node by walking up to the root.
      * Actions are returned as a comma-separated string. If the provided node is
@@ -268,11 +800,12 @@ public class BattleSolver {
         List<String> actions = new ArrayList<>();
         Node current = goalNode;
 
-        // Walk back to root collecting actions (ignore the root which has null action)
+        // Walk back to root collecting actions (ignore the root which has null action), then reverse
         while (current != null && current.getAction() != null) {
-            actions.add(0, current.getAction());
+            actions.add(current.getAction());
             current = current.getParent();
         }
+        java.util.Collections.reverse(actions);
 
         return String.join(",", actions);
     }
@@ -280,48 +813,103 @@ public class BattleSolver {
     /**
      * Print a readable step-by-step visualization of the plan and each
      * intervening GameState. Helpful when the `visualize` flag is enabled.
+     * Rendering is done by SolutionTraceWriter through one buffer; use it
+     * directly for NDJSON/binary output or to write elsewhere than stdout.
      */
-    private void visualizeSolution(Node goalNode) {
-        if (goalNode == null) {
-            System.out.println("No solution found.");
-            return;
-        }
-
-        List<Node> path = new ArrayList<>();
-        Node current = goalNode;
+    private void visualizeSolution(Node rootNode, String plan) {
+        SolutionTraceWriter.write(BattleBoard.of(rootNode.getState()), plan,
+                SolutionTraceWriter.Format.TEXT, System.out);
+        System.out.flush();
+    }
 
-        // Build path from root to the goal node
-        while (current != null) {
-            path.add(0, current);
-            current = current.getParent();
+    /**
+     * Drop the idle search contexts and their transposition tables. Solves
+     * running now finish normally and later solves start with fresh
+     * contexts, so the solver stays usable.
+     */
+    @Override
+    public void close() {
+        SearchContext context;
+        while ((context = contexts.pollFirst()) != null) {
+            unpark(context);
         }
+    }
 
-        System.out.println("=== Solution Visualization ===");
-        for (int i = 0; i < path.size(); i++) {
-            Node node = path.get(i);
-            GameState state = node.getState();
-
-            System.out.println("\nStep " + i + ":");
-            if (node.getAction() != null) {
-                System.out.println("Action: " + node.getAction());
-            }
+    /**
+     * The most recently released idle context of this solver, warmed by
+     * earlier solves, or a new one.
+     */
+    private SearchContext acquireContext() {
+        SearchContext context = contexts.pollFirst();
+        if (context == null) {
+            return new SearchContext();
+        }
+        unpark(context);
+        return context;
+    }
 
-            System.out.print("Army A: ");
-            for (Unit u : state.getArmyA()) {
-                System.out.print("[H:" + u.health + " D:" + u.damage + "] ");
-            }
+    // Take a context that left the idle pool off the pool's counts
+    private void unpark(SearchContext context) {
+        idleContexts.decrementAndGet();
+        if (context.table != null) {
+            idleTableBytes.addAndGet(-context.table.sizeInBytes());
+        }
+    }
 
-            System.out.print("\nArmy B: ");
-            for (Unit u : state.getArmyB()) {
-                System.out.print("[H:" + u.health + " D:" + u.damage + "] ");
+    /**
+     * Drop the finished solve's references and make the context available
+     * to the next caller. Beyond MAX_IDLE_CONTEXTS idle contexts it is
+     * dropped instead, and its transposition table is dropped when the idle
+     * tables would exceed MAX_IDLE_TABLE_BYTES (one table is always kept, so
+     * sequential solves keep reusing theirs).
+     */
+    private void releaseContext(SearchContext context) {
+        if (context.progress != null) {
+            // The solve failed before its final report: just stop the periodic ones
+            context.progress.stop();
+            context.control.setReporter(null);
+            context.progress = null;
+        }
+        context.control = null;
+        context.searchRoot = null;
+        context.partial = null;
+        context.arena = null;
+        context.governor = null;
+        if (idleContexts.incrementAndGet() > MAX_IDLE_CONTEXTS) {
+            idleContexts.decrementAndGet();
+            return;
+        }
+        if (context.table != null) {
+            long bytes = context.table.sizeInBytes();
+            long idle = idleTableBytes.addAndGet(bytes);
+            if (idle > bytes && idle > MAX_IDLE_TABLE_BYTES) {
+                idleTableBytes.addAndGet(-bytes);
+                context.table = null;
             }
-
-            System.out.println("\nCurrent Player: " + state.getCurrentPlayer());
-            System.out.println("Total Health A: " + state.getTotalHealth(state.getArmyA()));
-            System.out.println("Total Health B: " + state.getTotalHealth(state.getArmyB()));
         }
+        contexts.offerFirst(context);
+    }
 
-        System.out.println("\n=== End Visualization ===");
+    /**
+     * State of one running solve. A BattleSolver keeps a pool of them, so
+     * concurrent callers each search in their own context while sequential
+     * callers reuse warmed ones (the transposition table above all); idle
+     * contexts and their tables are capped, see releaseContext(...). Only
+     * the thread that acquired a context touches it until it is released.
+     */
+    private static final class SearchContext {
+        int nodesExpanded;          // how many tree nodes we expanded
+        boolean visualize;          // whether to print a textual visualization of the resulting path
+        SearchControl control;      // polled every checkMask + 1 nodes, null when nothing can stop the search
+        int checkMask;
+        Node searchRoot;            // root of the running exact search, whose progress is recorded in partial
+        MinimaxResult partial;      // best line found so far, returned if the search is stopped early
+        OffHeapTranspositionTable table; // ALPHA_BETA_TT cache, reused by the solves run in this context
+        long tableScenario;         // BattleBoard.scenarioKey() of the table's last solve
+        SearchArena arena;          // the solving thread's pool while MINIMAX / ALPHA_BETA runs
+        MemoryGovernor governor;    // memory budget of the running solve, null when unlimited
+        ProgressReporter progress;  // reports to the solve's SearchListener, null without one
+        OrderingWeights ordering = OrderingWeights.DEFAULT; // ALPHA_BETA move ordering of the running solve
     }
 
     // Helper class to store minimax results
@@ -0,0 +1,63 @@
+//src/main/java/battle/DistributedProtocol.java
+
+package battle;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Messages exchanged between a DistributedSolver (coordinator) and its
+ * DistributedWorker processes. Every message is a type byte followed by its
+ * fields, written with DataOutputStream; int lists are a length followed by
+ * the values. A task is the index of a root move in generation order.
+ *
+ * Coordinator to worker:
+ * <ul>
+ * <li>JOB jobId, state, tableBytes: new root position; forget earlier jobs.</li>
+ * <li>ASSIGN jobId, tasks: root moves to search, appended to the local queue.</li>
+ * <li>BOUND jobId, value: best exact root value found so far by anyone.</li>
+ * <li>STEAL jobId: hand back about half of the tasks not started yet.</li>
+ * <li>SHUTDOWN: exit.</li>
+ * </ul>
+ * Worker to coordinator:
+ * <ul>
+ * <li>RESULT jobId, task, value, exact, nodes, line: one searched root move;
+ *     line is the continuation after it (empty unless exact).</li>
+ * <li>IDLE jobId: the local queue ran empty.</li>
+ * <li>STOLEN jobId, tasks: answer to STEAL, possibly empty.</li>
+ * </ul>
+ */
+final class DistributedProtocol {
+    static final byte JOB = 1;
+    static final byte ASSIGN = 2;
+    static final byte BOUND = 3;
+    static final byte STEAL = 4;
+    static final byte SHUTDOWN = 5;
+
+    static final byte RESULT = 11;
+    static final byte IDLE = 12;
+    static final byte STOLEN = 13;
+
+    private DistributedProtocol() {
+    }
+
+    static void writeInts(DataOutputStream out, int[] values, int count) throws IOException {
+        out.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            out.writeInt(values[i]);
+        }
+    }
+
+    static int[] readInts(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Negative list length " + count);
+        }
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+}
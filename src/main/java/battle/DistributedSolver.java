@@ -0,0 +1,431 @@
+//src/main/java/battle/DistributedSolver.java
+
+package battle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exact solving spread over several worker JVMs on this machine, for trees
+ * that outgrow one process's cores and heap. The coordinator starts the
+ * workers ({@link DistributedWorker}) as child processes connected over
+ * loopback sockets and keeps them for every solve until close().
+ *
+ * A solve splits the root: every legal root move (generation order) is a
+ * task, dealt round-robin to the workers' local queues. Each worker runs
+ * ALPHA_BETA_TT on its moves with its own transposition table. When a move
+ * comes back with an exact value better than any before, that value is
+ * broadcast to all workers, which narrow the window of the moves they
+ * search (restarting a running one) so later moves only have to prove they
+ * are no better. A worker whose queue runs empty reports IDLE and the
+ * coordinator steals half of the unstarted tasks of the worker with the
+ * most outstanding work on its behalf.
+ *
+ * The result is the usual "plan;score;nodesExpanded;": the score is the
+ * exact game value (the same as every exact engine), the plan starts with
+ * the first root move in generation order that reaches it, and
+ * nodesExpanded is the root plus the nodes of all worker searches,
+ * including restarts. Node counts therefore vary from run to run; values
+ * and the chosen root move do not.
+ *
+ * One solve runs at a time; solve() is synchronized. A worker that dies
+ * fails the running solve with an IllegalStateException and leaves the
+ * solver unusable.
+ */
+public final class DistributedSolver implements AutoCloseable {
+    private static final int CONNECT_TIMEOUT_MILLIS = 30_000;
+
+    private final long tableBytes;
+    private final ServerSocket server;
+    private final List<Process> processes = new ArrayList<>();
+    private final List<Connection> workers = new ArrayList<>();
+    private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+    private int jobId;
+    private boolean closed;
+
+    /**
+     * Start {@code workers} worker JVMs, each with a transposition table of
+     * the default ALPHA_BETA_TT size.
+     */
+    public DistributedSolver(int workers) throws IOException {
+        this(workers, new SolveOptions().getTableBytes());
+    }
+
+    /**
+     * @param workers number of worker JVMs to start
+     * @param tableBytes off-heap transposition table of each worker
+     */
+    public DistributedSolver(int workers, long tableBytes) throws IOException {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be at least 1: " + workers);
+        }
+        this.tableBytes = tableBytes;
+        this.server = new ServerSocket(0, workers, InetAddress.getLoopbackAddress());
+        try {
+            server.setSoTimeout(CONNECT_TIMEOUT_MILLIS);
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+            for (int w = 0; w < workers; w++) {
+                ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        DistributedWorker.class.getName(), server.getInetAddress().getHostAddress(),
+                        String.valueOf(server.getLocalPort()));
+                builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+                builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+                processes.add(builder.start());
+            }
+            for (int w = 0; w < workers; w++) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (SocketTimeoutException e) {
+                    throw new IOException("Only " + w + " of " + workers + " workers connected", e);
+                }
+                socket.setTcpNoDelay(true);
+                Connection connection = new Connection(w, socket);
+                this.workers.add(connection);
+                connection.reader.start();
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public int getWorkers() {
+        return workers.size();
+    }
+
+    /**
+     * Solve a battle exactly on the workers.
+     *
+     * @param initialStateString same format as BattleSolver.solve(...)
+     * @return plan, exact score and the summed node count of all workers
+     */
+    public synchronized SolveResult solve(String initialStateString) {
+        if (closed) {
+            throw new IllegalStateException("DistributedSolver is closed");
+        }
+        BattleBoard root = BattleBoard.parse(initialStateString);
+        if (root.isTerminal()) {
+            return new SolveResult("", root.utility(), 1, Engine.ALPHA_BETA_TT, true);
+        }
+        int[] moves = new int[root.maxBranching()];
+        int count = root.generateMoves(moves);
+        boolean maximizing = root.current == root.starting;
+        try {
+            return new Job(++jobId, root, moves, count, maximizing).run();
+        } catch (IOException e) {
+            throw new IllegalStateException("Distributed solve failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for workers", e);
+        }
+    }
+
+    /**
+     * Stop the workers and release the sockets. Idempotent.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        for (Connection connection : workers) {
+            try {
+                connection.send(out -> out.writeByte(DistributedProtocol.SHUTDOWN));
+            } catch (IOException e) {
+                // the worker is gone already
+            }
+            connection.closeQuietly();
+        }
+        try {
+            server.close();
+        } catch (IOException e) {
+            // nothing to release
+        }
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // One solve: tasks are root move indexes
+    private final class Job {
+        private final int id;
+        private final BattleBoard root;
+        private final int[] moves;
+        private final int count;
+        private final boolean maximizing;
+
+        private final boolean[] done;
+        private final int[] values;
+        private final boolean[] exact;
+        private final int[][] lines;
+        private final int[] outstanding;     // tasks assigned to a worker and not reported yet
+        private final int[] stealingFor;     // thief a STEAL sent to this worker is for, -1 if none
+        private final boolean[] dry;         // answered a STEAL with nothing; skipped until its next RESULT
+        private final ArrayDeque<Integer> idle = new ArrayDeque<>(); // workers waiting for stolen work
+        private long nodes = 1;              // the root
+        private boolean hasBest;
+        private int best;
+
+        Job(int id, BattleBoard root, int[] moves, int count, boolean maximizing) {
+            this.id = id;
+            this.root = root;
+            this.moves = moves;
+            this.count = count;
+            this.maximizing = maximizing;
+            this.done = new boolean[count];
+            this.values = new int[count];
+            this.exact = new boolean[count];
+            this.lines = new int[count][];
+            this.outstanding = new int[workers.size()];
+            this.stealingFor = new int[workers.size()];
+            java.util.Arrays.fill(stealingFor, -1);
+            this.dry = new boolean[workers.size()];
+        }
+
+        SolveResult run() throws IOException, InterruptedException {
+            String state = root.stateString();
+            int n = workers.size();
+            for (Connection worker : workers) {
+                worker.send(out -> {
+                    out.writeByte(DistributedProtocol.JOB);
+                    out.writeInt(id);
+                    out.writeUTF(state);
+                    out.writeLong(tableBytes);
+                });
+            }
+            // Round-robin, so every worker starts with some of the early (best-ordered) moves
+            for (int w = 0; w < n; w++) {
+                int[] tasks = new int[(count - w + n - 1) / n];
+                for (int k = w, i = 0; k < count; k += n) tasks[i++] = k;
+                assign(w, tasks, tasks.length);
+            }
+
+            int remaining = count;
+            while (remaining > 0) {
+                Event event = events.take();
+                if (event.type == Event.DISCONNECTED) {
+                    throw new IOException("Worker " + event.worker + " disconnected", event.error);
+                }
+                if (event.job != id) {
+                    continue; // late message of an earlier job
+                }
+                switch (event.type) {
+                    case DistributedProtocol.RESULT:
+                        outstanding[event.worker]--;
+                        dry[event.worker] = false;
+                        if (!done[event.task]) {
+                            remaining--;
+                            record(event);
+                        }
+                        while (!idle.isEmpty() && stealFor(idle.peekFirst())) {
+                            idle.pollFirst();
+                        }
+                        break;
+                    case DistributedProtocol.IDLE:
+                        if (!stealFor(event.worker)) idle.addLast(event.worker);
+                        break;
+                    case DistributedProtocol.STOLEN: {
+                        int thief = stealingFor[event.worker];
+                        stealingFor[event.worker] = -1;
+                        outstanding[event.worker] -= event.ints.length;
+                        if (event.ints.length > 0) {
+                            assign(thief, event.ints, event.ints.length);
+                        } else {
+                            // Nothing left to give before its running task reports; try someone else
+                            dry[event.worker] = true;
+                            if (!stealFor(thief)) idle.addLast(thief);
+                        }
+                        break;
+                    }
+                    default:
+                        throw new IOException("Unexpected message type " + event.type);
+                }
+            }
+            return result();
+        }
+
+        private void record(Event event) throws IOException {
+            done[event.task] = true;
+            values[event.task] = event.value;
+            exact[event.task] = event.exact;
+            lines[event.task] = event.ints;
+            nodes += event.nodes;
+            if (event.exact && (!hasBest || (maximizing ? event.value > best : event.value < best))) {
+                hasBest = true;
+                best = event.value;
+                for (Connection worker : workers) {
+                    worker.send(out -> {
+                        out.writeByte(DistributedProtocol.BOUND);
+                        out.writeInt(id);
+                        out.writeInt(best);
+                    });
+                }
+            }
+        }
+
+        /**
+         * Ask the worker with the most unstarted tasks (other than the
+         * thief, and other than workers whose last STEAL came back empty) to
+         * give some up for the thief. False when nobody has spare tasks.
+         */
+        private boolean stealFor(int thief) throws IOException {
+            int victim = -1;
+            for (int w = 0; w < outstanding.length; w++) {
+                // One task may be running; only the rest can be stolen
+                if (w != thief && stealingFor[w] < 0 && !dry[w] && outstanding[w] > 1
+                        && (victim < 0 || outstanding[w] > outstanding[victim])) {
+                    victim = w;
+                }
+            }
+            if (victim < 0) return false;
+            stealingFor[victim] = thief;
+            workers.get(victim).send(out -> {
+                out.writeByte(DistributedProtocol.STEAL);
+                out.writeInt(id);
+            });
+            return true;
+        }
+
+        private void assign(int worker, int[] tasks, int length) throws IOException {
+            outstanding[worker] += length;
+            workers.get(worker).send(out -> {
+                out.writeByte(DistributedProtocol.ASSIGN);
+                out.writeInt(id);
+                DistributedProtocol.writeInts(out, tasks, length);
+            });
+        }
+
+        // First root move in generation order with the best exact value
+        private SolveResult result() {
+            int chosen = -1;
+            for (int k = 0; k < count; k++) {
+                if (exact[k] && values[k] == best) {
+                    chosen = k;
+                    break;
+                }
+            }
+            if (chosen < 0) {
+                throw new IllegalStateException("No root move reached the best value " + best);
+            }
+            StringBuilder plan = new StringBuilder();
+            BattleBoard replay = root.copy();
+            replay.appendAction(plan, moves[chosen]);
+            replay.apply(moves[chosen]);
+            for (int move : lines[chosen]) {
+                plan.append(',');
+                replay.appendAction(plan, move);
+                replay.apply(move);
+            }
+            return new SolveResult(plan.toString(), best, nodes, Engine.ALPHA_BETA_TT, true);
+        }
+    }
+
+    // A message from a worker (or its disconnection), as read by its Connection thread
+    private static final class Event {
+        static final byte DISCONNECTED = -1;
+
+        final int worker;
+        final byte type;
+        int job;
+        int task;
+        int value;
+        boolean exact;
+        long nodes;
+        int[] ints = new int[0];
+        IOException error;
+
+        Event(int worker, byte type) {
+            this.worker = worker;
+            this.type = type;
+        }
+    }
+
+    private interface Message {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    // Socket to one worker plus the thread that turns its messages into events
+    private final class Connection {
+        private final int index;
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        final Thread reader;
+
+        Connection(int index, Socket socket) throws IOException {
+            this.index = index;
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            this.reader = new Thread(this::read, "distributed-coordinator-" + index);
+            this.reader.setDaemon(true);
+        }
+
+        void send(Message message) throws IOException {
+            synchronized (out) {
+                message.write(out);
+                out.flush();
+            }
+        }
+
+        private void read() {
+            try {
+                while (true) {
+                    byte type = in.readByte();
+                    Event event = new Event(index, type);
+                    event.job = in.readInt();
+                    switch (type) {
+                        case DistributedProtocol.RESULT:
+                            event.task = in.readInt();
+                            event.value = in.readInt();
+                            event.exact = in.readBoolean();
+                            event.nodes = in.readLong();
+                            event.ints = DistributedProtocol.readInts(in);
+                            break;
+                        case DistributedProtocol.STOLEN:
+                            event.ints = DistributedProtocol.readInts(in);
+                            break;
+                        case DistributedProtocol.IDLE:
+                            break;
+                        default:
+                            throw new IOException("Unknown message type " + type);
+                    }
+                    events.add(event);
+                }
+            } catch (IOException e) {
+                Event event = new Event(index, Event.DISCONNECTED);
+                event.error = e;
+                events.add(event);
+            }
+        }
+
+        void closeQuietly() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // already closed
+            }
+        }
+    }
+}
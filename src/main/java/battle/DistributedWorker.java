@@ -0,0 +1,274 @@
+//src/main/java/battle/DistributedWorker.java
+
+package battle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayDeque;
+
+/**
+ * Worker process of a {@link DistributedSolver}: connects to the
+ * coordinator, receives root moves to search and reports their values.
+ * Started by the coordinator as
+ * {@code java -cp <classpath> battle.DistributedWorker <host> <port>}.
+ *
+ * One thread reads messages, another searches. Each root move is searched
+ * with ALPHA_BETA_TT in a window that only admits values at least as good
+ * as the best root value known, so a move that cannot beat it fails low
+ * quickly. When the coordinator broadcasts a better bound while a move is
+ * being searched, the search is stopped and restarted with the narrower
+ * window; the transposition table keeps what was already searched, so the
+ * restart mostly replays table hits.
+ *
+ * Tasks not started yet sit in a local queue; on STEAL the newest half of
+ * them is handed back for the coordinator to pass to an idle worker.
+ */
+public final class DistributedWorker {
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final ArrayDeque<Integer> queue = new ArrayDeque<>(); // tasks of the current job, guarded by this
+
+    // Current job, guarded by this
+    private int jobId = -1;
+    private BattleBoard root;
+    private int[] rootMoves;
+    private boolean rootMaximizing;
+    private boolean hasBound;
+    private int bound;
+    private OffHeapTranspositionTable table;
+    private boolean idleSent;
+    private boolean shutdown;
+
+    // Search in progress: its control and the bound its window was built from
+    private SearchControl activeControl;
+    private boolean activeHasBound;
+    private int activeBound;
+
+    DistributedWorker(Socket socket) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: battle.DistributedWorker <host> <port>");
+            System.exit(2);
+        }
+        try (Socket socket = new Socket(args[0], Integer.parseInt(args[1]))) {
+            socket.setTcpNoDelay(true);
+            new DistributedWorker(socket).run();
+        }
+    }
+
+    /**
+     * Serve the coordinator until it sends SHUTDOWN or closes the connection.
+     */
+    void run() throws IOException {
+        Thread searcher = new Thread(this::searchLoop, "distributed-search");
+        searcher.setDaemon(true);
+        searcher.start();
+        try {
+            while (true) {
+                byte type = in.readByte();
+                if (type == DistributedProtocol.SHUTDOWN) {
+                    break;
+                }
+                handle(type);
+            }
+        } catch (EOFException e) {
+            // coordinator went away: nothing left to do
+        } finally {
+            synchronized (this) {
+                shutdown = true;
+                if (activeControl != null) activeControl.cancel();
+                notifyAll();
+            }
+        }
+    }
+
+    private void handle(byte type) throws IOException {
+        switch (type) {
+            case DistributedProtocol.JOB: {
+                int id = in.readInt();
+                String state = in.readUTF();
+                long tableBytes = in.readLong();
+                startJob(id, state, tableBytes);
+                break;
+            }
+            case DistributedProtocol.ASSIGN: {
+                int id = in.readInt();
+                int[] tasks = DistributedProtocol.readInts(in);
+                synchronized (this) {
+                    if (id != jobId) break;
+                    for (int task : tasks) queue.addLast(task);
+                    idleSent = false;
+                    notifyAll();
+                }
+                break;
+            }
+            case DistributedProtocol.BOUND: {
+                int id = in.readInt();
+                int value = in.readInt();
+                updateBound(id, value);
+                break;
+            }
+            case DistributedProtocol.STEAL: {
+                int id = in.readInt();
+                int[] stolen;
+                int count = 0;
+                synchronized (this) {
+                    stolen = new int[(queue.size() + 1) / 2]; // a lone queued task goes too
+                    if (id == jobId) {
+                        while (count < stolen.length) stolen[count++] = queue.pollLast();
+                    }
+                }
+                synchronized (out) {
+                    out.writeByte(DistributedProtocol.STOLEN);
+                    out.writeInt(id);
+                    DistributedProtocol.writeInts(out, stolen, count);
+                    out.flush();
+                }
+                break;
+            }
+            default:
+                throw new IOException("Unknown message type " + type);
+        }
+    }
+
+    private synchronized void startJob(int id, String state, long tableBytes) {
+        jobId = id;
+        root = BattleBoard.parse(state);
+        rootMoves = new int[root.maxBranching()];
+        root.generateMoves(rootMoves);
+        rootMaximizing = root.current == root.starting;
+        hasBound = false;
+        queue.clear();
+        idleSent = false;
+        long entries = Long.highestOneBit(Math.max(4, tableBytes / 16));
+        if (table == null || table.capacity() != entries) {
+            table = new OffHeapTranspositionTable(tableBytes);
+        } else {
+            table.clear();
+        }
+    }
+
+    /**
+     * Adopt a better root bound and stop the running search if its window
+     * was built from a worse one.
+     */
+    private synchronized void updateBound(int id, int value) {
+        if (id != jobId || hasBound && !improves(value, bound)) {
+            return;
+        }
+        hasBound = true;
+        bound = value;
+        if (activeControl != null && (!activeHasBound || improves(value, activeBound))) {
+            activeControl.cancel();
+        }
+    }
+
+    private boolean improves(int value, int than) {
+        return rootMaximizing ? value > than : value < than;
+    }
+
+    private void searchLoop() {
+        try {
+            while (true) {
+                int id;
+                int task;
+                BattleBoard child;
+                OffHeapTranspositionTable searchTable;
+                synchronized (this) {
+                    while (!shutdown && queue.isEmpty()) {
+                        if (!idleSent && jobId >= 0) {
+                            idleSent = true;
+                            sendIdle(jobId);
+                        }
+                        wait();
+                    }
+                    if (shutdown) return;
+                    id = jobId;
+                    task = queue.pollFirst();
+                    child = root.copy();
+                    child.apply(rootMoves[task]);
+                    searchTable = table;
+                }
+                searchTask(id, task, child, searchTable);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // connection lost; the reader thread ends the worker
+        }
+    }
+
+    /**
+     * Search one root move, restarting whenever a better bound arrives, and
+     * report it.
+     */
+    private void searchTask(int id, int task, BattleBoard child, OffHeapTranspositionTable searchTable)
+            throws IOException {
+        long nodes = 0;
+        IterativeSearch.Line line;
+        int value;
+        boolean exact;
+        while (true) {
+            int alpha = Integer.MIN_VALUE;
+            int beta = Integer.MAX_VALUE;
+            SearchControl control = new SearchControl();
+            synchronized (this) {
+                if (shutdown || id != jobId) return;
+                activeControl = control;
+                activeHasBound = hasBound;
+                activeBound = bound;
+                // Values equal to the bound stay exact, so ties resolve the same way on every run
+                if (hasBound && rootMaximizing) alpha = bound - 1;
+                if (hasBound && !rootMaximizing) beta = bound + 1;
+            }
+            TranspositionSearch search = new TranspositionSearch(searchTable, control);
+            try {
+                line = search.searchWindow(child, alpha, beta);
+                value = search.rootValue();
+                exact = child.isTerminal() || value > alpha && value < beta;
+                nodes += search.getNodesExpanded();
+                break;
+            } catch (SearchAbortedException e) {
+                nodes += search.getNodesExpanded(); // a better bound arrived: search again with it
+            } finally {
+                synchronized (this) {
+                    activeControl = null;
+                }
+            }
+        }
+
+        int[] moves = new int[16];
+        int length = 0;
+        for (IterativeSearch.Line step = line; step != null; step = step.next) {
+            if (length == moves.length) moves = java.util.Arrays.copyOf(moves, length * 2);
+            moves[length++] = step.move;
+        }
+        synchronized (out) {
+            out.writeByte(DistributedProtocol.RESULT);
+            out.writeInt(id);
+            out.writeInt(task);
+            out.writeInt(value);
+            out.writeBoolean(exact);
+            out.writeLong(nodes);
+            DistributedProtocol.writeInts(out, moves, length);
+            out.flush();
+        }
+    }
+
+    private void sendIdle(int id) throws IOException {
+        synchronized (out) {
+            out.writeByte(DistributedProtocol.IDLE);
+            out.writeInt(id);
+            out.flush();
+        }
+    }
+}
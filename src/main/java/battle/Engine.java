@@ -0,0 +1,40 @@
+//src/main/java/battle/Engine.java
+
+package battle;
+
+/**
+ * Search engines BattleSolver can run. Selected through
+ * {@link SolveOptions#setEngine(Engine)}.
+ */
+public enum Engine {
+    /** Plain recursive minimax over the full game tree (exact). */
+    MINIMAX(true),
+    /** Recursive minimax with alpha-beta pruning and move ordering (exact). */
+    ALPHA_BETA(true),
+    /** Alpha-beta with an off-heap transposition table; same value, far fewer nodes (exact). */
+    ALPHA_BETA_TT(true),
+    /** Bottom-up evaluation of all reachable positions, layer by total health, in parallel (exact). */
+    LAYERED(true),
+    /** Monte Carlo Tree Search bounded by iterations or wall time (approximate). */
+    MCTS(false),
+    /** Alpha-beta to a fixed depth, scoring the horizon with an Evaluator (approximate). */
+    DEPTH_LIMITED(false),
+    /** Alpha-beta with ProbCut-style forward pruning of moves a shallow search rates hopeless (approximate). */
+    SELECTIVE(false),
+    /** Estimate the tree size first, then run whichever engine fits the time budget. */
+    AUTO(false);
+
+    private final boolean exact;
+
+    Engine(boolean exact) {
+        this.exact = exact;
+    }
+
+    /**
+     * Whether the engine always returns the exact game value. AUTO depends on
+     * the engine it picks; see SolveResult.isExact().
+     */
+    public boolean isExact() {
+        return exact;
+    }
+}
@@ -0,0 +1,172 @@
+//src/main/java/battle/EngineCostModel.java
+
+package battle;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * EngineCostModel turns a {@link TreeSizeEstimator.Estimate} into predicted
+ * node counts and wall time per engine, and picks an engine for Engine.AUTO.
+ *
+ * Two factors per engine are learned from finished solves with an
+ * exponential moving average: the ratio between actual and modelled nodes
+ * (alpha-beta never reaches the minimal tree, the Knuth estimate is noisy)
+ * and the time per node. Both are stored as double bits in atomic arrays so
+ * one model can be shared by concurrent solves. Time per node is kept per
+ * thread: engines that run on setThreads(n) threads (MINIMAX, LAYERED) are
+ * predicted to take 1/n of it, and their observed wall time is scaled back
+ * up by n.
+ */
+final class EngineCostModel {
+    private static final double SMOOTHING = 0.25; // weight of the newest observation
+    private static final double LAYER_BYTES_PER_POSITION = 32; // LAYERED: hash slot and value, load factor
+
+    private final AtomicLongArray nanosPerNode = new AtomicLongArray(Engine.values().length);
+    private final AtomicLongArray nodeCorrection = new AtomicLongArray(Engine.values().length);
+
+    EngineCostModel() {
+        // Starting points measured on a warm JVM; refined by observe(...)
+        setDouble(nanosPerNode, Engine.MINIMAX, 400);
+        setDouble(nanosPerNode, Engine.ALPHA_BETA, 700);
+        setDouble(nanosPerNode, Engine.ALPHA_BETA_TT, 300);
+        setDouble(nanosPerNode, Engine.LAYERED, 150);
+        setDouble(nanosPerNode, Engine.DEPTH_LIMITED, 700);
+        setDouble(nanosPerNode, Engine.MCTS, 1500);
+        setDouble(nanosPerNode, Engine.SELECTIVE, 400);
+        setDouble(nanosPerNode, Engine.AUTO, 700);
+        for (Engine engine : Engine.values()) {
+            setDouble(nodeCorrection, engine, 1.0);
+        }
+        setDouble(nodeCorrection, Engine.ALPHA_BETA, 3.0);
+        setDouble(nodeCorrection, Engine.ALPHA_BETA_TT, 0.05); // most reachable positions are never visited
+        setDouble(nodeCorrection, Engine.LAYERED, 0.5);
+    }
+
+    /**
+     * Nodes the engine would expand according to the tree model alone.
+     */
+    double modelNodes(Engine engine, TreeSizeEstimator.Estimate estimate, SolveOptions options) {
+        switch (engine) {
+            case MINIMAX:
+                return estimate.getTreeNodes();
+            case ALPHA_BETA:
+                return estimate.getMinimalTreeNodes();
+            case ALPHA_BETA_TT: {
+                // Each position is searched about once, more often when the table cannot hold them
+                double entries = options.getTableBytes() / (double) OffHeapTranspositionTable.ENTRY_BYTES;
+                double positions = estimate.getDistinctPositions();
+                double once = positions * Math.max(1, estimate.getAverageBranching()) * Math.max(1, positions / entries);
+                return Math.min(estimate.getMinimalTreeNodes(), once);
+            }
+            case LAYERED:
+                // Every reachable position once, every child of it scored
+                return estimate.getDistinctPositions() * Math.max(1, estimate.getAverageBranching());
+            case DEPTH_LIMITED: {
+                // Minimal tree of depth maxDepth, searched once per move of the game
+                double b = Math.max(1, estimate.getAverageBranching());
+                double perMove = 0;
+                for (int k = 0; k <= options.getMaxDepth(); k++) {
+                    perMove += Math.pow(b, (k + 1) / 2) + Math.pow(b, k / 2) - 1;
+                }
+                return perMove * Math.max(1, estimate.getAverageDepth());
+            }
+            case MCTS:
+                return Math.max(1, options.getMaxIterations()) * Math.max(1, estimate.getAverageBranching());
+            default:
+                return estimate.getMinimalTreeNodes();
+        }
+    }
+
+    double predictNodes(Engine engine, TreeSizeEstimator.Estimate estimate, SolveOptions options) {
+        return modelNodes(engine, estimate, options) * getDouble(nodeCorrection, engine);
+    }
+
+    double predictMillis(Engine engine, double nodes, SolveOptions options) {
+        return nodes * getDouble(nanosPerNode, engine) / 1_000_000.0 / parallelism(engine, options);
+    }
+
+    /**
+     * Threads the engine's nodes are spread over under these options.
+     */
+    static int parallelism(Engine engine, SolveOptions options) {
+        return engine == Engine.MINIMAX || engine == Engine.LAYERED ? Math.max(1, options.getThreads()) : 1;
+    }
+
+    /**
+     * Pick the engine for an AUTO solve. Exact alpha-beta when it is
+     * predicted to fit the budget; otherwise the fastest other exact engine
+     * that fits: the memoized ALPHA_BETA_TT, LAYERED (when layerSupported and
+     * its layers fit the memory budget) or, with more than one thread,
+     * parallel MINIMAX. Failing those the depth-limited engine if it fits,
+     * and otherwise MCTS bounded by the budget itself.
+     */
+    EngineSelection select(TreeSizeEstimator.Estimate estimate, SolveOptions options, long budgetMillis,
+                           boolean layerSupported) {
+        Map<Engine, Double> nodes = new EnumMap<>(Engine.class);
+        Map<Engine, Double> millis = new EnumMap<>(Engine.class);
+        for (Engine engine : new Engine[] { Engine.MINIMAX, Engine.ALPHA_BETA, Engine.ALPHA_BETA_TT,
+                Engine.LAYERED, Engine.DEPTH_LIMITED }) {
+            double predicted = predictNodes(engine, estimate, options);
+            nodes.put(engine, predicted);
+            millis.put(engine, predictMillis(engine, predicted, options));
+        }
+        // MCTS is run with the budget as its time limit
+        millis.put(Engine.MCTS, (double) budgetMillis);
+        nodes.put(Engine.MCTS, budgetMillis * 1_000_000.0 / getDouble(nanosPerNode, Engine.MCTS));
+
+        boolean layerFits = layerSupported && (options.getMemoryBudgetBytes() <= 0
+                || estimate.getDistinctPositions() * LAYER_BYTES_PER_POSITION <= options.getMemoryBudgetBytes());
+        Engine chosen = null;
+        if (millis.get(Engine.ALPHA_BETA) <= budgetMillis) {
+            chosen = Engine.ALPHA_BETA;
+        } else {
+            for (Engine engine : new Engine[] { Engine.ALPHA_BETA_TT, Engine.LAYERED, Engine.MINIMAX }) {
+                boolean eligible = engine == Engine.ALPHA_BETA_TT
+                        || engine == Engine.LAYERED && layerFits
+                        || engine == Engine.MINIMAX && options.getThreads() > 1;
+                if (eligible && millis.get(engine) <= budgetMillis
+                        && (chosen == null || millis.get(engine) < millis.get(chosen))) {
+                    chosen = engine;
+                }
+            }
+        }
+        if (chosen == null) {
+            chosen = millis.get(Engine.DEPTH_LIMITED) <= budgetMillis ? Engine.DEPTH_LIMITED : Engine.MCTS;
+        }
+        return new EngineSelection(chosen, budgetMillis, estimate, nodes, millis);
+    }
+
+    /**
+     * Feed back the outcome of a finished solve.
+     *
+     * @param modelled nodes predicted by modelNodes(...) before correction
+     * @param threads parallelism(engine, options) of the solve
+     */
+    void observe(Engine engine, double modelled, long actualNodes, long elapsedNanos, int threads) {
+        if (actualNodes <= 0) return;
+        if (engine != Engine.MCTS && modelled > 0) {
+            blend(nodeCorrection, engine, actualNodes / modelled);
+        }
+        blend(nanosPerNode, engine, (double) elapsedNanos * threads / actualNodes);
+    }
+
+    private static void blend(AtomicLongArray values, Engine engine, double observed) {
+        int i = engine.ordinal();
+        long bits;
+        double next;
+        do {
+            bits = values.get(i);
+            next = (1 - SMOOTHING) * Double.longBitsToDouble(bits) + SMOOTHING * observed;
+        } while (!values.compareAndSet(i, bits, Double.doubleToLongBits(next)));
+    }
+
+    private static double getDouble(AtomicLongArray values, Engine engine) {
+        return Double.longBitsToDouble(values.get(engine.ordinal()));
+    }
+
+    private static void setDouble(AtomicLongArray values, Engine engine, double value) {
+        values.set(engine.ordinal(), Double.doubleToLongBits(value));
+    }
+}
@@ -0,0 +1,86 @@
+//src/main/java/battle/EngineSelection.java
+
+package battle;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Report of an Engine.AUTO solve: the tree estimate, what every engine was
+ * predicted to cost, which engine was chosen and what it actually cost.
+ * The error ratios (actual / predicted) are what to look at when tuning the
+ * selection thresholds.
+ */
+public class EngineSelection {
+    private final Engine chosen;
+    private final long budgetMillis;
+    private final TreeSizeEstimator.Estimate estimate;
+    private final Map<Engine, Double> predictedNodes;
+    private final Map<Engine, Double> predictedMillis;
+    private long actualNodes;
+    private double actualMillis;
+
+    EngineSelection(Engine chosen, long budgetMillis, TreeSizeEstimator.Estimate estimate,
+                    Map<Engine, Double> predictedNodes, Map<Engine, Double> predictedMillis) {
+        this.chosen = chosen;
+        this.budgetMillis = budgetMillis;
+        this.estimate = estimate;
+        this.predictedNodes = Collections.unmodifiableMap(predictedNodes);
+        this.predictedMillis = Collections.unmodifiableMap(predictedMillis);
+    }
+
+    // Filled in once the chosen engine has finished; left at zero when a memory degrade replaced it
+    void recordActual(long nodes, double millis) {
+        this.actualNodes = nodes;
+        this.actualMillis = millis;
+    }
+
+    public Engine getChosen() {
+        return chosen;
+    }
+
+    public long getBudgetMillis() {
+        return budgetMillis;
+    }
+
+    public TreeSizeEstimator.Estimate getEstimate() {
+        return estimate;
+    }
+
+    /** Predicted node count per candidate engine. */
+    public Map<Engine, Double> getPredictedNodes() {
+        return predictedNodes;
+    }
+
+    /** Predicted wall time in milliseconds per candidate engine. */
+    public Map<Engine, Double> getPredictedMillis() {
+        return predictedMillis;
+    }
+
+    public long getActualNodes() {
+        return actualNodes;
+    }
+
+    public double getActualMillis() {
+        return actualMillis;
+    }
+
+    /** Actual / predicted nodes of the chosen engine (1.0 = perfect). */
+    public double getNodeError() {
+        double predicted = predictedNodes.getOrDefault(chosen, 0.0);
+        return predicted > 0 ? actualNodes / predicted : Double.NaN;
+    }
+
+    /** Actual / predicted wall time of the chosen engine (1.0 = perfect). */
+    public double getTimeError() {
+        double predicted = predictedMillis.getOrDefault(chosen, 0.0);
+        return predicted > 0 ? actualMillis / predicted : Double.NaN;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("chosen=%s budget=%dms predicted=%.3g nodes/%.1fms actual=%d nodes/%.1fms error=%.2fx nodes, %.2fx time [%s]",
+                chosen, budgetMillis, predictedNodes.getOrDefault(chosen, 0.0), predictedMillis.getOrDefault(chosen, 0.0),
+                actualNodes, actualMillis, getNodeError(), getTimeError(), estimate);
+    }
+}
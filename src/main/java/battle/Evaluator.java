@@ -0,0 +1,29 @@
+//src/main/java/battle/Evaluator.java
+
+package battle;
+
+import battle.Node.GameState;
+
+/**
+ * Evaluator scores non-terminal states for the depth-limited search
+ * (Engine.DEPTH_LIMITED). Scores follow the same convention as
+ * GameState.getUtility(): larger is better for the state's starting player.
+ *
+ * Implementations should stay well inside +/- {@link #MAX_SCORE}; the search
+ * clamps to that range so that a real win always outranks any estimate.
+ * Built-in evaluators are in {@link Evaluators}.
+ */
+@FunctionalInterface
+public interface Evaluator {
+    /** Largest magnitude an estimate may take; terminal states score beyond it. */
+    int MAX_SCORE = 1 << 20;
+
+    /**
+     * Estimate the value of a non-terminal state from the perspective of its
+     * starting player.
+     *
+     * @param state a state that is not terminal
+     * @return the estimate, positive when the starting player is ahead
+     */
+    int evaluate(GameState state);
+}
@@ -0,0 +1,90 @@
+//src/main/java/battle/Evaluators.java
+
+package battle;
+
+import java.util.List;
+
+import battle.Node.GameState;
+import battle.Node.Unit;
+
+/**
+ * Built-in {@link Evaluator} implementations. All of them are stateless and
+ * safe to share between threads.
+ */
+public final class Evaluators {
+
+    private Evaluators() {
+    }
+
+    /**
+     * Total-health advantage of the starting player. The same quantity
+     * BattleSolver uses for move ordering.
+     */
+    public static final Evaluator HEALTH_DIFFERENCE = state -> {
+        int own = state.getTotalHealth(ownArmy(state));
+        int other = state.getTotalHealth(otherArmy(state));
+        return own - other;
+    };
+
+    /**
+     * Health advantage plus the difference in damage the surviving units can
+     * still deal. A dead unit stops threatening anything, so kills are
+     * rewarded beyond the health they remove.
+     */
+    public static final Evaluator DAMAGE_WEIGHTED_THREAT = state -> {
+        List<Unit> own = ownArmy(state);
+        List<Unit> other = otherArmy(state);
+        int health = state.getTotalHealth(own) - state.getTotalHealth(other);
+        return health + aliveDamage(own) - aliveDamage(other);
+    };
+
+    /**
+     * Hits-to-kill race: how many attacks each side needs to destroy the
+     * other using its strongest surviving attacker, with the side to move
+     * one attack ahead. The race margin dominates; the health difference
+     * breaks ties between equal races.
+     */
+    public static final Evaluator HITS_TO_KILL_RACE = state -> {
+        List<Unit> own = ownArmy(state);
+        List<Unit> other = otherArmy(state);
+        int ownHits = hitsToKill(other, maxAliveDamage(own));
+        int otherHits = hitsToKill(own, maxAliveDamage(other));
+        int race = otherHits - ownHits + (state.getCurrentPlayer() == state.getStartingPlayer() ? 1 : 0);
+        int health = state.getTotalHealth(own) - state.getTotalHealth(other);
+        return race * 1024 + Math.max(-1023, Math.min(1023, health));
+    };
+
+    private static List<Unit> ownArmy(GameState state) {
+        return state.getStartingPlayer() == 'A' ? state.getArmyA() : state.getArmyB();
+    }
+
+    private static List<Unit> otherArmy(GameState state) {
+        return state.getStartingPlayer() == 'A' ? state.getArmyB() : state.getArmyA();
+    }
+
+    private static int aliveDamage(List<Unit> army) {
+        int total = 0;
+        for (Unit u : army) {
+            if (u.isAlive()) total += u.damage;
+        }
+        return total;
+    }
+
+    private static int maxAliveDamage(List<Unit> army) {
+        int best = 0;
+        for (Unit u : army) {
+            if (u.isAlive()) best = Math.max(best, u.damage);
+        }
+        return best;
+    }
+
+    // Attacks needed to kill every unit of the army with blows of the given damage
+    private static int hitsToKill(List<Unit> army, int damage) {
+        if (damage <= 0) return Evaluator.MAX_SCORE / 2048;
+        int hits = 0;
+        for (Unit u : army) {
+            if (u.isAlive()) hits += (u.health + damage - 1) / damage;
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,291 @@
+//src/main/java/battle/IterativeSearch.java
+
+package battle;
+
+/**
+ * Non-recursive versions of BattleSolver's minimax and minimaxAlphaBeta.
+ * High-health, low-damage armies make games thousands of moves long, and one
+ * Java frame per move then ends in StackOverflowError. Here the recursion is
+ * replaced by an explicit stack of primitive arrays (one slot per depth) over
+ * a single {@link BattleBoard} that is mutated and undone in place.
+ *
+ * Both searches reproduce the recursive engines exactly: same child order
+ * (alpha-beta sorts by the same heuristic with a stable sort), same
+ * strict-improvement tie breaking, same node counting. Values, plans and
+ * nodesExpanded are therefore identical.
+ *
+ * The stack grows on demand and is capped by a memory budget, so the
+ * reachable depth depends on configuration rather than on thread stack
+ * size. The only objects allocated while searching are the small Line links
+ * recording the best continuation, created only when a frame improves.
+ */
+final class IterativeSearch {
+    private static final int INITIAL_FRAMES = 64;
+
+    private final BattleBoard board;
+    private final int stride;          // moves slots per frame (max branching)
+    private final long maxFrames;      // frames allowed by the memory budget
+    private final SearchControl control; // polled every checkMask + 1 nodes, may be null
+    private final long checkMask;
+    private final OrderingWeights ordering; // alpha-beta move order
+    private ProgressReporter progress;      // told about root improvements, usually null
+
+    // Frame stack: slot d describes the node at depth d
+    private int[] moves;               // moves[d * stride + k] = k-th move of frame d (in search order)
+    private int[] moveCount;
+    private int[] nextMove;            // index of the next move to try
+    private int[] dealt;               // damage dealt by the move currently applied below frame d
+    private int[] bestValue;
+    private int[] alpha;
+    private int[] beta;
+    private Line[] bestLine;           // continuation from frame d to its best terminal
+    private int[] keys;                // scratch for move ordering
+
+    private long nodesExpanded;
+    private long nodeLimit = Long.MAX_VALUE; // stop with SearchAbortedException beyond this many nodes
+    private int rootValue;
+
+    /**
+     * @param root position to search; it is copied, not mutated
+     * @param maxStackBytes memory the frame stack may grow to
+     */
+    IterativeSearch(BattleBoard root, long maxStackBytes) {
+        this(root, maxStackBytes, null);
+    }
+
+    /**
+     * @param control stops the search (SearchAbortedException) when it says so; may be null
+     */
+    IterativeSearch(BattleBoard root, long maxStackBytes, SearchControl control) {
+        this(root, maxStackBytes, control, OrderingWeights.DEFAULT);
+    }
+
+    /**
+     * @param ordering weights of the alpha-beta move order, as in minimaxAlphaBeta
+     */
+    IterativeSearch(BattleBoard root, long maxStackBytes, SearchControl control, OrderingWeights ordering) {
+        this.board = root.copy();
+        this.control = control;
+        this.ordering = ordering;
+        this.checkMask = control != null ? control.checkMask() : -1;
+        this.stride = board.maxBranching();
+        long frames = Math.max(2, maxStackBytes / bytesPerFrame(stride));
+        this.maxFrames = Math.min(frames, (Integer.MAX_VALUE - 8) / stride); // moves[] is one int array
+        allocate((int) Math.min(INITIAL_FRAMES, maxFrames));
+        this.keys = new int[stride];
+    }
+
+    /**
+     * Memory one stack frame takes, used to turn a byte budget into a depth.
+     */
+    static long bytesPerFrame(int stride) {
+        return 4L * stride + 6 * 4 + 8;
+    }
+
+    long getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    /**
+     * Abandon the search (SearchAbortedException) once it has expanded more
+     * than this many nodes; used to cut off hopeless tuning candidates.
+     */
+    void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Publish every improvement of the root's best line to this reporter.
+     */
+    void setProgress(ProgressReporter progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * Equivalent of BattleSolver.minimax(root, true).
+     */
+    Line minimax() {
+        return run(false);
+    }
+
+    /**
+     * Equivalent of BattleSolver.minimaxAlphaBeta(root, MIN_VALUE, MAX_VALUE, true).
+     */
+    Line alphaBeta() {
+        return run(true);
+    }
+
+    /**
+     * Value found by the last search (the root frame's best value).
+     */
+    int rootValue() {
+        return rootValue;
+    }
+
+    /**
+     * Best line of the root frame so far; after an aborted search this is the
+     * best of the root moves searched completely (null if none was).
+     */
+    Line partialLine() {
+        return bestLine[0];
+    }
+
+    int partialValue() {
+        return bestValue[0];
+    }
+
+    private Line run(boolean pruning) {
+        nodesExpanded = 1;
+        if (board.isTerminal()) {
+            rootValue = board.utility();
+            return null;
+        }
+        int sp = 0;
+        open(0, pruning, Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+        while (true) {
+            if (nextMove[sp] < moveCount[sp]) {
+                // Descend into the next child
+                int move = moves[sp * stride + nextMove[sp]++];
+                dealt[sp] = board.apply(move);
+                if ((++nodesExpanded & checkMask) == 0 && control != null && control.shouldStop()
+                        || nodesExpanded > nodeLimit) {
+                    throw new SearchAbortedException();
+                }
+
+                if (board.isTerminal()) {
+                    int value = board.utility();
+                    board.undo(move, dealt[sp]);
+                    update(sp, move, value, null, pruning);
+                } else {
+                    if (sp + 1 >= moveCount.length) grow(sp + 2);
+                    open(sp + 1, pruning, alpha[sp], beta[sp]);
+                    sp++;
+                }
+            } else {
+                // Frame finished: return its value to the parent
+                int value = bestValue[sp];
+                Line line = bestLine[sp];
+                bestLine[sp] = null;
+                if (sp == 0) {
+                    rootValue = value;
+                    bestLine[0] = line;
+                    return line;
+                }
+                sp--;
+                int move = moves[sp * stride + nextMove[sp] - 1];
+                board.undo(move, dealt[sp]);
+                update(sp, move, value, line, pruning);
+            }
+        }
+    }
+
+    /**
+     * Initialize frame d for the position currently on the board.
+     */
+    private void open(int d, boolean pruning, int a, int b) {
+        int base = d * stride;
+        int count = board.generateMoves(moves, base);
+        if (pruning) {
+            orderMoves(base, count);
+        }
+        moveCount[d] = count;
+        nextMove[d] = 0;
+        bestValue[d] = isMaximizing() ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        alpha[d] = a;
+        beta[d] = b;
+        bestLine[d] = null;
+    }
+
+    /**
+     * Fold a child's value into frame d (the position on the board again).
+     * Mirrors the loop body of the recursive engines.
+     */
+    private void update(int d, int move, int value, Line childLine, boolean pruning) {
+        boolean maximizing = isMaximizing();
+        if (maximizing ? value > bestValue[d] : value < bestValue[d]) {
+            bestValue[d] = value;
+            bestLine[d] = new Line(move, childLine);
+            if (d == 0 && progress != null) {
+                progress.rootImproved(value, bestLine[0], true);
+            }
+        }
+        if (pruning) {
+            if (maximizing) {
+                alpha[d] = Math.max(alpha[d], bestValue[d]);
+            } else {
+                beta[d] = Math.min(beta[d], bestValue[d]);
+            }
+            if (beta[d] <= alpha[d]) {
+                nextMove[d] = moveCount[d]; // pruning condition: skip the remaining children
+            }
+        }
+    }
+
+    private boolean isMaximizing() {
+        return board.current == board.starting;
+    }
+
+    /**
+     * Same order as minimaxAlphaBeta's: highest OrderingWeights score for the
+     * side to move first (with the default weights, "most damage dealt
+     * first"). Insertion sort keeps equal moves in generation order, like the
+     * stable sort of the recursive engine.
+     */
+    private void orderMoves(int base, int count) {
+        for (int k = 0; k < count; k++) {
+            int move = moves[base + k];
+            int key = board.orderingScore(move, ordering);
+            int i = k - 1;
+            while (i >= 0 && keys[i] < key) {
+                keys[i + 1] = keys[i];
+                moves[base + i + 1] = moves[base + i];
+                i--;
+            }
+            keys[i + 1] = key;
+            moves[base + i + 1] = move;
+        }
+    }
+
+    private void allocate(int frames) {
+        moves = new int[frames * stride];
+        moveCount = new int[frames];
+        nextMove = new int[frames];
+        dealt = new int[frames];
+        bestValue = new int[frames];
+        alpha = new int[frames];
+        beta = new int[frames];
+        bestLine = new Line[frames];
+    }
+
+    private void grow(int needed) {
+        if (needed > maxFrames) {
+            throw new IllegalStateException("Search depth " + needed + " exceeds the configured stack memory ("
+                    + maxFrames + " frames)");
+        }
+        int frames = (int) Math.min(maxFrames, Math.max(needed, moveCount.length * 2L));
+        moves = java.util.Arrays.copyOf(moves, frames * stride);
+        moveCount = java.util.Arrays.copyOf(moveCount, frames);
+        nextMove = java.util.Arrays.copyOf(nextMove, frames);
+        dealt = java.util.Arrays.copyOf(dealt, frames);
+        bestValue = java.util.Arrays.copyOf(bestValue, frames);
+        alpha = java.util.Arrays.copyOf(alpha, frames);
+        beta = java.util.Arrays.copyOf(beta, frames);
+        bestLine = java.util.Arrays.copyOf(bestLine, frames);
+    }
+
+    /**
+     * Immutable singly linked continuation: the move played at one depth and
+     * the best continuation after it. Frames share tails, so recording a new
+     * best line costs one small object instead of copying the whole line.
+     */
+    static final class Line {
+        final int move;
+        final Line next;
+
+        Line(int move, Line next) {
+            this.move = move;
+            this.next = next;
+        }
+    }
+}
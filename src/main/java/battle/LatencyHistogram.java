@@ -0,0 +1,146 @@
+//src/main/java/battle/LatencyHistogram.java
+
+package battle;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with HDR-style log-linear buckets. Values
+ * below 2^SUB_BITS get one bucket each; above that every power of two is
+ * split into 2^SUB_BITS equal sub-buckets, so any recorded value is
+ * reported within 1 / 2^SUB_BITS (about 3%) of itself, over the whole
+ * range of a long, in a fixed 15 KB of counters.
+ *
+ * record() is a handful of shifts and one atomic increment (plus LongAdder
+ * adds for the sum and a compare-and-set only when a new maximum is seen),
+ * so it can sit on the request path of every solve. Readers take a
+ * snapshot() while writers keep recording; a snapshot is not an atomic cut
+ * across buckets, which only matters to the last count or two.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = SUB_COUNT * (64 - SUB_BITS);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record one value (negative values count as 0).
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(bucket(v));
+        total.increment();
+        sum.add(v);
+        long seen = max.get();
+        while (v > seen && !max.compareAndSet(seen, v)) {
+            seen = max.get();
+        }
+    }
+
+    public long getCount() {
+        return total.sum();
+    }
+
+    /**
+     * Copy of the current counts, for percentiles and means.
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            copy[b] = counts.get(b);
+            count += copy[b];
+        }
+        return new Snapshot(copy, count, sum.sum(), max.get());
+    }
+
+    /**
+     * Forget everything recorded so far.
+     */
+    public void reset() {
+        for (int b = 0; b < BUCKETS; b++) {
+            counts.set(b, 0);
+        }
+        total.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int octave = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS; // >= 0
+        int sub = (int) (value >>> octave) - SUB_COUNT;                 // [0, SUB_COUNT)
+        return SUB_COUNT * (octave + 1) + sub;
+    }
+
+    // Smallest value that falls in the bucket
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int octave = bucket / SUB_COUNT - 1;
+        long sub = bucket % SUB_COUNT;
+        return (SUB_COUNT + sub) << octave;
+    }
+
+    // Largest value that falls in the bucket
+    static long upperBound(int bucket) {
+        return bucket + 1 < BUCKETS ? lowerBound(bucket + 1) - 1 : Long.MAX_VALUE;
+    }
+
+    /**
+     * Point-in-time view of a histogram.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Value at the given percentile (0..100): the upper end of the bucket
+         * holding that rank, capped by the maximum seen; 0 when empty.
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+            long seen = 0;
+            for (int b = 0; b < counts.length; b++) {
+                seen += counts[b];
+                if (seen >= rank) {
+                    return Math.min(upperBound(b), max);
+                }
+            }
+            return max;
+        }
+    }
+}
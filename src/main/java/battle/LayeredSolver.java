@@ -0,0 +1,434 @@
+//src/main/java/battle/LayeredSolver.java
+
+package battle;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exact solver that works bottom-up instead of recursively. Every attack
+ * removes at least one point of health, so the positions reachable from
+ * the root fall into layers by total health (both armies together) and a
+ * position only leads into strictly lower layers.
+ *
+ * The solver first enumerates the reachable positions forward, layer by
+ * layer from the root's total downward, into one compact hash set per
+ * layer (a position is a single long: every unit's health in its own bit
+ * field, plus the side to move). It then evaluates the layers from the
+ * bottom up: each position is minimaxed over its children, whose values
+ * already sit in lower layers or are terminal. Positions of one layer are
+ * independent, so a layer is split across a fork-join pool.
+ *
+ * Each transposition is stored and evaluated once, which is what makes
+ * the engine fast on mid-sized armies where the same health configuration
+ * is reached in many orders. Once every layer that can reach a layer has
+ * been evaluated, the layer is released, so no per-position state outlives
+ * its parents. The line is rebuilt at the end by a TranspositionSearch
+ * with a window of one around the root value, which is known by then; it
+ * only has to prove that value, not find it. Its table holds one entry per
+ * stored position at most (capped at tableBytes), less than the layers
+ * just released.
+ *
+ * Plans and values do not depend on the thread count. Only positions whose packed form fits in 63 bits are supported (see
+ * supports(...)); BattleSolver falls back to ALPHA_BETA_TT for others.
+ */
+final class LayeredSolver {
+    private static final int MAX_LAYERS = 1 << 20; // total health bound for the layer index
+    private static final int GRAIN = 512;          // positions per fork-join leaf
+    private static final int POLL_EVERY = 4096;    // enumerated positions between stop checks
+
+    private final BattleBoard root;
+    private final int threads;
+    private final SearchControl control; // polled once per leaf, may be null
+    private final MemoryGovernor governor; // charged for layer arrays, may be null
+    private final long tableBytes;       // cap on the table that rebuilds the line
+    private final int[][] shift;         // bit offset of each unit's health field
+    private final long[][] fieldMask;
+    private final int maxDamage;
+    private final LongAdder nodes = new LongAdder();
+
+    private Layer[] layers;
+    private long rootKey;
+    private int rootValue;
+    private int rootMove;
+    private volatile boolean rootSolved; // rootValue and rootMove are set
+    private long statesStored;
+
+    LayeredSolver(BattleBoard root, int threads, SearchControl control, MemoryGovernor governor,
+                  long tableBytes) {
+        this.root = root.copy();
+        this.threads = Math.max(1, threads);
+        this.control = control;
+        this.governor = governor;
+        this.tableBytes = tableBytes;
+        this.shift = new int[2][];
+        this.fieldMask = new long[2][];
+        int offset = 1; // bit 0 is the side to move
+        int damage = 1;
+        for (int side = 0; side < 2; side++) {
+            int units = root.health[side].length;
+            shift[side] = new int[units];
+            fieldMask[side] = new long[units];
+            for (int u = 0; u < units; u++) {
+                int bits = 32 - Integer.numberOfLeadingZeros(root.health[side][u]);
+                shift[side][u] = offset;
+                fieldMask[side][u] = (1L << bits) - 1;
+                offset += bits;
+                damage = Math.max(damage, root.damage[side][u]);
+            }
+        }
+        this.maxDamage = damage;
+    }
+
+    /**
+     * Whether the board can be solved this way: positions fit in one long,
+     * every living unit deals damage (otherwise a move could stay in its
+     * layer) and the layer index stays small.
+     */
+    static boolean supports(BattleBoard board) {
+        int bits = 1;
+        for (int side = 0; side < 2; side++) {
+            for (int u = 0; u < board.health[side].length; u++) {
+                if (board.health[side][u] > 0 && board.damage[side][u] <= 0) return false;
+                bits += 32 - Integer.numberOfLeadingZeros(board.health[side][u]);
+            }
+        }
+        return bits <= 63 && board.totalHealth[0] + (long) board.totalHealth[1] < MAX_LAYERS;
+    }
+
+    /**
+     * Positions enumerated plus children evaluated so far; also valid after
+     * the solve was stopped.
+     */
+    long getNodesExpanded() {
+        return nodes.sum();
+    }
+
+    /**
+     * Distinct non-terminal positions the enumeration found.
+     */
+    long getStatesStored() {
+        return statesStored;
+    }
+
+    int rootValue() {
+        return rootValue;
+    }
+
+    /**
+     * Once the root layer has been evaluated (so also when the solve is
+     * stopped while rebuilding the line): the root's best move, followed by
+     * the most damaging move of each position to the end of the game.
+     * Otherwise null.
+     */
+    IterativeSearch.Line partialLine() {
+        if (!rootSolved) {
+            return null;
+        }
+        BattleBoard replay = root.copy();
+        int[] moves = new int[replay.maxBranching()];
+        int[] path = new int[64];
+        int length = 0;
+        int move = rootMove;
+        while (true) {
+            if (length == path.length) {
+                path = Arrays.copyOf(path, length * 2);
+            }
+            path[length++] = move;
+            replay.apply(move);
+            if (replay.isTerminal()) break;
+            int count = replay.generateMoves(moves);
+            move = moves[0];
+            for (int k = 1; k < count; k++) {
+                if (replay.damageDealt(moves[k]) > replay.damageDealt(move)) move = moves[k];
+            }
+        }
+        IterativeSearch.Line line = null;
+        for (int i = length - 1; i >= 0; i--) {
+            line = new IterativeSearch.Line(path[i], line);
+        }
+        return line;
+    }
+
+    /**
+     * Solve the root position and return an optimal line (null when the
+     * root is already terminal).
+     */
+    IterativeSearch.Line solve() {
+        if (root.isTerminal()) {
+            rootValue = root.utility();
+            return null;
+        }
+        int rootLayer = root.totalHealth[0] + root.totalHealth[1];
+        rootKey = pack(root);
+        layers = new Layer[rootLayer + 1];
+        layers[rootLayer] = new Layer(governor);
+        layers[rootLayer].insert(rootKey);
+
+        enumerate(rootLayer);
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        try {
+            evaluate(rootLayer, pool);
+        } finally {
+            if (pool != null) pool.shutdownNow();
+        }
+        layers = null;
+
+        long bytes = Math.min(tableBytes, Math.max(1 << 12, 16 * statesStored));
+        if (governor != null) bytes = governor.cacheBytes(bytes);
+        OffHeapTranspositionTable table = new OffHeapTranspositionTable(bytes);
+        if (governor != null) governor.chargeCache(table.sizeInBytes());
+        TranspositionSearch search = new TranspositionSearch(table, control, governor);
+        try {
+            return search.searchWindow(root, rootValue - 1, rootValue + 1);
+        } finally {
+            nodes.add(search.getNodesExpanded());
+        }
+    }
+
+    /**
+     * Forward pass: insert every non-terminal child of every position into
+     * its layer, highest layer first, so each layer is complete before its
+     * own children are generated.
+     */
+    private void enumerate(int rootLayer) {
+        int[][] health = { new int[shift[0].length], new int[shift[1].length] };
+        for (int s = rootLayer; s > 0; s--) {
+            Layer layer = layers[s];
+            if (layer == null) continue;
+            statesStored += layer.size;
+            int sincePoll = 0;
+            for (long key : layer.keys) {
+                if (key == 0) continue;
+                if (++sincePoll == POLL_EVERY) {
+                    nodes.add(sincePoll);
+                    poll(sincePoll);
+                    sincePoll = 0;
+                }
+                int current = unpack(key, health);
+                int opp = 1 - current;
+                int oppTotal = total(health[opp]);
+                int[] damage = root.damage[current];
+                for (int i = 0; i < health[current].length; i++) {
+                    if (health[current][i] <= 0) continue;
+                    for (int j = 0; j < health[opp].length; j++) {
+                        int h = health[opp][j];
+                        if (h <= 0) continue;
+                        int dealt = Math.min(h, damage[i]);
+                        if (dealt == oppTotal) continue; // terminal: not stored
+                        int childLayer = s - dealt;
+                        if (layers[childLayer] == null) layers[childLayer] = new Layer(governor);
+                        layers[childLayer].insert(child(key, opp, j, dealt));
+                    }
+                }
+            }
+            nodes.add(sincePoll);
+            poll(sincePoll);
+        }
+    }
+
+    /**
+     * Backward pass: evaluate the layers bottom-up. A layer maxDamage below
+     * the one just evaluated can no longer be looked up by any parent, so
+     * it is released.
+     */
+    private void evaluate(int rootLayer, ForkJoinPool pool) {
+        for (int s = 1; s <= rootLayer; s++) {
+            Layer layer = layers[s];
+            if (layer != null) {
+                layer.charge(4L * layer.keys.length);
+                layer.values = new int[layer.keys.length];
+                EvaluateRange task = new EvaluateRange(s, 0, layer.keys.length);
+                if (pool != null) {
+                    pool.invoke(task);
+                } else {
+                    task.compute();
+                }
+            }
+            int done = s - maxDamage;
+            if (done > 0 && layers[done] != null) {
+                layers[done].release();
+                layers[done] = null;
+            }
+        }
+    }
+
+    // Evaluates the slots [from, to) of one layer, splitting while large; never serialized
+    @SuppressWarnings("serial")
+    private final class EvaluateRange extends RecursiveAction {
+        private final int layer;
+        private final int from;
+        private final int to;
+
+        EvaluateRange(int layer, int from, int to) {
+            this.layer = layer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > GRAIN && threads > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new EvaluateRange(layer, from, mid), new EvaluateRange(layer, mid, to));
+                return;
+            }
+            poll(0);
+            int[][] health = { new int[shift[0].length], new int[shift[1].length] };
+            Layer target = layers[layer];
+            long children = 0;
+            for (int slot = from; slot < to; slot++) {
+                long key = target.keys[slot];
+                if (key == 0) continue;
+                int current = unpack(key, health);
+                int opp = 1 - current;
+                int ownTotal = total(health[current]);
+                int oppTotal = total(health[opp]);
+                int[] damage = root.damage[current];
+                boolean maximizing = current == root.starting;
+                int bestValue = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+                int bestMove = 0;
+
+                for (int i = 0; i < health[current].length; i++) {
+                    if (health[current][i] <= 0) continue;
+                    for (int j = 0; j < health[opp].length; j++) {
+                        int h = health[opp][j];
+                        if (h <= 0) continue;
+                        children++;
+                        int dealt = Math.min(h, damage[i]);
+                        int value = dealt == oppTotal
+                                ? (maximizing ? ownTotal : -ownTotal) // the side to move just won
+                                : layers[layer - dealt].value(child(key, opp, j, dealt));
+                        if (maximizing ? value > bestValue : value < bestValue) {
+                            bestValue = value;
+                            bestMove = BattleBoard.move(i, j);
+                        }
+                    }
+                }
+                target.values[slot] = bestValue;
+                if (key == rootKey) {
+                    rootValue = bestValue;
+                    rootMove = bestMove;
+                    rootSolved = true;
+                }
+            }
+            nodes.add(children);
+            poll(children);
+        }
+    }
+
+    private long pack(BattleBoard board) {
+        long key = board.current;
+        for (int side = 0; side < 2; side++) {
+            for (int u = 0; u < shift[side].length; u++) {
+                key |= (long) board.health[side][u] << shift[side][u];
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Decode a packed position into {@code health}; returns the side to move.
+     */
+    private int unpack(long key, int[][] health) {
+        for (int side = 0; side < 2; side++) {
+            for (int u = 0; u < shift[side].length; u++) {
+                health[side][u] = (int) ((key >>> shift[side][u]) & fieldMask[side][u]);
+            }
+        }
+        return (int) (key & 1);
+    }
+
+    // Position after `dealt` damage to unit `target` of side `opp`, with the move passed to opp
+    private long child(long key, int opp, int target, int dealt) {
+        return (key - ((long) dealt << shift[opp][target])) ^ 1L;
+    }
+
+    private static int total(int[] health) {
+        int sum = 0;
+        for (int h : health) {
+            sum += h;
+        }
+        return sum;
+    }
+
+    // Stop check; nodes are the children evaluated since the last one
+    private void poll(long nodes) {
+        if (control != null && control.shouldStop(nodes)) {
+            throw new SearchAbortedException();
+        }
+    }
+
+    /**
+     * Positions of one total-health layer: an open-addressing set of packed
+     * keys (0 marks a free slot; live positions are never 0) with their
+     * values in a parallel array once the layer is evaluated.
+     */
+    static final class Layer {
+        private final MemoryGovernor governor;
+        long[] keys;
+        int[] values;
+        int size;
+
+        Layer(MemoryGovernor governor) {
+            this.governor = governor;
+            charge(8L * 16);
+            this.keys = new long[16];
+        }
+
+        void charge(long bytes) {
+            if (governor != null) governor.charge(bytes);
+        }
+
+        void insert(long key) {
+            int mask = keys.length - 1;
+            int slot = (int) BattleBoard.mix(key) & mask;
+            while (keys[slot] != 0) {
+                if (keys[slot] == key) return;
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            if (++size * 4 > keys.length * 3) {
+                grow();
+            }
+        }
+
+        int value(long key) {
+            return values[indexOf(key)];
+        }
+
+        private int indexOf(long key) {
+            int mask = keys.length - 1;
+            int slot = (int) BattleBoard.mix(key) & mask;
+            while (keys[slot] != key) {
+                if (keys[slot] == 0) {
+                    throw new IllegalStateException("Position missing from its layer");
+                }
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            long[] old = keys;
+            charge(8L * old.length); // the doubled array, while the old one is still live
+            keys = new long[old.length * 2];
+            size = 0;
+            for (long key : old) {
+                if (key != 0) insert(key);
+            }
+            if (governor != null) governor.release(8L * old.length);
+        }
+
+        /**
+         * Drop the keys and values once no parent needs them.
+         */
+        void release() {
+            if (governor != null) governor.release((values != null ? 12L : 8L) * keys.length);
+            keys = null;
+            values = null;
+        }
+    }
+}
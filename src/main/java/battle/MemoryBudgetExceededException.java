@@ -0,0 +1,17 @@
+//src/main/java/battle/MemoryBudgetExceededException.java
+
+package battle;
+
+/**
+ * Thrown by MemoryGovernor.charge(...) when a structure would grow past the
+ * solve's memory budget. It unwinds the engine to BattleSolver.solve, which
+ * drops what the engine retained and continues at the next degradation
+ * stage. Never escapes the solver.
+ */
+final class MemoryBudgetExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    MemoryBudgetExceededException() {
+        super(null, null, false, false); // no stack trace: this is control flow
+    }
+}
@@ -0,0 +1,119 @@
+//src/main/java/battle/MemoryGovernor.java
+
+package battle;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-solve memory accounting for SolveOptions.setMemoryBudgetBytes(...).
+ *
+ * The governor does not look at the heap, which is shared with every other
+ * solve in the JVM; it adds up what the solve's own structures report as
+ * they grow: caches (the transposition table) and trees (the pooled
+ * search frames, LAYERED's layers, the MCTS tree and the transposition
+ * search's move buffers). So one tenant's large input cannot push another
+ * tenant's solve out of memory, whatever else runs in the JVM.
+ *
+ * Under pressure the solve degrades in stages, reported as
+ * SolveResult.getMemoryStage():
+ * <ol>
+ * <li>SHRINK_CACHES: a cache larger than half the budget is allocated at
+ *     that size instead. Exactness is unaffected.</li>
+ * <li>DROP_NODES: a tree hit the budget. The engine's retained nodes are
+ *     dropped and the solve restarts on ALPHA_BETA_TT, which keeps only
+ *     per-ply move buffers (still exact); MCTS instead stops growing its
+ *     tree and keeps sampling from the leaves it has.</li>
+ * <li>ANYTIME: even that did not fit. The solve finishes with MCTS, whose
+ *     tree stays within the budget and whose run is bounded by its
+ *     iteration or time limit (approximate).</li>
+ * </ol>
+ *
+ * Thread-safe: MCTS workers charge concurrently.
+ */
+final class MemoryGovernor {
+    private static final long MIN_CACHE_BYTES = 64; // smallest table the solver allocates
+
+    private final long budget;
+    private final AtomicLong treeBytes = new AtomicLong();
+    private volatile long cacheBytes;
+    private volatile SolveResult.MemoryStage stage = SolveResult.MemoryStage.WITHIN_BUDGET;
+
+    MemoryGovernor(long budget) {
+        this.budget = budget;
+    }
+
+    SolveResult.MemoryStage stage() {
+        return stage;
+    }
+
+    long used() {
+        return treeBytes.get() + cacheBytes;
+    }
+
+    /**
+     * Size a cache is allowed to take, given the size asked for: at most
+     * half of the budget (stage SHRINK_CACHES when that is less).
+     */
+    long cacheBytes(long requested) {
+        long share = Math.max(MIN_CACHE_BYTES, budget / 2);
+        if (requested > share) {
+            escalate(SolveResult.MemoryStage.SHRINK_CACHES);
+            return share;
+        }
+        return requested;
+    }
+
+    /**
+     * Account for a cache that has been allocated (replaces the previous
+     * cache figure; a solve has one table).
+     */
+    void chargeCache(long bytes) {
+        cacheBytes = bytes;
+    }
+
+    /**
+     * Account for tree memory about to be allocated.
+     *
+     * @throws MemoryBudgetExceededException if it would not fit the budget
+     */
+    void charge(long bytes) {
+        if (!tryCharge(bytes)) {
+            throw new MemoryBudgetExceededException();
+        }
+    }
+
+    /**
+     * Like charge(...), but returns false instead of throwing.
+     */
+    boolean tryCharge(long bytes) {
+        if (treeBytes.addAndGet(bytes) + cacheBytes > budget) {
+            treeBytes.addAndGet(-bytes);
+            return false;
+        }
+        return true;
+    }
+
+    void release(long bytes) {
+        treeBytes.addAndGet(-bytes);
+    }
+
+    /**
+     * The engine that threw has been abandoned and its trees are garbage:
+     * reset the tree account and pick the engine of the next stage.
+     */
+    Engine degrade(Engine failed) {
+        treeBytes.set(0);
+        if (failed == Engine.ALPHA_BETA_TT) {
+            escalate(SolveResult.MemoryStage.ANYTIME);
+            return Engine.MCTS;
+        }
+        escalate(SolveResult.MemoryStage.DROP_NODES);
+        return Engine.ALPHA_BETA_TT;
+    }
+
+    synchronized void escalate(SolveResult.MemoryStage reached) {
+        if (reached.ordinal() > stage.ordinal()) {
+            stage = reached;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+//src/main/java/battle/MonteCarloTreeSearch.java
+
+package battle;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Monte Carlo Tree Search for armies too large for exact search. Uses UCT
+ * selection, expands every move of a leaf at once and estimates leaves with
+ * fast random playouts run on a per-thread scratch {@link BattleBoard}, so a
+ * playout allocates nothing.
+ *
+ * With more than one thread the search is tree-parallel: all threads share
+ * one tree and each visit is counted on the way down (a virtual loss), so
+ * threads descending at the same time spread over different branches instead
+ * of piling onto the same leaf. Statistics are updated with atomic field
+ * updaters; only expansion takes a lock.
+ *
+ * The search stops after maxIterations playouts or timeLimitMillis, whichever
+ * comes first, or earlier when the options' SearchControl says to stop. The returned line follows the most visited children and is
+ * completed to a terminal state with the greedy playout policy.
+ */
+final class MonteCarloTreeSearch {
+    private static final long SCALE = 1L << 20;     // fixed-point scale for reward sums
+    private static final long DEFAULT_ITERATIONS = 100_000;
+    private static final long NODE_BYTES = 48;      // TreeNode plus its slot in the parent's array
+
+    private final SolveOptions options;
+    private final MemoryGovernor governor; // bounds the tree under a memory budget, may be null
+    private final AtomicLong iterations = new AtomicLong();
+    private final AtomicLong nodesCreated = new AtomicLong();
+
+    private BattleBoard rootBoard;
+    private TreeNode root;
+    private int rewardRange; // largest total health, used to normalize margins
+
+    MonteCarloTreeSearch(SolveOptions options) {
+        this(options, null);
+    }
+
+    MonteCarloTreeSearch(SolveOptions options, MemoryGovernor governor) {
+        this.options = options;
+        this.governor = governor;
+    }
+
+    /**
+     * Run the search from the given root and return the terminal node of the
+     * chosen line (its parent chain leads back to rootNode).
+     */
+    Node search(Node rootNode) {
+        rootBoard = BattleBoard.of(rootNode.getState());
+        if (rootBoard.isTerminal()) {
+            return rootNode;
+        }
+        root = new TreeNode(-1, 1 - rootBoard.current);
+        nodesCreated.set(1);
+        rewardRange = Math.max(1, Math.max(rootBoard.totalHealth[0], rootBoard.totalHealth[1]));
+
+        long maxIterations = options.getMaxIterations();
+        if (maxIterations <= 0 && options.getTimeLimitMillis() <= 0) {
+            maxIterations = DEFAULT_ITERATIONS; // never run unbounded
+        }
+        SearchControl control = options.getControl();
+        ProgressReporter progress = control != null ? control.reporter() : null;
+        if (progress != null) {
+            progress.setSources(this::visitedLine, () -> root.visits, nodesCreated::get);
+        }
+        long deadline = options.getTimeLimitMillis() > 0
+                ? System.nanoTime() + options.getTimeLimitMillis() * 1_000_000L
+                : Long.MAX_VALUE;
+
+        int threads = options.getThreads();
+        if (threads == 1) {
+            work(options.getSeed(), maxIterations, deadline);
+        } else {
+            Thread[] workers = new Thread[threads];
+            final long limit = maxIterations;
+            for (int t = 0; t < threads; t++) {
+                final long seed = options.getSeed() + t * 0x9E3779B97F4A7C15L;
+                workers[t] = new Thread(() -> work(seed, limit, deadline), "mcts-worker-" + t);
+                workers[t].start();
+            }
+            for (Thread worker : workers) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        return buildLine(rootNode);
+    }
+
+    /**
+     * Number of tree nodes created; reported as nodesExpanded.
+     */
+    long getNodesCreated() {
+        return nodesCreated.get();
+    }
+
+    // One worker: repeat select / expand / simulate / backpropagate
+    private void work(long seed, long maxIterations, long deadline) {
+        BattleBoard board = rootBoard.copy();
+        int[] moves = new int[board.maxBranching()];
+        SplittableRandom random = new SplittableRandom(seed);
+        long local = 0;
+
+        SearchControl control = options.getControl();
+        while (maxIterations <= 0 || iterations.getAndIncrement() < maxIterations) {
+            if ((++local & 63) == 0 && (System.nanoTime() > deadline || control != null && control.shouldStop())) break;
+            board.copyFrom(rootBoard);
+            iterate(board, moves, random);
+        }
+    }
+
+    private void iterate(BattleBoard board, int[] moves, SplittableRandom random) {
+        TreeNode node = root;
+        VISITS.incrementAndGet(node);
+
+        // Selection: descend through expanded nodes, counting visits eagerly (virtual loss)
+        while (node.children != null && !board.isTerminal()) {
+            node = select(node);
+            board.apply(node.move);
+            VISITS.incrementAndGet(node);
+        }
+
+        // Expansion: a leaf seen before gets all its children, then one is tried
+        if (!board.isTerminal() && (node.visits > 1 || node == root)) {
+            TreeNode[] children = expand(node, board, moves);
+            if (children != null) {
+                node = children[random.nextInt(children.length)];
+                board.apply(node.move);
+                VISITS.incrementAndGet(node);
+            }
+        }
+
+        // Simulation and backpropagation
+        double reward = reward(playout(board, moves, random));
+        long starterReward = (long) (reward * SCALE);
+        long otherReward = SCALE - starterReward;
+        for (TreeNode n = node; n != null; n = n.parent) {
+            REWARD.addAndGet(n, n.mover == rootBoard.starting ? starterReward : otherReward);
+        }
+    }
+
+    /**
+     * UCT: pick the child maximizing mean reward (for the player to move) plus
+     * an exploration bonus. Unvisited children come first.
+     */
+    private TreeNode select(TreeNode parent) {
+        TreeNode[] children = parent.children;
+        double logParent = Math.log(Math.max(1, parent.visits));
+        double c = options.getExploration();
+        TreeNode best = children[0];
+        double bestScore = Double.NEGATIVE_INFINITY;
+
+        for (TreeNode child : children) {
+            int visits = child.visits;
+            if (visits == 0) return child;
+            double mean = (double) child.reward / SCALE / visits;
+            double score = mean + c * Math.sqrt(logParent / visits);
+            if (score > bestScore) {
+                bestScore = score;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Children of a leaf, created on first use. Returns null when the memory
+     * budget has no room for them: the leaf then stays a leaf and is
+     * estimated by playouts alone.
+     */
+    private TreeNode[] expand(TreeNode node, BattleBoard board, int[] moves) {
+        synchronized (node) {
+            if (node.children == null) {
+                int count = board.generateMoves(moves);
+                if (governor != null && !governor.tryCharge(16 + NODE_BYTES * count)) {
+                    governor.escalate(SolveResult.MemoryStage.DROP_NODES);
+                    return null;
+                }
+                TreeNode[] children = new TreeNode[count];
+                for (int k = 0; k < count; k++) {
+                    children[k] = new TreeNode(moves[k], board.current);
+                    children[k].parent = node;
+                }
+                nodesCreated.addAndGet(count);
+                node.children = children;
+            }
+            return node.children;
+        }
+    }
+
+    /**
+     * Play the position out to the end on the scratch board and return the
+     * terminal utility. Half of the moves are random, half greedy.
+     */
+    private int playout(BattleBoard board, int[] moves, SplittableRandom random) {
+        while (!board.isTerminal()) {
+            int move = random.nextBoolean()
+                    ? moves[random.nextInt(board.generateMoves(moves))]
+                    : greedyMove(board);
+            board.apply(move);
+        }
+        return board.utility();
+    }
+
+    /**
+     * Greedy policy: prefer killing blows, then the largest damage dealt.
+     * Ties go to the first move in generation order, so it is deterministic.
+     * Each attacker scores all targets at once through ArmyKernels.bestTarget
+     * instead of generating and scoring every move.
+     */
+    static int greedyMove(BattleBoard board) {
+        ArmyKernels kernels = ArmyKernels.get();
+        int[] targets = board.health[1 - board.current];
+        int[] damage = board.damage[board.current];
+        long[] own = board.alive[board.current];
+        int best = -1;
+        int bestScore = -1;
+        int lastDamage = -1;
+        for (int w = 0; w < own.length; w++) {
+            for (long attackers = own[w]; attackers != 0; attackers &= attackers - 1) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(attackers);
+                if (damage[i] == lastDamage) continue; // same targets, same scores: the earlier attacker wins ties
+                lastDamage = damage[i];
+                int j = kernels.bestTarget(targets, damage[i]);
+                int score = ArmyKernels.targetScore(targets[j], damage[i]);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = BattleBoard.move(i, j);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Map a terminal utility to [0,1] from the starting player's side: wins
+     * land in [0.75,1], losses in [0,0.25], scaled by the remaining margin.
+     */
+    private double reward(int utility) {
+        double margin = 0.25 * utility / rewardRange;
+        return utility > 0 ? 0.75 + margin : 0.25 + margin;
+    }
+
+    /**
+     * Follow the most visited children from the root, then complete the line
+     * greedily. Each step becomes a Node so the usual plan/visualization code
+     * applies.
+     */
+    private Node buildLine(Node rootNode) {
+        BattleBoard board = rootBoard.copy();
+        Node current = rootNode;
+        TreeNode node = root;
+
+        while (!board.isTerminal()) {
+            int move;
+            if (node != null && node.children != null) {
+                TreeNode best = node.children[0];
+                for (TreeNode child : node.children) {
+                    if (child.visits > best.visits) best = child;
+                }
+                node = best;
+                move = best.move;
+            } else {
+                node = null;
+                move = greedyMove(board);
+            }
+            String action = board.actionString(move);
+            board.apply(move);
+            current = new Node(board.toGameState(), current, action, current.getDepth() + 1);
+        }
+        return current;
+    }
+
+    /**
+     * The most visited path through the tree built so far, for progress
+     * reports; safe to call while workers are searching.
+     */
+    private IterativeSearch.Line visitedLine() {
+        int[] path = new int[16];
+        int length = 0;
+        for (TreeNode[] children = root.children; children != null; ) {
+            TreeNode best = children[0];
+            for (TreeNode child : children) {
+                if (child.visits > best.visits) best = child;
+            }
+            if (best.visits == 0) break;
+            if (length == path.length) path = java.util.Arrays.copyOf(path, length * 2);
+            path[length++] = best.move;
+            children = best.children;
+        }
+        IterativeSearch.Line line = null;
+        for (int i = length - 1; i >= 0; i--) {
+            line = new IterativeSearch.Line(path[i], line);
+        }
+        return line;
+    }
+
+    private static final AtomicIntegerFieldUpdater<TreeNode> VISITS =
+            AtomicIntegerFieldUpdater.newUpdater(TreeNode.class, "visits");
+    private static final AtomicLongFieldUpdater<TreeNode> REWARD =
+            AtomicLongFieldUpdater.newUpdater(TreeNode.class, "reward");
+
+    // Node of the search tree; statistics are updated through VISITS/REWARD
+    private static final class TreeNode {
+        final int move;             // move leading here (-1 for the root)
+        final int mover;            // side that played move
+        TreeNode parent;
+        volatile TreeNode[] children;
+        volatile int visits;
+        volatile long reward;       // sum of rewards for mover, fixed point
+
+        TreeNode(int move, int mover) {
+            this.move = move;
+            this.mover = mover;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+//src/main/java/battle/MoveAnalysis.java
+
+package battle;
+
+/**
+ * Exact evaluation of one root action, as returned by
+ * BattleSolver.analyze(...): the action, the game value after playing it
+ * (from the starting player's perspective, like GameState.getUtility()) and
+ * an optimal line that starts with it and ends in a terminal state.
+ */
+public final class MoveAnalysis {
+    private final String action;     // root action, e.g. "A(0,1)"
+    private final int value;         // exact minimax value after the action
+    private final String line;       // comma-separated plan starting with action
+    private final long nodesExpanded; // nodes searched for this action
+
+    MoveAnalysis(String action, int value, String line, long nodesExpanded) {
+        this.action = action;
+        this.value = value;
+        this.line = line;
+        this.nodesExpanded = nodesExpanded;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public String getLine() {
+        return line;
+    }
+
+    public long getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    /**
+     * Same shape as the solver's answer: line;value;nodesExpanded;
+     */
+    @Override
+    public String toString() {
+        return line + ";" + value + ";" + nodesExpanded + ";";
+    }
+}
@@ -0,0 +1,103 @@
+//src/main/java/battle/MultiPvAnalysis.java
+
+package battle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes the exact value and an optimal line of every legal root move,
+ * instead of only the best one. The root is searched once with a full
+ * window, which fills the shared transposition table and gives the best
+ * value. Every root move is then searched with an aspiration window around
+ * that value: alternatives are usually close to the best move, so most
+ * searches succeed with the narrow window, and the subtrees they share with
+ * the first search and with each other come from the table.
+ *
+ * With more than one thread, root moves are handed out one at a time to
+ * worker threads, each with its own search and board, all sharing the
+ * lock-free table. Values are exact either way; lines are always optimal
+ * but may differ between runs when threads race on the table.
+ */
+final class MultiPvAnalysis {
+    private static final int ASPIRATION_DELTA = 4;
+
+    private final OffHeapTranspositionTable table;
+    private final int threads;
+
+    MultiPvAnalysis(OffHeapTranspositionTable table, int threads) {
+        this.table = table;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Analyze every root move in generation order (attacker ascending, then
+     * target ascending, like BattleSolver.generateChildren). Empty for a
+     * terminal root.
+     */
+    List<MoveAnalysis> analyze(BattleBoard root) {
+        if (root.isTerminal()) {
+            return new ArrayList<>();
+        }
+        int[] moves = new int[root.maxBranching()];
+        int count = root.generateMoves(moves);
+
+        TranspositionSearch first = new TranspositionSearch(table, null);
+        first.search(root);
+        int guess = first.rootValue();
+
+        MoveAnalysis[] results = new MoveAnalysis[count];
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            TranspositionSearch search = new TranspositionSearch(table, null);
+            BattleBoard board = root.copy();
+            for (int k = next.getAndIncrement(); k < count; k = next.getAndIncrement()) {
+                results[k] = analyzeMove(search, board, moves[k], guess);
+            }
+        };
+
+        if (threads == 1 || count == 1) {
+            worker.run();
+        } else {
+            Thread[] workers = new Thread[Math.min(threads, count)];
+            for (int t = 0; t < workers.length; t++) {
+                workers[t] = new Thread(worker, "multipv-worker-" + t);
+                workers[t].start();
+            }
+            for (Thread thread : workers) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while analyzing root moves", e);
+                }
+            }
+        }
+
+        List<MoveAnalysis> list = new ArrayList<>(count);
+        for (MoveAnalysis result : results) {
+            list.add(result);
+        }
+        return list;
+    }
+
+    private MoveAnalysis analyzeMove(TranspositionSearch search, BattleBoard board, int move, int guess) {
+        long before = search.getNodesExpanded();
+        String action = board.actionString(move);
+        int dealt = board.apply(move);
+        IterativeSearch.Line line = search.searchAspiration(board, guess, ASPIRATION_DELTA);
+        int value = search.rootValue();
+        board.undo(move, dealt);
+
+        StringBuilder plan = new StringBuilder(action);
+        BattleBoard replay = board.copy();
+        replay.apply(move);
+        for (IterativeSearch.Line step = line; step != null; step = step.next) {
+            plan.append(',');
+            replay.appendAction(plan, step.move);
+            replay.apply(step.move);
+        }
+        return new MoveAnalysis(action, value, plan.toString(), search.getNodesExpanded() - before);
+    }
+}
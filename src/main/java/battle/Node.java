@@ -100,6 +100,8 @@ public class Node {
         private List<Unit> armyB; // list of units for army B
         private char currentPlayer; // current player ('A' or 'B')
         private char startingPlayer;
+        private long[] aliveA; // alive mask of army A (see AliveMask)
+        private long[] aliveB; // alive mask of army B
 
         /**
          * Default constructor, initializes empty armies and sets players to 'A'.
@@ -110,6 +112,8 @@ public class Node {
             this.armyB = new ArrayList<>();
             this.currentPlayer = 'A';
             this.startingPlayer = 'A';
+            this.aliveA = new long[1];
+            this.aliveB = new long[1];
         }
 
         /**
@@ -131,6 +135,8 @@ public class Node {
             for (Unit u : armyB) {
                 this.armyB.add(new Unit(u.health, u.damage));
             }
+            this.aliveA = AliveMask.of(this.armyA);
+            this.aliveB = AliveMask.of(this.armyB);
 
             this.currentPlayer = currentPlayer;
             this.startingPlayer = startingPlayer;
@@ -161,8 +167,33 @@ public class Node {
             this.currentPlayer = player;
         }
 
+        /**
+         * Alive mask of the given player's army: bit i is set while unit i
+         * has health left. Shared, not copied; callers must not modify it.
+         */
+        long[] getAliveMask(char player) {
+            return player == 'A' ? aliveA : aliveB;
+        }
+
+        /**
+         * Apply an attack by the current player's unit i on the opponent's
+         * unit j (health floored at 0) and clear the target's alive bit if it
+         * dies. Does not switch the current player.
+         */
+        void applyAttack(int i, int j) {
+            boolean aAttacks = currentPlayer == 'A';
+            Unit attacker = (aAttacks ? armyA : armyB).get(i);
+            Unit target = (aAttacks ? armyB : armyA).get(j);
+            target.health = Math.max(0, target.health - attacker.damage);
+            if (target.health == 0) {
+                AliveMask.clear(aAttacks ? aliveB : aliveA, j);
+            }
+        }
+
         /**
          * Checks if the game is in a terminal state (one army has zero total health).
+         * Reads the army lists, so it also holds for states filled in through
+         * getArmyA() / getArmyB(); the search uses isOver() instead.
          *
          * @return true if the game is over, false otherwise
          */
@@ -170,6 +201,16 @@ public class Node {
             return getTotalHealth(armyA) == 0 || getTotalHealth(armyB) == 0;
         }
 
+        /**
+         * isTerminal() from the alive masks, one test per 64 units. The masks
+         * are only kept up to date for states built from army lists and
+         * changed through applyAttack (or copied from such states), which is
+         * all the search ever creates.
+         */
+        boolean isOver() {
+            return AliveMask.isEmpty(aliveA) || AliveMask.isEmpty(aliveB);
+        }
+
         /**
          * Calculates the total health of an army.
          *
@@ -178,8 +219,8 @@ public class Node {
          */
         public int getTotalHealth(List<Unit> army) {
             int total = 0;
-            for (Unit u : army) {
-                total += u.health;
+            for (int i = 0; i < army.size(); i++) {
+                total += army.get(i).health;
             }
             return total;
         }
@@ -229,9 +270,52 @@ public class Node {
             newState.armyB = clonedArmyB;
             newState.currentPlayer = this.currentPlayer;
             newState.startingPlayer = this.startingPlayer;
+            newState.aliveA = this.aliveA.clone();
+            newState.aliveB = this.aliveB.clone();
             return newState;
         }
 
+        /**
+         * Overwrite this state with a copy of {@code other}, reusing this
+         * state's Unit objects and mask arrays (SearchArena's pooled states).
+         *
+         * @return true if anything had to be allocated because the armies
+         *         or masks had a different size
+         */
+        boolean copyFrom(GameState other) {
+            boolean grew = copyArmy(armyA, other.armyA) | copyArmy(armyB, other.armyB);
+            if (aliveA.length != other.aliveA.length || aliveB.length != other.aliveB.length) {
+                aliveA = other.aliveA.clone();
+                aliveB = other.aliveB.clone();
+                grew = true;
+            } else {
+                System.arraycopy(other.aliveA, 0, aliveA, 0, aliveA.length);
+                System.arraycopy(other.aliveB, 0, aliveB, 0, aliveB.length);
+            }
+            this.currentPlayer = other.currentPlayer;
+            this.startingPlayer = other.startingPlayer;
+            return grew;
+        }
+
+        private static boolean copyArmy(List<Unit> into, List<Unit> from) {
+            boolean grew = false;
+            while (into.size() > from.size()) {
+                into.remove(into.size() - 1);
+            }
+            for (int i = 0; i < from.size(); i++) {
+                Unit source = from.get(i);
+                if (i == into.size()) {
+                    into.add(new Unit(source.health, source.damage));
+                    grew = true;
+                } else {
+                    Unit unit = into.get(i);
+                    unit.health = source.health;
+                    unit.damage = source.damage;
+                }
+            }
+            return grew;
+        }
+
         /**
          * Computes a hash code for this GameState, including all fields.
          * Used for hashing in collections like HashMap or HashSet.
@@ -0,0 +1,223 @@
+//src/main/java/battle/OffHeapTranspositionTable.java
+
+package battle;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fixed-size transposition table stored outside the Java heap. A cache of a
+ * few GB kept as HashMap&lt;GameState, ...&gt; would be millions of objects for
+ * the garbage collector to trace; here every entry is 16 bytes in direct
+ * ByteBuffers (Java 17 has no final Foreign Memory API yet), so heap usage
+ * is a few objects no matter how large the table is.
+ *
+ * Layout: entries are grouped into buckets of four, and a position hash
+ * selects one bucket. Each entry holds two longs, the data word and
+ * key ^ data. A reader that sees a torn entry (one word from another writer)
+ * gets a key mismatch, i.e. a miss, so the table needs no locks even if
+ * several threads share it.
+ *
+ * The data word packs the value, the bound type, the best move, a log2 of
+ * the subtree size and the search generation ("age"). newSearch() bumps the
+ * generation: entries from older generations stay usable but are the first
+ * to be replaced. clear() zeroes the table in place instead of reallocating.
+ */
+public final class OffHeapTranspositionTable {
+    /** Stored value is the exact game value of the position. */
+    public static final int EXACT = 1;
+    /** Stored value is a lower bound (the search failed high). */
+    public static final int LOWER = 2;
+    /** Stored value is an upper bound (the search failed low). */
+    public static final int UPPER = 3;
+
+    /** Move index meaning "no best move recorded". */
+    public static final int NO_MOVE = -1;
+
+    static final int ENTRY_BYTES = 16;
+    private static final int BUCKET = 4;
+    private static final int SEGMENT_SHIFT = 26;               // 2^26 entries = 1 GB per buffer
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+    private static final int MAX_MOVE_INDEX = 0xFFFE;          // larger move indexes are not stored
+
+    private final ByteBuffer[] segments;
+    private final long entries;
+    private final long bucketMask;
+    private int age;
+
+    // Statistics since the last clear(); approximate if several threads share the table
+    private long probes;
+    private long hits;
+    private long stores;
+    private long replacements;
+
+    /**
+     * @param bytes memory to allocate off-heap; rounded down to a power of two
+     *        number of entries (at least one bucket)
+     */
+    public OffHeapTranspositionTable(long bytes) {
+        long wanted = Math.max(BUCKET, bytes / ENTRY_BYTES);
+        this.entries = Long.highestOneBit(wanted);
+        this.bucketMask = entries / BUCKET - 1;
+
+        int count = (int) ((entries + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+        this.segments = new ByteBuffer[count];
+        for (int s = 0; s < count; s++) {
+            long size = Math.min(entries - ((long) s << SEGMENT_SHIFT), 1L << SEGMENT_SHIFT) * ENTRY_BYTES;
+            segments[s] = ByteBuffer.allocateDirect((int) size).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * Number of entries the table holds.
+     */
+    public long capacity() {
+        return entries;
+    }
+
+    /**
+     * Off-heap memory used by the table, in bytes.
+     */
+    public long sizeInBytes() {
+        return entries * ENTRY_BYTES;
+    }
+
+    /**
+     * Start a new search generation. Existing entries remain valid but lose
+     * priority against entries written from now on.
+     */
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    /**
+     * Reset every entry in place (no reallocation) and the statistics.
+     */
+    public void clear() {
+        for (ByteBuffer segment : segments) {
+            int limit = segment.capacity();
+            for (int offset = 0; offset < limit; offset += 8) {
+                segment.putLong(offset, 0L);
+            }
+        }
+        age = 0;
+        probes = hits = stores = replacements = 0;
+    }
+
+    /**
+     * Look up a position.
+     *
+     * @return the entry's data word (decode with valueOf/boundOf/moveOf), or
+     *         0 when the position is not stored
+     */
+    public long probe(long hash) {
+        long key = hash == 0 ? 1 : hash;
+        long base = (key & bucketMask) * BUCKET;
+        probes++;
+        for (long i = base; i < base + BUCKET; i++) {
+            ByteBuffer segment = segments[(int) (i >>> SEGMENT_SHIFT)];
+            int offset = (int) (i & SEGMENT_MASK) * ENTRY_BYTES;
+            long data = segment.getLong(offset + 8);
+            if ((segment.getLong(offset) ^ data) == key && data != 0) {
+                hits++;
+                return data;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Store a search result. An entry for the same position is overwritten;
+     * otherwise an empty entry is used, or else the bucket's entry with the
+     * lowest priority: older generations first, then smaller subtrees.
+     *
+     * @param bound EXACT, LOWER or UPPER
+     * @param moveIndex index of the best move (see BattleBoard.moveIndex), or NO_MOVE
+     * @param work nodes searched to obtain the value, a measure of what the entry saves
+     */
+    public void store(long hash, int value, int bound, int moveIndex, long work) {
+        long key = hash == 0 ? 1 : hash;
+        long base = (key & bucketMask) * BUCKET;
+        long victim = base;
+        int victimPriority = Integer.MAX_VALUE;
+
+        for (long i = base; i < base + BUCKET; i++) {
+            ByteBuffer segment = segments[(int) (i >>> SEGMENT_SHIFT)];
+            int offset = (int) (i & SEGMENT_MASK) * ENTRY_BYTES;
+            long data = segment.getLong(offset + 8);
+            if (data == 0 || (segment.getLong(offset) ^ data) == key) {
+                victim = i;
+                victimPriority = -1;
+                break;
+            }
+            int priority = (ageOf(data) == age ? 64 : 0) + workOf(data);
+            if (priority < victimPriority) {
+                victimPriority = priority;
+                victim = i;
+            }
+        }
+        if (victimPriority >= 0) {
+            replacements++;
+        }
+        stores++;
+
+        long data = pack(value, bound, moveIndex, work);
+        ByteBuffer segment = segments[(int) (victim >>> SEGMENT_SHIFT)];
+        int offset = (int) (victim & SEGMENT_MASK) * ENTRY_BYTES;
+        segment.putLong(offset + 8, data);
+        segment.putLong(offset, key ^ data);
+    }
+
+    public long getProbes() {
+        return probes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getStores() {
+        return stores;
+    }
+
+    /**
+     * Stores that evicted a different position.
+     */
+    public long getReplacements() {
+        return replacements;
+    }
+
+    public static int valueOf(long data) {
+        return (int) data;
+    }
+
+    public static int boundOf(long data) {
+        return (int) (data >>> 48) & 0x3;
+    }
+
+    /**
+     * Best move index of an entry, or NO_MOVE.
+     */
+    public static int moveOf(long data) {
+        return (int) (data >>> 32 & 0xFFFF) - 1;
+    }
+
+    // Bits: 0-31 value, 32-47 move index + 1, 48-49 bound, 50-55 log2(work), 56-63 age
+    private long pack(int value, int bound, int moveIndex, long work) {
+        long move = moveIndex >= 0 && moveIndex <= MAX_MOVE_INDEX ? moveIndex + 1 : 0;
+        long log2Work = 63 - Long.numberOfLeadingZeros(Math.max(1, work));
+        return (value & 0xFFFFFFFFL)
+                | move << 32
+                | (long) (bound & 0x3) << 48
+                | log2Work << 50
+                | (long) age << 56;
+    }
+
+    private static int workOf(long data) {
+        return (int) (data >>> 50) & 0x3F;
+    }
+
+    private static int ageOf(long data) {
+        return (int) (data >>> 56) & 0xFF;
+    }
+}
@@ -0,0 +1,306 @@
+//src/main/java/battle/OrderingTuner.java
+
+package battle;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import battle.ScenarioGenerator.Tier;
+
+/**
+ * Offline tuning of the ALPHA_BETA move-ordering weights. A training corpus
+ * and a held-out corpus (same tiers, different seeds) are generated with
+ * ScenarioGenerator and solved exactly once with ALPHA_BETA_TT. The tuner
+ * then runs a coordinate descent on the {@link OrderingWeights}: for step
+ * sizes 8, 4, 2, 1 it tries every weight one step up and down, keeps any
+ * change that lowers the total nodes alpha-beta expands on the training
+ * corpus, and repeats while something improves (at most maxRounds passes
+ * per step size). A candidate is abandoned as soon as its running total
+ * reaches the incumbent's. Every candidate search must reproduce the exact
+ * values, so a bad weight can only cost nodes, never correctness.
+ *
+ * The result reports nodes per tier before and after on both corpora; the
+ * held-out numbers show whether the gain generalizes. Run from the command
+ * line with key=value arguments:
+ *
+ * <pre>
+ * java -cp target/classes battle.OrderingTuner out=ordering-weights.properties seed=45 perTier=8 rounds=4 maxNodes=2000000 tiers=TINY,SMALL,MEDIUM
+ * </pre>
+ *
+ * and start solvers with -Dbattle.orderingWeights=ordering-weights.properties.
+ */
+public final class OrderingTuner {
+    private static final int[] STEPS = { 8, 4, 2, 1 };
+    private static final long STACK_BYTES = 256L << 20; // frame stack of each search
+
+    private final long seed;
+    private final int perTier;
+    private final Tier[] tiers;
+    private int maxRounds = 4;
+    private long maxScenarioNodes = 2_000_000;
+
+    public OrderingTuner(long seed, int perTier, Tier... tiers) {
+        this.seed = seed;
+        this.perTier = perTier;
+        this.tiers = tiers.clone();
+    }
+
+    public OrderingTuner setMaxRounds(int maxRounds) {
+        this.maxRounds = Math.max(1, maxRounds);
+        return this;
+    }
+
+    /**
+     * Scenarios that take alpha-beta more nodes than this with the starting
+     * weights are left out of the corpus (and counted as skipped), so one
+     * huge tree cannot dominate the objective or the tuning time.
+     */
+    public OrderingTuner setMaxScenarioNodes(long maxScenarioNodes) {
+        this.maxScenarioNodes = Math.max(1, maxScenarioNodes);
+        return this;
+    }
+
+    /**
+     * Tune starting from {@code start} and report both corpora.
+     */
+    public Result tune(OrderingWeights start) {
+        Corpus training = new Corpus(seed, start);
+        Corpus heldOut = new Corpus(seed + 1_000_003, start);
+
+        Map<OrderingWeights, Long> evaluated = new HashMap<>();
+        OrderingWeights best = start;
+        long bestNodes = training.totalNodes(best, Long.MAX_VALUE);
+        evaluated.put(best, bestNodes);
+        int evaluations = 1;
+
+        for (int step : STEPS) {
+            boolean improved = true;
+            for (int round = 0; round < maxRounds && improved; round++) {
+                improved = false;
+                for (int index = 0; index < 4; index++) {
+                    for (int delta : new int[] { step, -step }) {
+                        OrderingWeights candidate = best.adjust(index, delta);
+                        if (candidate.getHealth() <= 0 || evaluated.containsKey(candidate)) continue;
+                        long nodes = training.totalNodes(candidate, bestNodes);
+                        evaluated.put(candidate, nodes);
+                        evaluations++;
+                        if (nodes < bestNodes) {
+                            best = candidate;
+                            bestNodes = nodes;
+                            improved = true;
+                        }
+                    }
+                }
+            }
+        }
+        return new Result(start, best, evaluations, training.report(start, best), heldOut.report(start, best));
+    }
+
+    // Scenarios of every tier with their exact values and their nodes with the starting weights
+    private final class Corpus {
+        final List<Tier> tierOf = new ArrayList<>();
+        final List<BattleBoard> boards = new ArrayList<>();
+        final List<Integer> values = new ArrayList<>();
+        final List<Long> startNodes = new ArrayList<>();
+        final int[] skipped = new int[Tier.values().length];
+
+        Corpus(long corpusSeed, OrderingWeights start) {
+            SolveOptions exact = new SolveOptions().setEngine(Engine.ALPHA_BETA_TT).setMetrics(null);
+            BattleSolver solver = new BattleSolver();
+            for (Tier tier : tiers) {
+                for (String scenario : new ScenarioGenerator(corpusSeed + tier.ordinal()).generate(tier, perTier)) {
+                    tierOf.add(tier);
+                    boards.add(BattleBoard.of(BattleSolver.parseInitialState(scenario)));
+                    values.add(solver.solve(scenario, exact).getScore());
+                    long nodes = nodes(boards.size() - 1, start, maxScenarioNodes);
+                    if (nodes < 0) {
+                        skipped[tier.ordinal()]++;
+                        tierOf.remove(tierOf.size() - 1);
+                        boards.remove(boards.size() - 1);
+                        values.remove(values.size() - 1);
+                    } else {
+                        startNodes.add(nodes);
+                    }
+                }
+            }
+        }
+
+        long nodes(int k, OrderingWeights weights) {
+            return nodes(k, weights, Long.MAX_VALUE);
+        }
+
+        // Nodes of scenario k, or -1 once the search passes limit
+        long nodes(int k, OrderingWeights weights, long limit) {
+            IterativeSearch search = new IterativeSearch(boards.get(k), STACK_BYTES, null, weights);
+            search.setNodeLimit(limit);
+            try {
+                search.alphaBeta();
+            } catch (SearchAbortedException e) {
+                return -1;
+            }
+            if (search.rootValue() != values.get(k)) {
+                throw new IllegalStateException("Alpha-beta with " + weights + " returned " + search.rootValue()
+                        + " instead of " + values.get(k));
+            }
+            return search.getNodesExpanded();
+        }
+
+        /**
+         * Total nodes over the corpus, or Long.MAX_VALUE as soon as the total
+         * reaches {@code limit}: a candidate that cannot beat the incumbent
+         * is abandoned instead of searched to the end.
+         */
+        long totalNodes(OrderingWeights weights, long limit) {
+            long total = 0;
+            for (int k = 0; k < boards.size(); k++) {
+                long nodes = nodes(k, weights, limit - total - 1);
+                if (nodes < 0) return Long.MAX_VALUE;
+                total += nodes;
+            }
+            return total;
+        }
+
+        List<TierReport> report(OrderingWeights before, OrderingWeights after) {
+            List<TierReport> report = new ArrayList<>();
+            for (Tier tier : tiers) {
+                long nodesBefore = 0;
+                long nodesAfter = 0;
+                int scenarios = 0;
+                for (int k = 0; k < boards.size(); k++) {
+                    if (tierOf.get(k) != tier) continue;
+                    nodesBefore += startNodes.get(k);
+                    nodesAfter += nodes(k, after);
+                    scenarios++;
+                }
+                report.add(new TierReport(tier, scenarios, skipped[tier.ordinal()], nodesBefore, nodesAfter));
+            }
+            return report;
+        }
+    }
+
+    /**
+     * Alpha-beta nodes of one tier with the starting and the tuned weights.
+     */
+    public static final class TierReport {
+        private final Tier tier;
+        private final int scenarios;
+        private final int skipped;
+        private final long nodesBefore;
+        private final long nodesAfter;
+
+        TierReport(Tier tier, int scenarios, int skipped, long nodesBefore, long nodesAfter) {
+            this.tier = tier;
+            this.scenarios = scenarios;
+            this.skipped = skipped;
+            this.nodesBefore = nodesBefore;
+            this.nodesAfter = nodesAfter;
+        }
+
+        public Tier getTier() {
+            return tier;
+        }
+
+        public int getScenarios() {
+            return scenarios;
+        }
+
+        /** Scenarios left out for exceeding maxScenarioNodes. */
+        public int getSkipped() {
+            return skipped;
+        }
+
+        public long getNodesBefore() {
+            return nodesBefore;
+        }
+
+        public long getNodesAfter() {
+            return nodesAfter;
+        }
+
+        @Override
+        public String toString() {
+            double change = nodesBefore == 0 ? 0 : 100.0 * (nodesAfter - nodesBefore) / nodesBefore;
+            return String.format("%-7s %3d scenarios (%d skipped)  %,14d -> %,14d nodes  (%+.1f%%)",
+                    tier, scenarios, skipped, nodesBefore, nodesAfter, change);
+        }
+    }
+
+    public static final class Result {
+        private final OrderingWeights start;
+        private final OrderingWeights tuned;
+        private final int evaluations;
+        private final List<TierReport> training;
+        private final List<TierReport> heldOut;
+
+        Result(OrderingWeights start, OrderingWeights tuned, int evaluations,
+               List<TierReport> training, List<TierReport> heldOut) {
+            this.start = start;
+            this.tuned = tuned;
+            this.evaluations = evaluations;
+            this.training = training;
+            this.heldOut = heldOut;
+        }
+
+        public OrderingWeights getStart() {
+            return start;
+        }
+
+        public OrderingWeights getTuned() {
+            return tuned;
+        }
+
+        /** Weight vectors whose training nodes were measured. */
+        public int getEvaluations() {
+            return evaluations;
+        }
+
+        public List<TierReport> getTraining() {
+            return training;
+        }
+
+        public List<TierReport> getHeldOut() {
+            return heldOut;
+        }
+
+        public String report() {
+            StringBuilder report = new StringBuilder();
+            report.append("start: ").append(start).append('\n');
+            report.append("tuned: ").append(tuned).append(" (").append(evaluations).append(" evaluations)\n");
+            report.append("training corpus:\n");
+            for (TierReport tier : training) report.append("  ").append(tier).append('\n');
+            report.append("held-out corpus:\n");
+            for (TierReport tier : heldOut) report.append("  ").append(tier).append('\n');
+            return report.toString();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> settings = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected key=value, got " + arg);
+            settings.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        Path out = Paths.get(settings.getOrDefault("out", "ordering-weights.properties"));
+        String[] tierNames = settings.getOrDefault("tiers", "TINY,SMALL,MEDIUM").split(",");
+        Tier[] tiers = new Tier[tierNames.length];
+        for (int t = 0; t < tiers.length; t++) {
+            tiers[t] = Tier.valueOf(tierNames[t].trim());
+        }
+        OrderingTuner tuner = new OrderingTuner(Long.parseLong(settings.getOrDefault("seed", "45")),
+                Integer.parseInt(settings.getOrDefault("perTier", "8")), tiers)
+                .setMaxRounds(Integer.parseInt(settings.getOrDefault("rounds", "4")))
+                .setMaxScenarioNodes(Long.parseLong(settings.getOrDefault("maxNodes", "2000000")));
+
+        Result result = tuner.tune(OrderingWeights.active());
+        System.out.print(result.report());
+        result.getTuned().save(out, "Move-ordering weights tuned by OrderingTuner; load with -D"
+                + OrderingWeights.PROPERTY + "=" + out);
+        System.out.println("written to " + out.toAbsolutePath());
+    }
+}
@@ -0,0 +1,175 @@
+//src/main/java/battle/OrderingWeights.java
+
+package battle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Weights of the move-ordering score used by ALPHA_BETA (recursive and
+ * explicit-stack). A move of attacker a onto target t is scored as
+ *
+ * <pre>
+ * health * dealt + threat * dealt * t.damage + lethal * [t dies] + overkill * (a.damage - dealt)
+ * </pre>
+ *
+ * where dealt = min(t.health, a.damage). Moves are searched highest score
+ * first, ties in generation order. DEFAULT is a pure health difference,
+ * which is exactly the old heuristicEstimate order, so untuned solves keep
+ * their plans and node counts.
+ *
+ * Weights are tuned offline by {@link OrderingTuner} and stored as a
+ * properties file. The file named by the system property
+ * battle.orderingWeights is loaded once, when the first SolveOptions is
+ * created, and becomes the default of every solve; setOrderingWeights
+ * overrides it per solve. A file that is missing or malformed is reported
+ * on standard error and DEFAULT is used instead, so a bad setting never
+ * stops the library from working.
+ */
+public final class OrderingWeights {
+    public static final OrderingWeights DEFAULT = new OrderingWeights(8, 0, 0, 0);
+    public static final String PROPERTY = "battle.orderingWeights";
+
+    private final int health;   // per point of damage dealt
+    private final int threat;   // per point of damage dealt times the target's damage
+    private final int lethal;   // when the blow kills the target
+    private final int overkill; // per point of the attacker's damage that is wasted
+
+    public OrderingWeights(int health, int threat, int lethal, int overkill) {
+        this.health = health;
+        this.threat = threat;
+        this.lethal = lethal;
+        this.overkill = overkill;
+    }
+
+    /**
+     * Weights loaded from the battle.orderingWeights file, or DEFAULT.
+     */
+    public static OrderingWeights active() {
+        return Active.WEIGHTS;
+    }
+
+    // Loaded on first use of active(); never fails, so neither does SolveOptions
+    private static final class Active {
+        static final OrderingWeights WEIGHTS = loadActive();
+
+        private static OrderingWeights loadActive() {
+            String path = System.getProperty(PROPERTY);
+            if (path == null || path.isEmpty()) {
+                return DEFAULT;
+            }
+            try {
+                return load(Paths.get(path));
+            } catch (RuntimeException e) {
+                System.err.println("battle: ignoring -D" + PROPERTY + "=" + path + " (" + e.getMessage()
+                        + "); using the default ordering weights");
+                return DEFAULT;
+            }
+        }
+    }
+
+    /**
+     * Read weights from a properties file written by save(...). Throws
+     * UncheckedIOException when the file cannot be read and
+     * IllegalArgumentException when a weight is not an integer.
+     */
+    public static OrderingWeights load(Path file) {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read ordering weights from " + file, e);
+        }
+        return new OrderingWeights(
+                weight(properties, "health", "8", file),
+                weight(properties, "threat", "0", file),
+                weight(properties, "lethal", "0", file),
+                weight(properties, "overkill", "0", file));
+    }
+
+    private static int weight(Properties properties, String name, String fallback, Path file) {
+        String value = properties.getProperty(name, fallback).trim();
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Ordering weight " + name + " in " + file + " is not an integer: "
+                    + value, e);
+        }
+    }
+
+    public void save(Path file, String comment) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("health", Integer.toString(health));
+        properties.setProperty("threat", Integer.toString(threat));
+        properties.setProperty("lethal", Integer.toString(lethal));
+        properties.setProperty("overkill", Integer.toString(overkill));
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        try (OutputStream out = Files.newOutputStream(file)) {
+            properties.store(out, comment);
+        }
+    }
+
+    public int getHealth() {
+        return health;
+    }
+
+    public int getThreat() {
+        return threat;
+    }
+
+    public int getLethal() {
+        return lethal;
+    }
+
+    public int getOverkill() {
+        return overkill;
+    }
+
+    /**
+     * The same weights with weight number {@code index} (0 health, 1 threat,
+     * 2 lethal, 3 overkill) changed by delta; used by the tuner.
+     */
+    OrderingWeights adjust(int index, int delta) {
+        return new OrderingWeights(
+                health + (index == 0 ? delta : 0),
+                threat + (index == 1 ? delta : 0),
+                lethal + (index == 2 ? delta : 0),
+                overkill + (index == 3 ? delta : 0));
+    }
+
+    /**
+     * Ordering score of a blow of attackerDamage on a target with
+     * targetHealth (alive) and targetDamage; higher is searched first.
+     */
+    int score(int attackerDamage, int targetHealth, int targetDamage) {
+        int dealt = Math.min(targetHealth, attackerDamage);
+        long score = (long) health * dealt
+                + (long) threat * dealt * targetDamage
+                + (dealt == targetHealth ? lethal : 0)
+                + (long) overkill * (attackerDamage - dealt);
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, score));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof OrderingWeights)) return false;
+        OrderingWeights o = (OrderingWeights) other;
+        return health == o.health && threat == o.threat && lethal == o.lethal && overkill == o.overkill;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((health * 31 + threat) * 31 + lethal) * 31 + overkill;
+    }
+
+    @Override
+    public String toString() {
+        return "health=" + health + " threat=" + threat + " lethal=" + lethal + " overkill=" + overkill;
+    }
+}
@@ -0,0 +1,195 @@
+//src/main/java/battle/ParallelMinimax.java
+
+package battle;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plain minimax (no pruning) on a fork-join pool, for callers who rely on
+ * the MINIMAX engine's nodesExpanded and so cannot switch to a pruned one.
+ *
+ * A position whose subtree is estimated at SPLIT_THRESHOLD nodes or more
+ * is split: every child gets its own board copy and its own task, and the
+ * parent waits for all of them. Smaller subtrees run serially on an
+ * IterativeSearch, which already reproduces the recursive engine. Results
+ * are then combined in generation order with the serial engine's strict
+ * improvement rule, so the first best child wins no matter which task
+ * finished first. Minimax visits every node exactly once whatever the
+ * split, and counts are summed in a LongAdder, so the value, the plan and
+ * nodesExpanded are identical to the serial MINIMAX. When the search is
+ * stopped, the root folds the children that did finish into partialLine().
+ *
+ * The split decision only affects speed. It uses one Knuth probe along the
+ * first move of each position (the product of the branching factors down
+ * that line), stopped as soon as it passes the threshold.
+ */
+final class ParallelMinimax {
+    static final long SPLIT_THRESHOLD = 1 << 14;
+
+    private final BattleBoard root;
+    private final int threads;
+    private final long stackBytes;       // frame-stack budget of each serial subtree search
+    private final SearchControl control; // polled by every subtree, may be null
+    private final LongAdder nodes = new LongAdder();
+    private int rootValue;
+    private volatile Result partial; // best root line among the finished children of a stopped search
+
+    ParallelMinimax(BattleBoard root, int threads, long stackBytes, SearchControl control) {
+        this.root = root.copy();
+        this.threads = threads;
+        this.stackBytes = stackBytes;
+        this.control = control;
+    }
+
+    long getNodesExpanded() {
+        return nodes.sum();
+    }
+
+    int rootValue() {
+        return rootValue;
+    }
+
+    /**
+     * After a stopped search: the best line among the root moves whose
+     * subtrees were finished, or null if none was.
+     */
+    IterativeSearch.Line partialLine() {
+        Result result = partial;
+        return result != null ? result.line : null;
+    }
+
+    int partialValue() {
+        Result result = partial;
+        return result != null ? result.value : 0;
+    }
+
+    /**
+     * Search the whole tree and return the serial engine's line (null when
+     * the root is already terminal).
+     */
+    IterativeSearch.Line search() {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            Result result = pool.invoke(new Subtree(root, true));
+            rootValue = result.value;
+            return result.line;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static final class Result {
+        final int value;
+        final IterativeSearch.Line line;
+
+        Result(int value, IterativeSearch.Line line) {
+            this.value = value;
+            this.line = line;
+        }
+    }
+
+    // Minimax of the position on its own board; the board belongs to this task. Never serialized.
+    @SuppressWarnings("serial")
+    private final class Subtree extends RecursiveTask<Result> {
+        private final BattleBoard board;
+        private final boolean isRoot;
+
+        Subtree(BattleBoard board, boolean isRoot) {
+            this.board = board;
+            this.isRoot = isRoot;
+        }
+
+        @Override
+        protected Result compute() {
+            if (board.isTerminal() || estimate(board, SPLIT_THRESHOLD) < SPLIT_THRESHOLD) {
+                IterativeSearch search = new IterativeSearch(board, stackBytes, control);
+                try {
+                    IterativeSearch.Line line = search.minimax();
+                    return new Result(search.rootValue(), line);
+                } catch (SearchAbortedException e) {
+                    if (isRoot && search.partialLine() != null) {
+                        partial = new Result(search.partialValue(), search.partialLine());
+                    }
+                    throw e;
+                } finally {
+                    nodes.add(search.getNodesExpanded());
+                }
+            }
+
+            if (control != null && control.shouldStop(1)) {
+                throw new SearchAbortedException();
+            }
+            nodes.increment();
+            int[] moves = new int[board.maxBranching()];
+            int count = board.generateMoves(moves);
+            Subtree[] children = new Subtree[count];
+            for (int k = 0; k < count; k++) {
+                BattleBoard child = board.copy();
+                child.apply(moves[k]);
+                children[k] = new Subtree(child, false);
+            }
+            try {
+                invokeAll(children);
+            } catch (SearchAbortedException e) {
+                if (isRoot) {
+                    Result finished = fold(moves, children, count);
+                    if (finished.line != null) {
+                        partial = finished;
+                    }
+                }
+                throw e;
+            }
+            return fold(moves, children, count);
+        }
+
+        // Same fold as the serial engine: first strictly better child in generation order.
+        // Children that did not complete normally (a stopped search) are skipped.
+        private Result fold(int[] moves, Subtree[] children, int count) {
+            boolean maximizing = board.current == board.starting;
+            int bestValue = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+            IterativeSearch.Line bestLine = null;
+            for (int k = 0; k < count; k++) {
+                if (!children[k].isCompletedNormally()) continue;
+                Result child = children[k].getRawResult();
+                if (maximizing ? child.value > bestValue : child.value < bestValue) {
+                    bestValue = child.value;
+                    bestLine = new IterativeSearch.Line(moves[k], child.line);
+                }
+            }
+            return new Result(bestValue, bestLine);
+        }
+    }
+
+    /**
+     * Knuth estimate of the subtree size from the line that always plays the
+     * first move: 1 + b0 + b0*b1 + ..., capped at {@code cap}. The board is
+     * restored before returning.
+     */
+    static long estimate(BattleBoard board, long cap) {
+        int[] moves = new int[board.maxBranching()];
+        int[] played = new int[16];
+        int[] dealt = new int[16];
+        int depth = 0;
+        long size = 1;
+        long width = 1;
+        while (size < cap && !board.isTerminal()) {
+            int count = board.generateMoves(moves);
+            width = Math.min(cap, width * count);
+            size = Math.min(cap, size + width);
+            if (depth == played.length) {
+                played = java.util.Arrays.copyOf(played, depth * 2);
+                dealt = java.util.Arrays.copyOf(dealt, depth * 2);
+            }
+            played[depth] = moves[0];
+            dealt[depth] = board.apply(moves[0]);
+            depth++;
+        }
+        while (depth > 0) {
+            depth--;
+            board.undo(played[depth], dealt[depth]);
+        }
+        return size;
+    }
+}
@@ -0,0 +1,68 @@
+//src/main/java/battle/PlanValidation.java
+
+package battle;
+
+/**
+ * Outcome of checking one plan with {@link PlanValidator}: whether it is a
+ * legal line that ends the game (and, for a full answer, claims the right
+ * score), the first step that broke it and the utility of the state the
+ * replay stopped in.
+ */
+public final class PlanValidation {
+    private final boolean valid;
+    private final int failedStep;    // 1-based index of the first illegal action, 0 if none
+    private final int stepsApplied;  // legal actions replayed before stopping
+    private final int finalUtility;  // utility of the state reached (0 while nobody has won)
+    private final boolean terminal;  // whether that state ends the game
+    private final String message;
+
+    PlanValidation(boolean valid, int failedStep, int stepsApplied, int finalUtility, boolean terminal,
+                   String message) {
+        this.valid = valid;
+        this.failedStep = failedStep;
+        this.stepsApplied = stepsApplied;
+        this.finalUtility = finalUtility;
+        this.terminal = terminal;
+        this.message = message;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * 1-based index of the first malformed or illegal action, 0 when every
+     * action was legal (the plan may still be invalid, see getMessage()).
+     */
+    public int getFailedStep() {
+        return failedStep;
+    }
+
+    public int getStepsApplied() {
+        return stepsApplied;
+    }
+
+    /**
+     * Utility, from the starting player's perspective, of the state after
+     * the last legal action; the plan's score when it is valid.
+     */
+    public int getFinalUtility() {
+        return finalUtility;
+    }
+
+    public boolean isTerminal() {
+        return terminal;
+    }
+
+    /**
+     * "Valid plan" or what is wrong, e.g. "Step 3: A(0,2) targets a dead unit".
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return message;
+    }
+}
@@ -0,0 +1,287 @@
+//src/main/java/battle/PlanValidator.java
+
+package battle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks plans against the rules in one streaming pass, for validating
+ * untrusted plans at high volume. The initial state is scanned straight
+ * into health and damage arrays, then the plan is read character by
+ * character and every action is checked and applied to that single mutable
+ * state: no splitting, no regular expressions, no per-step action lists.
+ * The arrays grow as needed and are reused by the next call, so a warmed
+ * validator allocates only the result.
+ *
+ * A plan is valid when every action is well formed ("A(i,j)", actions
+ * separated by commas), made by the side to move with a living attacker
+ * against a living target, and the last one ends the game. A full answer
+ * ("plan;score;nodesExpanded;") is accepted too; its score must then equal
+ * the utility of the final state.
+ *
+ * An instance is not thread-safe; validateAll(...) gives each thread its own.
+ */
+public final class PlanValidator {
+    private static final int MAX_INDEX = 1 << 20; // larger unit indexes are out of range for any army
+
+    // Mutable state of the plan being replayed, indexed [side][unit]
+    private int[][] health = { new int[16], new int[16] };
+    private int[][] damage = { new int[16], new int[16] };
+    private final int[] units = new int[2];
+    private final int[] totalHealth = new int[2];
+    private int current;
+    private int starting;
+
+    // Scanner over the plan
+    private CharSequence text;
+    private int pos;
+    private int end;
+
+    /**
+     * Validate a plan (or a full "plan;score;nodesExpanded;" answer) for the
+     * given initial state. Malformed or illegal plans give an invalid result;
+     * only a malformed initial state throws IllegalArgumentException.
+     */
+    public PlanValidation validate(CharSequence initialState, CharSequence plan) {
+        parseState(initialState);
+        text = plan;
+        pos = 0;
+        end = indexOf(plan, ';');
+
+        int steps = 0;
+        skipSpaces();
+        while (pos < end) {
+            int step = steps + 1;
+            if (isTerminal()) {
+                return fail(step, steps, "Step " + step + ": the game is already over");
+            }
+            int actionStart = pos;
+            char player = text.charAt(pos++);
+            int side = player == 'A' ? BattleBoard.SIDE_A : player == 'B' ? BattleBoard.SIDE_B : -1;
+            if (side < 0 || !expect('(')) {
+                return fail(step, steps, "Step " + step + ": malformed action " + action(actionStart));
+            }
+            int attacker = readIndex();
+            int target = attacker >= 0 && expect(',') ? readIndex() : -1;
+            if (target < 0 || !expect(')')) {
+                return fail(step, steps, "Step " + step + ": malformed action " + action(actionStart));
+            }
+            if (side != current) {
+                return fail(step, steps, "Step " + step + ": " + action(actionStart) + " but "
+                        + BattleBoard.playerOf(current) + " is to move");
+            }
+            int opp = 1 - current;
+            if (attacker >= units[current] || health[current][attacker] == 0) {
+                return fail(step, steps, "Step " + step + ": " + action(actionStart)
+                        + (attacker >= units[current] ? " has no such attacker" : " attacks with a dead unit"));
+            }
+            if (target >= units[opp] || health[opp][target] == 0) {
+                return fail(step, steps, "Step " + step + ": " + action(actionStart)
+                        + (target >= units[opp] ? " has no such target" : " targets a dead unit"));
+            }
+
+            int dealt = Math.min(health[opp][target], damage[current][attacker]);
+            health[opp][target] -= dealt;
+            totalHealth[opp] -= dealt;
+            current = opp;
+            steps++;
+
+            skipSpaces();
+            if (pos < end) {
+                if (text.charAt(pos) != ',') {
+                    return fail(step + 1, steps, "Step " + (step + 1) + ": expected ',' after " + action(actionStart));
+                }
+                pos++;
+                skipSpaces();
+                if (pos == end) {
+                    return fail(step + 1, steps, "Step " + (step + 1) + ": missing action after ','");
+                }
+            }
+        }
+
+        if (!isTerminal()) {
+            return fail(0, steps, "Final state is not terminal after " + steps + " steps");
+        }
+        if (end < plan.length()) {
+            pos = end + 1;
+            end = indexOf(plan, ';', pos);
+            skipSpaces();
+            long claimed = readSignedNumber();
+            skipSpaces();
+            if (claimed == Long.MIN_VALUE || pos != end) {
+                return fail(0, steps, "Malformed score in answer");
+            }
+            if (claimed != utility()) {
+                return fail(0, steps, "Score mismatch: plan reaches " + utility() + ", answer claims " + claimed);
+            }
+        }
+        return new PlanValidation(true, 0, steps, utility(), true, "Valid plan");
+    }
+
+    /**
+     * Validate many plans on {@code threads} threads, each with its own
+     * validator. Plan i is checked against initial state i; results are in
+     * input order. A malformed initial state gives an invalid result here
+     * instead of an exception.
+     */
+    public static List<PlanValidation> validateAll(List<String> initialStates, List<String> plans, int threads) {
+        if (initialStates.size() != plans.size()) {
+            throw new IllegalArgumentException("Got " + initialStates.size() + " states for " + plans.size() + " plans");
+        }
+        int count = plans.size();
+        PlanValidation[] results = new PlanValidation[count];
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            PlanValidator validator = new PlanValidator();
+            for (int i = next.getAndIncrement(); i < count; i = next.getAndIncrement()) {
+                try {
+                    results[i] = validator.validate(initialStates.get(i), plans.get(i));
+                } catch (IllegalArgumentException e) {
+                    results[i] = new PlanValidation(false, 0, 0, 0, false, e.getMessage());
+                }
+            }
+        };
+
+        int workers = Math.max(1, Math.min(threads, count));
+        if (workers == 1) {
+            worker.run();
+        } else {
+            Thread[] pool = new Thread[workers];
+            for (int t = 0; t < workers; t++) {
+                pool[t] = new Thread(worker, "plan-validator-" + t);
+                pool[t].start();
+            }
+            for (Thread thread : pool) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while validating plans", e);
+                }
+            }
+        }
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    private PlanValidation fail(int failedStep, int steps, String message) {
+        return new PlanValidation(false, failedStep, steps, utility(), isTerminal(), message);
+    }
+
+    private boolean isTerminal() {
+        return totalHealth[BattleBoard.SIDE_A] == 0 || totalHealth[BattleBoard.SIDE_B] == 0;
+    }
+
+    // Same contract as GameState.getUtility()
+    private int utility() {
+        int own = totalHealth[starting];
+        int other = totalHealth[1 - starting];
+        if (other == 0) return own;
+        if (own == 0) return -other;
+        return 0;
+    }
+
+    /**
+     * Scan "h,d,h,d,...;h,d,...;P" into the state arrays.
+     */
+    private void parseState(CharSequence state) {
+        text = state;
+        pos = 0;
+        end = state.length();
+        for (int side = 0; side < 2; side++) {
+            int n = 0;
+            int total = 0;
+            int stop = indexOf(state, ';', pos);
+            while (pos < stop) {
+                if (n == health[side].length) {
+                    health[side] = Arrays.copyOf(health[side], n * 2);
+                    damage[side] = Arrays.copyOf(damage[side], n * 2);
+                }
+                health[side][n] = stateNumber(stop);
+                if (!expect(',')) throw malformedState(state);
+                damage[side][n] = stateNumber(stop);
+                total += health[side][n];
+                n++;
+                if (pos < stop && !expect(',')) throw malformedState(state);
+            }
+            if (pos >= end) throw malformedState(state);
+            pos++; // ';'
+            units[side] = n;
+            totalHealth[side] = total;
+        }
+        if (pos >= end || state.charAt(pos) != 'A' && state.charAt(pos) != 'B') {
+            throw malformedState(state);
+        }
+        starting = BattleBoard.sideOf(state.charAt(pos));
+        current = starting;
+    }
+
+    private int stateNumber(int stop) {
+        long value = readSignedNumber();
+        if (value < 0 || value > Integer.MAX_VALUE || pos > stop) throw malformedState(text);
+        return (int) value;
+    }
+
+    private static IllegalArgumentException malformedState(CharSequence state) {
+        return new IllegalArgumentException("Malformed initial state: " + state);
+    }
+
+    private boolean expect(char c) {
+        if (pos < end && text.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipSpaces() {
+        while (pos < end && text.charAt(pos) == ' ') pos++;
+    }
+
+    /**
+     * Unsigned index, capped at MAX_INDEX; -1 when no digit follows.
+     */
+    private int readIndex() {
+        int start = pos;
+        int value = 0;
+        while (pos < end && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') {
+            value = Math.min(MAX_INDEX, value * 10 + (text.charAt(pos++) - '0'));
+        }
+        return pos > start ? value : -1;
+    }
+
+    /**
+     * Optionally signed integer; Long.MIN_VALUE when malformed or too long.
+     */
+    private long readSignedNumber() {
+        boolean negative = expect('-');
+        int start = pos;
+        long value = 0;
+        while (pos < end && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') {
+            if (pos - start == 18) return Long.MIN_VALUE;
+            value = value * 10 + (text.charAt(pos++) - '0');
+        }
+        if (pos == start) return Long.MIN_VALUE;
+        return negative ? -value : value;
+    }
+
+    // The action starting at start, up to its ')' (at most 32 characters), for messages
+    private String action(int start) {
+        int stop = start + 1;
+        while (stop < end && text.charAt(stop - 1) != ')' && stop - start < 32) stop++;
+        return text.subSequence(start, stop).toString();
+    }
+
+    private static int indexOf(CharSequence s, char c) {
+        return indexOf(s, c, 0);
+    }
+
+    private static int indexOf(CharSequence s, char c, int from) {
+        for (int i = from; i < s.length(); i++) {
+            if (s.charAt(i) == c) return i;
+        }
+        return s.length();
+    }
+}
@@ -0,0 +1,180 @@
+//src/main/java/battle/ProgressReporter.java
+
+package battle;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Feeds one solve's progress to its {@link SearchListener}. The search side
+ * only writes: node counts are added at the engines' SearchControl polls
+ * (a LongAdder, so parallel engines do not contend) and an improved root
+ * line is stored in a volatile field, as the Node or IterativeSearch.Line the
+ * engine already built. Turning that into a plan string, computing rates
+ * and calling the listener all happen on the shared "battle-progress"
+ * thread, which samples the fields every interval.
+ *
+ * Engines reach it through SearchControl.reporter() or a setProgress(...)
+ * call; it is null whenever the solve has no listener, so they pay one null
+ * test per poll or root improvement.
+ */
+final class ProgressReporter {
+    private static final ScheduledExecutorService DISPATCHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "battle-progress");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final SearchListener listener;
+    private final BattleBoard root;      // for rendering lines; never mutated
+    private final long startNanos = System.nanoTime();
+    private final LongAdder nodes = new LongAdder();
+    private volatile Engine engine;
+    private volatile Object bestLine;   // Node (its parent chain) or IterativeSearch.Line, null if none
+    private volatile int bestValue;
+    private volatile boolean bounded;   // bestValue is a lower bound on the exact value
+    private volatile long iteration;
+    private volatile Supplier<IterativeSearch.Line> lineSource; // polled instead of bestLine (MCTS)
+    private volatile LongSupplier iterationSource;               // polled instead of iteration (MCTS)
+    private volatile LongSupplier nodeSource;                    // polled instead of the polls' count (MCTS)
+    private ScheduledFuture<?> task;
+
+    // Dispatcher-thread state
+    private long lastNodes;
+    private long lastNanos = startNanos;
+
+    ProgressReporter(SearchListener listener, BattleBoard root, Engine engine) {
+        this.listener = listener;
+        this.root = root;
+        this.engine = engine;
+    }
+
+    void start(long intervalMillis) {
+        long interval = Math.max(1, intervalMillis);
+        task = DISPATCHER.scheduleAtFixedRate(() -> deliver(report(false, null)), interval, interval,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the periodic reports and queue the final one, built from the
+     * solve's result, behind any report already being delivered.
+     */
+    void finish(SolveResult result) {
+        stop();
+        DISPATCHER.execute(() -> deliver(report(true, result)));
+    }
+
+    // Stop the periodic reports without a final one (the solve failed)
+    void stop() {
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
+
+    void setEngine(Engine engine) {
+        this.engine = engine;
+    }
+
+    void addNodes(long count) {
+        nodes.add(count);
+    }
+
+    /**
+     * A root move completed with a better value; {@code line} is a Node at
+     * the end of its line or an IterativeSearch.Line from the root.
+     */
+    void rootImproved(int value, Object line, boolean exactEngine) {
+        bestValue = value;
+        bounded = exactEngine;
+        bestLine = line;
+    }
+
+    void setIteration(long iteration) {
+        this.iteration = iteration;
+    }
+
+    /**
+     * Let the dispatcher read line, iteration and node counts from the
+     * engine itself, for engines whose state is shared and readable anyway.
+     */
+    void setSources(Supplier<IterativeSearch.Line> lines, LongSupplier iterations, LongSupplier nodeCount) {
+        this.lineSource = lines;
+        this.iterationSource = iterations;
+        this.nodeSource = nodeCount;
+    }
+
+    /**
+     * Drop the line and bound of an engine that was abandoned (memory
+     * budget), so the next engine starts from scratch.
+     */
+    void reset() {
+        bestLine = null;
+        bounded = false;
+        lineSource = null;
+        iterationSource = null;
+        nodeSource = null;
+    }
+
+    private SearchProgress report(boolean finished, SolveResult result) {
+        long now = System.nanoTime();
+        LongSupplier counter = nodeSource;
+        long count = finished ? result.getNodesExpanded() : counter != null ? counter.getAsLong() : nodes.sum();
+        double rate = now > lastNanos ? (count - lastNodes) * 1e9 / (now - lastNanos) : 0;
+        lastNodes = count;
+        lastNanos = now;
+        long elapsed = (now - startNanos) / 1_000_000;
+
+        if (finished) {
+            boolean exact = result.getStatus() == SolveResult.Status.EXACT;
+            return new SearchProgress(result.getEngine(), elapsed, count, rate, currentIteration(),
+                    result.getPlan(), result.getScore(),
+                    exact ? result.getScore() : Integer.MIN_VALUE, exact ? result.getScore() : Integer.MAX_VALUE,
+                    true);
+        }
+        Supplier<IterativeSearch.Line> source = lineSource;
+        Object line = source != null ? source.get() : bestLine;
+        int value = bestValue;
+        return new SearchProgress(engine, elapsed, count, rate, currentIteration(), render(line), value,
+                bounded ? value : Integer.MIN_VALUE, Integer.MAX_VALUE, false);
+    }
+
+    private long currentIteration() {
+        LongSupplier source = iterationSource;
+        return source != null ? source.getAsLong() : iteration;
+    }
+
+    private void deliver(SearchProgress progress) {
+        try {
+            listener.onProgress(progress);
+        } catch (RuntimeException e) {
+            // a failing listener must not end the dispatcher thread
+        }
+    }
+
+    private String render(Object line) {
+        StringBuilder plan = new StringBuilder();
+        if (line instanceof Node) {
+            java.util.ArrayDeque<String> actions = new java.util.ArrayDeque<>();
+            for (Node node = (Node) line; node != null && node.getAction() != null; node = node.getParent()) {
+                actions.addFirst(node.getAction());
+            }
+            for (String action : actions) {
+                if (plan.length() > 0) plan.append(',');
+                plan.append(action);
+            }
+        } else if (line instanceof IterativeSearch.Line) {
+            BattleBoard replay = root.copy();
+            for (IterativeSearch.Line step = (IterativeSearch.Line) line; step != null; step = step.next) {
+                if (plan.length() > 0) plan.append(',');
+                replay.appendAction(plan, step.move);
+                replay.apply(step.move);
+            }
+        }
+        return plan.toString();
+    }
+}
@@ -0,0 +1,357 @@
+//src/main/java/battle/ProofNumberSearch.java
+
+package battle;
+
+/**
+ * ProofNumberSearch answers the yes/no question "does the starting player
+ * win?" without computing the exact remaining-health margin that
+ * GameState.getUtility() encodes. It implements depth-first proof-number
+ * search (df-pn) over a {@link BattleBoard}, which is usually far cheaper than
+ * full-value minimax on lopsided battles because it only has to find one
+ * winning reply at OR nodes and refute the opponent at AND nodes.
+ *
+ * OR nodes are positions where the starting player moves, AND nodes are the
+ * opponent's. Every attack strictly lowers the total health on the board, so
+ * the game graph is acyclic and df-pn needs no cycle handling.
+ *
+ * Proof and disproof numbers are kept in a fixed-size table (memory bounded
+ * by the constructor argument). Entries are grouped into two-way buckets and
+ * the entry backed by the smaller searched subtree is replaced first, so the
+ * expensive results survive. The search also stops after a node budget and
+ * then reports {@link Outcome#UNKNOWN}.
+ */
+public final class ProofNumberSearch {
+    /** Proof/disproof number representing infinity. */
+    static final int INF = 1 << 30;
+
+    private static final int BUCKET = 2;
+
+    /**
+     * Outcome of a search, from the starting player's perspective.
+     */
+    public enum Outcome { WIN, LOSS, UNKNOWN }
+
+    /**
+     * Result of a proof-number search: the outcome, a line ending in a
+     * terminal state that demonstrates it (empty when unknown) and the
+     * number of nodes the search expanded.
+     */
+    public static final class Result {
+        private final Outcome outcome;
+        private final String plan;
+        private final long nodesExpanded;
+
+        Result(Outcome outcome, String plan, long nodesExpanded) {
+            this.outcome = outcome;
+            this.plan = plan;
+            this.nodesExpanded = nodesExpanded;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public String getPlan() {
+            return plan;
+        }
+
+        public long getNodesExpanded() {
+            return nodesExpanded;
+        }
+
+        /**
+         * Same shape as BattleSolver.solve: plan;outcome;nodesExpanded;
+         */
+        @Override
+        public String toString() {
+            return plan + ";" + outcome + ";" + nodesExpanded + ";";
+        }
+    }
+
+    // Table of proof numbers; slot i of every array describes the same entry.
+    private final long[] keys;
+    private final int[] proof;
+    private final int[] disproof;
+    private final long[] work;  // nodes spent on the entry's subtree, used for replacement
+    private final int mask;     // bucket index mask
+    private final long maxNodes;
+
+    private BattleBoard board;
+    // Per-depth scratch arrays, allocated lazily: move lists and children's numbers
+    private int[][] moveBuffers;
+    private int[][] childPnBuffers;
+    private int[][] childDnBuffers;
+    private long nodesExpanded;
+    private boolean budgetExceeded;
+
+    /**
+     * @param tableEntries approximate number of table entries (rounded up to a
+     *        power of two); memory use is about 24 bytes per entry
+     * @param maxNodes node budget after which the search gives up with UNKNOWN
+     */
+    public ProofNumberSearch(int tableEntries, long maxNodes) {
+        int size = Integer.highestOneBit(Math.max(BUCKET * 2, tableEntries - 1) << 1);
+        this.keys = new long[size];
+        this.proof = new int[size];
+        this.disproof = new int[size];
+        this.work = new long[size];
+        this.mask = size / BUCKET - 1;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Prove or disprove a win for the starting player of the given input
+     * ("h,d,...;h,d,...;P").
+     */
+    public Result search(String initialStateString) {
+        return search(BattleBoard.parse(initialStateString));
+    }
+
+    Result search(BattleBoard root) {
+        this.board = root.copy();
+        this.moveBuffers = new int[16][];
+        this.childPnBuffers = new int[16][];
+        this.childDnBuffers = new int[16][];
+        this.nodesExpanded = 0;
+        this.budgetExceeded = false;
+        java.util.Arrays.fill(keys, 0L);
+
+        if (board.isTerminal()) {
+            Outcome outcome = board.utility() > 0 ? Outcome.WIN : Outcome.LOSS;
+            return new Result(outcome, "", 0);
+        }
+
+        int rootPn = prove(0);
+        if (budgetExceeded || (rootPn != 0 && disproofOf(board.hash) != 0)) {
+            return new Result(Outcome.UNKNOWN, "", nodesExpanded);
+        }
+
+        Outcome outcome = rootPn == 0 ? Outcome.WIN : Outcome.LOSS;
+        String plan = extractLine(outcome == Outcome.WIN);
+        if (budgetExceeded) {
+            return new Result(Outcome.UNKNOWN, "", nodesExpanded);
+        }
+        return new Result(outcome, plan, nodesExpanded);
+    }
+
+    /**
+     * Run df-pn on the current board position with infinite thresholds and
+     * return its proof number (0 = proven, INF = disproven).
+     */
+    private int prove(int depth) {
+        long entry = lookup(board.hash);
+        if (entry >= 0 && (proof[(int) entry] == 0 || disproof[(int) entry] == 0)) {
+            return proof[(int) entry];
+        }
+        mid(INF, INF, depth);
+        return proofOf(board.hash);
+    }
+
+    /**
+     * Multiple iterative deepening (the df-pn recursion): expand the current
+     * position until its proof number reaches thPn or its disproof number
+     * reaches thDn.
+     *
+     * Children's numbers are read from the table once and then kept in a
+     * per-depth array updated from each recursive call's return value. With a
+     * small table a sibling's search could otherwise evict the entry just
+     * computed for its brother and the two would be re-selected forever.
+     *
+     * @return the node's final numbers packed as (pn << 32) | dn
+     */
+    private long mid(int thPn, int thDn, int depth) {
+        if (++nodesExpanded > maxNodes) {
+            budgetExceeded = true;
+            return pack(1, 1);
+        }
+        // Work accumulates over re-expansions so expensive entries are kept
+        long previous = lookup(board.hash);
+        long startNodes = nodesExpanded - (previous >= 0 ? work[(int) previous] : 0);
+
+        int[] moves = movesAt(depth);
+        int count = board.generateMoves(moves);
+        int[] childPn = childPnBuffers[depth];
+        int[] childDn = childDnBuffers[depth];
+        boolean orNode = board.current == board.starting;
+
+        for (int k = 0; k < count; k++) {
+            int move = moves[k];
+            if (board.isWinningMove(move)) {
+                // A finishing blow decides the game immediately
+                boolean starterWins = orNode;
+                childPn[k] = starterWins ? 0 : INF;
+                childDn[k] = starterWins ? INF : 0;
+            } else {
+                long entry = lookup(board.childHash(move));
+                childPn[k] = entry >= 0 ? proof[(int) entry] : 1;
+                childDn[k] = entry >= 0 ? disproof[(int) entry] : 1;
+            }
+        }
+
+        int pn;
+        int dn;
+        while (true) {
+            // pn/dn of this node plus the best two children
+            long sumPn = 0;
+            long sumDn = 0;
+            int minPn = INF;
+            int minDn = INF;
+            int best = 0;
+            int second = INF; // second-smallest pn (OR) or dn (AND)
+
+            for (int k = 0; k < count; k++) {
+                sumPn += childPn[k];
+                sumDn += childDn[k];
+                minPn = Math.min(minPn, childPn[k]);
+                minDn = Math.min(minDn, childDn[k]);
+
+                int key = orNode ? childPn[k] : childDn[k];
+                int bestKey = orNode ? childPn[best] : childDn[best];
+                if (k > 0 && key < bestKey) {
+                    second = bestKey;
+                    best = k;
+                } else if (k > 0 && key < second) {
+                    second = key;
+                }
+            }
+
+            if (orNode) {
+                pn = minPn;
+                dn = (int) Math.min(INF, sumDn);
+            } else {
+                pn = (int) Math.min(INF, sumPn);
+                dn = minDn;
+            }
+            if (pn >= thPn || dn >= thDn || budgetExceeded) {
+                break;
+            }
+
+            // Thresholds for the most promising child
+            int childThPn;
+            int childThDn;
+            if (orNode) {
+                childThPn = (int) Math.min(thPn, (long) second + 1);
+                childThDn = thDn >= INF ? INF : (int) Math.min(INF, (long) thDn - dn + childDn[best]);
+            } else {
+                childThDn = (int) Math.min(thDn, (long) second + 1);
+                childThPn = thPn >= INF ? INF : (int) Math.min(INF, (long) thPn - pn + childPn[best]);
+            }
+
+            int move = moves[best];
+            int dealt = board.apply(move);
+            long numbers = mid(childThPn, childThDn, depth + 1);
+            board.undo(move, dealt);
+            childPn[best] = (int) (numbers >>> 32);
+            childDn[best] = (int) numbers;
+        }
+
+        if (!budgetExceeded) {
+            store(board.hash, pn, dn, nodesExpanded - startNodes + 1);
+        }
+        return pack(pn, dn);
+    }
+
+    /**
+     * Walk down from the root along proven moves and return the resulting
+     * line. The winner plays a move whose child is proven for them; the loser
+     * plays their first legal move (every reply loses).
+     */
+    private String extractLine(boolean starterWins) {
+        StringBuilder plan = new StringBuilder();
+        int depth = 0;
+        int winnerSide = starterWins ? board.starting : 1 - board.starting;
+
+        while (!board.isTerminal() && !budgetExceeded) {
+            int[] moves = movesAt(depth);
+            int count = board.generateMoves(moves);
+            int chosen = moves[0];
+
+            if (board.current == winnerSide) {
+                for (int k = 0; k < count; k++) {
+                    int move = moves[k];
+                    if (board.isWinningMove(move)) {
+                        chosen = move;
+                        break;
+                    }
+                    int dealt = board.apply(move);
+                    int childPn = prove(depth + 1);
+                    boolean provenForWinner = starterWins ? childPn == 0 : disproofOf(board.hash) == 0;
+                    board.undo(move, dealt);
+                    if (provenForWinner) {
+                        chosen = move;
+                        break;
+                    }
+                }
+            }
+
+            if (plan.length() > 0) plan.append(',');
+            board.appendAction(plan, chosen);
+            board.apply(chosen);
+            depth++;
+        }
+        return plan.toString();
+    }
+
+    private static long pack(int pn, int dn) {
+        return ((long) pn << 32) | (dn & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Move list for the given depth; also makes sure the children's number
+     * arrays exist for that depth.
+     */
+    private int[] movesAt(int depth) {
+        if (depth >= moveBuffers.length) {
+            int length = Math.max(depth + 1, moveBuffers.length * 2);
+            moveBuffers = java.util.Arrays.copyOf(moveBuffers, length);
+            childPnBuffers = java.util.Arrays.copyOf(childPnBuffers, length);
+            childDnBuffers = java.util.Arrays.copyOf(childDnBuffers, length);
+        }
+        if (moveBuffers[depth] == null) {
+            moveBuffers[depth] = new int[board.maxBranching()];
+            childPnBuffers[depth] = new int[board.maxBranching()];
+            childDnBuffers[depth] = new int[board.maxBranching()];
+        }
+        return moveBuffers[depth];
+    }
+
+    private int proofOf(long hash) {
+        long entry = lookup(hash);
+        return entry >= 0 ? proof[(int) entry] : 1;
+    }
+
+    private int disproofOf(long hash) {
+        long entry = lookup(hash);
+        return entry >= 0 ? disproof[(int) entry] : 1;
+    }
+
+    /**
+     * Index of the table slot holding {@code hash}, or -1 if absent. A zero
+     * key marks an empty slot, so hash 0 is remapped to 1.
+     */
+    private long lookup(long hash) {
+        long key = hash == 0 ? 1 : hash;
+        int base = (int) (key & mask) * BUCKET;
+        for (int i = base; i < base + BUCKET; i++) {
+            if (keys[i] == key) return i;
+        }
+        return -1;
+    }
+
+    private void store(long hash, int pn, int dn, long subtreeWork) {
+        long key = hash == 0 ? 1 : hash;
+        int base = (int) (key & mask) * BUCKET;
+        int victim = base;
+        for (int i = base; i < base + BUCKET; i++) {
+            if (keys[i] == key || keys[i] == 0) {
+                victim = i;
+                break;
+            }
+            if (work[i] < work[victim]) victim = i; // keep the most expensive results
+        }
+        keys[victim] = key;
+        proof[victim] = pn;
+        disproof[victim] = dn;
+        work[victim] = subtreeWork;
+    }
+}
@@ -0,0 +1,16 @@
+//src/main/java/battle/SearchAbortedException.java
+
+package battle;
+
+/**
+ * Thrown from inside an engine when its SearchControl says to stop. It
+ * unwinds the search to BattleSolver.solve, which then returns the partial
+ * result recorded so far. Never escapes the solver.
+ */
+final class SearchAbortedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    SearchAbortedException() {
+        super(null, null, false, false); // no stack trace: this is control flow
+    }
+}
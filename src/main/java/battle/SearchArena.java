@@ -0,0 +1,278 @@
+//src/main/java/battle/SearchArena.java
+
+package battle;
+
+import java.util.Arrays;
+
+import battle.Node.GameState;
+
+/**
+ * Per-thread pool of the objects the recursive MINIMAX and ALPHA_BETA
+ * engines churn through: child Nodes with their GameStates and Units, the
+ * action strings, the move-ordering keys and the principal variation.
+ *
+ * The pool is organised by depth. The children of a node at depth d are
+ * written into the slots of frame d + 1, overwriting the children of
+ * whatever node at that depth was expanded before; the recursion never
+ * looks at those again once it has returned. The best line is kept as moves
+ * in a triangular table instead of as a chain of Nodes, so nothing has to
+ * outlive its frame, and the final plan is rebuilt from it once per solve.
+ * Frames are created the first time a depth is reached and then kept, so
+ * the arena sizes itself from the depths actually observed; reset() at the
+ * end of a solve releases everything in bulk and trims frames far beyond
+ * the depth that solve needed.
+ *
+ * Every child taken from a frame counts as a hit when its slot (Node,
+ * GameState and Units) could be reused as is, and as an overflow when
+ * something had to be allocated. After the first solves of a given shape a
+ * solve allocates nothing per node.
+ *
+ * An arena belongs to one thread (see current()); it must not be shared.
+ */
+public final class SearchArena {
+    private static final ThreadLocal<SearchArena> ARENAS = ThreadLocal.withInitial(SearchArena::new);
+    private static final int MIN_RETAINED_DEPTH = 64;
+
+    // Children of one expanded node, with their move-ordering keys and moves
+    static final class Frame {
+        Node[] nodes = new Node[0];
+        int[] keys = new int[0];
+        int[] moves = new int[0];
+        int size;
+    }
+
+    private Frame[] frames = new Frame[0];
+    private int[][] pv = new int[0][];   // pv[d]: best line below the node at depth d
+    private int[] pvLength = new int[0];
+    private String[][] actions = new String[2][]; // "A(i,j)" by side, then attacker * opponents + target
+    private int[] opponents = new int[2];
+    private int depthReached;            // deepest frame used since the last reset
+    private MemoryGovernor governor;     // charged for new slots during a budgeted solve, else null
+    private long slotBytes;              // estimated size of one slot for the current armies
+    private long hits;
+    private long overflows;
+
+    private SearchArena() {
+    }
+
+    /**
+     * The calling thread's arena.
+     */
+    public static SearchArena current() {
+        return ARENAS.get();
+    }
+
+    /**
+     * Child slots reused without allocating, over the arena's lifetime.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Child slots (or parts of them) that had to be allocated because the
+     * pool was too small or shaped for another army.
+     */
+    public long getOverflows() {
+        return overflows;
+    }
+
+    /**
+     * Depths for which frames are currently retained.
+     */
+    public int getCapacityDepth() {
+        return frames.length;
+    }
+
+    /**
+     * Start a solve: action strings are cached per army shape, and slots
+     * allocated from now on are charged to the governor (may be null).
+     */
+    void begin(GameState root, MemoryGovernor governor) {
+        this.governor = governor;
+        int sizeA = root.getArmyA().size();
+        int sizeB = root.getArmyB().size();
+        if (actions[0] == null || opponents[0] != sizeB || opponents[1] != sizeA) {
+            actions[0] = new String[sizeA * sizeB];
+            actions[1] = new String[sizeA * sizeB];
+            opponents[0] = sizeB;
+            opponents[1] = sizeA;
+        }
+        // Node, GameState, three lists and two masks, plus a Unit and list entry per unit
+        slotBytes = 256 + 32L * (sizeA + sizeB);
+        depthReached = 0;
+    }
+
+    /**
+     * Empty frame for the children of a node at depth - 1; grows the arena
+     * when a new depth is reached.
+     */
+    Frame frame(int depth) {
+        if (depth >= frames.length) {
+            int length = Math.max(depth + 1, frames.length * 2);
+            int old = frames.length;
+            frames = Arrays.copyOf(frames, length);
+            pv = Arrays.copyOf(pv, length);
+            pvLength = Arrays.copyOf(pvLength, length);
+            for (int d = old; d < length; d++) {
+                frames[d] = new Frame();
+                pv[d] = new int[8];
+            }
+        }
+        depthReached = Math.max(depthReached, depth);
+        Frame frame = frames[depth];
+        frame.size = 0;
+        return frame;
+    }
+
+    /**
+     * Append a child to the frame: the parent's state with unit i of the
+     * side to move attacking unit j, and the turn passed on. The slot's
+     * Node, GameState and Units are overwritten in place when they exist.
+     */
+    Node addChild(Frame frame, Node parent, int i, int j) {
+        int k = frame.size++;
+        if (k == frame.nodes.length) {
+            int length = Math.max(4, k * 2);
+            frame.nodes = Arrays.copyOf(frame.nodes, length);
+            frame.keys = Arrays.copyOf(frame.keys, length);
+            frame.moves = Arrays.copyOf(frame.moves, length);
+        }
+        GameState from = parent.getState();
+        Node child = frame.nodes[k];
+        if (child == null) {
+            if (governor != null) governor.charge(slotBytes);
+            child = new Node(from.clone(), parent, null, 0);
+            frame.nodes[k] = child;
+            overflows++;
+        } else if (child.getState().copyFrom(from)) {
+            if (governor != null) governor.charge(slotBytes);
+            overflows++; // the slot was shaped for a smaller army
+        } else {
+            hits++;
+        }
+
+        char player = from.getCurrentPlayer();
+        int side = player == 'A' ? 0 : 1;
+        GameState state = child.getState();
+        state.applyAttack(i, j);
+        state.setCurrentPlayer(player == 'A' ? 'B' : 'A');
+        child.setParent(parent);
+        child.setDepth(parent.getDepth() + 1);
+        child.setAction(action(side, i, j));
+        frame.moves[k] = (i << 16) | j;
+        return child;
+    }
+
+    private String action(int side, int i, int j) {
+        int index = i * opponents[side] + j;
+        String action = actions[side][index];
+        if (action == null) {
+            action = (side == 0 ? "A(" : "B(") + i + "," + j + ")";
+            actions[side][index] = action;
+        }
+        return action;
+    }
+
+    /**
+     * Stable sort of the frame's children by descending key (insertion sort,
+     * like List.sort keeps ties in generation order).
+     */
+    static void sortDescending(Frame frame) {
+        Node[] nodes = frame.nodes;
+        int[] keys = frame.keys;
+        int[] moves = frame.moves;
+        for (int k = 1; k < frame.size; k++) {
+            Node node = nodes[k];
+            int key = keys[k];
+            int move = moves[k];
+            int i = k - 1;
+            while (i >= 0 && keys[i] < key) {
+                nodes[i + 1] = nodes[i];
+                keys[i + 1] = keys[i];
+                moves[i + 1] = moves[i];
+                i--;
+            }
+            nodes[i + 1] = node;
+            keys[i + 1] = key;
+            moves[i + 1] = move;
+        }
+    }
+
+    /**
+     * The node at {@code depth} is terminal: its best line is empty.
+     */
+    void clearLine(int depth) {
+        if (depth >= pvLength.length) {
+            frame(depth); // a terminal root or leaf below the deepest frame
+        }
+        pvLength[depth] = 0;
+    }
+
+    /**
+     * The node at {@code depth} found a new best child: its line becomes
+     * that move followed by the child's line.
+     */
+    void updateLine(int depth, int move) {
+        int childLength = pvLength[depth + 1];
+        if (pv[depth].length <= childLength) {
+            pv[depth] = Arrays.copyOf(pv[depth], Math.max(childLength + 1, pv[depth].length * 2));
+            overflows++;
+        }
+        pv[depth][0] = move;
+        System.arraycopy(pv[depth + 1], 0, pv[depth], 1, childLength);
+        pvLength[depth] = childLength + 1;
+    }
+
+    /**
+     * Best line of the node at {@code depth} as a chain of fresh Nodes below
+     * {@code from}; returns the last one (from itself for an empty line).
+     */
+    Node line(Node from, int depth) {
+        Node current = from;
+        for (int k = 0; k < pvLength[depth]; k++) {
+            int move = pv[depth][k];
+            GameState state = current.getState().clone();
+            char player = state.getCurrentPlayer();
+            int i = move >>> 16;
+            int j = move & 0xFFFF;
+            state.applyAttack(i, j);
+            state.setCurrentPlayer(player == 'A' ? 'B' : 'A');
+            current = new Node(state, current, action(player == 'A' ? 0 : 1, i, j), current.getDepth() + 1);
+        }
+        return current;
+    }
+
+    /**
+     * End of a solve: drop the references the frames hold into the finished
+     * tree, and give back frames far deeper than this solve needed.
+     */
+    void reset() {
+        int retained = Math.max(MIN_RETAINED_DEPTH, 2 * (depthReached + 1));
+        if (frames.length > retained) {
+            frames = Arrays.copyOf(frames, retained);
+            pv = Arrays.copyOf(pv, retained);
+            pvLength = Arrays.copyOf(pvLength, retained);
+        }
+        for (Frame frame : frames) {
+            for (Node node : frame.nodes) {
+                if (node != null) node.setParent(null);
+            }
+            frame.size = 0;
+        }
+        depthReached = 0;
+        governor = null;
+    }
+
+    /**
+     * Drop every frame, e.g. after the solve ran out of its memory budget;
+     * the arena regrows from scratch on the next solve.
+     */
+    void release() {
+        frames = new Frame[0];
+        pv = new int[0][];
+        pvLength = new int[0];
+        depthReached = 0;
+        governor = null;
+    }
+}
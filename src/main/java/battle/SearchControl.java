@@ -0,0 +1,111 @@
+//src/main/java/battle/SearchControl.java
+
+package battle;
+
+/**
+ * SearchControl lets a caller stop a running solve and bounds it with a
+ * deadline. The engines poll it cooperatively every checkInterval nodes (one
+ * volatile read plus, with a deadline, one System.nanoTime() call), so the
+ * overhead on the hot path is a counter test.
+ *
+ * Pass one through SolveOptions.setControl(...) or get the one created by
+ * BattleSolver.solveAsync(...). After the solve ends, getResult() holds its
+ * result, including the partial result of a cancelled or timed-out search.
+ */
+public final class SearchControl {
+    private final int checkMask;
+    private volatile boolean cancelled;
+    private volatile SolveResult.Status stopReason; // why the search stopped early, null if it did not
+    private volatile SolveResult result;
+    private long deadlineNanos;
+    private boolean hasDeadline;
+    private volatile ProgressReporter reporter; // set while a solve with a SearchListener runs
+
+    public SearchControl() {
+        this(1024);
+    }
+
+    /**
+     * @param checkInterval nodes between two polls (rounded up to a power of two)
+     */
+    public SearchControl(int checkInterval) {
+        int interval = Integer.highestOneBit(Math.max(1, checkInterval - 1) << 1);
+        this.checkMask = interval - 1;
+    }
+
+    /**
+     * Ask the search to stop. It finishes at the next poll and reports
+     * SolveResult.Status.CANCELLED with what it found so far.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Result of the last solve run with this control, available once it has
+     * finished (also when the CompletableFuture was cancelled).
+     */
+    public SolveResult getResult() {
+        return result;
+    }
+
+    // Mask applied to the node counter: poll when (nodes & mask) == 0
+    int checkMask() {
+        return checkMask;
+    }
+
+    // Arm the deadline at the start of a solve (0 = no deadline)
+    void start(long deadlineMillis) {
+        this.stopReason = null;
+        this.hasDeadline = deadlineMillis > 0;
+        this.deadlineNanos = System.nanoTime() + deadlineMillis * 1_000_000L;
+    }
+
+    /**
+     * Poll: true when the search must stop, recording the reason.
+     */
+    boolean shouldStop() {
+        return shouldStop(checkMask + 1);
+    }
+
+    /**
+     * Poll made after {@code nodesSinceLastPoll} nodes, for engines that do
+     * not poll every checkInterval nodes; the count feeds the progress
+     * report.
+     */
+    boolean shouldStop(long nodesSinceLastPoll) {
+        ProgressReporter progress = reporter;
+        if (progress != null) {
+            progress.addNodes(nodesSinceLastPoll);
+        }
+        if (cancelled) {
+            stopReason = SolveResult.Status.CANCELLED;
+            return true;
+        }
+        if (hasDeadline && System.nanoTime() - deadlineNanos > 0) {
+            stopReason = SolveResult.Status.TIMEOUT;
+            return true;
+        }
+        return false;
+    }
+
+    ProgressReporter reporter() {
+        return reporter;
+    }
+
+    void setReporter(ProgressReporter reporter) {
+        this.reporter = reporter;
+    }
+
+    SolveResult.Status stopReason() {
+        return stopReason;
+    }
+
+    void finish(SolveResult result) {
+        this.result = result;
+    }
+}
@@ -0,0 +1,19 @@
+//src/main/java/battle/SearchListener.java
+
+package battle;
+
+/**
+ * Receives progress reports of a running solve. Attach one with
+ * {@link SolveOptions#setListener(SearchListener)}; reports arrive every
+ * SolveOptions.getProgressIntervalMillis() and once more when the solve
+ * ends ({@link SearchProgress#isFinished()}).
+ *
+ * Reports are delivered on a shared background thread, never on the
+ * searching thread, so a slow listener cannot stall the search; it only
+ * delays later reports (of this and other solves). Implementations should
+ * return quickly and must not throw.
+ */
+@FunctionalInterface
+public interface SearchListener {
+    void onProgress(SearchProgress progress);
+}
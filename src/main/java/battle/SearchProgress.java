@@ -0,0 +1,116 @@
+//src/main/java/battle/SearchProgress.java
+
+package battle;
+
+/**
+ * Snapshot of a running solve, passed to {@link SearchListener}.
+ *
+ * The best line is the best root line the engine has completed so far, as
+ * a plan string (comma-separated actions). Depending on the engine it is a
+ * full line to a terminal state (MINIMAX, ALPHA_BETA, explicit stack), only
+ * its first move (ALPHA_BETA_TT), the moves played so far (DEPTH_LIMITED),
+ * the most visited path of the tree (MCTS), or empty until the engine can
+ * name one (LAYERED, SELECTIVE, parallel MINIMAX).
+ *
+ * Bounds enclose the exact game value. Exact engines raise the lower bound
+ * each time a root move improves on the previous best; approximate engines
+ * leave both open (Integer.MIN_VALUE and Integer.MAX_VALUE). The final
+ * report of an exact solve that ran to completion has both bounds equal to
+ * the score.
+ */
+public final class SearchProgress {
+    private final Engine engine;
+    private final long elapsedMillis;
+    private final long nodes;            // nodes searched so far (counted at the engine's polls)
+    private final double nodesPerSecond; // since the previous report
+    private final long iteration;        // MCTS playouts, DEPTH_LIMITED moves played, 0 otherwise
+    private final String bestLine;
+    private final int bestValue;
+    private final int lowerBound;
+    private final int upperBound;
+    private final boolean finished;
+
+    SearchProgress(Engine engine, long elapsedMillis, long nodes, double nodesPerSecond, long iteration,
+                   String bestLine, int bestValue, int lowerBound, int upperBound, boolean finished) {
+        this.engine = engine;
+        this.elapsedMillis = elapsedMillis;
+        this.nodes = nodes;
+        this.nodesPerSecond = nodesPerSecond;
+        this.iteration = iteration;
+        this.bestLine = bestLine;
+        this.bestValue = bestValue;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.finished = finished;
+    }
+
+    /**
+     * Engine running the solve (the chosen one for AUTO).
+     */
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Nodes searched so far. Engines count in steps of their polling
+     * interval, so this lags the true count by up to one interval per
+     * thread; the final report carries the solve's nodesExpanded.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public double getNodesPerSecond() {
+        return nodesPerSecond;
+    }
+
+    /**
+     * MCTS playouts run or DEPTH_LIMITED moves played; 0 for other engines.
+     */
+    public long getIteration() {
+        return iteration;
+    }
+
+    /**
+     * Best line found so far, "" while there is none.
+     */
+    public String getBestLine() {
+        return bestLine;
+    }
+
+    /**
+     * Value of the best line (the score for the final report); only
+     * meaningful when getBestLine() is not empty and the engine is neither
+     * MCTS nor DEPTH_LIMITED, whose lines have no value until the solve ends.
+     */
+    public int getBestValue() {
+        return bestValue;
+    }
+
+    public int getLowerBound() {
+        return lowerBound;
+    }
+
+    public int getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * Whether this is the last report of the solve.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public String toString() {
+        return engine + " " + elapsedMillis + "ms nodes=" + nodes + " (" + Math.round(nodesPerSecond) + "/s)"
+                + (iteration > 0 ? " iteration=" + iteration : "")
+                + " best=" + bestValue + " [" + bestLine + "]"
+                + (finished ? " finished" : "");
+    }
+}
@@ -0,0 +1,534 @@
+//src/main/java/battle/SelectiveSearch.java
+
+package battle;
+
+import java.util.SplittableRandom;
+
+/**
+ * Alpha-beta with ProbCut-style forward pruning, for armies too large for
+ * the exact engines. Behind the first move of every position, each further
+ * move is first scored by a shallow search (shallowDepth plies, horizon
+ * scored by the health difference). A linear model fitted for this solve
+ * predicts the deep value from the shallow one; when even
+ * prediction + z * sigma cannot raise alpha (or prediction - z * sigma
+ * cannot lower beta for the minimizing side) the move is skipped without a
+ * deep search. z is the one-sided normal quantile of the requested
+ * confidence, so a higher confidence prunes less and errs less often.
+ *
+ * The model is calibrated at the start of every solve: random playouts from
+ * the root stop in small endgames, each is solved exactly (with a short
+ * per-sample deadline; samples that do not finish are dropped) and the
+ * exact values are regressed on the shallow ones. With too few samples
+ * nothing is pruned.
+ *
+ * Pruned positions are stored in the transposition table like searched
+ * ones, so the table must not be handed to an exact search afterwards
+ * without clearing it. The result is never proven exact: BattleSolver
+ * reports it as APPROXIMATE, with the score of the returned plan.
+ */
+final class SelectiveSearch {
+    private static final int CALIBRATION_SAMPLES = 32;
+    private static final int CALIBRATION_UNITS = 6;      // smaller positions are searched without probes
+    private static final long SAMPLE_NODES = 20_000;     // samples needing more are dropped
+    private static final long CALIBRATION_NODES = 150_000; // node budget of the whole calibration
+    private static final int MIN_SAMPLES = 8;            // below this the model is not trusted
+    private static final int PROBE_NUM = 3;              // probe only while at least 3/4 of the
+    private static final int PROBE_DEN = 4;              // root's units are alive
+
+    private final OffHeapTranspositionTable table;
+    private final SearchControl control; // polled every checkMask + 1 nodes, may be null
+    private final long checkMask;
+    private final MemoryGovernor governor; // charged for move buffers, may be null
+    private final int shallowDepth;
+    private final double z;
+    private final OrderingWeights ordering;
+    private final long seed;
+    private ProgressReporter progress;     // told about root improvements, usually null
+
+    private BattleBoard board;
+    private BattleBoard rootBoard;  // untouched copy of the root, for partialLine()
+    private long scenarioKey;
+    // Per-depth scratch arrays, allocated lazily: move lists and ordering keys
+    private int[][] moveBuffers;
+    private int[][] keyBuffers;
+    private long nodesExpanded;
+    private long prunedMoves;
+    private int rootValue;
+    private Model model;
+    private long nodeLimit = Long.MAX_VALUE; // ends an oversized calibration sample
+    private int rootAlive;
+    private boolean calibrating;     // alphaBeta's depth 0 is a calibration sample, not the root
+    private int bestRootMove;        // best finished root move of the running search, if any
+    private boolean rootMoveFound;
+
+    SelectiveSearch(OffHeapTranspositionTable table, SearchControl control, MemoryGovernor governor,
+                    int shallowDepth, double confidence, OrderingWeights ordering, long seed) {
+        this.table = table;
+        this.control = control;
+        this.checkMask = control != null ? control.checkMask() : -1;
+        this.governor = governor;
+        this.shallowDepth = shallowDepth;
+        this.z = quantile(confidence);
+        this.ordering = ordering;
+        this.seed = seed;
+    }
+
+    long getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    /**
+     * Publish every improvement at the root to this reporter; the values are
+     * not proven, so they raise no bound.
+     */
+    void setProgress(ProgressReporter progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * Moves skipped on the strength of their shallow score.
+     */
+    long getPrunedMoves() {
+        return prunedMoves;
+    }
+
+    /**
+     * Utility of the terminal state the returned line ends in.
+     */
+    int rootValue() {
+        return rootValue;
+    }
+
+    /**
+     * The calibrated model, null before search(...) or when the root is terminal.
+     */
+    Model model() {
+        return model;
+    }
+
+    /**
+     * Line of the best root move the search has finished so far, or null if
+     * none has: that move, then the table's best move of each position (the
+     * first move in search order where the table has none) to the end of
+     * the game.
+     */
+    IterativeSearch.Line partialLine() {
+        if (!rootMoveFound) {
+            return null;
+        }
+        BattleBoard replay = rootBoard.copy();
+        int[] moves = new int[replay.maxBranching()];
+        int[] path = new int[64];
+        int length = 0;
+        int move = bestRootMove;
+        while (true) {
+            if (length == path.length) {
+                path = java.util.Arrays.copyOf(path, length * 2);
+            }
+            path[length++] = move;
+            replay.apply(move);
+            if (replay.isTerminal()) break;
+            long entry = table.probe(replay.hash ^ scenarioKey);
+            int ttMove = entry != 0 ? OffHeapTranspositionTable.moveOf(entry) : OffHeapTranspositionTable.NO_MOVE;
+            int count = replay.generateMoves(moves);
+            move = moves[0];
+            for (int k = 0; k < count; k++) {
+                if (replay.moveIndex(moves[k]) == ttMove) {
+                    move = moves[k];
+                    break;
+                }
+                if (replay.orderingScore(moves[k], ordering) > replay.orderingScore(move, ordering)) {
+                    move = moves[k];
+                }
+            }
+        }
+        IterativeSearch.Line line = null;
+        for (int i = length - 1; i >= 0; i--) {
+            line = new IterativeSearch.Line(path[i], line);
+        }
+        return line;
+    }
+
+    /**
+     * Calibrate, search, and return the line of best moves found (null when
+     * the root is already terminal). The root board is copied, not mutated.
+     */
+    IterativeSearch.Line search(BattleBoard root) {
+        board = root.copy();
+        rootBoard = root.copy();
+        rootMoveFound = false;
+        scenarioKey = board.scenarioKey();
+        moveBuffers = new int[16][];
+        keyBuffers = new int[16][];
+        nodesExpanded++;
+        if (board.isTerminal()) {
+            rootValue = board.utility();
+            return null;
+        }
+        rootAlive = alive(board);
+        model = calibrate();
+        return bestLine(alphaBeta(0, Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    private int alphaBeta(int depth, int alpha, int beta) {
+        long key = board.hash ^ scenarioKey;
+        long entry = table.probe(key);
+        int ttMove = OffHeapTranspositionTable.NO_MOVE;
+        if (entry != 0) {
+            int value = OffHeapTranspositionTable.valueOf(entry);
+            int bound = OffHeapTranspositionTable.boundOf(entry);
+            if (bound == OffHeapTranspositionTable.EXACT
+                    || bound == OffHeapTranspositionTable.LOWER && value >= beta
+                    || bound == OffHeapTranspositionTable.UPPER && value <= alpha) {
+                return value;
+            }
+            ttMove = OffHeapTranspositionTable.moveOf(entry);
+        }
+
+        long startNodes = nodesExpanded;
+        int[] moves = movesAt(depth);
+        int count = board.generateMoves(moves);
+        orderMoves(moves, keyBuffers[depth], count, ttMove);
+
+        boolean maximizing = board.current == board.starting;
+        int bestValue = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        int bestMove = moves[0];
+        int a = alpha;
+        int b = beta;
+
+        for (int k = 0; k < count; k++) {
+            int move = moves[k];
+            int dealt = board.apply(move);
+            countNode();
+            int value;
+            if (board.isTerminal()) {
+                value = board.utility();
+            } else if (k > 0 && model != null && worthProbing() && cut(depth + 1, maximizing, a, b)) {
+                board.undo(move, dealt);
+                prunedMoves++;
+                continue;
+            } else {
+                value = alphaBeta(depth + 1, a, b);
+            }
+            board.undo(move, dealt);
+
+            if (maximizing ? value > bestValue : value < bestValue) {
+                bestValue = value;
+                bestMove = move;
+                if (depth == 0 && !calibrating) {
+                    bestRootMove = move;
+                    rootMoveFound = true;
+                    if (progress != null) {
+                        progress.rootImproved(value, new IterativeSearch.Line(move, null), false);
+                    }
+                }
+            }
+            if (maximizing) {
+                a = Math.max(a, bestValue);
+            } else {
+                b = Math.min(b, bestValue);
+            }
+            if (b <= a) break;
+        }
+
+        int bound = bestValue <= alpha ? OffHeapTranspositionTable.UPPER
+                : bestValue >= beta ? OffHeapTranspositionTable.LOWER
+                : OffHeapTranspositionTable.EXACT;
+        table.store(key, bestValue, bound, board.moveIndex(bestMove), nodesExpanded - startNodes + 1);
+        return bestValue;
+    }
+
+    /**
+     * Whether the position just entered is worth a shallow probe: small
+     * endgames are cheaper to search than to probe, and a position already
+     * in the table costs nothing to search.
+     */
+    private boolean worthProbing() {
+        int living = alive(board);
+        return living > CALIBRATION_UNITS && living * PROBE_DEN >= rootAlive * PROBE_NUM
+                && table.probe(board.hash ^ scenarioKey) == 0;
+    }
+
+    /**
+     * Whether the model is confident the position just entered cannot
+     * improve on the window of the side that moved into it. The shallow
+     * value at which that happens is a fixed threshold, so the shallow
+     * search runs with a null window around it and stops as soon as the
+     * answer is known.
+     */
+    private boolean cut(int depth, boolean maximizing, int alpha, int beta) {
+        double margin = z * model.sigma;
+        if (maximizing) {
+            // predicted + margin <= alpha  <=>  shallow <= threshold
+            double threshold = Math.floor((alpha - margin - model.intercept) / model.slope);
+            if (threshold <= Integer.MIN_VALUE + 1) return false;
+            int t = (int) Math.min(Integer.MAX_VALUE - 1, threshold);
+            return shallow(depth, shallowDepth, t, t + 1) <= t;
+        }
+        // predicted - margin >= beta  <=>  shallow >= threshold
+        double threshold = Math.ceil((beta + margin - model.intercept) / model.slope);
+        if (threshold >= Integer.MAX_VALUE - 1) return false;
+        int t = (int) Math.max(Integer.MIN_VALUE + 1, threshold);
+        return shallow(depth, shallowDepth, t - 1, t) >= t;
+    }
+
+    /**
+     * Alpha-beta to {@code plies} with the health difference at the horizon,
+     * from the starting side's point of view; scales like utility().
+     */
+    private int shallow(int depth, int plies) {
+        return shallow(depth, plies, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    private int shallow(int depth, int plies, int alpha, int beta) {
+        if (board.isTerminal()) return board.utility();
+        if (plies == 0) return board.totalHealth[board.starting] - board.totalHealth[1 - board.starting];
+
+        int[] moves = movesAt(depth);
+        int count = board.generateMoves(moves);
+        orderMoves(moves, keyBuffers[depth], count, OffHeapTranspositionTable.NO_MOVE);
+        boolean maximizing = board.current == board.starting;
+        int bestValue = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        for (int k = 0; k < count; k++) {
+            int move = moves[k];
+            int dealt = board.apply(move);
+            countNode();
+            int value = shallow(depth + 1, plies - 1, alpha, beta);
+            board.undo(move, dealt);
+            if (maximizing) {
+                bestValue = Math.max(bestValue, value);
+                alpha = Math.max(alpha, bestValue);
+            } else {
+                bestValue = Math.min(bestValue, value);
+                beta = Math.min(beta, bestValue);
+            }
+            if (beta <= alpha) break;
+        }
+        return bestValue;
+    }
+
+    /**
+     * Fit deep = slope * shallow + intercept on small endgames reached by
+     * random playouts, solved exactly into this search's table. Returns null
+     * when fewer than MIN_SAMPLES could be solved in time.
+     */
+    private Model calibrate() {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] moves = new int[board.maxBranching()];
+        double[] shallowValues = new double[CALIBRATION_SAMPLES];
+        double[] exactValues = new double[CALIBRATION_SAMPLES];
+        int samples = 0;
+        long budgetEnd = nodesExpanded + CALIBRATION_NODES;
+        BattleBoard root = board;
+
+        calibrating = true;
+        try {
+            for (int attempt = 0; attempt < 4 * CALIBRATION_SAMPLES && samples < CALIBRATION_SAMPLES
+                    && nodesExpanded < budgetEnd; attempt++) {
+                board = root.copy();
+                int target = 2 + random.nextInt(Math.max(1, rootAlive - 2));
+                while (!board.isTerminal() && alive(board) > target) {
+                    int count = board.generateMoves(moves);
+                    board.apply(moves[random.nextInt(count)]);
+                    countNode();
+                }
+                if (board.isTerminal()) continue;
+
+                // model is still null, so this is an exact search; it also fills the table
+                nodeLimit = Math.min(budgetEnd, nodesExpanded + SAMPLE_NODES);
+                int exact;
+                try {
+                    exact = alphaBeta(0, Integer.MIN_VALUE, Integer.MAX_VALUE);
+                } catch (SampleTooLargeException e) {
+                    continue;
+                } finally {
+                    nodeLimit = Long.MAX_VALUE;
+                }
+                shallowValues[samples] = shallow(0, shallowDepth);
+                exactValues[samples] = exact;
+                samples++;
+            }
+        } finally {
+            board = root;
+            calibrating = false;
+        }
+        if (samples < MIN_SAMPLES) return null;
+        Model fitted = Model.fit(shallowValues, exactValues, samples);
+        return fitted.slope > 0 ? fitted : null; // shallow scores that do not rank positions cannot prune
+    }
+
+    private static int alive(BattleBoard sample) {
+        int count = 0;
+        for (long[] side : sample.alive) {
+            for (long word : side) count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Follow the table's best moves to a terminal state. Positions whose
+     * entry is missing or names a dead unit play the first move in search
+     * order instead.
+     */
+    private IterativeSearch.Line bestLine(int value) {
+        int[] path = new int[64];
+        int length = 0;
+        while (!board.isTerminal()) {
+            int[] moves = movesAt(length);
+            int count = board.generateMoves(moves);
+            long entry = table.probe(board.hash ^ scenarioKey);
+            int ttMove = entry != 0 ? OffHeapTranspositionTable.moveOf(entry) : OffHeapTranspositionTable.NO_MOVE;
+            orderMoves(moves, keyBuffers[length], count, ttMove);
+
+            boolean maximizing = board.current == board.starting;
+            int bestValue = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+            int chosen = moves[0];
+            for (int k = 0; k < count; k++) {
+                int move = moves[k];
+                int dealt = board.apply(move);
+                countNode();
+                int childValue = board.isTerminal() ? board.utility() : alphaBeta(length + 1, value - 1, value + 1);
+                board.undo(move, dealt);
+                if (childValue == value) {
+                    chosen = move;
+                    bestValue = value;
+                    break;
+                }
+                if (maximizing ? childValue > bestValue : childValue < bestValue) {
+                    bestValue = childValue;
+                    chosen = move;
+                }
+            }
+            value = bestValue;
+            if (length == path.length) {
+                path = java.util.Arrays.copyOf(path, length * 2);
+            }
+            path[length++] = chosen;
+            board.apply(chosen);
+        }
+        rootValue = board.utility();
+
+        IterativeSearch.Line line = null;
+        for (int i = length - 1; i >= 0; i--) {
+            line = new IterativeSearch.Line(path[i], line);
+        }
+        return line;
+    }
+
+    /**
+     * Table move first, then by the ordering weights; insertion sort keeps
+     * ties in generation order.
+     */
+    private void orderMoves(int[] moves, int[] keys, int count, int ttMove) {
+        for (int k = 0; k < count; k++) {
+            int move = moves[k];
+            int key = board.moveIndex(move) == ttMove ? Integer.MAX_VALUE : board.orderingScore(move, ordering);
+            int i = k - 1;
+            while (i >= 0 && keys[i] < key) {
+                keys[i + 1] = keys[i];
+                moves[i + 1] = moves[i];
+                i--;
+            }
+            keys[i + 1] = key;
+            moves[i + 1] = move;
+        }
+    }
+
+    private void countNode() {
+        if ((++nodesExpanded & checkMask) == 0 && control != null && control.shouldStop()) {
+            throw new SearchAbortedException();
+        }
+        if (nodesExpanded > nodeLimit) {
+            throw SampleTooLargeException.INSTANCE;
+        }
+    }
+
+    // A calibration sample ran past its node budget; thrown without a stack trace
+    private static final class SampleTooLargeException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        static final SampleTooLargeException INSTANCE = new SampleTooLargeException();
+
+        private SampleTooLargeException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Move list for the given depth; also makes sure the ordering keys exist
+     * for that depth.
+     */
+    private int[] movesAt(int depth) {
+        if (depth >= moveBuffers.length) {
+            int length = Math.max(depth + 1, moveBuffers.length * 2);
+            moveBuffers = java.util.Arrays.copyOf(moveBuffers, length);
+            keyBuffers = java.util.Arrays.copyOf(keyBuffers, length);
+        }
+        if (moveBuffers[depth] == null) {
+            if (governor != null) governor.charge(8L * board.maxBranching() + 32);
+            moveBuffers[depth] = new int[board.maxBranching()];
+            keyBuffers[depth] = new int[board.maxBranching()];
+        }
+        return moveBuffers[depth];
+    }
+
+    /**
+     * One-sided standard normal quantile: P(Z <= z) = confidence, from the
+     * rational approximation of Abramowitz and Stegun 26.2.23 (error below
+     * 4.5e-4). Confidence is clamped to [0.5, 1 - 1e-9].
+     */
+    static double quantile(double confidence) {
+        double p = Math.min(1 - 1e-9, Math.max(0.5, confidence));
+        double t = Math.sqrt(-2 * Math.log(1 - p));
+        return Math.max(0, t - (2.515517 + 0.802853 * t + 0.010328 * t * t)
+                / (1 + 1.432788 * t + 0.189269 * t * t + 0.001308 * t * t * t));
+    }
+
+    /**
+     * Least-squares line deep = slope * shallow + intercept with the
+     * residual standard deviation (at least 1, values are integers).
+     */
+    static final class Model {
+        final double slope;
+        final double intercept;
+        final double sigma;
+        final int samples;
+
+        Model(double slope, double intercept, double sigma, int samples) {
+            this.slope = slope;
+            this.intercept = intercept;
+            this.sigma = sigma;
+            this.samples = samples;
+        }
+
+        static Model fit(double[] x, double[] y, int n) {
+            double meanX = 0;
+            double meanY = 0;
+            for (int i = 0; i < n; i++) {
+                meanX += x[i];
+                meanY += y[i];
+            }
+            meanX /= n;
+            meanY /= n;
+            double sxx = 0;
+            double sxy = 0;
+            for (int i = 0; i < n; i++) {
+                sxx += (x[i] - meanX) * (x[i] - meanX);
+                sxy += (x[i] - meanX) * (y[i] - meanY);
+            }
+            double slope = sxx > 0 ? sxy / sxx : 1;
+            double intercept = meanY - slope * meanX;
+            double residuals = 0;
+            for (int i = 0; i < n; i++) {
+                double r = y[i] - (slope * x[i] + intercept);
+                residuals += r * r;
+            }
+            return new Model(slope, intercept, Math.max(1, Math.sqrt(residuals / n)), n);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("deep = %.3f * shallow %+.2f (sigma %.2f, %d samples)", slope, intercept, sigma, samples);
+        }
+    }
+}
@@ -0,0 +1,436 @@
+//src/main/java/battle/SolutionTraceWriter.java
+
+package battle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Renders the step-by-step trace of a plan: every state from the initial one
+ * to the terminal one, with the action that led to it. The trace is rebuilt
+ * by replaying the plan on a {@link BattleBoard}, so it only needs the input
+ * string and the plan string and can run on any thread after the solve.
+ *
+ * Output goes through one buffer (a StringBuilder chunk for an Appendable, a
+ * ByteBuffer for a channel) that is flushed when full, so a long plan costs a
+ * handful of writes instead of several print calls per unit per step.
+ *
+ * Formats:
+ * - TEXT: the human-readable layout of BattleSolver's visualization.
+ * - NDJSON: one JSON object per step:
+ *   {"step":1,"action":"A(0,1)","player":"B","healthA":[..],"healthB":[..],"totalA":n,"totalB":n};
+ *   step 0 has action null and also carries "damageA" and "damageB".
+ * - BINARY: magic "BTR1", then big-endian ints for unit count A, unit count
+ *   B, the starting side (0 = A, 1 = B), health and damage of every unit
+ *   (A first) and the number of steps, then per step the attacker and
+ *   target index as unsigned LEB128 varints. States are implied by replay;
+ *   readBinary(...) decodes it.
+ */
+public final class SolutionTraceWriter {
+    /** Output format of a trace. */
+    public enum Format { TEXT, NDJSON, BINARY }
+
+    private static final int MAGIC = 0x42545231; // "BTR1"
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private SolutionTraceWriter() {
+    }
+
+    /**
+     * Write the trace of {@code plan} played from {@code initialStateString}
+     * ("h,d,...;h,d,...;P") in TEXT or NDJSON format.
+     *
+     * @throws IllegalArgumentException for BINARY (use a channel) or an illegal plan
+     * @throws UncheckedIOException if the Appendable fails
+     */
+    public static void write(String initialStateString, String plan, Format format, Appendable out) {
+        if (format == Format.BINARY) {
+            throw new IllegalArgumentException("BINARY traces need a WritableByteChannel");
+        }
+        write(BattleBoard.parse(initialStateString), plan, format, new AppendableSink(out));
+    }
+
+    /**
+     * Write the trace in any format to a channel through one direct buffer.
+     */
+    public static void write(String initialStateString, String plan, Format format, WritableByteChannel out) {
+        write(BattleBoard.parse(initialStateString), plan, format, new ChannelSink(out));
+    }
+
+    /**
+     * Write the trace on the given executor, e.g. to archive a game without
+     * delaying the next solve. The channel must not be used by the caller
+     * until the future completes.
+     */
+    public static CompletableFuture<Void> writeAsync(String initialStateString, String plan, Format format,
+                                                     WritableByteChannel out, Executor executor) {
+        return CompletableFuture.runAsync(() -> write(initialStateString, plan, format, out), executor);
+    }
+
+    static void write(BattleBoard root, String plan, Format format, Appendable out) {
+        write(root, plan, format, new AppendableSink(out));
+    }
+
+    private static void write(BattleBoard root, String plan, Format format, Sink sink) {
+        int[] moves = parsePlan(root, plan);
+        BattleBoard board = root.copy();
+        switch (format) {
+            case TEXT:
+                sink.put("=== Solution Visualization ===\n");
+                writeTextStep(board, 0, -1, ' ', sink);
+                for (int i = 0; i < moves.length; i++) {
+                    int move = moves[i];
+                    char player = BattleBoard.playerOf(board.current);
+                    board.apply(move);
+                    writeTextStep(board, i + 1, move, player, sink);
+                }
+                sink.put("\n=== End Visualization ===\n");
+                break;
+            case NDJSON:
+                writeJsonStep(board, 0, -1, ' ', sink);
+                for (int i = 0; i < moves.length; i++) {
+                    int move = moves[i];
+                    char player = BattleBoard.playerOf(board.current);
+                    board.apply(move);
+                    writeJsonStep(board, i + 1, move, player, sink);
+                }
+                break;
+            case BINARY:
+                if (!(sink instanceof ChannelSink)) {
+                    throw new IllegalArgumentException("BINARY traces need a WritableByteChannel");
+                }
+                writeBinary(board, moves, (ChannelSink) sink);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown format " + format);
+        }
+        sink.flush();
+    }
+
+    // Same lines as the original System.out based visualization
+    private static void writeTextStep(BattleBoard board, int step, int move, char player, Sink sink) {
+        sink.put("\nStep ").putInt(step).put(":\n");
+        if (move >= 0) {
+            sink.put("Action: ").put(player).put('(').putInt(BattleBoard.attacker(move)).put(',')
+                    .putInt(BattleBoard.target(move)).put(")\n");
+        }
+        sink.put("Army A: ");
+        writeTextArmy(board, BattleBoard.SIDE_A, sink);
+        sink.put("\nArmy B: ");
+        writeTextArmy(board, BattleBoard.SIDE_B, sink);
+        sink.put("\nCurrent Player: ").put(BattleBoard.playerOf(board.current)).put('\n');
+        sink.put("Total Health A: ").putInt(board.totalHealth[BattleBoard.SIDE_A]).put('\n');
+        sink.put("Total Health B: ").putInt(board.totalHealth[BattleBoard.SIDE_B]).put('\n');
+    }
+
+    private static void writeTextArmy(BattleBoard board, int side, Sink sink) {
+        for (int i = 0; i < board.health[side].length; i++) {
+            sink.put("[H:").putInt(board.health[side][i]).put(" D:").putInt(board.damage[side][i]).put("] ");
+        }
+    }
+
+    private static void writeJsonStep(BattleBoard board, int step, int move, char player, Sink sink) {
+        sink.put("{\"step\":").putInt(step).put(",\"action\":");
+        if (move >= 0) {
+            sink.put('"').put(player).put('(').putInt(BattleBoard.attacker(move)).put(',')
+                    .putInt(BattleBoard.target(move)).put(")\"");
+        } else {
+            sink.put("null");
+        }
+        sink.put(",\"player\":\"").put(BattleBoard.playerOf(board.current)).put('"');
+        sink.put(",\"healthA\":");
+        writeJsonArray(board.health[BattleBoard.SIDE_A], sink);
+        sink.put(",\"healthB\":");
+        writeJsonArray(board.health[BattleBoard.SIDE_B], sink);
+        if (step == 0) {
+            sink.put(",\"damageA\":");
+            writeJsonArray(board.damage[BattleBoard.SIDE_A], sink);
+            sink.put(",\"damageB\":");
+            writeJsonArray(board.damage[BattleBoard.SIDE_B], sink);
+        }
+        sink.put(",\"totalA\":").putInt(board.totalHealth[BattleBoard.SIDE_A]);
+        sink.put(",\"totalB\":").putInt(board.totalHealth[BattleBoard.SIDE_B]).put("}\n");
+    }
+
+    private static void writeJsonArray(int[] values, Sink sink) {
+        sink.put('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sink.put(',');
+            sink.putInt(values[i]);
+        }
+        sink.put(']');
+    }
+
+    private static void writeBinary(BattleBoard board, int[] moves, ChannelSink sink) {
+        int countA = board.health[BattleBoard.SIDE_A].length;
+        int countB = board.health[BattleBoard.SIDE_B].length;
+        sink.putRawInt(MAGIC).putRawInt(countA).putRawInt(countB).putRawInt(board.starting);
+        for (int side = 0; side < 2; side++) {
+            for (int i = 0; i < board.health[side].length; i++) {
+                sink.putRawInt(board.health[side][i]).putRawInt(board.damage[side][i]);
+            }
+        }
+        sink.putRawInt(moves.length);
+        for (int move : moves) {
+            sink.putVarint(BattleBoard.attacker(move)).putVarint(BattleBoard.target(move));
+        }
+    }
+
+    /**
+     * A decoded BINARY trace: the input string and the plan it was written from.
+     */
+    public static final class Trace {
+        private final String initialState;
+        private final String plan;
+
+        Trace(String initialState, String plan) {
+            this.initialState = initialState;
+            this.plan = plan;
+        }
+
+        public String getInitialState() {
+            return initialState;
+        }
+
+        public String getPlan() {
+            return plan;
+        }
+    }
+
+    /**
+     * Decode a BINARY trace back into its input string and plan.
+     *
+     * @throws IllegalArgumentException if the data is not a BINARY trace
+     */
+    public static Trace readBinary(ReadableByteChannel in) {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.flip();
+        Reader reader = new Reader(in, buffer);
+        if (reader.readInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a binary solution trace");
+        }
+        int[] counts = { reader.readInt(), reader.readInt() };
+        int starting = reader.readInt();
+
+        StringBuilder state = new StringBuilder();
+        for (int side = 0; side < 2; side++) {
+            for (int i = 0; i < counts[side]; i++) {
+                if (i > 0) state.append(',');
+                state.append(reader.readInt()).append(',').append(reader.readInt());
+            }
+            state.append(';');
+        }
+        state.append(BattleBoard.playerOf(starting)).append(';');
+
+        int steps = reader.readInt();
+        StringBuilder plan = new StringBuilder();
+        int side = starting;
+        for (int i = 0; i < steps; i++) {
+            if (i > 0) plan.append(',');
+            plan.append(BattleBoard.playerOf(side)).append('(').append(reader.readVarint()).append(',')
+                    .append(reader.readVarint()).append(')');
+            side = 1 - side;
+        }
+        return new Trace(state.toString(), plan.toString());
+    }
+
+    /**
+     * Parse a plan ("A(0,1),B(1,0),...") into board moves, checking each
+     * action is legal in the position it is played from.
+     */
+    static int[] parsePlan(BattleBoard root, String plan) {
+        int steps = 0;
+        for (int i = 0; i < plan.length(); i++) {
+            if (plan.charAt(i) == ')') steps++;
+        }
+        int[] moves = new int[steps];
+        BattleBoard board = root.copy();
+        int pos = 0;
+        for (int step = 0; step < steps; step++) {
+            if (pos < plan.length() && plan.charAt(pos) == ',') pos++;
+            char player = plan.charAt(pos);
+            int open = pos + 1;
+            int comma = plan.indexOf(',', open);
+            int close = plan.indexOf(')', comma);
+            if (plan.charAt(open) != '(' || comma < 0 || close < 0) {
+                throw new IllegalArgumentException("Malformed action at step " + (step + 1) + " of " + plan);
+            }
+            int attacker = Integer.parseInt(plan, open + 1, comma, 10);
+            int target = Integer.parseInt(plan, comma + 1, close, 10);
+            if (player != BattleBoard.playerOf(board.current)
+                    || attacker >= board.health[board.current].length
+                    || target >= board.health[1 - board.current].length
+                    || board.health[board.current][attacker] <= 0
+                    || board.health[1 - board.current][target] <= 0) {
+                throw new IllegalArgumentException("Illegal action " + plan.substring(pos, close + 1)
+                        + " at step " + (step + 1));
+            }
+            moves[step] = BattleBoard.move(attacker, target);
+            board.apply(moves[step]);
+            pos = close + 1;
+        }
+        return moves;
+    }
+
+    // Character output with a single buffer in front of the destination
+    private abstract static class Sink {
+        abstract Sink put(char c);
+
+        Sink put(String s) {
+            for (int i = 0; i < s.length(); i++) {
+                put(s.charAt(i));
+            }
+            return this;
+        }
+
+        // Decimal digits without creating a String
+        Sink putInt(int value) {
+            if (value < 0) {
+                put('-');
+                if (value == Integer.MIN_VALUE) {
+                    return put("2147483648");
+                }
+                value = -value;
+            }
+            int divisor = 1;
+            while (value / divisor >= 10) {
+                divisor *= 10;
+            }
+            for (; divisor > 0; divisor /= 10) {
+                put((char) ('0' + value / divisor % 10));
+            }
+            return this;
+        }
+
+        abstract void flush();
+    }
+
+    private static final class AppendableSink extends Sink {
+        private final Appendable out;
+        private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE);
+
+        AppendableSink(Appendable out) {
+            this.out = out;
+        }
+
+        @Override
+        Sink put(char c) {
+            buffer.append(c);
+            if (buffer.length() >= BUFFER_SIZE) flush();
+            return this;
+        }
+
+        @Override
+        Sink put(String s) {
+            buffer.append(s);
+            if (buffer.length() >= BUFFER_SIZE) flush();
+            return this;
+        }
+
+        @Override
+        void flush() {
+            try {
+                out.append(buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.setLength(0);
+        }
+    }
+
+    private static final class ChannelSink extends Sink {
+        private final WritableByteChannel out;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        ChannelSink(WritableByteChannel out) {
+            this.out = out;
+        }
+
+        @Override
+        Sink put(char c) {
+            ensure(1);
+            buffer.put((byte) c); // traces are plain ASCII
+            return this;
+        }
+
+        ChannelSink putRawInt(int value) {
+            ensure(4);
+            buffer.putInt(value);
+            return this;
+        }
+
+        ChannelSink putVarint(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+            return this;
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) flush();
+        }
+
+        @Override
+        void flush() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+        }
+    }
+
+    // Buffered big-endian reader for readBinary
+    private static final class Reader {
+        private final ReadableByteChannel in;
+        private final ByteBuffer buffer;
+
+        Reader(ReadableByteChannel in, ByteBuffer buffer) {
+            this.in = in;
+            this.buffer = buffer;
+        }
+
+        int readInt() {
+            require(4);
+            return buffer.getInt();
+        }
+
+        int readVarint() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                require(1);
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+        }
+
+        private void require(int bytes) {
+            if (buffer.remaining() >= bytes) return;
+            buffer.compact();
+            try {
+                while (buffer.position() < bytes) {
+                    if (in.read(buffer) < 0) {
+                        throw new IllegalArgumentException("Truncated solution trace");
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                buffer.flip();
+            }
+        }
+    }
+}
@@ -0,0 +1,308 @@
+//src/main/java/battle/SolveMetrics.java
+
+package battle;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Service-level metrics of BattleSolver.solve: a latency histogram and a
+ * node counter for every combination of engine (the one that actually ran,
+ * after AUTO), army size (total units, in buckets 1-4, 5-8, 9-16, 17-32,
+ * 33+) and outcome (SolveResult.Status). Every solve records into the
+ * SolveMetrics of its options, global() unless SolveOptions.setMetrics
+ * says otherwise.
+ *
+ * Series live in a fixed array indexed by the three keys and are created
+ * on first use with a compare-and-set, so record() takes no lock and
+ * allocates nothing once a series exists. Reading is for monitoring:
+ * getSummaries() gives percentiles per series, register() publishes them
+ * as an MXBean, and startReporting() writes report() lines to a sink at a
+ * fixed period.
+ */
+public final class SolveMetrics implements SolveMetricsMXBean {
+    private static final String[] SIZE_BUCKETS = { "1-4", "5-8", "9-16", "17-32", "33+" };
+    private static final Engine[] ENGINES = Engine.values();
+    private static final SolveResult.Status[] OUTCOMES = SolveResult.Status.values();
+    private static final SolveMetrics GLOBAL = new SolveMetrics("default");
+
+    // Latency and effort of one engine / size bucket / outcome
+    private static final class Series {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder nodes = new LongAdder();
+    }
+
+    private final String name;
+    private final AtomicReferenceArray<Series> series =
+            new AtomicReferenceArray<>(ENGINES.length * SIZE_BUCKETS.length * OUTCOMES.length);
+    private volatile long sinceNanos = System.nanoTime(); // start of the current recording period
+    private ScheduledExecutorService reporter;
+    private ObjectName objectName;
+
+    public SolveMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Metrics every solve records into unless its options name others.
+     */
+    public static SolveMetrics global() {
+        return GLOBAL;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Record one finished solve: which engine ran, on how many units in
+     * total, how it ended, how long it took and how many nodes it expanded.
+     */
+    public void record(Engine engine, int units, SolveResult.Status outcome, long nanos, long nodes) {
+        int index = index(engine.ordinal(), sizeBucket(units), outcome.ordinal());
+        Series s = series.get(index);
+        if (s == null) {
+            series.compareAndSet(index, null, new Series());
+            s = series.get(index);
+        }
+        s.latency.record(nanos);
+        s.nodes.add(nodes);
+    }
+
+    @Override
+    public long getSolveCount() {
+        long count = 0;
+        for (int i = 0; i < series.length(); i++) {
+            Series s = series.get(i);
+            if (s != null) count += s.latency.getCount();
+        }
+        return count;
+    }
+
+    @Override
+    public List<Summary> getSummaries() {
+        double seconds = Math.max(1e-9, (System.nanoTime() - sinceNanos) / 1e9);
+        List<Summary> summaries = new ArrayList<>();
+        for (int i = 0; i < series.length(); i++) {
+            Series s = series.get(i);
+            if (s == null) continue;
+            LatencyHistogram.Snapshot snapshot = s.latency.snapshot();
+            if (snapshot.getCount() > 0) {
+                summaries.add(new Summary(i, snapshot, s.nodes.sum(), seconds));
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * One line per series: count, throughput since creation or the last
+     * reset, and latency percentiles. Reading it changes nothing.
+     */
+    @Override
+    public String getReport() {
+        return render(getSummaries(), null, (System.nanoTime() - sinceNanos) / 1e9);
+    }
+
+    /**
+     * Same as getReport().
+     */
+    public String report() {
+        return getReport();
+    }
+
+    /**
+     * Report lines whose rate counts the solves since {@code previousCounts}
+     * (from zero when null) over {@code seconds}; previousCounts is then
+     * moved up to the current counts.
+     */
+    private static String render(List<Summary> summaries, long[] previousCounts, double seconds) {
+        seconds = Math.max(1e-9, seconds);
+        StringBuilder report = new StringBuilder();
+        for (Summary summary : summaries) {
+            long delta = summary.getCount();
+            if (previousCounts != null) {
+                // A count below the previous one means the metrics were reset in between
+                if (delta >= previousCounts[summary.index]) delta -= previousCounts[summary.index];
+                previousCounts[summary.index] = summary.getCount();
+            }
+            report.append(String.format("solves engine=%s units=%s outcome=%s count=%d rate=%.2f/s"
+                            + " mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms%n",
+                    summary.getEngine(), summary.getArmySize(), summary.getOutcome(), summary.getCount(),
+                    delta / seconds, summary.getMeanMillis(), summary.getP50Millis(), summary.getP90Millis(),
+                    summary.getP99Millis(), summary.getP999Millis(), summary.getMaxMillis()));
+        }
+        return report.toString();
+    }
+
+    @Override
+    public synchronized void reset() {
+        for (int i = 0; i < series.length(); i++) {
+            series.set(i, null);
+        }
+        sinceNanos = System.nanoTime();
+    }
+
+    /**
+     * Every periodMillis, pass report lines to the sink (e.g. a logger) from
+     * a daemon thread; replaces any reporting already running. Each line's
+     * rate covers the solves since the previous report of this reporter
+     * (since creation for the first). Nothing is written while no solve has
+     * been recorded.
+     */
+    public synchronized void startReporting(long periodMillis, Consumer<String> sink) {
+        stopReporting();
+        reporter = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "battle-metrics-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Counts and time of the previous report, touched only by the reporting thread
+        long[] reportedCounts = new long[series.length()];
+        long[] reportedNanos = { sinceNanos };
+        reporter.scheduleAtFixedRate(() -> {
+            long now = System.nanoTime();
+            String report = render(getSummaries(), reportedCounts, (now - reportedNanos[0]) / 1e9);
+            reportedNanos[0] = now;
+            if (!report.isEmpty()) sink.accept(report);
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopReporting() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+
+    /**
+     * Publish these metrics in the platform MBean server as
+     * "battle:type=SolveMetrics,name=" + getName(); idempotent.
+     */
+    public synchronized ObjectName register() throws JMException {
+        if (objectName == null) {
+            ObjectName candidate = new ObjectName("battle:type=SolveMetrics,name=" + name);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(candidate)) {
+                server.registerMBean(this, candidate);
+            }
+            objectName = candidate;
+        }
+        return objectName;
+    }
+
+    public synchronized void unregister() throws JMException {
+        if (objectName != null) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            objectName = null;
+        }
+    }
+
+    static int sizeBucket(int units) {
+        return units <= 4 ? 0 : units <= 8 ? 1 : units <= 16 ? 2 : units <= 32 ? 3 : 4;
+    }
+
+    private static int index(int engine, int size, int outcome) {
+        return (engine * SIZE_BUCKETS.length + size) * OUTCOMES.length + outcome;
+    }
+
+    /**
+     * Percentiles of one series (times in milliseconds), as shown over JMX.
+     */
+    public static final class Summary {
+        private final int index;
+        private final long count;
+        private final double throughput;
+        private final double nodesPerSecond;
+        private final double mean;
+        private final double p50;
+        private final double p90;
+        private final double p99;
+        private final double p999;
+        private final double max;
+
+        Summary(int index, LatencyHistogram.Snapshot snapshot, long nodes, double seconds) {
+            this.index = index;
+            this.count = snapshot.getCount();
+            this.throughput = count / seconds;
+            double busySeconds = snapshot.getMean() * count / 1e9;
+            this.nodesPerSecond = busySeconds > 0 ? nodes / busySeconds : 0;
+            this.mean = snapshot.getMean() / 1e6;
+            this.p50 = snapshot.getValueAtPercentile(50) / 1e6;
+            this.p90 = snapshot.getValueAtPercentile(90) / 1e6;
+            this.p99 = snapshot.getValueAtPercentile(99) / 1e6;
+            this.p999 = snapshot.getValueAtPercentile(99.9) / 1e6;
+            this.max = snapshot.getMax() / 1e6;
+        }
+
+        public String getEngine() {
+            return ENGINES[index / (SIZE_BUCKETS.length * OUTCOMES.length)].name();
+        }
+
+        /** Total units of both armies, as a bucket such as "5-8". */
+        public String getArmySize() {
+            return SIZE_BUCKETS[index / OUTCOMES.length % SIZE_BUCKETS.length];
+        }
+
+        public String getOutcome() {
+            return OUTCOMES[index % OUTCOMES.length].name();
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /** Solves per second since the metrics were created or reset. */
+        public double getThroughputPerSecond() {
+            return throughput;
+        }
+
+        /** Nodes expanded per second of solving. */
+        public double getNodesPerSecond() {
+            return nodesPerSecond;
+        }
+
+        public double getMeanMillis() {
+            return mean;
+        }
+
+        public double getP50Millis() {
+            return p50;
+        }
+
+        public double getP90Millis() {
+            return p90;
+        }
+
+        public double getP99Millis() {
+            return p99;
+        }
+
+        public double getP999Millis() {
+            return p999;
+        }
+
+        public double getMaxMillis() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return getEngine() + "/" + getArmySize() + "/" + getOutcome() + " x" + count;
+        }
+    }
+}
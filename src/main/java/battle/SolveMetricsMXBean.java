@@ -0,0 +1,25 @@
+//src/main/java/battle/SolveMetricsMXBean.java
+
+package battle;
+
+import java.util.List;
+
+/**
+ * Management interface of {@link SolveMetrics}, registered as
+ * "battle:type=SolveMetrics,name=..." by SolveMetrics.register().
+ */
+public interface SolveMetricsMXBean {
+    String getName();
+
+    /** Solves recorded since creation or the last reset. */
+    long getSolveCount();
+
+    /** One row per engine, army-size bucket and outcome seen so far. */
+    List<SolveMetrics.Summary> getSummaries();
+
+    /** The same rows as text, one line each. */
+    String getReport();
+
+    /** Forget everything recorded so far. */
+    void reset();
+}
@@ -0,0 +1,359 @@
+//src/main/java/battle/SolveOptions.java
+
+package battle;
+
+/**
+ * SolveOptions collects the knobs of BattleSolver.solve(String, SolveOptions).
+ * Setters return this instance so options can be chained:
+ *
+ * <pre>
+ * new SolveOptions().setEngine(Engine.MCTS).setTimeLimitMillis(500).setThreads(4)
+ * </pre>
+ *
+ * Options that do not apply to the selected engine are ignored.
+ */
+public class SolveOptions {
+    private Engine engine = Engine.ALPHA_BETA;
+    private boolean visualize = false;     // print a step-by-step visualization of the plan
+    private long maxIterations = 100_000;  // MCTS: playouts to run (0 = unbounded, needs a time limit)
+    private long timeLimitMillis = 0;      // wall-time budget for bounded engines and AUTO (0 = none)
+    private int threads = 1;               // worker threads for parallel engines (MINIMAX, MCTS, LAYERED, analysis)
+    private double exploration = Math.sqrt(2); // MCTS: UCT exploration constant
+    private long seed = 0x5EEDL;           // seed for randomized engines
+    private int maxDepth = 6;              // DEPTH_LIMITED: plies searched before evaluating
+    private Evaluator evaluator = Evaluators.HEALTH_DIFFERENCE; // DEPTH_LIMITED: horizon scoring
+    private int estimatorProbes = 128;     // AUTO: random probes used to estimate the tree size
+    private boolean explicitStack = false; // MINIMAX/ALPHA_BETA: run without recursion (very deep games)
+    private long stackMemoryBytes = 256L << 20; // explicitStack: memory the frame stack may use
+    private long tableBytes = 32L << 20;   // ALPHA_BETA_TT: off-heap transposition table size
+    private boolean keepTable = false;     // ALPHA_BETA_TT: age the previous solve's entries instead of clearing
+    private long deadlineMillis = 0;       // hard stop for any engine, reported as TIMEOUT (0 = none)
+    private SearchControl control;         // cancellation token polled by the engines (null = none)
+    private long memoryBudgetBytes = 0;    // per-solve cap on tracked caches and trees (0 = none)
+    private SolveMetrics metrics = SolveMetrics.global(); // where the solve's latency is recorded (null = nowhere)
+    private SolveResultCache resultCache;  // shared cache of exact results (null = none)
+    private OrderingWeights orderingWeights = OrderingWeights.active(); // ALPHA_BETA move ordering
+    private double selectiveConfidence = 0.95; // SELECTIVE: probability a pruned move was really irrelevant
+    private int selectiveDepth = 2;        // SELECTIVE: plies of the shallow search that decides pruning
+    private SearchListener listener;       // receives progress reports (null = none, no reporting cost)
+    private long progressIntervalMillis = 100; // time between two progress reports
+
+    /**
+     * Copy of these options, so an engine can adjust limits without touching
+     * the caller's instance.
+     */
+    public SolveOptions copy() {
+        SolveOptions copy = new SolveOptions();
+        copy.engine = engine;
+        copy.visualize = visualize;
+        copy.maxIterations = maxIterations;
+        copy.timeLimitMillis = timeLimitMillis;
+        copy.threads = threads;
+        copy.exploration = exploration;
+        copy.seed = seed;
+        copy.maxDepth = maxDepth;
+        copy.evaluator = evaluator;
+        copy.estimatorProbes = estimatorProbes;
+        copy.explicitStack = explicitStack;
+        copy.stackMemoryBytes = stackMemoryBytes;
+        copy.tableBytes = tableBytes;
+        copy.keepTable = keepTable;
+        copy.deadlineMillis = deadlineMillis;
+        copy.control = control;
+        copy.memoryBudgetBytes = memoryBudgetBytes;
+        copy.metrics = metrics;
+        copy.resultCache = resultCache;
+        copy.orderingWeights = orderingWeights;
+        copy.selectiveConfidence = selectiveConfidence;
+        copy.selectiveDepth = selectiveDepth;
+        copy.listener = listener;
+        copy.progressIntervalMillis = progressIntervalMillis;
+        return copy;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public SolveOptions setEngine(Engine engine) {
+        this.engine = engine;
+        return this;
+    }
+
+    public boolean isVisualize() {
+        return visualize;
+    }
+
+    public SolveOptions setVisualize(boolean visualize) {
+        this.visualize = visualize;
+        return this;
+    }
+
+    public long getMaxIterations() {
+        return maxIterations;
+    }
+
+    public SolveOptions setMaxIterations(long maxIterations) {
+        this.maxIterations = maxIterations;
+        return this;
+    }
+
+    public long getTimeLimitMillis() {
+        return timeLimitMillis;
+    }
+
+    public SolveOptions setTimeLimitMillis(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+        return this;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public SolveOptions setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+        return this;
+    }
+
+    public double getExploration() {
+        return exploration;
+    }
+
+    public SolveOptions setExploration(double exploration) {
+        this.exploration = exploration;
+        return this;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public SolveOptions setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public SolveOptions setMaxDepth(int maxDepth) {
+        this.maxDepth = Math.max(1, maxDepth);
+        return this;
+    }
+
+    public Evaluator getEvaluator() {
+        return evaluator;
+    }
+
+    public SolveOptions setEvaluator(Evaluator evaluator) {
+        this.evaluator = evaluator;
+        return this;
+    }
+
+    public int getEstimatorProbes() {
+        return estimatorProbes;
+    }
+
+    public SolveOptions setEstimatorProbes(int estimatorProbes) {
+        this.estimatorProbes = Math.max(1, estimatorProbes);
+        return this;
+    }
+
+    public boolean isExplicitStack() {
+        return explicitStack;
+    }
+
+    /**
+     * Run MINIMAX and ALPHA_BETA on an explicit frame stack instead of Java
+     * recursion. Results (plan, score, nodesExpanded) are identical; the
+     * reachable depth is then bounded by stackMemoryBytes, not the thread stack.
+     */
+    public SolveOptions setExplicitStack(boolean explicitStack) {
+        this.explicitStack = explicitStack;
+        return this;
+    }
+
+    public long getStackMemoryBytes() {
+        return stackMemoryBytes;
+    }
+
+    public SolveOptions setStackMemoryBytes(long stackMemoryBytes) {
+        this.stackMemoryBytes = stackMemoryBytes;
+        return this;
+    }
+
+    public long getTableBytes() {
+        return tableBytes;
+    }
+
+    /**
+     * Off-heap memory for the ALPHA_BETA_TT transposition table. The table
+     * lives outside the Java heap, so this does not count against -Xmx.
+     */
+    public SolveOptions setTableBytes(long tableBytes) {
+        this.tableBytes = tableBytes;
+        return this;
+    }
+
+    public boolean isKeepTable() {
+        return keepTable;
+    }
+
+    /**
+     * Keep the solver's transposition table between solves instead of
+     * clearing it. Entries are keyed by position and scenario (damages,
+     * army sizes, starting side), so they are only reused by later solves
+     * of the same scenario; old entries are replaced first when the table
+     * is full.
+     *
+     * A BattleSolver shared by several threads has one table per search
+     * context, and each solve takes the most recently released idle
+     * context. A caller that solves one position after another therefore
+     * keeps getting its own table, while concurrent callers may get each
+     * other's. A table whose last solve was of another scenario is cleared
+     * first, so only solves of the same scenario share entries.
+     * Idle tables beyond the solver's cap are dropped, and close() drops
+     * them all; the next solve then starts with an empty table.
+     */
+    public SolveOptions setKeepTable(boolean keepTable) {
+        this.keepTable = keepTable;
+        return this;
+    }
+
+    public long getDeadlineMillis() {
+        return deadlineMillis;
+    }
+
+    /**
+     * Hard deadline for any engine. Unlike timeLimitMillis (the normal run
+     * length of bounded engines), hitting the deadline aborts the search and
+     * the result has status TIMEOUT with the best line found so far.
+     */
+    public SolveOptions setDeadlineMillis(long deadlineMillis) {
+        this.deadlineMillis = deadlineMillis;
+        return this;
+    }
+
+    public SearchControl getControl() {
+        return control;
+    }
+
+    public SolveOptions setControl(SearchControl control) {
+        this.control = control;
+        return this;
+    }
+
+    public long getMemoryBudgetBytes() {
+        return memoryBudgetBytes;
+    }
+
+    /**
+     * Memory this solve's caches and search trees may take (0 = unlimited).
+     * Accounted per solve, independent of other solves in the JVM. When the
+     * budget gets tight the solve degrades in stages instead of running out
+     * of heap: shrink the transposition table, drop search trees and restart
+     * on ALPHA_BETA_TT, and finally fall back to a bounded MCTS; see
+     * SolveResult.getMemoryStage().
+     */
+    public SolveOptions setMemoryBudgetBytes(long memoryBudgetBytes) {
+        this.memoryBudgetBytes = Math.max(0, memoryBudgetBytes);
+        return this;
+    }
+
+    public SolveMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Latency histograms the solve is recorded in (default
+     * SolveMetrics.global(); null records nothing).
+     */
+    public SolveOptions setMetrics(SolveMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    public SolveResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Answer exact-engine solves from this cache when an equivalent battle
+     * (same units in any order, same starting player and engine) was solved
+     * before, or is being solved right now by another thread.
+     */
+    public SolveOptions setResultCache(SolveResultCache resultCache) {
+        this.resultCache = resultCache;
+        return this;
+    }
+
+    public OrderingWeights getOrderingWeights() {
+        return orderingWeights;
+    }
+
+    /**
+     * Move-ordering weights of ALPHA_BETA (default: the file named by the
+     * battle.orderingWeights system property, else a plain health
+     * difference). Changes node counts, never values.
+     */
+    public SolveOptions setOrderingWeights(OrderingWeights orderingWeights) {
+        this.orderingWeights = orderingWeights;
+        return this;
+    }
+
+    public double getSelectiveConfidence() {
+        return selectiveConfidence;
+    }
+
+    /**
+     * SELECTIVE: confidence, between 0.5 and 1, that a move pruned on its
+     * shallow score could not have changed the result. Higher values prune
+     * less and miss fewer good moves.
+     */
+    public SolveOptions setSelectiveConfidence(double selectiveConfidence) {
+        if (!(selectiveConfidence >= 0.5 && selectiveConfidence < 1)) {
+            throw new IllegalArgumentException("selectiveConfidence must be in [0.5, 1): " + selectiveConfidence);
+        }
+        this.selectiveConfidence = selectiveConfidence;
+        return this;
+    }
+
+    public int getSelectiveDepth() {
+        return selectiveDepth;
+    }
+
+    public SolveOptions setSelectiveDepth(int selectiveDepth) {
+        this.selectiveDepth = Math.max(1, selectiveDepth);
+        return this;
+    }
+
+    public SearchListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Receive progress reports (best line so far, nodes and node rate,
+     * iterations, bounds) every progressIntervalMillis while the solve runs,
+     * and a final one when it ends. Reports are built and delivered on a
+     * background thread; see SearchListener. A listener bypasses the result
+     * cache, so every solve reports its own search.
+     */
+    public SolveOptions setListener(SearchListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    public long getProgressIntervalMillis() {
+        return progressIntervalMillis;
+    }
+
+    public SolveOptions setProgressIntervalMillis(long progressIntervalMillis) {
+        if (progressIntervalMillis <= 0) {
+            throw new IllegalArgumentException("progressIntervalMillis must be positive: " + progressIntervalMillis);
+        }
+        this.progressIntervalMillis = progressIntervalMillis;
+        return this;
+    }
+}
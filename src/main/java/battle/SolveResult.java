@@ -0,0 +1,123 @@
+//src/main/java/battle/SolveResult.java
+
+package battle;
+
+/**
+ * Typed result of BattleSolver.solve(String, SolveOptions). toString()
+ * produces the classic "plan;score;nodesExpanded;" answer so callers that
+ * only need the string can keep using it.
+ */
+public class SolveResult {
+    /**
+     * How the search ended.
+     */
+    public enum Status {
+        /** Exact engine ran to completion: score is the game value. */
+        EXACT,
+        /** Approximate engine ran to completion: score is what the plan achieves. */
+        APPROXIMATE,
+        /** Stopped by the deadline; plan is the best line found so far. */
+        TIMEOUT,
+        /** Stopped by SearchControl.cancel(); plan is the best line found so far. */
+        CANCELLED
+    }
+
+    /**
+     * Furthest stage of memory-budget degradation a solve reached (see
+     * SolveOptions.setMemoryBudgetBytes).
+     */
+    public enum MemoryStage {
+        /** No budget, or everything fit. */
+        WITHIN_BUDGET,
+        /** A cache (the transposition table) was allocated smaller than requested. */
+        SHRINK_CACHES,
+        /** A search tree hit the budget and was dropped, or MCTS stopped growing its tree. */
+        DROP_NODES,
+        /** The solve finished with a budget-bounded MCTS; the result is approximate. */
+        ANYTIME
+    }
+
+    private final String plan;        // comma-separated actions, e.g. "A(0,1),B(1,0)"
+    private final int score;          // utility of the plan's terminal state
+    private final long nodesExpanded; // nodes visited (or created, for MCTS)
+    private final Engine engine;      // engine that produced the plan
+    private final Status status;      // how the search ended
+    private final EngineSelection selection; // AUTO report, null otherwise
+    private final MemoryStage memoryStage;   // degradation reached under the memory budget
+
+    public SolveResult(String plan, int score, long nodesExpanded, Engine engine, boolean exact) {
+        this(plan, score, nodesExpanded, engine, exact ? Status.EXACT : Status.APPROXIMATE, null);
+    }
+
+    public SolveResult(String plan, int score, long nodesExpanded, Engine engine, Status status,
+                       EngineSelection selection) {
+        this(plan, score, nodesExpanded, engine, status, selection, MemoryStage.WITHIN_BUDGET);
+    }
+
+    public SolveResult(String plan, int score, long nodesExpanded, Engine engine, Status status,
+                       EngineSelection selection, MemoryStage memoryStage) {
+        this.plan = plan;
+        this.score = score;
+        this.nodesExpanded = nodesExpanded;
+        this.engine = engine;
+        this.status = status;
+        this.selection = selection;
+        this.memoryStage = memoryStage;
+    }
+
+    public String getPlan() {
+        return plan;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public long getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    /**
+     * Engine that produced the plan; for Engine.AUTO this is the engine that
+     * was picked, never AUTO itself.
+     */
+    public Engine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Prediction and outcome report when the solve used Engine.AUTO, null
+     * otherwise.
+     */
+    public EngineSelection getSelection() {
+        return selection;
+    }
+
+    /**
+     * Whether the score is the exact game value. Approximate engines (MCTS)
+     * return a legal plan whose score is only what that line achieves.
+     */
+    public boolean isExact() {
+        return status == Status.EXACT;
+    }
+
+    /**
+     * Whether the search completed, or was stopped early (TIMEOUT/CANCELLED)
+     * and reports partial statistics and the best line found so far.
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * How far the solve had to degrade to stay within its memory budget.
+     */
+    public MemoryStage getMemoryStage() {
+        return memoryStage;
+    }
+
+    @Override
+    public String toString() {
+        return plan + ";" + score + ";" + nodesExpanded + ";";
+    }
+}
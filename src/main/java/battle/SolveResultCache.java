@@ -0,0 +1,353 @@
+//src/main/java/battle/SolveResultCache.java
+
+package battle;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+import battle.Node.GameState;
+import battle.Node.Unit;
+
+/**
+ * Bounded cache of exact solve results in front of BattleSolver.solve,
+ * shared by every solve whose options name it (SolveOptions.setResultCache).
+ *
+ * Requests are normalized before lookup: each army's units are sorted by
+ * (health, damage), so the same battle with its armies listed in another
+ * order is the same entry. The key is that canonical scenario, the starting
+ * player, the requested engine and the options that change its plan or
+ * node count (ordering weights, table size, memory budget). The canonical scenario is what actually
+ * gets solved; the stored plan uses canonical unit indices and is mapped
+ * back to each caller's own indices on the way out. Units with equal health
+ * and damage are interchangeable, so any mapping between them is valid.
+ *
+ * Only exact engines are cached, and only results with status EXACT are
+ * stored: a timed-out or cancelled search is returned to its caller but
+ * not remembered. Concurrent identical requests are coalesced: the first
+ * computes, the others wait for its result instead of searching too. A
+ * waiting request still honours its own deadline and SearchControl: it
+ * gives up waiting with status TIMEOUT or CANCELLED (and an empty plan)
+ * like a search of its own would. A hit returns the plan, score and node
+ * count of the solve that produced it.
+ *
+ * Eviction is least recently used, from a LinkedHashMap in access order
+ * under the cache's lock; lookups are short compared to any solve.
+ */
+public final class SolveResultCache {
+    private static final long WAIT_POLL_MILLIS = 10; // how often a waiting request checks its control
+    private final int capacity;
+    private final LinkedHashMap<String, SolveResult> entries;
+    private final ConcurrentHashMap<String, CompletableFuture<SolveResult>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SolveResultCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Whether a request with these options goes through the cache: an exact
+     * engine, no visualization or listener (a hit would have nothing to
+     * print or report) and no kept table, whose result depends on the solves
+     * that ran before.
+     */
+    static boolean accepts(SolveOptions options) {
+        return options.getEngine().isExact() && !options.isVisualize() && options.getListener() == null
+                && !options.isKeepTable();
+    }
+
+    // Cache key: the canonical scenario plus every option that changes the result
+    private static String key(Canonical canonical, SolveOptions options) {
+        return canonical.input + options.getEngine() + '|' + options.getOrderingWeights()
+                + '|' + options.getTableBytes() + '|' + options.getMemoryBudgetBytes();
+    }
+
+    /**
+     * Answer the request from the cache, from a concurrent identical
+     * request, or by running solver on the canonical scenario.
+     */
+    SolveResult solve(String input, SolveOptions options, BiFunction<String, SolveOptions, SolveResult> solver) {
+        Canonical canonical = Canonical.of(input);
+        String key = key(canonical, options);
+
+        SolveResult cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return canonical.toCaller(cached);
+        }
+
+        CompletableFuture<SolveResult> mine = new CompletableFuture<>();
+        CompletableFuture<SolveResult> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            coalesced.increment();
+            long waitStart = System.nanoTime();
+            SolveResult.Status stop = await(leader, options);
+            if (stop != null) {
+                return stopped(options, stop);
+            }
+            SolveResult shared = resultOf(leader);
+            if (shared != null && shared.getStatus() == SolveResult.Status.EXACT) {
+                return canonical.toCaller(shared);
+            }
+            // The leader failed or was stopped early: search on this request's own terms, within what is left
+            SolveOptions own = options;
+            if (options.getDeadlineMillis() > 0) {
+                long waited = (System.nanoTime() - waitStart) / 1_000_000;
+                own = options.copy().setDeadlineMillis(Math.max(1, options.getDeadlineMillis() - waited));
+            }
+            return canonical.toCaller(solver.apply(canonical.input, own));
+        }
+
+        try {
+            // The previous leader may have finished between the lookup and putIfAbsent
+            SolveResult result = lookup(key);
+            if (result != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+                result = solver.apply(canonical.input, options);
+                if (result.getStatus() == SolveResult.Status.EXACT) {
+                    store(key, result);
+                }
+            }
+            mine.complete(result);
+            return canonical.toCaller(result);
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Wait for the leader within this request's own limits: null once the
+     * leader is done, or why this request stopped waiting first.
+     */
+    private static SolveResult.Status await(CompletableFuture<SolveResult> leader, SolveOptions options) {
+        SearchControl control = options.getControl();
+        long deadline = options.getDeadlineMillis() > 0
+                ? System.nanoTime() + options.getDeadlineMillis() * 1_000_000L : Long.MAX_VALUE;
+        while (true) {
+            if (control != null && control.isCancelled()) {
+                return SolveResult.Status.CANCELLED;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return SolveResult.Status.TIMEOUT;
+            }
+            try {
+                leader.get(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(WAIT_POLL_MILLIS)), TimeUnit.NANOSECONDS);
+                return null;
+            } catch (TimeoutException e) {
+                // still running: check the limits again
+            } catch (ExecutionException | CancellationException e) {
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return SolveResult.Status.CANCELLED;
+            }
+        }
+    }
+
+    // Result of a completed leader, null if it failed
+    private static SolveResult resultOf(CompletableFuture<SolveResult> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException | CancellationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * What a request that stopped before searching returns: no line and no
+     * nodes, with the reason; also left on its SearchControl as usual.
+     */
+    private static SolveResult stopped(SolveOptions options, SolveResult.Status status) {
+        SolveResult result = new SolveResult("", 0, 0, options.getEngine(), status, null);
+        if (options.getControl() != null) {
+            options.getControl().finish(result);
+        }
+        return result;
+    }
+
+    private synchronized SolveResult lookup(String key) {
+        return entries.get(key);
+    }
+
+    private synchronized void store(String key, SolveResult result) {
+        entries.put(key, result);
+        while (entries.size() > capacity) {
+            Map.Entry<String, SolveResult> eldest = entries.entrySet().iterator().next();
+            entries.remove(eldest.getKey());
+            evictions.increment();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), coalesced.sum(), evictions.sum(), size(), capacity);
+    }
+
+    /**
+     * Counters since the cache was created. Coalesced requests were served
+     * by another request's search and count as neither hits nor misses.
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long coalesced;
+        private final long evictions;
+        private final int size;
+        private final int capacity;
+
+        Stats(long hits, long misses, long coalesced, long evictions, int size, int capacity) {
+            this.hits = hits;
+            this.misses = misses;
+            this.coalesced = coalesced;
+            this.evictions = evictions;
+            this.size = size;
+            this.capacity = capacity;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getCoalesced() {
+            return coalesced;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * Share of requests answered without a search of their own.
+         */
+        public double getHitRatio() {
+            long requests = hits + misses + coalesced;
+            return requests == 0 ? 0 : (double) (hits + coalesced) / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d misses=%d coalesced=%d evictions=%d size=%d/%d hitRatio=%.3f",
+                    hits, misses, coalesced, evictions, size, capacity, getHitRatio());
+        }
+    }
+
+    /**
+     * A request in canonical unit order, with the permutations back to the
+     * caller's indices: callerA[c] is the caller's index of canonical unit c
+     * of army A.
+     */
+    static final class Canonical {
+        final String input;
+        final int[] callerA;
+        final int[] callerB;
+
+        private Canonical(String input, int[] callerA, int[] callerB) {
+            this.input = input;
+            this.callerA = callerA;
+            this.callerB = callerB;
+        }
+
+        static Canonical of(String input) {
+            GameState state = BattleSolver.parseInitialState(input);
+            StringBuilder canonical = new StringBuilder();
+            int[] callerA = appendSorted(canonical, state.getArmyA());
+            canonical.append(';');
+            int[] callerB = appendSorted(canonical, state.getArmyB());
+            canonical.append(';').append(state.getStartingPlayer()).append(';');
+            return new Canonical(canonical.toString(), callerA, callerB);
+        }
+
+        // Stable sort by (health, damage); returns the caller's index of each canonical position
+        private static int[] appendSorted(StringBuilder canonical, List<Unit> army) {
+            Integer[] order = new Integer[army.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (x, y) -> {
+                Unit ux = army.get(x);
+                Unit uy = army.get(y);
+                return ux.health != uy.health ? Integer.compare(ux.health, uy.health)
+                        : Integer.compare(ux.damage, uy.damage);
+            });
+            int[] caller = new int[order.length];
+            for (int c = 0; c < order.length; c++) {
+                caller[c] = order[c];
+                Unit unit = army.get(order[c]);
+                if (c > 0) canonical.append(',');
+                canonical.append(unit.health).append(',').append(unit.damage);
+            }
+            return caller;
+        }
+
+        /**
+         * The result with its plan rewritten from canonical to caller indices.
+         */
+        SolveResult toCaller(SolveResult result) {
+            String plan = result.getPlan();
+            StringBuilder mapped = new StringBuilder(plan.length());
+            int k = 0;
+            while (k < plan.length()) {
+                // Actions look like "A(i,j)": attacker i of the side, target j of the other side
+                int open = plan.indexOf('(', k);
+                int comma = plan.indexOf(',', open);
+                int close = plan.indexOf(')', comma);
+                char side = plan.charAt(open - 1);
+                int attacker = Integer.parseInt(plan.substring(open + 1, comma));
+                int target = Integer.parseInt(plan.substring(comma + 1, close));
+                int[] own = side == 'A' ? callerA : callerB;
+                int[] other = side == 'A' ? callerB : callerA;
+                if (mapped.length() > 0) mapped.append(',');
+                mapped.append(side).append('(').append(own[attacker]).append(',').append(other[target]).append(')');
+                k = close + 2; // past ")" and the separating ","
+            }
+            return new SolveResult(mapped.toString(), result.getScore(), result.getNodesExpanded(),
+                    result.getEngine(), result.getStatus(), result.getSelection(), result.getMemoryStage());
+        }
+    }
+}
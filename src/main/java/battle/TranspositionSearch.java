@@ -0,0 +1,336 @@
+//src/main/java/battle/TranspositionSearch.java
+
+package battle;
+
+/**
+ * Exact alpha-beta over a {@link BattleBoard} that caches results in an
+ * {@link OffHeapTranspositionTable}. Attacks commute (A hits x then B hits y
+ * reaches the same position as the reverse order whenever both are legal),
+ * so the game tree is full of transpositions and the table saves most of the
+ * work of minimaxAlphaBeta on mid-sized armies.
+ *
+ * Entries store fail-soft bounds, so a cached value only cuts off when it is
+ * exact or its bound is outside the current window. The best move of an
+ * entry is tried first when the position is searched again. Positions are
+ * keyed by the board hash mixed with the board's scenario key (starting
+ * side, army sizes and damages), because the hash only covers health and a
+ * kept table may hold entries of other scenarios.
+ *
+ * The principal variation is rebuilt after the search by walking down the
+ * tree and, at each step, re-searching children with a window of one around
+ * the root value; with the table filled these re-searches are cheap.
+ */
+final class TranspositionSearch {
+
+    private final OffHeapTranspositionTable table;
+    private final SearchControl control; // polled every checkMask + 1 nodes, may be null
+    private final long checkMask;
+    private final MemoryGovernor governor; // charged for move buffers, may be null
+    private ProgressReporter progress;     // told about root improvements, usually null
+
+    private BattleBoard board;
+    private BattleBoard rootBoard;  // untouched copy of the root, for partialLine()
+    private long scenarioKey;
+    // Per-depth scratch arrays, allocated lazily: move lists and ordering keys
+    private int[][] moveBuffers;
+    private int[][] keyBuffers;
+    private long nodesExpanded;
+    private int rootValue;
+    private int bestRootMove;        // best finished root move of the running search, if any
+    private boolean rootMoveFound;
+
+    TranspositionSearch(OffHeapTranspositionTable table, SearchControl control) {
+        this(table, control, null);
+    }
+
+    TranspositionSearch(OffHeapTranspositionTable table, SearchControl control, MemoryGovernor governor) {
+        this.table = table;
+        this.control = control;
+        this.checkMask = control != null ? control.checkMask() : -1;
+        this.governor = governor;
+    }
+
+    long getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    /**
+     * Publish every improvement at the root of search(...) to this reporter;
+     * only the root move is known then, the rest of the line comes from the
+     * principal variation at the end.
+     */
+    void setProgress(ProgressReporter progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * Game value of the position searched last.
+     */
+    int rootValue() {
+        return rootValue;
+    }
+
+    /**
+     * Line of the best root move search(...) has finished so far, or null
+     * if none has: that move, then the table's best move of each position
+     * (the most damaging move where the table has none) to the end of the
+     * game. It is optimal as far as the entries along it are exact.
+     */
+    IterativeSearch.Line partialLine() {
+        if (!rootMoveFound) {
+            return null;
+        }
+        BattleBoard replay = rootBoard.copy();
+        int[] moves = new int[replay.maxBranching()];
+        int[] path = new int[64];
+        int length = 0;
+        int move = bestRootMove;
+        while (true) {
+            if (length == path.length) {
+                path = java.util.Arrays.copyOf(path, length * 2);
+            }
+            path[length++] = move;
+            replay.apply(move);
+            if (replay.isTerminal()) break;
+            long entry = table.probe(replay.hash ^ scenarioKey);
+            int ttMove = entry != 0 ? OffHeapTranspositionTable.moveOf(entry) : OffHeapTranspositionTable.NO_MOVE;
+            int count = replay.generateMoves(moves);
+            move = moves[0];
+            for (int k = 0; k < count; k++) {
+                if (replay.moveIndex(moves[k]) == ttMove) {
+                    move = moves[k];
+                    break;
+                }
+                if (replay.damageDealt(moves[k]) > replay.damageDealt(move)) {
+                    move = moves[k];
+                }
+            }
+        }
+        IterativeSearch.Line line = null;
+        for (int i = length - 1; i >= 0; i--) {
+            line = new IterativeSearch.Line(path[i], line);
+        }
+        return line;
+    }
+
+    /**
+     * Search the position to the end and return an optimal line (null when
+     * the root is already terminal). The root board is copied, not mutated.
+     */
+    IterativeSearch.Line search(BattleBoard root) {
+        setRoot(root);
+        if (board.isTerminal()) {
+            rootValue = board.utility();
+            return null;
+        }
+        rootValue = alphaBeta(0, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        return principalVariation(rootValue);
+    }
+
+    /**
+     * Search the position with an aspiration window: start with
+     * [guess - delta, guess + delta] and, while the result falls outside,
+     * widen the window on that side (doubling delta) and search again. With
+     * a good guess the narrow window prunes far more than a full one.
+     * Returns an optimal line; rootValue() gives its exact value. Node counts
+     * accumulate over calls on the same instance.
+     */
+    IterativeSearch.Line searchAspiration(BattleBoard root, int guess, int delta) {
+        setRoot(root);
+        if (board.isTerminal()) {
+            rootValue = board.utility();
+            return null;
+        }
+        long alpha = (long) guess - delta;
+        long beta = (long) guess + delta;
+        while (true) {
+            int a = (int) Math.max(Integer.MIN_VALUE, alpha);
+            int b = (int) Math.min(Integer.MAX_VALUE, beta);
+            int value = alphaBeta(0, a, b);
+            if (value <= a && a > Integer.MIN_VALUE) {
+                delta *= 2;
+                alpha = (long) value - delta; // fail low: the value is at most this
+            } else if (value >= b && b < Integer.MAX_VALUE) {
+                delta *= 2;
+                beta = (long) value + delta;  // fail high: the value is at least this
+            } else {
+                rootValue = value;
+                return principalVariation(value);
+            }
+        }
+    }
+
+    /**
+     * Search the position with the fixed window (alpha, beta). Returns an
+     * optimal line when the value falls inside the window and null when it
+     * is only a bound (or the root is terminal); rootValue() gives the
+     * fail-soft value either way.
+     */
+    IterativeSearch.Line searchWindow(BattleBoard root, int alpha, int beta) {
+        setRoot(root);
+        if (board.isTerminal()) {
+            rootValue = board.utility();
+            return null;
+        }
+        rootValue = alphaBeta(0, alpha, beta);
+        return rootValue > alpha && rootValue < beta ? principalVariation(rootValue) : null;
+    }
+
+    private void setRoot(BattleBoard root) {
+        this.board = root.copy();
+        this.rootBoard = root.copy();
+        this.rootMoveFound = false;
+        this.scenarioKey = board.scenarioKey();
+        if (moveBuffers == null) {
+            this.moveBuffers = new int[16][];
+            this.keyBuffers = new int[16][];
+        }
+        nodesExpanded++;
+    }
+
+    private int alphaBeta(int depth, int alpha, int beta) {
+        long key = board.hash ^ scenarioKey;
+        long entry = table.probe(key);
+        int ttMove = OffHeapTranspositionTable.NO_MOVE;
+        if (entry != 0) {
+            int value = OffHeapTranspositionTable.valueOf(entry);
+            int bound = OffHeapTranspositionTable.boundOf(entry);
+            if (bound == OffHeapTranspositionTable.EXACT
+                    || bound == OffHeapTranspositionTable.LOWER && value >= beta
+                    || bound == OffHeapTranspositionTable.UPPER && value <= alpha) {
+                return value;
+            }
+            ttMove = OffHeapTranspositionTable.moveOf(entry);
+        }
+
+        long startNodes = nodesExpanded;
+        int[] moves = movesAt(depth);
+        int count = board.generateMoves(moves);
+        orderMoves(moves, keyBuffers[depth], count, ttMove);
+
+        boolean maximizing = board.current == board.starting;
+        int bestValue = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        int bestMove = moves[0];
+        int a = alpha;
+        int b = beta;
+
+        for (int k = 0; k < count; k++) {
+            int move = moves[k];
+            int dealt = board.apply(move);
+            countNode();
+            int value = board.isTerminal() ? board.utility() : alphaBeta(depth + 1, a, b);
+            board.undo(move, dealt);
+
+            if (maximizing ? value > bestValue : value < bestValue) {
+                bestValue = value;
+                bestMove = move;
+                if (depth == 0) {
+                    bestRootMove = move;
+                    rootMoveFound = true;
+                    if (progress != null) {
+                        progress.rootImproved(value, new IterativeSearch.Line(move, null), true);
+                    }
+                }
+            }
+            if (maximizing) {
+                a = Math.max(a, bestValue);
+            } else {
+                b = Math.min(b, bestValue);
+            }
+            if (b <= a) break;
+        }
+
+        // Fail-soft: outside the original window the value is only a bound
+        int bound = bestValue <= alpha ? OffHeapTranspositionTable.UPPER
+                : bestValue >= beta ? OffHeapTranspositionTable.LOWER
+                : OffHeapTranspositionTable.EXACT;
+        table.store(key, bestValue, bound, board.moveIndex(bestMove), nodesExpanded - startNodes + 1);
+        return bestValue;
+    }
+
+    /**
+     * Walk from the root to a terminal state, at every step playing the
+     * first child (in search order) whose value equals the root value.
+     */
+    private IterativeSearch.Line principalVariation(int value) {
+        int[] path = new int[64];
+        int length = 0;
+
+        while (!board.isTerminal()) {
+            int[] moves = movesAt(length);
+            int count = board.generateMoves(moves);
+            long entry = table.probe(board.hash ^ scenarioKey);
+            int ttMove = entry != 0 ? OffHeapTranspositionTable.moveOf(entry) : OffHeapTranspositionTable.NO_MOVE;
+            orderMoves(moves, keyBuffers[length], count, ttMove);
+
+            int chosen = -1;
+            for (int k = 0; k < count && chosen < 0; k++) {
+                int move = moves[k];
+                int dealt = board.apply(move);
+                countNode();
+                int childValue = board.isTerminal() ? board.utility() : alphaBeta(length + 1, value - 1, value + 1);
+                if (childValue == value) {
+                    chosen = move; // keep it applied and continue from the child
+                } else {
+                    board.undo(move, dealt);
+                }
+            }
+            if (chosen < 0) {
+                throw new IllegalStateException("No move reproduces the root value " + value);
+            }
+            if (length == path.length) {
+                path = java.util.Arrays.copyOf(path, length * 2);
+            }
+            path[length++] = chosen;
+        }
+
+        IterativeSearch.Line line = null;
+        for (int i = length - 1; i >= 0; i--) {
+            line = new IterativeSearch.Line(path[i], line);
+        }
+        return line;
+    }
+
+    /**
+     * Table move first, then the usual "most damage dealt first" order;
+     * insertion sort keeps ties in generation order.
+     */
+    private void orderMoves(int[] moves, int[] keys, int count, int ttMove) {
+        for (int k = 0; k < count; k++) {
+            int move = moves[k];
+            int key = board.moveIndex(move) == ttMove ? Integer.MAX_VALUE : board.damageDealt(move);
+            int i = k - 1;
+            while (i >= 0 && keys[i] < key) {
+                keys[i + 1] = keys[i];
+                moves[i + 1] = moves[i];
+                i--;
+            }
+            keys[i + 1] = key;
+            moves[i + 1] = move;
+        }
+    }
+
+    private void countNode() {
+        if ((++nodesExpanded & checkMask) == 0 && control != null && control.shouldStop()) {
+            throw new SearchAbortedException();
+        }
+    }
+
+    /**
+     * Move list for the given depth; also makes sure the ordering keys exist
+     * for that depth.
+     */
+    private int[] movesAt(int depth) {
+        if (depth >= moveBuffers.length) {
+            int length = Math.max(depth + 1, moveBuffers.length * 2);
+            moveBuffers = java.util.Arrays.copyOf(moveBuffers, length);
+            keyBuffers = java.util.Arrays.copyOf(keyBuffers, length);
+        }
+        if (moveBuffers[depth] == null) {
+            if (governor != null) governor.charge(8L * board.maxBranching() + 32);
+            moveBuffers[depth] = new int[board.maxBranching()];
+            keyBuffers[depth] = new int[board.maxBranching()];
+        }
+        return moveBuffers[depth];
+    }
+}
@@ -0,0 +1,177 @@
+//src/main/java/battle/TreeSizeEstimator.java
+
+package battle;
+
+import java.util.SplittableRandom;
+
+/**
+ * TreeSizeEstimator predicts how large a search will be before running it,
+ * using Knuth's random probing: walk random paths from the root to a
+ * terminal state and, along each path, accumulate the product of branching
+ * factors seen so far. The average over probes is an unbiased estimate of the
+ * full game tree size (what plain minimax expands).
+ *
+ * The same probes also estimate the Knuth-Moore minimal alpha-beta tree by
+ * multiplying branching factors on alternating plies only. Real alpha-beta
+ * expands more than the minimal tree; {@link EngineCostModel} learns that
+ * overhead from finished solves.
+ *
+ * Engines that visit each position once (ALPHA_BETA_TT, LAYERED) are bounded
+ * by the number of distinct positions instead: at most the product over
+ * all units of the health values the enemy's damages can leave it with,
+ * times the two sides to move, and never more than the tree itself.
+ *
+ * Probing costs O(probes * depth * branching) and allocates one board.
+ */
+public final class TreeSizeEstimator {
+    private final int probes;
+    private final long seed;
+
+    /**
+     * @param probes number of random root-to-terminal walks (more = lower variance)
+     * @param seed   seed of the random walks, so estimates are reproducible
+     */
+    public TreeSizeEstimator(int probes, long seed) {
+        this.probes = Math.max(1, probes);
+        this.seed = seed;
+    }
+
+    /**
+     * Estimate the search tree of the given input ("h,d,...;h,d,...;P").
+     */
+    public Estimate estimate(String initialStateString) {
+        return estimate(BattleBoard.parse(initialStateString));
+    }
+
+    Estimate estimate(BattleBoard root) {
+        SplittableRandom random = new SplittableRandom(seed);
+        BattleBoard board = root.copy();
+        int[] moves = new int[board.maxBranching()];
+
+        double sumTree = 0;
+        double sumMinimal = 0;
+        long sumDepth = 0;
+        long sumBranching = 0;
+        long branchingSamples = 0;
+
+        for (int p = 0; p < probes; p++) {
+            board.copyFrom(root);
+            double width = 1;      // nodes at the current depth along this probe
+            double evenWidth = 1;  // product of branching on even plies
+            double oddWidth = 1;   // product of branching on odd plies
+            double tree = 1;
+            double minimal = 1;
+            int depth = 0;
+
+            while (!board.isTerminal()) {
+                int count = board.generateMoves(moves);
+                sumBranching += count;
+                branchingSamples++;
+
+                width *= count;
+                if ((depth & 1) == 0) evenWidth *= count; else oddWidth *= count;
+                tree += width;
+                minimal += evenWidth + oddWidth - 1;
+
+                board.apply(moves[random.nextInt(count)]);
+                depth++;
+            }
+
+            sumTree += tree;
+            sumMinimal += minimal;
+            sumDepth += depth;
+        }
+
+        double positions = 2;
+        for (int side = 0; side < 2; side++) {
+            for (int h : root.health[side]) {
+                positions *= reachableHealths(h, root.damage[1 - side]);
+            }
+        }
+        return new Estimate(sumTree / probes, sumMinimal / probes, Math.min(positions, sumTree / probes),
+                (double) sumDepth / probes,
+                branchingSamples == 0 ? 0 : (double) sumBranching / branchingSamples, probes);
+    }
+
+    /**
+     * Number of values a unit's health can take (0 included) when any of
+     * the given enemy damages may hit it any number of times.
+     */
+    static int reachableHealths(int health, int[] enemyDamage) {
+        if (health <= 0) return 1;
+        if (health > 1 << 16) return health + 1; // not worth enumerating: use the plain bound
+        boolean[] reached = new boolean[health + 1];
+        reached[health] = true;
+        int count = 1;
+        for (int h = health; h > 0; h--) {
+            if (!reached[h]) continue;
+            for (int d : enemyDamage) {
+                int next = Math.max(0, h - d);
+                if (d > 0 && !reached[next]) {
+                    reached[next] = true;
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Result of probing: expected full tree size, minimal alpha-beta tree
+     * size, bound on distinct positions, average game length and average
+     * branching factor.
+     */
+    public static final class Estimate {
+        private final double treeNodes;
+        private final double minimalTreeNodes;
+        private final double distinctPositions;
+        private final double averageDepth;
+        private final double averageBranching;
+        private final int probes;
+
+        Estimate(double treeNodes, double minimalTreeNodes, double distinctPositions, double averageDepth,
+                 double averageBranching, int probes) {
+            this.treeNodes = treeNodes;
+            this.minimalTreeNodes = minimalTreeNodes;
+            this.distinctPositions = distinctPositions;
+            this.averageDepth = averageDepth;
+            this.averageBranching = averageBranching;
+            this.probes = probes;
+        }
+
+        /** Expected number of nodes in the full game tree (plain minimax). */
+        public double getTreeNodes() {
+            return treeNodes;
+        }
+
+        /** Expected number of nodes in the minimal alpha-beta tree. */
+        public double getMinimalTreeNodes() {
+            return minimalTreeNodes;
+        }
+
+        /** Upper bound on the distinct positions reachable from the root. */
+        public double getDistinctPositions() {
+            return distinctPositions;
+        }
+
+        /** Average number of moves until the game ends. */
+        public double getAverageDepth() {
+            return averageDepth;
+        }
+
+        /** Average number of legal moves per position. */
+        public double getAverageBranching() {
+            return averageBranching;
+        }
+
+        public int getProbes() {
+            return probes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("tree=%.3g minimal=%.3g positions=%.3g depth=%.1f branching=%.1f probes=%d",
+                    treeNodes, minimalTreeNodes, distinctPositions, averageDepth, averageBranching, probes);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+//src/main/java/battle/VectorArmyKernels.java
+
+package battle;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link ArmyKernels} on the Vector API, using the platform's preferred
+ * integer species (8 lanes with AVX2, 16 with AVX-512). Loaded reflectively
+ * by ArmyKernels so the rest of the solver never links against the
+ * incubator module. Arrays shorter than minUnits, and the tail after the
+ * last full vector, go through the scalar loops.
+ */
+final class VectorArmyKernels extends ArmyKernels {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private final int minUnits;
+    private final ArmyKernels.Scalar scalar = new ArmyKernels.Scalar();
+
+    VectorArmyKernels(int minUnits) {
+        this.minUnits = Math.max(SPECIES.length(), minUnits);
+    }
+
+    @Override
+    public String name() {
+        return "vector(" + SPECIES.length() + " lanes)";
+    }
+
+    @Override
+    public int sumHealth(int[] health) {
+        if (health.length < minUnits) {
+            return scalar.sumHealth(health);
+        }
+        int bound = SPECIES.loopBound(health.length);
+        IntVector acc = IntVector.zero(SPECIES);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            acc = acc.add(IntVector.fromArray(SPECIES, health, i));
+        }
+        return scalar.sumHealth(health, bound, acc.reduceLanes(VectorOperators.ADD));
+    }
+
+    @Override
+    public int killMask(int[] health, int damage, long[] mask) {
+        if (health.length < minUnits) {
+            return scalar.killMask(health, damage, mask);
+        }
+        java.util.Arrays.fill(mask, 0L);
+        int bound = SPECIES.loopBound(health.length);
+        int count = 0;
+        // Lane counts divide 64, so a vector's bits never straddle two mask words
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            IntVector h = IntVector.fromArray(SPECIES, health, i);
+            VectorMask<Integer> kills = h.compare(VectorOperators.GT, 0).and(h.compare(VectorOperators.LE, damage));
+            long bits = kills.toLong();
+            mask[i >>> 6] |= bits << (i & 63);
+            count += Long.bitCount(bits);
+        }
+        return count + scalar.killMask(health, damage, mask, bound);
+    }
+
+    @Override
+    public int bestTarget(int[] health, int damage) {
+        if (health.length < minUnits) {
+            return scalar.bestTarget(health, damage);
+        }
+        int bound = SPECIES.loopBound(health.length);
+
+        // Pass 1: the best score over all targets
+        IntVector best = IntVector.broadcast(SPECIES, -1);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            best = best.max(scores(health, i, damage));
+        }
+        int bestScore = best.reduceLanes(VectorOperators.MAX);
+        for (int j = bound; j < health.length; j++) {
+            bestScore = Math.max(bestScore, targetScore(health[j], damage));
+        }
+        if (bestScore < 0) {
+            return -1;
+        }
+
+        // Pass 2: the first target reaching it
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            VectorMask<Integer> hit = scores(health, i, damage).compare(VectorOperators.EQ, bestScore);
+            if (hit.anyTrue()) {
+                return i + hit.firstTrue();
+            }
+        }
+        for (int j = bound; j < health.length; j++) {
+            if (targetScore(health[j], damage) == bestScore) return j;
+        }
+        return -1;
+    }
+
+    // Vector form of ArmyKernels.targetScore for lanes i .. i + length - 1
+    private static IntVector scores(int[] health, int i, int damage) {
+        IntVector h = IntVector.fromArray(SPECIES, health, i);
+        VectorMask<Integer> kill = h.compare(VectorOperators.LE, damage);
+        VectorMask<Integer> dead = h.compare(VectorOperators.LE, 0);
+        return IntVector.broadcast(SPECIES, damage)
+                .blend(h.add(KILL_BONUS), kill)
+                .blend(-1, dead);
+    }
+}
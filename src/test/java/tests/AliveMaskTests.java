@@ -0,0 +1,79 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.Engine;
+import battle.Node.GameState;
+import battle.Node.Unit;
+import battle.SolveOptions;
+import battle.SolveResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.time.Duration;
+
+public class AliveMaskTests {
+
+    private static String army(int units, int health, int damage) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < units; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(health).append(',').append(damage);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void test_dead_units_in_input_are_skipped() {
+        // Units 0 and 2 of A start dead: only unit 1 may ever attack
+        String initialState = "0,9,4,1,0,9;3,1;A;";
+        String sol = new BattleSolver().solve(initialState, true, false);
+        assertTrue(sol.startsWith("A(1,0),"), sol);
+        BattleGameChecker.ValidationResult validation = BattleGameChecker.validateSolution(initialState, sol, 0, false);
+        assertTrue(validation.isValid, validation.errorMessage);
+    }
+
+    @Test
+    public void test_multi_word_masks_beyond_64_units() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            // 70 units on A (two words) against 2 strong units on B
+            String initialState = army(70, 1, 1) + ";2,1,1,1;A;";
+            for (Engine engine : new Engine[] { Engine.ALPHA_BETA, Engine.ALPHA_BETA_TT, Engine.DEPTH_LIMITED, Engine.MCTS }) {
+                SolveResult result = new BattleSolver().solve(initialState,
+                        new SolveOptions().setEngine(engine).setMaxDepth(2).setMaxIterations(2000));
+                BattleGameChecker.ValidationResult validation =
+                        BattleGameChecker.validateSolution(initialState, result.toString(), result.getScore(), true);
+                assertTrue(validation.isValid, engine + ": " + validation.errorMessage);
+            }
+            SolveResult exact = new BattleSolver().solve(initialState, new SolveOptions());
+            assertEquals(68, exact.getScore(), "A loses two units before B's two are dead");
+        });
+    }
+
+    @Test
+    public void test_targets_beyond_first_word_are_attacked() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            // Only unit 65 of B is alive, so every A move must target index 65
+            StringBuilder b = new StringBuilder(army(65, 0, 1)).append(",3,1");
+            String initialState = "5,1;" + b + ";A;";
+            String sol = new BattleSolver().solve(initialState, true, false);
+            assertTrue(sol.startsWith("A(0,65),B(65,0),A(0,65)"), sol);
+            BattleGameChecker.ValidationResult validation = BattleGameChecker.validateSolution(initialState, sol, 0, false);
+            assertTrue(validation.isValid, validation.errorMessage);
+        });
+    }
+
+    @Test
+    public void test_public_state_built_through_lists_is_not_terminal() {
+        // The no-arg constructor has no masks for units added later through the army lists
+        GameState state = new GameState();
+        state.getArmyA().add(new Unit(3, 1));
+        state.getArmyB().add(new Unit(2, 1));
+        assertFalse(state.isTerminal());
+        state.getArmyB().set(0, new Unit(0, 1));
+        assertTrue(state.isTerminal());
+    }
+}
@@ -0,0 +1,110 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.Engine;
+import battle.SearchControl;
+import battle.SolveOptions;
+import battle.SolveResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncSolveTests {
+
+    // Far too large for exact search to finish within the tests' time limits
+    private static final String HUGE_STATE = "20,3,19,3,18,3,17,3,16,3,15,3;20,3,19,3,18,3,17,3,16,3,15,3;A;";
+
+    @Test
+    public void test_async_matches_sync() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            String initialState = "7,3,11,9;2,8,4,10,1,6,5,1;A;";
+            String sync = new BattleSolver().solve(initialState, true, false);
+            SolveResult async = new BattleSolver().solveAsync(initialState, new SolveOptions()).get();
+            assertEquals(sync, async.toString());
+            assertEquals(SolveResult.Status.EXACT, async.getStatus());
+        });
+    }
+
+    @Test
+    public void test_deadline_times_out_with_partial_line() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            for (boolean explicitStack : new boolean[] { false, true }) {
+                long start = System.nanoTime();
+                SolveResult result = new BattleSolver().solve(HUGE_STATE,
+                        new SolveOptions().setDeadlineMillis(200).setExplicitStack(explicitStack));
+                long millis = (System.nanoTime() - start) / 1_000_000;
+
+                assertEquals(SolveResult.Status.TIMEOUT, result.getStatus());
+                assertFalse(result.isExact());
+                assertTrue(millis < 5000, "Search should stop soon after the deadline, took " + millis + " ms");
+                assertTrue(result.getNodesExpanded() > 0);
+                if (!result.getPlan().isEmpty()) {
+                    String sol = result.getPlan() + ";" + result.getScore() + ";" + result.getNodesExpanded();
+                    BattleGameChecker.ValidationResult validation = BattleGameChecker.validateSolution(HUGE_STATE, sol, 0, false);
+                    assertTrue(validation.isValid, "Partial line should be legal: " + validation.errorMessage);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void test_cancel_returns_partial_result() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            SearchControl control = new SearchControl(256);
+            CompletableFuture<SolveResult> future = new BattleSolver().solveAsync(HUGE_STATE,
+                    new SolveOptions().setControl(control));
+            Thread.sleep(100);
+            control.cancel();
+
+            SolveResult result = future.get();
+            assertEquals(SolveResult.Status.CANCELLED, result.getStatus());
+            assertTrue(result.getNodesExpanded() > 0);
+            assertSame(result, control.getResult());
+        });
+    }
+
+    @Test
+    public void test_future_cancel_stops_worker() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            SearchControl control = new SearchControl();
+            CompletableFuture<SolveResult> future = new BattleSolver().solveAsync(HUGE_STATE,
+                    new SolveOptions().setControl(control));
+            Thread.sleep(100);
+            assertTrue(future.cancel(true));
+            assertThrows(CancellationException.class, future::join);
+            assertTrue(control.isCancelled());
+
+            // The worker notices the cancellation and publishes its partial result
+            while (control.getResult() == null) {
+                Thread.sleep(10);
+            }
+            assertEquals(SolveResult.Status.CANCELLED, control.getResult().getStatus());
+        });
+    }
+
+    @Test
+    public void test_mcts_honours_cancellation() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            SearchControl control = new SearchControl();
+            CompletableFuture<SolveResult> future = new BattleSolver().solveAsync(HUGE_STATE,
+                    new SolveOptions().setEngine(Engine.MCTS).setMaxIterations(0).setTimeLimitMillis(60_000)
+                            .setControl(control));
+            Thread.sleep(100);
+            control.cancel();
+
+            SolveResult result = future.get();
+            assertEquals(SolveResult.Status.CANCELLED, result.getStatus());
+            // MCTS always completes its line, so the plan is a full legal game
+            String sol = result.getPlan() + ";" + result.getScore() + ";" + result.getNodesExpanded();
+            BattleGameChecker.ValidationResult validation = BattleGameChecker.validateSolution(HUGE_STATE, sol, 0, false);
+            assertTrue(validation.isValid, validation.errorMessage);
+        });
+    }
+}
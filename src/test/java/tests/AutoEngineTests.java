@@ -0,0 +1,108 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.Engine;
+import battle.EngineSelection;
+import battle.SolveOptions;
+import battle.SolveResult;
+import battle.TreeSizeEstimator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.time.Duration;
+
+public class AutoEngineTests {
+
+    private static final String LARGE_STATE =
+            "9,3,8,2,7,4,10,1,6,3,9,2,8,3,7,1,5,4,6,2,9,1,10,3;" +
+            "8,2,9,3,6,1,7,4,10,2,5,3,9,4,8,1,7,2,6,3,10,1,9,2;A;";
+
+    // Equal units: a huge tree but few distinct positions
+    private static final String TRANSPOSING_STATE = "5,2,5,2,5,2,5,2,5,2;4,2,4,2,4,2,4,2;A;";
+
+    @Test
+    public void test_estimate_is_exact_without_branching() {
+        // One legal move per position: every probe walks the whole tree
+        TreeSizeEstimator.Estimate estimate = new TreeSizeEstimator(8, 1).estimate("5,3;4,1;A;");
+        String sol = new BattleSolver().solve("5,3;4,1;A;", false, false);
+        assertEquals(Long.parseLong(sol.split(";")[2]), Math.round(estimate.getTreeNodes()));
+    }
+
+    @Test
+    public void test_estimate_orders_instances_by_size() {
+        double small = new TreeSizeEstimator(128, 1).estimate("1,1,2,3,6,7;5,5,3,1;A;").getTreeNodes();
+        double large = new TreeSizeEstimator(128, 1).estimate(LARGE_STATE).getTreeNodes();
+        assertTrue(large > small * 1000, "Large armies should predict a much larger tree");
+    }
+
+    @Test
+    public void test_auto_picks_exact_engine_for_small_input() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            String initialState = "7,3,11,9;2,8,4,10,1,6,5,1;A;";
+            SolveResult result = new BattleSolver().solve(initialState,
+                    new SolveOptions().setEngine(Engine.AUTO).setTimeLimitMillis(1000));
+
+            EngineSelection selection = result.getSelection();
+            assertNotNull(selection);
+            assertEquals(Engine.ALPHA_BETA, selection.getChosen());
+            assertEquals(Engine.ALPHA_BETA, result.getEngine());
+            assertTrue(result.isExact());
+            assertEquals(new BattleSolver().solve(initialState, new SolveOptions()).getScore(), result.getScore());
+            assertEquals(result.getNodesExpanded(), selection.getActualNodes());
+            assertTrue(selection.getNodeError() > 0);
+        });
+    }
+
+    @Test
+    public void test_auto_falls_back_to_anytime_engine_for_large_input() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            SolveResult result = new BattleSolver().solve(LARGE_STATE,
+                    new SolveOptions().setEngine(Engine.AUTO).setTimeLimitMillis(300));
+
+            assertFalse(result.isExact());
+            assertNotEquals(Engine.ALPHA_BETA, result.getSelection().getChosen());
+            assertTrue(result.getSelection().getActualMillis() < 5_000);
+            BattleGameChecker.ValidationResult validation =
+                    BattleGameChecker.validateSolution(LARGE_STATE, result.toString(), 0, false);
+            assertTrue(validation.isValid, "AUTO plan should be legal: " + validation.errorMessage);
+        });
+    }
+
+    @Test
+    public void test_auto_picks_memoized_engine_when_alpha_beta_does_not_fit() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            SolveResult result = new BattleSolver().solve(TRANSPOSING_STATE,
+                    new SolveOptions().setEngine(Engine.AUTO).setTimeLimitMillis(1000));
+
+            EngineSelection selection = result.getSelection();
+            assertTrue(selection.getPredictedMillis().get(Engine.ALPHA_BETA) > 1000, selection.toString());
+            assertEquals(Engine.ALPHA_BETA_TT, selection.getChosen(), selection.toString());
+            assertTrue(result.isExact());
+            assertEquals(new BattleSolver().solve(TRANSPOSING_STATE,
+                    new SolveOptions().setEngine(Engine.ALPHA_BETA_TT)).getScore(), result.getScore());
+        });
+    }
+
+    @Test
+    public void test_auto_picks_layered_when_the_table_is_too_small() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            SolveOptions options = new SolveOptions().setEngine(Engine.AUTO).setTimeLimitMillis(1000)
+                    .setTableBytes(1 << 16);
+            SolveResult result = new BattleSolver().solve(TRANSPOSING_STATE, options);
+
+            assertEquals(Engine.LAYERED, result.getSelection().getChosen(), result.getSelection().toString());
+            assertTrue(result.isExact());
+            assertEquals(new BattleSolver().solve(TRANSPOSING_STATE,
+                    new SolveOptions().setEngine(Engine.LAYERED)).toString(), result.toString());
+
+            // Layers that would not fit the memory budget rule LAYERED out
+            SolveResult bounded = new BattleSolver().solve(TRANSPOSING_STATE,
+                    options.copy().setMemoryBudgetBytes(1 << 20));
+            assertNotEquals(Engine.LAYERED, bounded.getSelection().getChosen());
+        });
+    }
+}
@@ -0,0 +1,72 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.DistributedSolver;
+import battle.Engine;
+import battle.SolveOptions;
+import battle.SolveResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.time.Duration;
+
+public class DistributedTests {
+
+    private static final String[] STATES = {
+            "5,3;4,1;A;",
+            "1,1,2,3,6,7;5,5,3,1;A;",
+            "1,1,2,3,6,7;5,5,3,1;B;",
+            "7,3,11,9;2,8,4,10,1,6,5,1;A;",
+            "1,10,5,2,3,5;6,7,3,1,13,4;B;",
+            "4,2,6,3,5,1,3,4;5,2,4,3,6,1,2,2;A;",
+    };
+
+    @Test
+    public void test_workers_match_exact_value_with_legal_plans() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            try (DistributedSolver solver = new DistributedSolver(3, 1L << 20)) {
+                assertEquals(3, solver.getWorkers());
+                for (String initialState : STATES) {
+                    SolveResult expected = new BattleSolver().solve(initialState,
+                            new SolveOptions().setEngine(Engine.ALPHA_BETA_TT));
+                    SolveResult result = solver.solve(initialState);
+
+                    assertTrue(result.isExact());
+                    assertEquals(expected.getScore(), result.getScore(), "Distributed value for " + initialState);
+                    BattleGameChecker.ValidationResult validation = BattleGameChecker.validateSolution(
+                            initialState, result.toString(), result.getScore(), false);
+                    assertTrue(validation.isValid, "Distributed plan should be legal: " + validation.errorMessage);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void test_more_workers_than_root_moves() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            try (DistributedSolver solver = new DistributedSolver(4, 1L << 20)) {
+                // One root move: three workers go idle at once and find nothing to steal
+                SolveResult result = solver.solve("5,3;4,1;A;");
+                assertEquals(new BattleSolver().solve("5,3;4,1;A;", new SolveOptions()).getScore(), result.getScore());
+                assertEquals("", solver.solve("0,3;4,1;A;").getPlan());
+            }
+        });
+    }
+
+    @Test
+    public void test_repeated_solves_choose_the_same_root_move() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            String initialState = "7,3,11,9;2,8,4,10,1,6,5,1;B;";
+            try (DistributedSolver solver = new DistributedSolver(2, 1L << 20)) {
+                String first = solver.solve(initialState).getPlan().split("\\),")[0];
+                for (int run = 0; run < 3; run++) {
+                    assertEquals(first, solver.solve(initialState).getPlan().split("\\),")[0]);
+                }
+            }
+        });
+    }
+}
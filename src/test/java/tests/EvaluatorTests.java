@@ -0,0 +1,71 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.Engine;
+import battle.Evaluator;
+import battle.Evaluators;
+import battle.SolveOptions;
+import battle.SolveResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.time.Duration;
+
+public class EvaluatorTests {
+
+    private static final String LARGE_STATE =
+            "9,3,8,2,7,4,10,1,6,3,9,2,8,3,7,1,5,4,6,2,9,1,10,3;" +
+            "8,2,9,3,6,1,7,4,10,2,5,3,9,4,8,1,7,2,6,3,10,1,9,2;A;";
+
+    private static final Evaluator[] BUILT_INS = {
+            Evaluators.HEALTH_DIFFERENCE,
+            Evaluators.DAMAGE_WEIGHTED_THREAT,
+            Evaluators.HITS_TO_KILL_RACE,
+    };
+
+    @Test
+    public void test_deep_horizon_matches_exact() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            String[] states = {"5,3;4,1;A;", "1,1,2,3,6,7;5,5,3,1;A;", "7,3,11,9;2,8,4,10,1,6,5,1;B;"};
+            for (String initialState : states) {
+                int exact = new BattleSolver().solve(initialState, new SolveOptions()).getScore();
+                for (Evaluator evaluator : BUILT_INS) {
+                    SolveResult result = new BattleSolver().solve(initialState, new SolveOptions()
+                            .setEngine(Engine.DEPTH_LIMITED).setMaxDepth(64).setEvaluator(evaluator));
+                    assertEquals(exact, result.getScore(), "Full-depth search must be exact for " + initialState);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void test_shallow_plans_are_valid_on_large_armies() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            for (Evaluator evaluator : BUILT_INS) {
+                SolveResult result = new BattleSolver().solve(LARGE_STATE, new SolveOptions()
+                        .setEngine(Engine.DEPTH_LIMITED).setMaxDepth(2).setEvaluator(evaluator));
+
+                assertFalse(result.isExact());
+                BattleGameChecker.ValidationResult validation =
+                        BattleGameChecker.validateSolution(LARGE_STATE, result.toString(), 0, false);
+                assertTrue(validation.isValid, "Depth-limited plan should be legal: " + validation.errorMessage);
+            }
+        });
+    }
+
+    @Test
+    public void test_custom_evaluator_is_called() {
+        int[] calls = {0};
+        Evaluator counting = state -> {
+            calls[0]++;
+            return Evaluators.HEALTH_DIFFERENCE.evaluate(state);
+        };
+        new BattleSolver().solve("7,3,11,9;2,8,4,10,1,6,5,1;A;",
+                new SolveOptions().setEngine(Engine.DEPTH_LIMITED).setMaxDepth(2).setEvaluator(counting));
+        assertTrue(calls[0] > 0);
+    }
+}
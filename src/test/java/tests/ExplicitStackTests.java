@@ -0,0 +1,73 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.Engine;
+import battle.SolveOptions;
+import battle.SolveResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.time.Duration;
+
+public class ExplicitStackTests {
+
+    private static final String[] STATES = {
+            "5,3;4,1;A;",
+            "5,3;4,1;B;",
+            "1,1,2,3,6,7;5,5,3,1;A;",
+            "1,1,2,3,6,7;5,5,3,1;B;",
+            "7,3,11,9;2,8,4,10,1,6,5,1;A;",
+            "7,3,11,9;2,8,4,10,1,6,5,1;B;",
+            "1,10,5,2,3,5;6,7,3,1,13,4;A;",
+    };
+
+    @Test
+    public void test_alphabeta_identical_to_recursive() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            for (String initialState : STATES) {
+                String recursive = new BattleSolver().solve(initialState, true, false);
+                String iterative = new BattleSolver().solve(initialState,
+                        new SolveOptions().setEngine(Engine.ALPHA_BETA).setExplicitStack(true)).toString();
+                assertEquals(recursive, iterative, "Plan, score and nodes must match for " + initialState);
+            }
+        });
+    }
+
+    @Test
+    public void test_minimax_identical_to_recursive() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            for (int i = 0; i < 6; i++) {
+                String initialState = STATES[i];
+                String recursive = new BattleSolver().solve(initialState, false, false);
+                String iterative = new BattleSolver().solve(initialState,
+                        new SolveOptions().setEngine(Engine.MINIMAX).setExplicitStack(true)).toString();
+                assertEquals(recursive, iterative, "Plan, score and nodes must match for " + initialState);
+            }
+        });
+    }
+
+    @Test
+    public void test_very_deep_game() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            // 10000 hits per side: far deeper than the recursive engines can go
+            String initialState = "10000,1;10000,1;A;";
+            SolveResult result = new BattleSolver().solve(initialState,
+                    new SolveOptions().setEngine(Engine.ALPHA_BETA).setExplicitStack(true));
+
+            assertEquals(1, result.getScore());
+            assertEquals(19999, result.getPlan().chars().filter(c -> c == ')').count());
+            assertEquals(20000, result.getNodesExpanded());
+        });
+    }
+
+    @Test
+    public void test_stack_memory_limit_is_enforced() {
+        SolveOptions options = new SolveOptions().setEngine(Engine.MINIMAX).setExplicitStack(true)
+                .setStackMemoryBytes(1024);
+        assertThrows(IllegalStateException.class, () -> new BattleSolver().solve("10000,1;10000,1;A;", options));
+    }
+}
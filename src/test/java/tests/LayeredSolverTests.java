@@ -0,0 +1,101 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.Engine;
+import battle.SolveOptions;
+import battle.SolveResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.time.Duration;
+
+public class LayeredSolverTests {
+
+    private static final String[] STATES = {
+            "5,3;4,1;A;",
+            "1,1,2,3,6,7;5,5,3,1;A;",
+            "1,1,2,3,6,7;5,5,3,1;B;",
+            "7,3,11,9;2,8,4,10,1,6,5,1;A;",
+            "1,10,5,2,3,5;6,7,3,1,13,4;A;",
+            "1,10,5,2,3,5;6,7,3,1,13,4;B;",
+    };
+
+    @Test
+    public void test_matches_alpha_beta() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            for (String initialState : STATES) {
+                int expected = Integer.parseInt(new BattleSolver().solve(initialState, true, false).split(";")[1]);
+                SolveResult result = new BattleSolver().solve(initialState, new SolveOptions().setEngine(Engine.LAYERED));
+                assertEquals(Engine.LAYERED, result.getEngine());
+                assertTrue(result.isExact());
+                BattleGameChecker.ValidationResult validation =
+                        BattleGameChecker.validateSolution(initialState, result.toString(), expected, true);
+                assertTrue(validation.isValid, initialState + ": " + validation.errorMessage);
+            }
+        });
+    }
+
+    @Test
+    public void test_parallel_matches_sequential() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            String initialState = "4,2,6,3,5,1,3,2;5,2,4,3,6,1,2,2;A;";
+            SolveResult sequential = new BattleSolver().solve(initialState, new SolveOptions().setEngine(Engine.LAYERED));
+            SolveResult parallel = new BattleSolver().solve(initialState,
+                    new SolveOptions().setEngine(Engine.LAYERED).setThreads(4));
+            assertEquals(sequential.toString(), parallel.toString());
+            int expected = new BattleSolver().solve(initialState,
+                    new SolveOptions().setEngine(Engine.ALPHA_BETA_TT)).getScore();
+            assertEquals(expected, parallel.getScore());
+        });
+    }
+
+    @Test
+    public void test_each_transposition_expanded_once() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            String initialState = "7,3,11,9;2,8,4,10,1,6,5,1;A;";
+            long minimaxNodes = Long.parseLong(new BattleSolver().solve(initialState, false, false).split(";")[2]);
+            long layeredNodes = new BattleSolver().solve(initialState,
+                    new SolveOptions().setEngine(Engine.LAYERED)).getNodesExpanded();
+            assertTrue(layeredNodes * 10 < minimaxNodes, layeredNodes + " vs " + minimaxNodes);
+        });
+    }
+
+    @Test
+    public void test_finished_layers_are_released() {
+        // Only the layers a parent can still reach are held, so a small budget suffices
+        String initialState = "7,3,11,9;2,8,4,10,1,6,5,1;A;";
+        SolveResult result = new BattleSolver().solve(initialState,
+                new SolveOptions().setEngine(Engine.LAYERED).setMemoryBudgetBytes(12 << 10));
+        assertEquals(Engine.LAYERED, result.getEngine());
+        assertTrue(result.isExact());
+        assertEquals(new BattleSolver().solve(initialState, new SolveOptions()).getScore(), result.getScore());
+    }
+
+    @Test
+    public void test_stopped_solve_reports_work_done() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            String initialState = "9,3,8,2,7,4,10,1,6,3,9,2,8,3;8,2,9,3,6,1,7,4,10,2,5,3,9,4;A;";
+            SolveResult result = new BattleSolver().solve(initialState,
+                    new SolveOptions().setEngine(Engine.LAYERED).setDeadlineMillis(200));
+            assertEquals(SolveResult.Status.TIMEOUT, result.getStatus());
+            assertTrue(result.getNodesExpanded() > 0, "enumerated positions count as nodes");
+        });
+    }
+
+    @Test
+    public void test_terminal_and_unsupported_inputs() {
+        SolveResult terminal = new BattleSolver().solve("5,3;0,1;A;", new SolveOptions().setEngine(Engine.LAYERED));
+        assertEquals("", terminal.getPlan());
+        assertEquals(5, terminal.getScore());
+
+        // 84 health bits do not fit one packed long: falls back to the transposition-table search
+        String wide = "1048576,1048576,1048576,1048576;1048576,1048576,1048576,1048576;A;";
+        SolveResult fallback = new BattleSolver().solve(wide, new SolveOptions().setEngine(Engine.LAYERED));
+        assertEquals(Engine.ALPHA_BETA_TT, fallback.getEngine());
+        assertEquals(1048576, fallback.getScore());
+    }
+}
@@ -0,0 +1,73 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.Engine;
+import battle.SolveOptions;
+import battle.SolveResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.time.Duration;
+
+public class MctsTests {
+
+    // 12 units per side: far beyond what the exact engines finish in time
+    private static final String LARGE_STATE =
+            "9,3,8,2,7,4,10,1,6,3,9,2,8,3,7,1,5,4,6,2,9,1,10,3;" +
+            "8,2,9,3,6,1,7,4,10,2,5,3,9,4,8,1,7,2,6,3,10,1,9,2;A;";
+
+    @Test
+    public void test_mcts_plan_is_valid() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            String initialState = "7,3,11,9;2,8,4,10,1,6,5,1;A;";
+            SolveResult result = new BattleSolver().solve(initialState,
+                    new SolveOptions().setEngine(Engine.MCTS).setMaxIterations(20_000));
+
+            assertFalse(result.isExact());
+            BattleGameChecker.ValidationResult validation =
+                    BattleGameChecker.validateSolution(initialState, result.toString(), 0, false);
+            assertTrue(validation.isValid, "MCTS plan should be legal: " + validation.errorMessage);
+        });
+    }
+
+    @Test
+    public void test_mcts_finds_optimal_small_win() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            String initialState = "1,1,2,3,6,7;5,5,3,1;A;";
+            int exact = new BattleSolver().solve(initialState, new SolveOptions()).getScore();
+            SolveResult result = new BattleSolver().solve(initialState,
+                    new SolveOptions().setEngine(Engine.MCTS).setMaxIterations(50_000));
+            assertEquals(Integer.signum(exact), Integer.signum(result.getScore()));
+        });
+    }
+
+    @Test
+    public void test_mcts_large_army_parallel_time_bounded() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            long start = System.nanoTime();
+            SolveResult result = new BattleSolver().solve(LARGE_STATE, new SolveOptions()
+                    .setEngine(Engine.MCTS).setMaxIterations(0).setTimeLimitMillis(500).setThreads(4));
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            assertTrue(elapsedMillis < 5_000, "Time limit should bound the search, took " + elapsedMillis + "ms");
+            assertTrue(result.getNodesExpanded() > 1);
+            BattleGameChecker.ValidationResult validation =
+                    BattleGameChecker.validateSolution(LARGE_STATE, result.toString(), 0, false);
+            assertTrue(validation.isValid, "MCTS plan should be legal: " + validation.errorMessage);
+        });
+    }
+
+    @Test
+    public void test_mcts_single_thread_is_deterministic() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            SolveOptions options = new SolveOptions().setEngine(Engine.MCTS).setMaxIterations(5_000).setSeed(42);
+            String first = new BattleSolver().solve(LARGE_STATE, options).toString();
+            String second = new BattleSolver().solve(LARGE_STATE, options).toString();
+            assertEquals(first, second);
+        });
+    }
+}
@@ -0,0 +1,116 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.Engine;
+import battle.SolveOptions;
+import battle.SolveResult;
+import battle.SolveResult.MemoryStage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+public class MemoryBudgetTests {
+
+    private static final String STATE = "7,3,11,9;2,8,4,10,1,6,5,1;A;";
+    private static final int VALUE = 3;
+
+    private static void assertValid(String initialState, SolveResult result, int expected, boolean checkScore) {
+        BattleGameChecker.ValidationResult validation =
+                BattleGameChecker.validateSolution(initialState, result.toString(), expected, checkScore);
+        assertTrue(validation.isValid, validation.errorMessage);
+    }
+
+    @Test
+    public void test_no_budget_within_budget() {
+        SolveResult result = new BattleSolver().solve(STATE, new SolveOptions());
+        assertEquals(MemoryStage.WITHIN_BUDGET, result.getMemoryStage());
+        SolveResult roomy = new BattleSolver().solve(STATE,
+                new SolveOptions().setEngine(Engine.ALPHA_BETA_TT).setMemoryBudgetBytes(256L << 20));
+        assertEquals(MemoryStage.WITHIN_BUDGET, roomy.getMemoryStage());
+        assertEquals(VALUE, roomy.getScore());
+    }
+
+    @Test
+    public void test_table_shrunk_to_budget() {
+        SolveResult result = new BattleSolver().solve(STATE, new SolveOptions().setEngine(Engine.ALPHA_BETA_TT)
+                .setTableBytes(64L << 20).setMemoryBudgetBytes(1L << 20));
+        assertEquals(MemoryStage.SHRINK_CACHES, result.getMemoryStage());
+        assertEquals(Engine.ALPHA_BETA_TT, result.getEngine());
+        assertTrue(result.isExact());
+        assertValid(STATE, result, VALUE, true);
+    }
+
+    @Test
+    public void test_dropped_tree_restarts_exact() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            for (Engine engine : new Engine[] { Engine.MINIMAX, Engine.ALPHA_BETA, Engine.LAYERED }) {
+                SolveResult result = new BattleSolver().solve(STATE,
+                        new SolveOptions().setEngine(engine).setMemoryBudgetBytes(8 << 10));
+                assertEquals(MemoryStage.DROP_NODES, result.getMemoryStage(), engine.name());
+                assertEquals(Engine.ALPHA_BETA_TT, result.getEngine());
+                assertTrue(result.isExact());
+                assertValid(STATE, result, VALUE, true);
+            }
+        });
+    }
+
+    @Test
+    public void test_degraded_auto_solve_not_recorded() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            // The chosen engine hits the budget; the fallback's merged counts must not feed the cost model
+            SolveResult result = new BattleSolver().solve(STATE,
+                    new SolveOptions().setEngine(Engine.AUTO).setMemoryBudgetBytes(8 << 10));
+            assertEquals(MemoryStage.DROP_NODES, result.getMemoryStage());
+            assertNotEquals(result.getSelection().getChosen(), result.getEngine());
+            assertTrue(result.getNodesExpanded() > 0);
+            assertEquals(0, result.getSelection().getActualNodes());
+            assertValid(STATE, result, VALUE, true);
+        });
+    }
+
+    @Test
+    public void test_anytime_fallback_stays_legal() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            SolveResult result = new BattleSolver().solve(STATE,
+                    new SolveOptions().setEngine(Engine.ALPHA_BETA).setMemoryBudgetBytes(256));
+            assertEquals(MemoryStage.ANYTIME, result.getMemoryStage());
+            assertEquals(Engine.MCTS, result.getEngine());
+            assertFalse(result.isExact());
+            assertValid(STATE, result, 0, false);
+        });
+    }
+
+    @Test
+    public void test_mcts_tree_bounded() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            SolveOptions options = new SolveOptions().setEngine(Engine.MCTS).setMaxIterations(20_000);
+            SolveResult free = new BattleSolver().solve(STATE, options);
+            SolveResult bounded = new BattleSolver().solve(STATE, options.copy().setMemoryBudgetBytes(8 << 10));
+            assertEquals(MemoryStage.WITHIN_BUDGET, free.getMemoryStage());
+            assertEquals(MemoryStage.DROP_NODES, bounded.getMemoryStage());
+            assertTrue(bounded.getNodesExpanded() * 48 <= 8 << 10, "Tree nodes: " + bounded.getNodesExpanded());
+            assertTrue(bounded.getNodesExpanded() < free.getNodesExpanded());
+            assertValid(STATE, bounded, 0, false);
+        });
+    }
+
+    @Test
+    public void test_budgets_are_per_solve() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            BattleSolver solver = new BattleSolver();
+            CompletableFuture<SolveResult> tight = solver.solveAsync(STATE,
+                    new SolveOptions().setEngine(Engine.MINIMAX).setMemoryBudgetBytes(12 << 10));
+            CompletableFuture<SolveResult> free = solver.solveAsync(STATE, new SolveOptions().setEngine(Engine.MINIMAX));
+            assertEquals(MemoryStage.DROP_NODES, tight.get().getMemoryStage());
+            assertEquals(MemoryStage.WITHIN_BUDGET, free.get().getMemoryStage());
+            assertEquals(Engine.MINIMAX, free.get().getEngine());
+            assertEquals(VALUE, free.get().getScore());
+        });
+    }
+}
@@ -0,0 +1,108 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.MoveAnalysis;
+import battle.SolveOptions;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.time.Duration;
+import java.util.List;
+
+public class MultiPvTests {
+
+    private static final String[] STATES = {
+            "5,3;4,1;A;",
+            "1,1,2,3,6,7;5,5,3,1;A;",
+            "1,1,2,3,6,7;5,5,3,1;B;",
+            "7,3,11,9;2,8,4,10,1,6,5,1;A;",
+            "1,10,5,2,3,5;6,7,3,1,13,4;A;",
+    };
+
+    // Input string after the starting player plays attacker -> target; the opponent becomes P
+    private static String afterAction(String state, int attacker, int target) {
+        String[] parts = state.split(";");
+        boolean aMoves = parts[2].charAt(0) == 'A';
+        String[] own = parts[aMoves ? 0 : 1].split(",");
+        String[] opp = parts[aMoves ? 1 : 0].split(",");
+        int health = Integer.parseInt(opp[2 * target]);
+        int damage = Integer.parseInt(own[2 * attacker + 1]);
+        opp[2 * target] = String.valueOf(Math.max(0, health - damage));
+        String oppJoined = String.join(",", opp);
+        String a = aMoves ? parts[0] : oppJoined;
+        String b = aMoves ? oppJoined : parts[1];
+        return a + ";" + b + ";" + (aMoves ? 'B' : 'A') + ";";
+    }
+
+    @Test
+    public void test_every_root_move_has_exact_value() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            for (String initialState : STATES) {
+                List<MoveAnalysis> analysis = new BattleSolver().analyze(initialState, new SolveOptions());
+                int best = Integer.MIN_VALUE;
+                for (MoveAnalysis move : analysis) {
+                    String action = move.getAction();
+                    int attacker = action.charAt(2) - '0';
+                    int target = action.charAt(4) - '0';
+                    String child = afterAction(initialState, attacker, target);
+
+                    // A cold solve of the child scores it for the opponent
+                    int expected = -Integer.parseInt(new BattleSolver().solve(child, true, false).split(";")[1]);
+                    assertEquals(expected, move.getValue(), "Value of " + action + " in " + initialState);
+                    assertTrue(move.getLine().startsWith(action));
+                    BattleGameChecker.ValidationResult validation = BattleGameChecker.validateSolution(
+                            initialState, move.getLine() + ";" + move.getValue() + ";0", move.getValue(), true);
+                    assertTrue(validation.isValid, "Line of " + action + ": " + validation.errorMessage);
+                    best = Math.max(best, move.getValue());
+                }
+                int score = Integer.parseInt(new BattleSolver().solve(initialState, true, false).split(";")[1]);
+                assertEquals(score, best, "Best root value should be the game value for " + initialState);
+            }
+        });
+    }
+
+    @Test
+    public void test_root_moves_in_generation_order() {
+        List<MoveAnalysis> analysis = new BattleSolver().analyze("1,1,2,3,6,7;5,5,3,1;A;", new SolveOptions());
+        String[] expected = { "A(0,0)", "A(0,1)", "A(1,0)", "A(1,1)", "A(2,0)", "A(2,1)" };
+        assertEquals(expected.length, analysis.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], analysis.get(i).getAction());
+        }
+        assertTrue(new BattleSolver().analyze("5,3;0,1;A;", new SolveOptions()).isEmpty());
+    }
+
+    @Test
+    public void test_parallel_matches_sequential() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            String initialState = "1,10,5,2,3,5;6,7,3,1,13,4;A;";
+            List<MoveAnalysis> sequential = new BattleSolver().analyze(initialState, new SolveOptions());
+            List<MoveAnalysis> parallel = new BattleSolver().analyze(initialState, new SolveOptions().setThreads(4));
+            assertEquals(sequential.size(), parallel.size());
+            for (int i = 0; i < sequential.size(); i++) {
+                assertEquals(sequential.get(i).getAction(), parallel.get(i).getAction());
+                assertEquals(sequential.get(i).getValue(), parallel.get(i).getValue());
+            }
+        });
+    }
+
+    @Test
+    public void test_cheaper_than_one_solve_per_move() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            String initialState = "1,10,5,2,3,5;6,7,3,1,13,4;A;";
+            long analysisNodes = 0;
+            long perMoveNodes = 0;
+            for (MoveAnalysis move : new BattleSolver().analyze(initialState, new SolveOptions())) {
+                analysisNodes += move.getNodesExpanded();
+                String action = move.getAction();
+                String child = afterAction(initialState, action.charAt(2) - '0', action.charAt(4) - '0');
+                perMoveNodes += Long.parseLong(new BattleSolver().solve(child, true, false).split(";")[2]);
+            }
+            assertTrue(analysisNodes < perMoveNodes, analysisNodes + " vs " + perMoveNodes);
+        });
+    }
+}
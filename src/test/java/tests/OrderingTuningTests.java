@@ -0,0 +1,139 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.Engine;
+import battle.OrderingTuner;
+import battle.OrderingWeights;
+import battle.ScenarioGenerator.Tier;
+import battle.SolveOptions;
+import battle.SolveResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+public class OrderingTuningTests {
+
+    private static final OrderingWeights TUNED = new OrderingWeights(26, -1, 16, 24);
+
+    private static final String[] STATES = {
+            "5,3;4,1;A;",
+            "1,1,2,3,6,7;5,5,3,1;A;",
+            "1,1,2,3,6,7;5,5,3,1;B;",
+            "7,3,11,9;2,8,4,10,1,6,5,1;A;",
+            "1,10,5,2,3,5;6,7,3,1,13,4;B;",
+    };
+
+    @Test
+    public void test_default_weights_are_the_health_difference_order() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            for (String initialState : STATES) {
+                String classic = new BattleSolver().solve(initialState, true, false);
+                SolveResult explicit = new BattleSolver().solve(initialState,
+                        new SolveOptions().setOrderingWeights(OrderingWeights.DEFAULT));
+                assertEquals(classic, explicit.toString());
+            }
+        });
+    }
+
+    @Test
+    public void test_weights_change_nodes_not_values() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            for (String initialState : STATES) {
+                SolveResult reference = new BattleSolver().solve(initialState, new SolveOptions());
+                SolveOptions tuned = new SolveOptions().setOrderingWeights(TUNED);
+                SolveResult recursive = new BattleSolver().solve(initialState, tuned);
+                SolveResult explicitStack = new BattleSolver().solve(initialState, tuned.copy().setExplicitStack(true));
+
+                assertEquals(reference.getScore(), recursive.getScore(), initialState);
+                // Both alpha-beta implementations order moves the same way
+                assertEquals(recursive.toString(), explicitStack.toString(), initialState);
+                BattleGameChecker.ValidationResult validation = BattleGameChecker.validateSolution(
+                        initialState, recursive.toString(), reference.getScore(), true);
+                assertTrue(validation.isValid, validation.errorMessage);
+            }
+        });
+    }
+
+    @Test
+    public void test_tuning_lowers_training_nodes_and_writes_loadable_file() throws Exception {
+        OrderingTuner.Result result = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100),
+                () -> new OrderingTuner(7, 6, Tier.TINY, Tier.SMALL).setMaxRounds(2).tune(OrderingWeights.DEFAULT));
+
+        long before = 0;
+        long after = 0;
+        for (OrderingTuner.TierReport tier : result.getTraining()) {
+            assertEquals(6, tier.getScenarios());
+            before += tier.getNodesBefore();
+            after += tier.getNodesAfter();
+        }
+        assertTrue(after <= before, after + " vs " + before);
+        assertEquals(2, result.getHeldOut().size());
+        assertTrue(result.report().contains("held-out corpus"));
+
+        Path file = Files.createTempFile("ordering", ".properties");
+        try {
+            result.getTuned().save(file, "test");
+            assertEquals(result.getTuned(), OrderingWeights.load(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void test_bad_weights_file_reported_clearly() throws Exception {
+        Path file = Files.createTempFile("ordering", ".properties");
+        try {
+            Files.write(file, "health=8\nthreat=lots\n".getBytes(StandardCharsets.ISO_8859_1));
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> OrderingWeights.load(file));
+            assertTrue(e.getMessage().contains("threat") && e.getMessage().contains(file.toString()), e.getMessage());
+            Files.delete(file);
+            assertThrows(UncheckedIOException.class, () -> OrderingWeights.load(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void test_bad_weights_property_falls_back_to_default() throws Exception {
+        // A fresh JVM, so the property is read when the library first initializes
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-D" + OrderingWeights.PROPERTY + "=/no/such/weights.properties",
+                "-cp", System.getProperty("java.class.path"), ActiveWeightsMain.class.getName())
+                .redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(process.waitFor(60, TimeUnit.SECONDS));
+        assertEquals(0, process.exitValue(), output);
+        assertTrue(output.contains("active=" + OrderingWeights.DEFAULT), output);
+        assertTrue(output.contains("ignoring -D" + OrderingWeights.PROPERTY), output);
+    }
+
+    // Solves one battle with the default options and prints the weights in effect
+    public static final class ActiveWeightsMain {
+        public static void main(String[] args) {
+            new BattleSolver().solve("5,3;4,1;A;", new SolveOptions());
+            System.out.println("active=" + OrderingWeights.active());
+        }
+    }
+
+    @Test
+    public void test_tuned_weights_prune_more_on_mid_sized_armies() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            String initialState = "5,5,5,5;6,1,6,1,5,1;B;";
+            long untuned = new BattleSolver().solve(initialState, new SolveOptions()).getNodesExpanded();
+            long tuned = new BattleSolver().solve(initialState,
+                    new SolveOptions().setEngine(Engine.ALPHA_BETA).setOrderingWeights(TUNED)).getNodesExpanded();
+            assertTrue(tuned < untuned, tuned + " vs " + untuned);
+        });
+    }
+}
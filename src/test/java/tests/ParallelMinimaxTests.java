@@ -0,0 +1,86 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.Engine;
+import battle.SolveOptions;
+import battle.SolveResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.time.Duration;
+
+public class ParallelMinimaxTests {
+
+    private static final String[] STATES = {
+            "5,3;0,1;A;",
+            "5,3;4,1;B;",
+            "1,1,2,3,6,7;5,5,3,1;A;",
+            "1,1,2,3,6,7;5,5,10,1;A;",
+            "7,3,11,9;2,8,4,10,1,6,5,1;A;",
+            "7,3,11,9;2,8,4,10,1,6,5,1;B;",
+    };
+
+    @Test
+    public void test_identical_to_serial_minimax() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            for (String initialState : STATES) {
+                String serial = new BattleSolver().solve(initialState, false, false);
+                for (int threads : new int[] { 2, 4 }) {
+                    SolveResult parallel = new BattleSolver().solve(initialState,
+                            new SolveOptions().setEngine(Engine.MINIMAX).setThreads(threads));
+                    assertEquals(serial, parallel.toString(), initialState + " with " + threads + " threads");
+                    assertTrue(parallel.isExact());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void test_large_tree_identical_and_valid() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            // About two million nodes: split into many tasks
+            String initialState = "5,5,5,5;6,1,6,1,5,1;B;";
+            SolveResult serial = new BattleSolver().solve(initialState, new SolveOptions().setEngine(Engine.MINIMAX));
+            SolveResult parallel = new BattleSolver().solve(initialState,
+                    new SolveOptions().setEngine(Engine.MINIMAX).setThreads(4));
+            assertTrue(serial.getNodesExpanded() > 1_000_000);
+            assertEquals(serial.toString(), parallel.toString());
+            BattleGameChecker.ValidationResult validation =
+                    BattleGameChecker.validateSolution(initialState, parallel.toString(), serial.getScore(), true);
+            assertTrue(validation.isValid, validation.errorMessage);
+        });
+    }
+
+    @Test
+    public void test_deadline_stops_parallel_search() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            String huge = "20,3,19,3,18,3,17,3,16,3,15,3;20,3,19,3,18,3,17,3,16,3,15,3;A;";
+            long start = System.nanoTime();
+            SolveResult result = new BattleSolver().solve(huge,
+                    new SolveOptions().setEngine(Engine.MINIMAX).setThreads(4).setDeadlineMillis(200));
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            assertEquals(SolveResult.Status.TIMEOUT, result.getStatus());
+            assertTrue(result.getNodesExpanded() > 0);
+            assertTrue(millis < 5000, millis + " ms");
+        });
+    }
+
+    @Test
+    public void test_stopped_search_keeps_finished_root_moves() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            // About 250 million nodes; the first root subtrees finish well before the deadline
+            String initialState = "1,10,5,2,3,5;6,7,3,1,13,4;B;";
+            SolveResult result = new BattleSolver().solve(initialState,
+                    new SolveOptions().setEngine(Engine.MINIMAX).setThreads(2).setDeadlineMillis(3000));
+            assertEquals(SolveResult.Status.TIMEOUT, result.getStatus());
+            assertFalse(result.getPlan().isEmpty(), "Finished root moves should give a partial line");
+            BattleGameChecker.ValidationResult validation =
+                    BattleGameChecker.validateSolution(initialState, result.toString(), result.getScore(), false);
+            assertTrue(validation.isValid, validation.errorMessage);
+        });
+    }
+}
@@ -0,0 +1,148 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.Engine;
+import battle.ScenarioGenerator;
+import battle.ScenarioGenerator.Tier;
+import battle.SolveOptions;
+import battle.SolveResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Performance regression gate over a seeded scenario corpus. Every scenario
+ * is solved by each exact engine that can handle its tier; plans are
+ * checked with BattleGameChecker and all engines must agree on the value.
+ * Node counts and wall time per tier and engine are compared with
+ * src/test/resources/perf-baseline.properties: nodes may grow by
+ * perf.nodeTolerance (default 1.10x), time by perf.timeTolerance (default
+ * 3x) plus perf.timeSlackMillis (default 250 ms) for JIT and machine noise;
+ * times are the best of two passes over the corpus.
+ *
+ * The baseline is written when it is missing or when the build runs with
+ * -Dperf.updateBaseline=true; commit it together with intended changes.
+ */
+public class PerformanceRegressionTests {
+
+    private static final long SEED = 41;
+    private static final String BASELINE = "perf-baseline.properties";
+    private static final int PASSES = 2;
+    private static final Path BASELINE_SOURCE = Paths.get("src", "test", "resources", BASELINE);
+
+    // Scenarios per tier and the engines that solve it in reasonable time; the first one is the reference value
+    private static final Object[][] CORPUS = {
+            { Tier.TINY, 8, new Engine[] { Engine.ALPHA_BETA_TT, Engine.MINIMAX, Engine.ALPHA_BETA, Engine.LAYERED } },
+            { Tier.SMALL, 6, new Engine[] { Engine.ALPHA_BETA_TT, Engine.MINIMAX, Engine.ALPHA_BETA, Engine.LAYERED } },
+            { Tier.MEDIUM, 5, new Engine[] { Engine.ALPHA_BETA_TT, Engine.LAYERED } },
+            { Tier.LARGE, 3, new Engine[] { Engine.ALPHA_BETA_TT } },
+    };
+
+    @Test
+    public void test_corpus_correct_and_within_baseline() throws Exception {
+        Properties measured = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), this::runCorpus);
+
+        Properties baseline = loadBaseline();
+        if (baseline == null || Boolean.getBoolean("perf.updateBaseline")) {
+            writeBaseline(measured);
+            System.out.println("Performance baseline written to " + BASELINE_SOURCE.toAbsolutePath());
+            return;
+        }
+
+        double nodeTolerance = Double.parseDouble(System.getProperty("perf.nodeTolerance", "1.10"));
+        double timeTolerance = Double.parseDouble(System.getProperty("perf.timeTolerance", "3.0"));
+        long timeSlack = Long.getLong("perf.timeSlackMillis", 250);
+        List<String> regressions = new ArrayList<>();
+        for (String key : new TreeSet<>(measured.stringPropertyNames())) {
+            String expected = baseline.getProperty(key);
+            if (expected == null) {
+                continue; // new tier or engine: no baseline yet
+            }
+            long base = Long.parseLong(expected);
+            long actual = Long.parseLong(measured.getProperty(key));
+            boolean regressed = key.endsWith(".nodes")
+                    ? actual > base * nodeTolerance
+                    : actual > base * timeTolerance + timeSlack;
+            System.out.printf("%-28s baseline %10d  now %10d%s%n", key, base, actual, regressed ? "  REGRESSED" : "");
+            if (regressed) {
+                regressions.add(key + ": " + actual + " vs baseline " + base);
+            }
+        }
+        assertTrue(regressions.isEmpty(), "Performance regressions: " + regressions);
+    }
+
+    // Solve the whole corpus, checking every plan; returns nodes and millis per tier and engine
+    private Properties runCorpus() {
+        Properties measured = new Properties();
+        for (Object[] entry : CORPUS) {
+            Tier tier = (Tier) entry[0];
+            List<String> scenarios = new ScenarioGenerator(SEED + tier.ordinal()).generate(tier, (Integer) entry[1]);
+            Engine[] engines = (Engine[]) entry[2];
+            int[] reference = new int[scenarios.size()];
+
+            for (int e = 0; e < engines.length; e++) {
+                BattleSolver solver = new BattleSolver();
+                SolveOptions options = new SolveOptions().setEngine(engines[e]);
+                long nodes = 0;
+                long bestNanos = Long.MAX_VALUE;
+                // Best of PASSES for time, so a GC pause or JIT compile left over from other tests does not count
+                for (int pass = 0; pass < PASSES; pass++) {
+                    long nanos = 0;
+                    nodes = 0;
+                    for (int k = 0; k < scenarios.size(); k++) {
+                        String scenario = scenarios.get(k);
+                        long start = System.nanoTime();
+                        SolveResult result = solver.solve(scenario, options);
+                        nanos += System.nanoTime() - start;
+                        nodes += result.getNodesExpanded();
+
+                        if (e == 0 && pass == 0) {
+                            reference[k] = result.getScore();
+                        }
+                        BattleGameChecker.ValidationResult validation =
+                                BattleGameChecker.validateSolution(scenario, result.toString(), reference[k], true);
+                        assertTrue(validation.isValid, engines[e] + " on " + scenario + ": " + validation.errorMessage);
+                    }
+                    bestNanos = Math.min(bestNanos, nanos);
+                }
+                String key = tier.name().toLowerCase() + "." + engines[e].name().toLowerCase();
+                measured.setProperty(key + ".nodes", Long.toString(nodes));
+                measured.setProperty(key + ".millis", Long.toString(bestNanos / 1_000_000));
+            }
+        }
+        return measured;
+    }
+
+    private static Properties loadBaseline() throws Exception {
+        try (InputStream in = PerformanceRegressionTests.class.getClassLoader().getResourceAsStream(BASELINE)) {
+            if (in == null) {
+                return null;
+            }
+            Properties baseline = new Properties();
+            baseline.load(in);
+            return baseline;
+        }
+    }
+
+    private static void writeBaseline(Properties measured) throws Exception {
+        Files.createDirectories(BASELINE_SOURCE.getParent());
+        try (OutputStream out = Files.newOutputStream(BASELINE_SOURCE)) {
+            measured.store(out, "Performance baseline of PerformanceRegressionTests (seed " + SEED
+                    + "); regenerate with -Dperf.updateBaseline=true");
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.Engine;
+import battle.PlanValidation;
+import battle.PlanValidator;
+import battle.SolveOptions;
+import battle.SolveResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class PlanValidatorTests {
+
+    private static final String[] STATES = {
+            "5,3;4,1;A;",
+            "1,1,2,3,6,7;5,5,3,1;A;",
+            "1,1,2,3,6,7;5,5,3,1;B;",
+            "7,3,11,9;2,8,4,10,1,6,5,1;A;",
+            "1,10,5,2,3,5;6,7,3,1,13,4;B;",
+    };
+
+    @Test
+    public void test_solver_answers_are_valid() {
+        PlanValidator validator = new PlanValidator();
+        for (String initialState : STATES) {
+            SolveResult result = new BattleSolver().solve(initialState, new SolveOptions().setEngine(Engine.ALPHA_BETA_TT));
+
+            PlanValidation answer = validator.validate(initialState, result.toString());
+            assertTrue(answer.isValid(), answer.getMessage());
+            assertEquals(result.getScore(), answer.getFinalUtility());
+
+            PlanValidation plan = validator.validate(initialState, result.getPlan());
+            assertTrue(plan.isValid(), plan.getMessage());
+            assertEquals(result.getPlan().split("\\),").length, plan.getStepsApplied());
+        }
+    }
+
+    @Test
+    public void test_first_illegal_step_is_reported() {
+        PlanValidator validator = new PlanValidator();
+        String state = "5,3;4,1;A;";
+
+        PlanValidation wrongSide = validator.validate(state, "A(0,0),A(0,0)");
+        assertFalse(wrongSide.isValid());
+        assertEquals(2, wrongSide.getFailedStep());
+        assertEquals(1, wrongSide.getStepsApplied());
+
+        PlanValidation afterEnd = validator.validate(state, "A(0,0),B(0,0),A(0,0),B(0,0)");
+        assertFalse(afterEnd.isValid());
+        assertEquals(4, afterEnd.getFailedStep()); // A's third blow already ended the game
+        assertTrue(afterEnd.isTerminal());
+
+        PlanValidation unfinished = validator.validate(state, "A(0,0),B(0,0)");
+        assertFalse(unfinished.isValid());
+        assertEquals(0, unfinished.getFailedStep());
+        assertFalse(unfinished.isTerminal());
+
+        assertEquals(1, validator.validate(state, "A(1,0)").getFailedStep());
+        assertEquals(1, validator.validate(state, "A(0,0").getFailedStep());
+        assertEquals(2, validator.validate(state, "A(0,0),").getFailedStep());
+        assertEquals(2, validator.validate(state, "A(0,0)B(0,0)").getFailedStep());
+        assertEquals(0, validator.validate(state, "").getFailedStep());
+        assertFalse(validator.validate(state, "NOSOLUTION").isValid());
+    }
+
+    @Test
+    public void test_claimed_score_is_checked() {
+        PlanValidator validator = new PlanValidator();
+        String state = "5,3;4,1;A;";
+        String plan = new BattleSolver().solve(state, new SolveOptions()).getPlan();
+        int score = validator.validate(state, plan).getFinalUtility();
+
+        assertTrue(validator.validate(state, plan + ";" + score + ";7;").isValid());
+        PlanValidation wrong = validator.validate(state, plan + ";" + (score + 1) + ";7;");
+        assertFalse(wrong.isValid());
+        assertTrue(wrong.getMessage().contains("Score mismatch"));
+        assertFalse(validator.validate(state, plan + ";x;7;").isValid());
+    }
+
+    @Test
+    public void test_agrees_with_game_checker_on_random_plans() {
+        Random random = new Random(48);
+        PlanValidator validator = new PlanValidator();
+        for (String initialState : STATES) {
+            String plan = new BattleSolver().solve(initialState, new SolveOptions().setEngine(Engine.ALPHA_BETA_TT))
+                    .getPlan();
+            for (int trial = 0; trial < 200; trial++) {
+                String[] actions = plan.split(",");
+                int i = random.nextInt(actions.length);
+                char side = actions[i].charAt(0);
+                if (random.nextBoolean()) side = side == 'A' ? 'B' : 'A';
+                actions[i] = side + "(" + random.nextInt(5) + "," + random.nextInt(5) + ")";
+                String mutated = String.join(",", actions);
+
+                BattleGameChecker.ValidationResult expected =
+                        BattleGameChecker.validateSolution(initialState, mutated + ";0;0;", 0, false);
+                PlanValidation actual = validator.validate(initialState, mutated);
+                assertEquals(expected.isValid, actual.isValid(), mutated + ": " + actual.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void test_batch_validation_matches_single_threaded() {
+        List<String> states = new ArrayList<>();
+        List<String> plans = new ArrayList<>();
+        String[] solved = new String[STATES.length];
+        for (int k = 0; k < STATES.length; k++) {
+            solved[k] = new BattleSolver().solve(STATES[k], new SolveOptions().setEngine(Engine.ALPHA_BETA_TT)).getPlan();
+        }
+        for (int copy = 0; copy < 200; copy++) {
+            for (int k = 0; k < STATES.length; k++) {
+                states.add(STATES[k]);
+                plans.add(copy % 3 == 0 ? solved[k].substring(0, solved[k].length() - 1) : solved[k]);
+            }
+        }
+        states.add("not a state");
+        plans.add("A(0,0)");
+
+        List<PlanValidation> batch = PlanValidator.validateAll(states, plans, 4);
+        assertEquals(plans.size(), batch.size());
+        PlanValidator single = new PlanValidator();
+        for (int i = 0; i < plans.size() - 1; i++) {
+            PlanValidation expected = single.validate(states.get(i), plans.get(i));
+            assertEquals(expected.isValid(), batch.get(i).isValid());
+            assertEquals(expected.getFailedStep(), batch.get(i).getFailedStep());
+            assertEquals(expected.getFinalUtility(), batch.get(i).getFinalUtility());
+        }
+        assertFalse(batch.get(plans.size() - 1).isValid());
+    }
+}
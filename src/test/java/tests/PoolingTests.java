@@ -0,0 +1,68 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.SearchArena;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+public class PoolingTests {
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Test
+    public void test_steady_state_allocation_near_zero() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            String initialState = "1,1,2,3,6,7;5,5,3,1;A;";
+            BattleSolver solver = new BattleSolver();
+            String expected = null;
+            for (int i = 0; i < 10; i++) {
+                expected = solver.solve(initialState, false, false); // warm up the pool and the JIT
+            }
+
+            SearchArena arena = SearchArena.current();
+            long overflows = arena.getOverflows();
+            long hits = arena.getHits();
+            long before = allocatedBytes();
+            String solution = solver.solve(initialState, false, false);
+            long allocated = allocatedBytes() - before;
+
+            assertEquals(expected, solution);
+            long nodes = Long.parseLong(solution.split(";")[2]);
+            assertEquals(overflows, arena.getOverflows(), "A warm pool should not allocate children");
+            assertEquals(nodes - 1, arena.getHits() - hits, "Every child but the root comes from the pool");
+            assertTrue(allocated < nodes, allocated + " bytes for " + nodes + " nodes");
+        });
+    }
+
+    @Test
+    public void test_pool_is_per_thread_and_reshapes() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            SearchArena mine = SearchArena.current();
+            SearchArena other = CompletableFuture.supplyAsync(SearchArena::current).get();
+            assertNotSame(mine, other);
+
+            // A different army shape reshapes slots (overflows) but gives the same answers
+            BattleSolver solver = new BattleSolver();
+            String small = solver.solve("5,3;4,1;A;", true, false);
+            long overflows = mine.getOverflows();
+            String large = solver.solve("7,3,11,9;2,8,4,10,1,6,5,1;A;", true, false);
+            assertTrue(mine.getOverflows() > overflows);
+            assertEquals("A(0,0),B(0,0),A(0,0);4;4;", small);
+            BattleGameChecker.ValidationResult validation = BattleGameChecker.validateSolution(
+                    "7,3,11,9;2,8,4,10,1,6,5,1;A;", large, 3, true);
+            assertTrue(validation.isValid, validation.errorMessage);
+            assertTrue(mine.getCapacityDepth() >= 7);
+        });
+    }
+}
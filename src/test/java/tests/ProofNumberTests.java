@@ -0,0 +1,71 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.ProofNumberSearch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.time.Duration;
+
+public class ProofNumberTests {
+
+    private static final String[] STATES = {
+            "5,3;4,1;A;",
+            "5,3;4,1;B;",
+            "1,1,2,3,6,7;5,5,3,1;A;",
+            "1,1,2,3,6,7;5,5,3,1;B;",
+            "7,3,11,9;2,8,4,10,1,6,5,1;A;",
+            "7,3,11,9;2,8,4,10,1,6,5,1;B;",
+            "1,10,5,2,3,5;6,7,3,1,13,4;A;",
+    };
+
+    @Test
+    public void test_outcome_matches_alphabeta() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            for (String initialState : STATES) {
+                int score = Integer.parseInt(new BattleSolver().solve(initialState, true, false).split(";")[1]);
+                ProofNumberSearch.Result result = new ProofNumberSearch(1 << 16, Long.MAX_VALUE).search(initialState);
+
+                ProofNumberSearch.Outcome expected = score > 0 ? ProofNumberSearch.Outcome.WIN : ProofNumberSearch.Outcome.LOSS;
+                assertEquals(expected, result.getOutcome(), "Outcome mismatch for " + initialState);
+
+                String sol = result.getPlan() + ";0;" + result.getNodesExpanded();
+                BattleGameChecker.ValidationResult validation = BattleGameChecker.validateSolution(initialState, sol, 0, false);
+                assertTrue(validation.isValid, "Winning line should be a legal plan: " + validation.errorMessage);
+            }
+        });
+    }
+
+    @Test
+    public void test_small_table_still_proves() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            String initialState = "7,3,11,9;2,8,4,10,1,6,5,1;A;";
+            ProofNumberSearch.Result small = new ProofNumberSearch(1 << 8, Long.MAX_VALUE).search(initialState);
+            ProofNumberSearch.Result large = new ProofNumberSearch(1 << 16, Long.MAX_VALUE).search(initialState);
+            assertEquals(large.getOutcome(), small.getOutcome());
+        });
+    }
+
+    @Test
+    public void test_budget_exhausted_is_unknown() {
+        String sol = new BattleSolver().proveWin("1,10,5,2,3,5;6,7,3,1,13,4;A;", 1 << 10, 5);
+        assertEquals("UNKNOWN", sol.split(";")[1]);
+    }
+
+    @Test
+    public void test_lopsided_cheaper_than_minimax() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            String initialState = "20,9,20,9,20,9;3,1,3,1,3,1;A;";
+            String proof = new BattleSolver().proveWin(initialState, 1 << 16, Long.MAX_VALUE);
+            String exact = new BattleSolver().solve(initialState, true, false);
+
+            assertEquals("WIN", proof.split(";")[1]);
+            assertTrue(Long.parseLong(proof.split(";")[2]) < Long.parseLong(exact.split(";")[2]),
+                    "Proof-number search should expand fewer nodes than alpha-beta: " + proof + " vs " + exact);
+        });
+    }
+}
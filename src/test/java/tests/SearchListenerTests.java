@@ -0,0 +1,124 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.Engine;
+import battle.SearchProgress;
+import battle.SolveOptions;
+import battle.SolveResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class SearchListenerTests {
+
+    private static final String LARGE = "9,3,8,2,7,4,10,1,6,3,9,2;8,2,9,3,6,1,7,4,10,2,5,3;A;";
+    private static final String MEDIUM = "7,3,11,9;2,8,4,10,1,6,5,1;B;";
+    private static final String SLOW_MINIMAX = "1,10,5,2,3,5;6,7,3,1,13,4;B;"; // root moves take about a second each
+
+    // Collects reports and lets the test wait for the final one
+    private static final class Recorder {
+        final List<SearchProgress> reports = new CopyOnWriteArrayList<>();
+        final CountDownLatch finished = new CountDownLatch(1);
+
+        void onProgress(SearchProgress progress) {
+            reports.add(progress);
+            if (progress.isFinished()) finished.countDown();
+        }
+
+        SearchProgress awaitFinal() throws InterruptedException {
+            assertTrue(finished.await(10, TimeUnit.SECONDS), "No final report");
+            return reports.get(reports.size() - 1);
+        }
+    }
+
+    @Test
+    public void test_periodic_reports_while_searching() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            Recorder recorder = new Recorder();
+            SolveResult result = new BattleSolver().solve(SLOW_MINIMAX, new SolveOptions().setEngine(Engine.MINIMAX)
+                    .setDeadlineMillis(3000).setListener(recorder::onProgress).setProgressIntervalMillis(50));
+            SearchProgress last = recorder.awaitFinal();
+
+            assertEquals(SolveResult.Status.TIMEOUT, result.getStatus());
+            List<SearchProgress> reports = recorder.reports;
+            assertTrue(reports.size() >= 4, "Expected several reports, got " + reports.size());
+            long nodes = 0;
+            int lower = Integer.MIN_VALUE;
+            for (SearchProgress progress : reports.subList(0, reports.size() - 1)) {
+                assertFalse(progress.isFinished());
+                assertEquals(Engine.MINIMAX, progress.getEngine());
+                assertTrue(progress.getNodes() >= nodes, "Node counts must not go backwards");
+                assertTrue(progress.getLowerBound() >= lower, "The lower bound must not go backwards");
+                nodes = progress.getNodes();
+                lower = progress.getLowerBound();
+            }
+            assertTrue(nodes > 0);
+            assertTrue(reports.stream().anyMatch(p -> !p.getBestLine().isEmpty()), "No best line was reported");
+            assertEquals(result.getNodesExpanded(), last.getNodes());
+            assertEquals(result.getPlan(), last.getBestLine());
+            assertEquals(Integer.MAX_VALUE, last.getUpperBound(), "A stopped search has no exact value");
+        });
+    }
+
+    @Test
+    public void test_final_report_of_exact_solve_and_unchanged_result() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            for (Engine engine : new Engine[] { Engine.ALPHA_BETA, Engine.ALPHA_BETA_TT }) {
+                String expected = new BattleSolver().solve(MEDIUM, new SolveOptions().setEngine(engine)).toString();
+                Recorder recorder = new Recorder();
+                SolveResult result = new BattleSolver().solve(MEDIUM,
+                        new SolveOptions().setEngine(engine).setListener(recorder::onProgress));
+                SearchProgress last = recorder.awaitFinal();
+
+                assertEquals(expected, result.toString(), engine + " result changed by the listener");
+                assertTrue(last.isFinished());
+                assertEquals(engine, last.getEngine());
+                assertEquals(result.getScore(), last.getLowerBound());
+                assertEquals(result.getScore(), last.getUpperBound());
+                assertEquals(result.getPlan(), last.getBestLine());
+            }
+        });
+    }
+
+    @Test
+    public void test_mcts_reports_iterations_and_line() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            Recorder recorder = new Recorder();
+            new BattleSolver().solve(LARGE, new SolveOptions().setEngine(Engine.MCTS).setMaxIterations(0)
+                    .setTimeLimitMillis(300).setListener(recorder::onProgress).setProgressIntervalMillis(20));
+            recorder.awaitFinal();
+
+            assertTrue(recorder.reports.stream().anyMatch(p -> !p.isFinished() && p.getIteration() > 0
+                    && !p.getBestLine().isEmpty()), "No MCTS progress reported");
+        });
+    }
+
+    @Test
+    public void test_blocked_listener_does_not_stall_the_search() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            CountDownLatch release = new CountDownLatch(1);
+            try {
+                SolveResult result = new BattleSolver().solve(MEDIUM, new SolveOptions().setEngine(Engine.ALPHA_BETA)
+                        .setProgressIntervalMillis(1).setListener(progress -> {
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }));
+                assertEquals(SolveResult.Status.EXACT, result.getStatus());
+            } finally {
+                release.countDown();
+            }
+        });
+    }
+}
@@ -0,0 +1,84 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.Engine;
+import battle.SearchControl;
+import battle.SolveOptions;
+import battle.SolveResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.time.Duration;
+
+public class SelectiveSearchTests {
+
+    private static final String[] MEDIUM_STATES = {
+            "1,1,2,3,6,7;5,5,3,1;A;",
+            "7,3,11,9;2,8,4,10,1,6,5,1;B;",
+            "4,2,6,3,5,1,3,4;5,2,4,3,6,1,2,2;A;",
+    };
+
+    @Test
+    public void test_results_are_flagged_approximate() {
+        for (String initialState : MEDIUM_STATES) {
+            SolveResult result = new BattleSolver().solve(initialState,
+                    new SolveOptions().setEngine(Engine.SELECTIVE));
+            assertFalse(result.isExact(), "Selective results must never be reported as exact");
+            assertEquals(SolveResult.Status.APPROXIMATE, result.getStatus());
+        }
+    }
+
+    @Test
+    public void test_plans_are_legal_and_score_matches_plan() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            for (String initialState : MEDIUM_STATES) {
+                SolveResult result = new BattleSolver().solve(initialState,
+                        new SolveOptions().setEngine(Engine.SELECTIVE).setSelectiveConfidence(0.9));
+                BattleGameChecker.ValidationResult validation =
+                        BattleGameChecker.validateSolution(initialState, result.toString(), 0, false);
+                assertTrue(validation.isValid, "Selective plan should be legal: " + validation.errorMessage);
+            }
+        });
+    }
+
+    @Test
+    public void test_stopped_search_returns_best_root_line() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            // The first root move takes most of the search; cancel as soon as it is reported
+            String initialState = "20,3,19,3,18,3,17,3,16,3,15,3;20,3,19,3,18,3,17,3,16,3,15,3;A;";
+            SearchControl control = new SearchControl();
+            SolveResult result = new BattleSolver().solve(initialState, new SolveOptions()
+                    .setEngine(Engine.SELECTIVE).setControl(control).setProgressIntervalMillis(5)
+                    .setListener(progress -> {
+                        if (!progress.getBestLine().isEmpty()) control.cancel();
+                    }));
+
+            assertEquals(SolveResult.Status.CANCELLED, result.getStatus());
+            BattleGameChecker.ValidationResult validation =
+                    BattleGameChecker.validateSolution(initialState, result.toString(), 0, false);
+            assertTrue(validation.isValid, "Partial line should be a legal game: " + validation.errorMessage);
+        });
+    }
+
+    @Test
+    public void test_small_games_are_solved_without_pruning() {
+        // Positions below the calibration size are searched in full, so the value is the exact one
+        String[] states = {"5,3;4,1;A;", "2,4,1,2;3,3;B;"};
+        for (String initialState : states) {
+            int exact = new BattleSolver().solve(initialState, new SolveOptions()).getScore();
+            SolveResult result = new BattleSolver().solve(initialState,
+                    new SolveOptions().setEngine(Engine.SELECTIVE));
+            assertEquals(exact, result.getScore());
+        }
+    }
+
+    @Test
+    public void test_confidence_out_of_range_is_rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SolveOptions().setSelectiveConfidence(1.0));
+        assertThrows(IllegalArgumentException.class, () -> new SolveOptions().setSelectiveConfidence(0.2));
+    }
+}
@@ -0,0 +1,117 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSession;
+import battle.BattleSolver;
+import battle.Engine;
+import battle.SolveOptions;
+import battle.SolveResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.time.Duration;
+
+public class SessionTests {
+
+    private static final String STATE = "1,10,5,2,3,5;6,7,3,1,13,4;A;";
+
+    // Value of a position for the original starting player, by a cold solve
+    private static int coldValue(String state, char startingPlayer) {
+        int value = new BattleSolver().solve(state, new SolveOptions().setEngine(Engine.ALPHA_BETA_TT)).getScore();
+        char toMove = state.charAt(state.length() - 2);
+        return toMove == startingPlayer ? value : -value;
+    }
+
+    @Test
+    public void test_session_values_match_cold_solves() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            try (BattleSession session = new BattleSession(STATE)) {
+                int firstValue = session.search().getScore();
+                while (!session.isTerminal()) {
+                    SolveResult result = session.search();
+                    assertEquals(firstValue, result.getScore(), "Optimal play keeps the game value");
+                    assertEquals(coldValue(session.getState(), 'A'), result.getScore());
+                    session.play(session.bestAction());
+                }
+                String sol = session.getHistory() + ";" + firstValue + ";0";
+                BattleGameChecker.ValidationResult validation = BattleGameChecker.validateSolution(STATE, sol, firstValue, true);
+                assertTrue(validation.isValid, validation.errorMessage);
+            }
+        });
+    }
+
+    @Test
+    public void test_warm_search_is_cheaper_than_cold() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            try (BattleSession session = new BattleSession(STATE)) {
+                session.search();
+                session.play(session.bestAction());
+                session.play(session.bestAction());
+
+                long warm = session.search().getNodesExpanded();
+                long cold = new BattleSolver().solve(session.getState(),
+                        new SolveOptions().setEngine(Engine.ALPHA_BETA_TT)).getNodesExpanded();
+                assertTrue(warm * 4 < cold, "Warm search should be a fraction of a cold one: " + warm + " vs " + cold);
+            }
+        });
+    }
+
+    @Test
+    public void test_off_line_reply_still_correct() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            try (BattleSession session = new BattleSession(STATE)) {
+                session.setPondering(true);
+                session.search();
+                session.play(session.bestAction());
+                // The opponent plays some other legal reply than the predicted one
+                String predicted = session.getPrincipalVariation().split("\\),")[0] + ")";
+                boolean played = false;
+                for (int i = 0; i < 3 && !played; i++) {
+                    for (int j = 0; j < 3 && !played; j++) {
+                        String action = "B(" + i + "," + j + ")";
+                        if (action.equals(predicted)) continue;
+                        try {
+                            session.play(action);
+                            played = true;
+                        } catch (IllegalArgumentException e) {
+                            // dead unit, try the next pair
+                        }
+                    }
+                }
+                assertTrue(played);
+                assertEquals("", session.getPrincipalVariation());
+
+                SolveResult result = session.search();
+                assertEquals(coldValue(session.getState(), 'A'), result.getScore());
+            }
+        });
+    }
+
+    @Test
+    public void test_pondering_fills_table() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            try (BattleSession session = new BattleSession(STATE)) {
+                session.setPondering(true);
+                session.search();
+                session.play(session.bestAction());
+                Thread.sleep(200); // the opponent thinks; we ponder
+                session.play(session.bestAction());
+
+                SolveResult result = session.search();
+                assertEquals(coldValue(session.getState(), 'A'), result.getScore());
+                assertTrue(session.getTable().getHits() > 0);
+            }
+        });
+    }
+
+    @Test
+    public void test_illegal_action_rejected() {
+        try (BattleSession session = new BattleSession(STATE)) {
+            assertThrows(IllegalArgumentException.class, () -> session.play("B(0,0)"));
+            assertThrows(IllegalArgumentException.class, () -> session.play("A(0,0),B(0,0)"));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.Engine;
+import battle.SearchControl;
+import battle.SolveOptions;
+import battle.SolveResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class SharedSolverTests {
+
+    private static final String[] STATES = {
+            "5,3;4,1;A;",
+            "1,1,2,3,6,7;5,5,3,1;A;",
+            "1,1,2,3,6,7;5,5,3,1;B;",
+            "7,3,11,9;2,8,4,10,1,6,5,1;A;",
+            "7,3,11,9;2,8,4,10,1,6,5,1;B;",
+    };
+
+    // Engines whose plan, score and node count are fully determined by the input
+    private static final Engine[] ENGINES = { Engine.MINIMAX, Engine.ALPHA_BETA, Engine.ALPHA_BETA_TT };
+
+    @Test
+    public void test_concurrent_solves_match_serial_results() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(200), () -> {
+            String[][] expected = new String[STATES.length][ENGINES.length];
+            for (int s = 0; s < STATES.length; s++) {
+                for (int e = 0; e < ENGINES.length; e++) {
+                    expected[s][e] = new BattleSolver().solve(STATES[s], new SolveOptions().setEngine(ENGINES[e]))
+                            .toString();
+                }
+            }
+
+            BattleSolver shared = new BattleSolver();
+            int threads = 8;
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int seed = t;
+                    futures.add(pool.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < 30; i++) {
+                            int s = (seed + i) % STATES.length;
+                            int e = (seed * 7 + i) % ENGINES.length;
+                            String result = shared.solve(STATES[s], new SolveOptions().setEngine(ENGINES[e])).toString();
+                            assertEquals(expected[s][e], result, ENGINES[e] + " on " + STATES[s]);
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+        });
+    }
+
+    @Test
+    public void test_cancelling_one_caller_leaves_others_untouched() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            BattleSolver shared = new BattleSolver();
+            String large = "9,3,8,2,7,4,10,1,6,3,9,2;8,2,9,3,6,1,7,4,10,2,5,3;A;";
+            SearchControl control = new SearchControl();
+            CompletableFuture<SolveResult> stopped = shared.solveAsync(large,
+                    new SolveOptions().setEngine(Engine.MINIMAX).setControl(control));
+
+            String expected = new BattleSolver().solve(STATES[3], new SolveOptions()).toString();
+            for (int i = 0; i < 20; i++) {
+                SolveResult result = shared.solve(STATES[3], new SolveOptions());
+                assertEquals(SolveResult.Status.EXACT, result.getStatus());
+                assertEquals(expected, result.toString());
+            }
+            control.cancel();
+            assertEquals(SolveResult.Status.CANCELLED, stopped.get().getStatus());
+        });
+    }
+
+    @Test
+    public void test_sequential_solves_reuse_one_context() {
+        BattleSolver shared = new BattleSolver();
+        SolveOptions options = new SolveOptions().setEngine(Engine.ALPHA_BETA_TT).setKeepTable(true);
+        long first = shared.solve("1,10,5,2,3,5;6,7,3,1,13,4;B;", options).getNodesExpanded();
+        long second = shared.solve("1,10,5,2,3,5;6,7,3,1,13,4;B;", options).getNodesExpanded();
+        assertTrue(second < first, "The kept table of the reused context should answer the repeat solve");
+    }
+
+    @Test
+    public void test_kept_tables_are_cleared_between_scenarios() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(200), () -> {
+            // Same health layouts with other damages, so a stale entry would give a wrong value
+            String[] scenarios = {
+                    "5,5,9,1;5,1,9,2;A;",
+                    "5,1,9,3;5,5,9,1;A;",
+                    "7,3,11,9;2,8,4,10,1,6,5,1;A;",
+                    "7,1,11,2;2,3,4,1,1,9,5,4;A;",
+            };
+            String[] expected = new String[scenarios.length];
+            for (int i = 0; i < scenarios.length; i++) {
+                expected[i] = new BattleSolver().solve(scenarios[i],
+                        new SolveOptions().setEngine(Engine.ALPHA_BETA_TT)).toString();
+            }
+
+            BattleSolver shared = new BattleSolver();
+            SolveOptions options = new SolveOptions().setEngine(Engine.ALPHA_BETA_TT).setKeepTable(true);
+            // Sequentially a change of scenario starts from an empty table, so the solve matches a cold one
+            for (int round = 0; round < 2; round++) {
+                for (int i = 0; i < scenarios.length; i++) {
+                    assertEquals(expected[i], shared.solve(scenarios[i], options).toString());
+                }
+            }
+
+            ExecutorService pool = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<SolveResult>> futures = new ArrayList<>();
+                for (int i = 0; i < 40; i++) {
+                    String initialState = scenarios[i % scenarios.length];
+                    futures.add(pool.submit(() -> shared.solve(initialState, options)));
+                }
+                for (int i = 0; i < futures.size(); i++) {
+                    String initialState = scenarios[i % scenarios.length];
+                    SolveResult result = futures.get(i).get();
+                    assertEquals(expected[i % scenarios.length].split(";")[1], String.valueOf(result.getScore()),
+                            "Value mismatch for " + initialState);
+                    BattleGameChecker.ValidationResult validation = BattleGameChecker.validateSolution(
+                            initialState, result.toString(), result.getScore(), true);
+                    assertTrue(validation.isValid, "Plan should reach the game value: " + validation.errorMessage);
+                }
+            } finally {
+                pool.shutdown();
+            }
+        });
+    }
+
+    @Test
+    public void test_close_drops_idle_tables() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            String initialState = "7,3,11,9;2,8,4,10,1,6,5,1;A;";
+            SolveOptions options = new SolveOptions().setEngine(Engine.ALPHA_BETA_TT).setKeepTable(true);
+            BattleSolver solver = new BattleSolver();
+            SolveResult cold = solver.solve(initialState, options);
+            assertTrue(solver.solve(initialState, options).getNodesExpanded() < cold.getNodesExpanded(),
+                    "Sequential solves should reuse the kept table");
+
+            // Closing drops the warmed table; the solver keeps working from a cold one
+            solver.close();
+            SolveResult afterClose = solver.solve(initialState, options);
+            assertEquals(cold.toString(), afterClose.toString());
+        });
+    }
+}
@@ -0,0 +1,196 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.Engine;
+import battle.LatencyHistogram;
+import battle.SolveMetrics;
+import battle.SolveOptions;
+import battle.SolveResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+public class SolveMetricsTests {
+
+    @Test
+    public void test_percentiles_within_bucket_precision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        SplittableRandom random = new SplittableRandom(42);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // Log-uniform from 1 us to 10 s, like solve latencies
+            values[i] = (long) Math.pow(10, 3 + 7 * random.nextDouble());
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(values.length, snapshot.getCount());
+        assertEquals(values[values.length - 1], snapshot.getMax());
+        for (double percentile : new double[] { 1, 25, 50, 90, 99, 99.9, 100 }) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long reported = snapshot.getValueAtPercentile(percentile);
+            assertTrue(reported >= exact && reported <= exact * 1.04,
+                    "p" + percentile + ": " + reported + " vs " + exact);
+        }
+        assertEquals(0, new LatencyHistogram().snapshot().getValueAtPercentile(50));
+    }
+
+    @Test
+    public void test_concurrent_recording_loses_nothing() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int threads = 4;
+        int perThread = 250_000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            workers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) histogram.record(i % 1000 + offset);
+            }));
+        }
+        workers.forEach(Thread::start);
+        for (Thread worker : workers) worker.join();
+        assertEquals((long) threads * perThread, histogram.snapshot().getCount());
+        assertEquals(999 + threads - 1, histogram.snapshot().getMax());
+    }
+
+    @Test
+    public void test_record_well_under_a_microsecond() {
+        SolveMetrics metrics = new SolveMetrics("cost");
+        SolveResult.Status[] outcomes = SolveResult.Status.values();
+        int n = 2_000_000;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                metrics.record(Engine.ALPHA_BETA_TT, 2 + (i & 15), outcomes[i & 3], 1000L + (i & 0xFFFF), 10);
+            }
+            double perRecord = (System.nanoTime() - start) / (double) n;
+            if (round == 2) {
+                assertTrue(perRecord < 500, perRecord + " ns per record");
+            }
+        }
+        assertEquals(3L * n, metrics.getSolveCount());
+    }
+
+    @Test
+    public void test_solves_recorded_by_engine_size_and_outcome() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            SolveMetrics metrics = new SolveMetrics("solves");
+            BattleSolver solver = new BattleSolver();
+            for (int i = 0; i < 3; i++) {
+                solver.solve("5,3;4,1;A;", new SolveOptions().setEngine(Engine.ALPHA_BETA).setMetrics(metrics));
+            }
+            solver.solve("7,3,11,9;2,8,4,10,1,6,5,1;A;",
+                    new SolveOptions().setEngine(Engine.ALPHA_BETA_TT).setMetrics(metrics));
+            solver.solve("20,3,19,3,18,3,17,3,16,3,15,3;20,3,19,3,18,3,17,3,16,3,15,3;A;",
+                    new SolveOptions().setEngine(Engine.ALPHA_BETA).setDeadlineMillis(50).setMetrics(metrics));
+            // Not recorded: metrics switched off
+            solver.solve("5,3;4,1;A;", new SolveOptions().setMetrics(null));
+
+            assertEquals(5, metrics.getSolveCount());
+            List<SolveMetrics.Summary> summaries = metrics.getSummaries();
+            assertEquals(3, summaries.size());
+            assertEquals(3, find(summaries, "ALPHA_BETA", "1-4", "EXACT").getCount());
+            assertEquals(1, find(summaries, "ALPHA_BETA_TT", "5-8", "EXACT").getCount());
+            assertEquals(1, find(summaries, "ALPHA_BETA", "9-16", "TIMEOUT").getCount());
+            SolveMetrics.Summary exact = find(summaries, "ALPHA_BETA", "1-4", "EXACT");
+            assertTrue(exact.getP50Millis() <= exact.getP99Millis() && exact.getP99Millis() <= exact.getMaxMillis());
+
+            String report = metrics.report();
+            assertEquals(3, report.split("\n").length, report);
+            assertTrue(report.contains("engine=ALPHA_BETA_TT units=5-8 outcome=EXACT count=1"), report);
+
+            metrics.reset();
+            assertEquals(0, metrics.getSolveCount());
+            assertEquals("", metrics.report());
+        });
+    }
+
+    @Test
+    public void test_published_over_jmx() throws Exception {
+        SolveMetrics metrics = new SolveMetrics("jmx");
+        ObjectName name = metrics.register();
+        try {
+            new BattleSolver().solve("5,3;4,1;A;", new SolveOptions().setMetrics(metrics));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(1L, server.getAttribute(name, "SolveCount"));
+            CompositeData[] rows = (CompositeData[]) server.getAttribute(name, "Summaries");
+            assertEquals(1, rows.length);
+            assertEquals("ALPHA_BETA", rows[0].get("engine"));
+            assertEquals("1-4", rows[0].get("armySize"));
+            assertEquals("EXACT", rows[0].get("outcome"));
+            assertEquals(1L, rows[0].get("count"));
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, server.getAttribute(name, "SolveCount"));
+        } finally {
+            metrics.unregister();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    @Test
+    public void test_periodic_report() throws Exception {
+        SolveMetrics metrics = new SolveMetrics("periodic");
+        List<String> lines = new CopyOnWriteArrayList<>();
+        CountDownLatch reported = new CountDownLatch(1);
+        metrics.startReporting(20, report -> {
+            lines.add(report);
+            reported.countDown();
+        });
+        try {
+            new BattleSolver().solve("5,3;4,1;A;", new SolveOptions().setMetrics(metrics));
+            assertTrue(reported.await(10, TimeUnit.SECONDS));
+            assertTrue(lines.get(0).startsWith("solves engine=ALPHA_BETA units=1-4 outcome=EXACT count=1"), lines.get(0));
+        } finally {
+            metrics.stopReporting();
+        }
+    }
+
+    @Test
+    public void test_reading_the_report_does_not_reset_rates() throws Exception {
+        SolveMetrics metrics = new SolveMetrics("readonly");
+        new BattleSolver().solve("5,3;4,1;A;", new SolveOptions().setMetrics(metrics));
+        List<String> lines = new CopyOnWriteArrayList<>();
+        CountDownLatch reported = new CountDownLatch(2);
+        metrics.startReporting(20, report -> {
+            lines.add(report);
+            reported.countDown();
+        });
+        try {
+            assertTrue(reported.await(10, TimeUnit.SECONDS));
+        } finally {
+            metrics.stopReporting();
+        }
+        // The reporter saw the solve once; the JMX view still counts it, however often it is read
+        assertFalse(lines.get(0).contains("rate=0.00/s"), lines.get(0));
+        assertTrue(lines.get(1).contains("rate=0.00/s"), lines.get(1));
+        assertFalse(metrics.getReport().contains("rate=0.00/s"), metrics.getReport());
+    }
+
+    private static SolveMetrics.Summary find(List<SolveMetrics.Summary> summaries, String engine, String size, String outcome) {
+        for (SolveMetrics.Summary summary : summaries) {
+            if (summary.getEngine().equals(engine) && summary.getArmySize().equals(size)
+                    && summary.getOutcome().equals(outcome)) {
+                return summary;
+            }
+        }
+        fail("No series " + engine + "/" + size + "/" + outcome + " in " + summaries);
+        return null;
+    }
+}
@@ -0,0 +1,216 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.Engine;
+import battle.OrderingWeights;
+import battle.SearchControl;
+import battle.SolveOptions;
+import battle.SolveResult;
+import battle.SolveResultCache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class SolveResultCacheTests {
+
+    // The same battle with both armies listed in other orders
+    private static final String STATE = "7,3,11,9;2,8,4,10,1,6,5,1;A;";
+    private static final String PERMUTED = "11,9,7,3;5,1,1,6,2,8,4,10;A;";
+
+    private static final String[] STATES = {
+            "5,3;4,1;A;",
+            "1,1,2,3,6,7;5,5,3,1;A;",
+            "1,1,2,3,6,7;5,5,3,1;B;",
+            "7,3,11,9;2,8,4,10,1,6,5,1;A;",
+            "5,2,5,2,3,1;5,2,0,4,3,1;B;",
+    };
+
+    private static void assertValid(String input, SolveResult result, int expected) {
+        BattleGameChecker.ValidationResult validation =
+                BattleGameChecker.validateSolution(input, result.toString(), expected, true);
+        assertTrue(validation.isValid, input + ": " + validation.errorMessage);
+    }
+
+    @Test
+    public void test_cached_results_match_uncached() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            SolveResultCache cache = new SolveResultCache(64);
+            for (Engine engine : new Engine[] { Engine.ALPHA_BETA, Engine.ALPHA_BETA_TT }) {
+                for (String input : STATES) {
+                    int expected = new BattleSolver().solve(input, new SolveOptions().setEngine(engine)).getScore();
+                    SolveOptions options = new SolveOptions().setEngine(engine).setResultCache(cache);
+                    assertValid(input, new BattleSolver().solve(input, options), expected);
+                    assertValid(input, new BattleSolver().solve(input, options), expected); // from the cache
+                }
+            }
+            SolveResultCache.Stats stats = cache.getStats();
+            assertEquals(2 * STATES.length, stats.getMisses());
+            assertEquals(2 * STATES.length, stats.getHits());
+            assertEquals(0.5, stats.getHitRatio(), 1e-9);
+        });
+    }
+
+    @Test
+    public void test_reordered_armies_hit_and_map_back() {
+        SolveResultCache cache = new SolveResultCache(16);
+        SolveOptions options = new SolveOptions().setEngine(Engine.ALPHA_BETA_TT).setResultCache(cache);
+        SolveResult first = new BattleSolver().solve(STATE, options);
+        SolveResult second = new BattleSolver().solve(PERMUTED, options);
+
+        assertEquals(1, cache.getStats().getMisses());
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(first.getScore(), second.getScore());
+        assertEquals(first.getNodesExpanded(), second.getNodesExpanded());
+        // Each plan is legal for its own unit order
+        assertValid(STATE, first, first.getScore());
+        assertValid(PERMUTED, second, first.getScore());
+        assertNotEquals(first.getPlan(), second.getPlan());
+    }
+
+    @Test
+    public void test_key_includes_starting_player_and_engine() {
+        SolveResultCache cache = new SolveResultCache(16);
+        new BattleSolver().solve("1,1,2,3,6,7;5,5,3,1;A;", new SolveOptions().setResultCache(cache));
+        new BattleSolver().solve("1,1,2,3,6,7;5,5,3,1;B;", new SolveOptions().setResultCache(cache));
+        new BattleSolver().solve("1,1,2,3,6,7;5,5,3,1;A;",
+                new SolveOptions().setEngine(Engine.MINIMAX).setResultCache(cache));
+        assertEquals(3, cache.getStats().getMisses());
+        assertEquals(0, cache.getStats().getHits());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void test_key_includes_options_that_change_the_result() {
+        SolveResultCache cache = new SolveResultCache(16);
+        SolveOptions first = new SolveOptions().setOrderingWeights(new OrderingWeights(1, 0, 0, 0));
+        SolveOptions second = new SolveOptions().setOrderingWeights(new OrderingWeights(0, 0, 0, 5));
+        new BattleSolver().solve(STATE, first.copy().setResultCache(cache));
+        SolveResult cached = new BattleSolver().solve(STATE, second.copy().setResultCache(cache));
+        SolveResult alone = new BattleSolver().solve(STATE, second.copy().setResultCache(new SolveResultCache(1)));
+        assertEquals(alone.toString(), cached.toString());
+
+        new BattleSolver().solve(STATE, new SolveOptions().setEngine(Engine.ALPHA_BETA_TT).setTableBytes(1 << 16)
+                .setResultCache(cache));
+        new BattleSolver().solve(STATE, new SolveOptions().setEngine(Engine.ALPHA_BETA_TT).setResultCache(cache));
+        new BattleSolver().solve(STATE, new SolveOptions().setMemoryBudgetBytes(64L << 20).setResultCache(cache));
+        assertEquals(5, cache.getStats().getMisses());
+
+        new BattleSolver().solve(STATE, new SolveOptions().setEngine(Engine.ALPHA_BETA_TT).setKeepTable(true)
+                .setResultCache(cache));
+        assertEquals(5, cache.getStats().getMisses()); // a kept table bypasses the cache
+        assertEquals(0, cache.getStats().getHits());
+    }
+
+    @Test
+    public void test_least_recently_used_evicted() {
+        SolveResultCache cache = new SolveResultCache(2);
+        SolveOptions options = new SolveOptions().setResultCache(cache);
+        BattleSolver solver = new BattleSolver();
+        solver.solve(STATES[0], options);
+        solver.solve(STATES[1], options);
+        solver.solve(STATES[0], options); // hit: STATES[1] is now the eldest
+        solver.solve(STATES[2], options); // evicts STATES[1]
+        assertEquals(1, cache.getStats().getEvictions());
+        solver.solve(STATES[0], options);
+        assertEquals(2, cache.getStats().getHits());
+        solver.solve(STATES[1], options);
+        assertEquals(4, cache.getStats().getMisses());
+        assertEquals(2, cache.getStats().getEvictions());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void test_concurrent_identical_requests_computed_once() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            String[] variants = {
+                    "5,3,5,3,5,3,7,3;6,4,6,4,4,3;B;",
+                    "7,3,5,3,5,3,5,3;4,3,6,4,6,4;B;",
+                    "5,3,7,3,5,3,5,3;6,4,4,3,6,4;B;",
+            };
+            int expected = new BattleSolver().solve(variants[0], new SolveOptions()).getScore();
+            SolveResultCache cache = new SolveResultCache(16);
+            int requests = 8;
+            ExecutorService pool = Executors.newFixedThreadPool(requests);
+            try {
+                CountDownLatch go = new CountDownLatch(1);
+                List<Future<SolveResult>> futures = new ArrayList<>();
+                for (int r = 0; r < requests; r++) {
+                    String input = variants[r % variants.length];
+                    futures.add(pool.submit(() -> {
+                        go.await();
+                        return new BattleSolver().solve(input, new SolveOptions().setResultCache(cache));
+                    }));
+                }
+                go.countDown();
+                for (int r = 0; r < requests; r++) {
+                    assertValid(variants[r % variants.length], futures.get(r).get(), expected);
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+            SolveResultCache.Stats stats = cache.getStats();
+            assertEquals(1, stats.getMisses(), stats.toString());
+            assertEquals(requests - 1, stats.getHits() + stats.getCoalesced(), stats.toString());
+        });
+    }
+
+    @Test
+    public void test_incomplete_and_approximate_results_not_cached() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            SolveResultCache cache = new SolveResultCache(16);
+            String huge = "20,3,19,3,18,3,17,3,16,3,15,3;20,3,19,3,18,3,17,3,16,3,15,3;A;";
+            SolveResult timedOut = new BattleSolver().solve(huge,
+                    new SolveOptions().setDeadlineMillis(50).setResultCache(cache));
+            assertEquals(SolveResult.Status.TIMEOUT, timedOut.getStatus());
+            assertEquals(0, cache.size());
+
+            new BattleSolver().solve(STATE, new SolveOptions().setEngine(Engine.MCTS).setResultCache(cache));
+            assertEquals(0, cache.size());
+            assertEquals(1, cache.getStats().getMisses()); // the MCTS solve bypassed the cache entirely
+        });
+    }
+
+    @Test
+    public void test_waiting_request_keeps_its_own_deadline_and_control() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            SolveResultCache cache = new SolveResultCache(16);
+            String huge = "20,3,19,3,18,3,17,3,16,3,15,3;20,3,19,3,18,3,17,3,16,3,15,3;A;";
+            SearchControl leaderControl = new SearchControl();
+            CompletableFuture<SolveResult> leader = new BattleSolver().solveAsync(huge,
+                    new SolveOptions().setControl(leaderControl).setResultCache(cache));
+            while (cache.getStats().getMisses() == 0) {
+                Thread.sleep(1); // until the unbounded leader is searching
+            }
+
+            long start = System.nanoTime();
+            SolveResult timedOut = new BattleSolver().solve(huge,
+                    new SolveOptions().setDeadlineMillis(100).setResultCache(cache));
+            assertEquals(SolveResult.Status.TIMEOUT, timedOut.getStatus());
+            assertTrue(System.nanoTime() - start < 5_000_000_000L, "The waiting request ignored its deadline");
+
+            SearchControl control = new SearchControl();
+            CompletableFuture<SolveResult> waiting = new BattleSolver().solveAsync(huge,
+                    new SolveOptions().setControl(control).setResultCache(cache));
+            Thread.sleep(50);
+            control.cancel();
+            assertEquals(SolveResult.Status.CANCELLED, waiting.get().getStatus());
+            assertEquals(SolveResult.Status.CANCELLED, control.getResult().getStatus());
+            assertEquals(2, cache.getStats().getCoalesced());
+
+            leaderControl.cancel();
+            assertEquals(SolveResult.Status.CANCELLED, leader.get().getStatus());
+        });
+    }
+}
@@ -0,0 +1,118 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.SolutionTraceWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class TraceExportTests {
+
+    @Test
+    public void test_text_matches_visualization_layout() {
+        String initialState = "5,3;4,1;A;";
+        String plan = new BattleSolver().solve(initialState, true, false).split(";")[0];
+        assertEquals("A(0,0),B(0,0),A(0,0)", plan);
+
+        StringBuilder out = new StringBuilder();
+        SolutionTraceWriter.write(initialState, plan, SolutionTraceWriter.Format.TEXT, out);
+        String expected = "=== Solution Visualization ===\n"
+                + "\nStep 0:\nArmy A: [H:5 D:3] \nArmy B: [H:4 D:1] \nCurrent Player: A\nTotal Health A: 5\nTotal Health B: 4\n"
+                + "\nStep 1:\nAction: A(0,0)\nArmy A: [H:5 D:3] \nArmy B: [H:1 D:1] \nCurrent Player: B\nTotal Health A: 5\nTotal Health B: 1\n"
+                + "\nStep 2:\nAction: B(0,0)\nArmy A: [H:4 D:3] \nArmy B: [H:1 D:1] \nCurrent Player: A\nTotal Health A: 4\nTotal Health B: 1\n"
+                + "\nStep 3:\nAction: A(0,0)\nArmy A: [H:4 D:3] \nArmy B: [H:0 D:1] \nCurrent Player: B\nTotal Health A: 4\nTotal Health B: 0\n"
+                + "\n=== End Visualization ===\n";
+        assertEquals(expected, out.toString());
+    }
+
+    @Test
+    public void test_ndjson_one_line_per_step() {
+        String initialState = "1,1,2,3,6,7;5,5,3,1;A;";
+        String plan = new BattleSolver().solve(initialState, true, false).split(";")[0];
+        StringBuilder out = new StringBuilder();
+        SolutionTraceWriter.write(initialState, plan, SolutionTraceWriter.Format.NDJSON, out);
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(plan.split("\\),").length + 1, lines.length);
+        assertEquals("{\"step\":0,\"action\":null,\"player\":\"A\",\"healthA\":[1,2,6],\"healthB\":[5,3],"
+                + "\"damageA\":[1,3,7],\"damageB\":[5,1],\"totalA\":9,\"totalB\":8}", lines[0]);
+        assertTrue(lines[1].startsWith("{\"step\":1,\"action\":\"A("));
+        assertTrue(lines[lines.length - 1].contains("\"totalB\":0}") || lines[lines.length - 1].contains("\"totalA\":0,"));
+    }
+
+    @Test
+    public void test_binary_round_trip() {
+        String initialState = "7,3,11,9;2,8,4,10,1,6,5,1;B;";
+        String plan = new BattleSolver().solve(initialState, true, false).split(";")[0];
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SolutionTraceWriter.write(initialState, plan, SolutionTraceWriter.Format.BINARY, Channels.newChannel(bytes));
+
+        SolutionTraceWriter.Trace trace = SolutionTraceWriter.readBinary(
+                Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(initialState, trace.getInitialState());
+        assertEquals(plan, trace.getPlan());
+    }
+
+    @Test
+    public void test_long_plan_is_fast() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            // 39999 steps: with add(0, ...) and per-unit prints this took far longer than the search
+            String initialState = "20000,1,3,1;20000,1,3,1;A;";
+            StringBuilder plan = new StringBuilder();
+            for (int i = 0; i < 39999; i++) {
+                if (i > 0) plan.append(',');
+                plan.append(i % 2 == 0 ? "A(0,0)" : "B(0,0)");
+            }
+
+            long start = System.nanoTime();
+            StringBuilder text = new StringBuilder();
+            SolutionTraceWriter.write(initialState, plan.toString(), SolutionTraceWriter.Format.TEXT, text);
+            ByteArrayOutputStream json = new ByteArrayOutputStream();
+            SolutionTraceWriter.write(initialState, plan.toString(), SolutionTraceWriter.Format.NDJSON, Channels.newChannel(json));
+            ByteArrayOutputStream binary = new ByteArrayOutputStream();
+            SolutionTraceWriter.write(initialState, plan.toString(), SolutionTraceWriter.Format.BINARY, Channels.newChannel(binary));
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            assertTrue(binary.size() < plan.length() / 2, "Binary trace should be compact: " + binary.size() + " bytes");
+            assertTrue(text.toString().contains("\nStep 39999:\n"));
+            assertEquals(40000, json.toString().split("\n").length);
+            assertTrue(millis < 5000, "Rendering 40k steps took " + millis + " ms");
+        });
+    }
+
+    @Test
+    public void test_async_write_off_solving_thread() throws Exception {
+        String initialState = "1,10,5,2,3,5;6,7,3,1,13,4;A;";
+        String plan = new BattleSolver().solve(initialState, true, false).split(";")[0];
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ByteArrayOutputStream async = new ByteArrayOutputStream();
+            SolutionTraceWriter.writeAsync(initialState, plan, SolutionTraceWriter.Format.NDJSON,
+                    Channels.newChannel(async), executor).get();
+
+            StringBuilder sync = new StringBuilder();
+            SolutionTraceWriter.write(initialState, plan, SolutionTraceWriter.Format.NDJSON, sync);
+            assertEquals(sync.toString(), async.toString());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void test_illegal_plan_rejected() {
+        assertThrows(IllegalArgumentException.class, () ->
+                SolutionTraceWriter.write("5,3;4,1;A;", "B(0,0)", SolutionTraceWriter.Format.TEXT, new StringBuilder()));
+        assertThrows(IllegalArgumentException.class, () ->
+                SolutionTraceWriter.write("5,3;4,1;A;", "", SolutionTraceWriter.Format.BINARY, new StringBuilder()));
+    }
+}
@@ -0,0 +1,171 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.BattleSolver;
+import battle.Engine;
+import battle.OffHeapTranspositionTable;
+import battle.SearchControl;
+import battle.SolveOptions;
+import battle.SolveResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.time.Duration;
+
+public class TranspositionTableTests {
+
+    private static final String[] STATES = {
+            "5,3;4,1;A;",
+            "5,3;4,1;B;",
+            "1,1,2,3,6,7;5,5,3,1;A;",
+            "1,1,2,3,6,7;5,5,3,1;B;",
+            "7,3,11,9;2,8,4,10,1,6,5,1;A;",
+            "7,3,11,9;2,8,4,10,1,6,5,1;B;",
+            "1,10,5,2,3,5;6,7,3,1,13,4;A;",
+    };
+
+    @Test
+    public void test_same_value_as_alphabeta() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            BattleSolver solver = new BattleSolver();
+            for (String initialState : STATES) {
+                String[] exact = new BattleSolver().solve(initialState, true, false).split(";");
+                SolveResult result = solver.solve(initialState, new SolveOptions().setEngine(Engine.ALPHA_BETA_TT));
+
+                assertEquals(Integer.parseInt(exact[1]), result.getScore(), "Value mismatch for " + initialState);
+                assertTrue(result.isExact());
+                BattleGameChecker.ValidationResult validation =
+                        BattleGameChecker.validateSolution(initialState, result.toString(), result.getScore(), true);
+                assertTrue(validation.isValid, "Plan should reach the game value: " + validation.errorMessage);
+            }
+        });
+    }
+
+    @Test
+    public void test_expands_fewer_nodes() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            String initialState = "1,10,5,2,3,5;6,7,3,1,13,4;A;";
+            long plain = new BattleSolver().solve(initialState, new SolveOptions()).getNodesExpanded();
+            long cached = new BattleSolver().solve(initialState,
+                    new SolveOptions().setEngine(Engine.ALPHA_BETA_TT)).getNodesExpanded();
+            assertTrue(cached < plain, "Transposition table should save nodes: " + cached + " vs " + plain);
+        });
+    }
+
+    @Test
+    public void test_kept_table_gives_same_answer() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            BattleSolver solver = new BattleSolver();
+            SolveOptions options = new SolveOptions().setEngine(Engine.ALPHA_BETA_TT).setKeepTable(true);
+            SolveResult first = solver.solve("7,3,11,9;2,8,4,10,1,6,5,1;A;", options);
+            SolveResult second = solver.solve("7,3,11,9;2,8,4,10,1,6,5,1;A;", options);
+            // Same armies, other starting player: the starting side must be part of the key
+            SolveResult flipped = solver.solve("7,3,11,9;2,8,4,10,1,6,5,1;B;", options);
+
+            assertEquals(first.getScore(), second.getScore());
+            assertTrue(second.getNodesExpanded() < first.getNodesExpanded(), "Warm table should be reused");
+            assertEquals(new BattleSolver().solve("7,3,11,9;2,8,4,10,1,6,5,1;B;",
+                    new SolveOptions().setEngine(Engine.ALPHA_BETA_TT)).getScore(), flipped.getScore());
+        });
+    }
+
+    @Test
+    public void test_kept_table_separates_scenarios() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            // Same health layouts, different damages: entries of one must never answer the other
+            String[][] pairs = {
+                    { "5,5;5,1;A;", "5,1;5,5;A;" },
+                    { "5,5,9,1;5,1,9,2;A;", "5,1,9,3;5,5,9,1;A;" },
+            };
+            for (String[] pair : pairs) {
+                BattleSolver solver = new BattleSolver();
+                SolveOptions options = new SolveOptions().setEngine(Engine.ALPHA_BETA_TT).setKeepTable(true);
+                solver.solve(pair[0], options);
+                SolveResult second = solver.solve(pair[1], options);
+
+                assertEquals(Integer.parseInt(new BattleSolver().solve(pair[1], true, false).split(";")[1]),
+                        second.getScore(), "Value mismatch for " + pair[1]);
+                BattleGameChecker.ValidationResult validation =
+                        BattleGameChecker.validateSolution(pair[1], second.toString(), second.getScore(), true);
+                assertTrue(validation.isValid, "Plan should reach the game value: " + validation.errorMessage);
+            }
+        });
+    }
+
+    @Test
+    public void test_stopped_search_returns_best_root_line() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(100), () -> {
+            // The first root move takes most of the search; cancel as soon as it is reported
+            String initialState = "20,3,19,3,18,3,17,3,16,3,15,3;20,3,19,3,18,3,17,3,16,3,15,3;A;";
+            SearchControl control = new SearchControl();
+            SolveResult result = new BattleSolver().solve(initialState, new SolveOptions()
+                    .setEngine(Engine.ALPHA_BETA_TT).setControl(control).setProgressIntervalMillis(5)
+                    .setListener(progress -> {
+                        if (!progress.getBestLine().isEmpty()) control.cancel();
+                    }));
+
+            assertEquals(SolveResult.Status.CANCELLED, result.getStatus());
+            assertTrue(result.getNodesExpanded() > 0);
+            BattleGameChecker.ValidationResult validation =
+                    BattleGameChecker.validateSolution(initialState, result.toString(), result.getScore(), false);
+            assertTrue(validation.isValid, "Partial line should be a legal game: " + validation.errorMessage);
+        });
+    }
+
+    @Test
+    public void test_store_probe_and_clear() {
+        OffHeapTranspositionTable table = new OffHeapTranspositionTable(1 << 12);
+        assertEquals(256, table.capacity());
+
+        table.store(42L, -17, OffHeapTranspositionTable.LOWER, 5, 1000);
+        long data = table.probe(42L);
+        assertNotEquals(0L, data);
+        assertEquals(-17, OffHeapTranspositionTable.valueOf(data));
+        assertEquals(OffHeapTranspositionTable.LOWER, OffHeapTranspositionTable.boundOf(data));
+        assertEquals(5, OffHeapTranspositionTable.moveOf(data));
+        assertEquals(0L, table.probe(43L));
+
+        table.clear();
+        assertEquals(0L, table.probe(42L));
+        assertEquals(0L, table.getStores());
+    }
+
+    @Test
+    public void test_replacement_prefers_old_generation() {
+        OffHeapTranspositionTable table = new OffHeapTranspositionTable(64); // one bucket of four
+        for (long key = 1; key <= 4; key++) {
+            table.store(key, (int) key, OffHeapTranspositionTable.EXACT, OffHeapTranspositionTable.NO_MOVE, 1_000_000);
+        }
+        table.newSearch();
+        for (long key = 5; key <= 7; key++) {
+            table.store(key, (int) key, OffHeapTranspositionTable.EXACT, OffHeapTranspositionTable.NO_MOVE, 1);
+        }
+        // Three expensive but old entries were evicted before any new cheap one
+        int survivors = 0;
+        for (long key = 1; key <= 4; key++) {
+            if (table.probe(key) != 0) survivors++;
+        }
+        assertEquals(1, survivors);
+        for (long key = 5; key <= 7; key++) {
+            assertNotEquals(0L, table.probe(key));
+        }
+        assertEquals(3, table.getReplacements());
+    }
+
+    @Test
+    public void test_heap_stays_flat() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+        OffHeapTranspositionTable table = new OffHeapTranspositionTable(256L << 20);
+        table.clear();
+        System.gc();
+        long after = runtime.totalMemory() - runtime.freeMemory();
+
+        assertEquals(256L << 20, table.sizeInBytes());
+        assertTrue(after - before < (16L << 20), "A 256 MB table should not grow the heap, grew by " + (after - before));
+    }
+}
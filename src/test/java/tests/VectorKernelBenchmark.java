@@ -0,0 +1,76 @@
+package tests;
+
+import battle.ArmyKernels;
+
+import java.util.Random;
+
+/**
+ * Measures the scalar and vector army kernels per army size and prints
+ * where the vector path starts to pay off. Not a test (the class name does
+ * not match the surefire patterns); run it after test-compile with
+ *
+ * java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes tests.VectorKernelBenchmark
+ *
+ * and pass the crossover it reports as -Dbattle.kernels.minUnits=n. The
+ * vector kernels are measured with minUnits=0 so they never delegate.
+ */
+public class VectorKernelBenchmark {
+
+    private static final int[] SIZES = { 4, 8, 16, 24, 32, 48, 64, 128, 256, 1024, 4096 };
+    private static final long TARGET_NANOS = 200_000_000L;
+
+    public static void main(String[] args) {
+        System.setProperty("battle.kernels.minUnits", "0"); // before ArmyKernels initializes
+        ArmyKernels scalar = ArmyKernels.scalar();
+        ArmyKernels vector = ArmyKernels.vector();
+        if (vector == null) {
+            System.out.println("Vector kernels not available: build with mvn -Pvector and run with --add-modules jdk.incubator.vector");
+            return;
+        }
+        System.out.println("size   sum(scalar/vector ns)   bestTarget(scalar/vector ns)   killMask(scalar/vector ns)");
+        int crossover = -1;
+        Random random = new Random(1);
+        for (int size : SIZES) {
+            int[] health = new int[size];
+            for (int i = 0; i < size; i++) {
+                health[i] = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(20);
+            }
+            long[] mask = new long[(size + 63) / 64];
+            double[] ns = new double[6];
+            for (int k = 0; k < 2; k++) {
+                ArmyKernels kernels = k == 0 ? scalar : vector;
+                ns[k] = time(() -> kernels.sumHealth(health));
+                ns[2 + k] = time(() -> kernels.bestTarget(health, 7));
+                ns[4 + k] = time(() -> kernels.killMask(health, 7, mask));
+            }
+            System.out.printf("%5d   %8.1f / %-8.1f        %8.1f / %-8.1f               %8.1f / %-8.1f%n",
+                    size, ns[0], ns[1], ns[2], ns[3], ns[4], ns[5]);
+            if (crossover < 0 && ns[3] < ns[2]) {
+                crossover = size; // bestTarget is the kernel on the playout hot path
+            }
+        }
+        System.out.println(crossover < 0 ? "vector never faster" : "crossover: " + crossover + " units");
+    }
+
+    private static int sink;
+
+    // Average nanoseconds per call, measured after a warm-up run of the same length
+    private static double time(java.util.function.IntSupplier op) {
+        run(op);
+        return run(op);
+    }
+
+    private static double run(java.util.function.IntSupplier op) {
+        long calls = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < 1000; i++) {
+                sink += op.getAsInt();
+            }
+            calls += 1000;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < TARGET_NANOS);
+        return (double) elapsed / calls;
+    }
+}
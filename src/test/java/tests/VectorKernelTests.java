@@ -0,0 +1,96 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+
+import battle.ArmyKernels;
+import battle.BattleSolver;
+import battle.Engine;
+import battle.SolveOptions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Random;
+
+public class VectorKernelTests {
+
+    private static final int[] SIZES = { 0, 1, 3, 7, 8, 15, 16, 31, 32, 33, 63, 64, 65, 100, 128, 257, 1000 };
+
+    private static int[] randomHealth(Random random, int size) {
+        int[] health = new int[size];
+        for (int i = 0; i < size; i++) {
+            // about a quarter of the units dead
+            health[i] = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(20);
+        }
+        return health;
+    }
+
+    @Test
+    public void test_vector_kernels_available() {
+        assertEquals("scalar", ArmyKernels.scalar().name());
+        // Built and put on the module path only with -Pvector; scalar otherwise
+        assumeTrue(ArmyKernels.vector() != null, "vector kernels not built (mvn -Pvector)");
+        assertSame(ArmyKernels.vector(), ArmyKernels.get());
+    }
+
+    @Test
+    public void test_vector_matches_scalar() {
+        assumeTrue(ArmyKernels.vector() != null, "vector kernels not built (mvn -Pvector)");
+        ArmyKernels scalar = ArmyKernels.scalar();
+        ArmyKernels vector = ArmyKernels.vector();
+        Random random = new Random(37);
+        for (int size : SIZES) {
+            for (int round = 0; round < 50; round++) {
+                int[] health = randomHealth(random, size);
+                int damage = 1 + random.nextInt(25);
+                assertEquals(scalar.sumHealth(health), vector.sumHealth(health), "sum, size " + size);
+                assertEquals(scalar.bestTarget(health, damage), vector.bestTarget(health, damage), "best, size " + size);
+
+                long[] scalarMask = new long[(size + 63) / 64];
+                long[] vectorMask = new long[(size + 63) / 64];
+                java.util.Arrays.fill(vectorMask, -1L); // must be cleared by the kernel
+                assertEquals(scalar.killMask(health, damage, scalarMask), vector.killMask(health, damage, vectorMask));
+                assertArrayEquals(scalarMask, vectorMask, "kill mask, size " + size);
+            }
+        }
+    }
+
+    @Test
+    public void test_scalar_semantics() {
+        ArmyKernels kernels = ArmyKernels.scalar();
+        int[] health = { 0, 4, 9, 3, 9 };
+        assertEquals(25, kernels.sumHealth(health));
+        // 4 damage kills units 1 and 3; the bigger kill (4 health) wins
+        assertEquals(1, kernels.bestTarget(health, 4));
+        // no kill possible: same damage everywhere, the first living unit
+        assertEquals(1, kernels.bestTarget(health, 2));
+        assertEquals(-1, kernels.bestTarget(new int[] { 0, 0 }, 5));
+
+        long[] mask = new long[1];
+        assertEquals(2, kernels.killMask(health, 4, mask));
+        assertEquals(0b01010L, mask[0]);
+    }
+
+    @Test
+    public void test_large_army_solve_unchanged() {
+        // 70 units per side: multi-word masks and vector-length arrays through the MCTS greedy policy
+        StringBuilder a = new StringBuilder();
+        StringBuilder b = new StringBuilder();
+        for (int i = 0; i < 70; i++) {
+            if (i > 0) {
+                a.append(',');
+                b.append(',');
+            }
+            a.append(3 + i % 7).append(',').append(1 + i % 5);
+            b.append(2 + i % 9).append(',').append(1 + i % 4);
+        }
+        String initialState = a + ";" + b + ";A;";
+        SolveOptions options = new SolveOptions().setEngine(Engine.MCTS).setMaxIterations(200).setSeed(11);
+        String first = new BattleSolver().solve(initialState, options).getPlan();
+        String second = new BattleSolver().solve(initialState, options).getPlan();
+        assertEquals(first, second);
+        BattleGameChecker.ValidationResult validation = BattleGameChecker.validateSolution(initialState,
+                first + ";0;0", 0, false);
+        assertTrue(validation.isValid, validation.errorMessage);
+    }
+}